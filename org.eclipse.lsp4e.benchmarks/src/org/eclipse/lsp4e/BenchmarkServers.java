@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import org.eclipse.lsp4e.LanguageServersRegistry.LanguageServerDefinition;
+import org.eclipse.lsp4e.server.StreamConnectionProvider;
+
+/**
+ * Wrappers of a language server that is never started, for benchmarks of code
+ * that only keeps a reference to the wrapper of the server which produced its
+ * input.
+ */
+public final class BenchmarkServers {
+
+	private static final LanguageServerDefinition DEFINITION = new LanguageServerDefinition(
+			"org.eclipse.lsp4e.benchmarks", "Benchmarks", false, 0) { //$NON-NLS-1$ //$NON-NLS-2$
+		@Override
+		public StreamConnectionProvider createConnectionProvider() {
+			throw new UnsupportedOperationException();
+		}
+	};
+
+	private BenchmarkServers() {
+	}
+
+	public static String getServerId() {
+		return DEFINITION.id;
+	}
+
+	public static LanguageServerWrapper createWrapper() {
+		return new LanguageServerWrapper(DEFINITION, null);
+	}
+
+	public static void dispose(LanguageServerWrapper wrapper) {
+		wrapper.stopDispatcher();
+	}
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokenTypes;
+import org.eclipse.lsp4j.SemanticTokensLegend;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * Generates large, deterministic inputs shaped like the responses of real
+ * language servers.
+ */
+public final class BenchmarkFixtures {
+
+	public static final SemanticTokensLegend LEGEND = new SemanticTokensLegend(
+			List.of(SemanticTokenTypes.Keyword, SemanticTokenTypes.Type, SemanticTokenTypes.Variable,
+					SemanticTokenTypes.Method, SemanticTokenTypes.Property, SemanticTokenTypes.Comment),
+			List.of(SemanticTokenModifiers.Declaration, SemanticTokenModifiers.Static,
+					SemanticTokenModifiers.Deprecated));
+
+	private static final String[] KEYWORDS = { "final", "var", "return", "if", "for", "new" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+	private BenchmarkFixtures() {
+	}
+
+	/**
+	 * @return source-like text of the given number of lines, with a word every
+	 *         few characters
+	 */
+	public static String text(int lines) {
+		final var random = new Random(lines);
+		final var text = new StringBuilder(lines * 48);
+		for (int line = 0; line < lines; line++) {
+			text.append("\t".repeat(1 + random.nextInt(4))); //$NON-NLS-1$
+			final int words = 2 + random.nextInt(6);
+			for (int word = 0; word < words; word++) {
+				text.append(word % 3 == 0 ? KEYWORDS[random.nextInt(KEYWORDS.length)] : identifier(random));
+				text.append(word + 1 < words ? ' ' : ';');
+			}
+			text.append('\n');
+		}
+		return text.toString();
+	}
+
+	/**
+	 * @return identifiers of varying length and case, sharing common prefixes
+	 */
+	public static List<String> identifiers(int count) {
+		final var random = new Random(count);
+		final var identifiers = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			identifiers.add(identifier(random));
+		}
+		return identifiers;
+	}
+
+	private static String identifier(Random random) {
+		final int length = 3 + random.nextInt(14);
+		final var identifier = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			final char c = (char) ('a' + random.nextInt(i == 0 ? 6 : 26));
+			identifier.append(i > 0 && random.nextInt(5) == 0 ? Character.toUpperCase(c) : c);
+		}
+		return identifier.toString();
+	}
+
+	/**
+	 * @return the relative encoded semantic tokens of all the words of the text
+	 */
+	public static List<Integer> semanticTokens(String text) {
+		final var random = new Random(text.length());
+		final var data = new ArrayList<Integer>(text.length() / 2);
+		int previousLine = 0;
+		int previousColumn = 0;
+		int line = 0;
+		int column = 0;
+		int wordStart = -1;
+		for (int i = 0; i <= text.length(); i++) {
+			final char c = i < text.length() ? text.charAt(i) : '\n';
+			if (Character.isLetter(c)) {
+				if (wordStart < 0) {
+					wordStart = column;
+				}
+			} else if (wordStart >= 0) {
+				data.add(line - previousLine);
+				data.add(line == previousLine ? wordStart - previousColumn : wordStart);
+				data.add(column - wordStart);
+				data.add(random.nextInt(LEGEND.getTokenTypes().size()));
+				data.add(random.nextInt(8) == 0 ? 1 << random.nextInt(LEGEND.getTokenModifiers().size()) : 0);
+				previousLine = line;
+				previousColumn = wordStart;
+				wordStart = -1;
+			}
+			if (c == '\n') {
+				line++;
+				column = 0;
+			} else {
+				column++;
+			}
+		}
+		return data;
+	}
+
+	/**
+	 * @return sorted, non-overlapping edits spread over the whole document, like
+	 *         the ones of a formatting request
+	 */
+	public static List<TextEdit> formattingEdits(IDocument document, int count) throws BadLocationException {
+		final var random = new Random(count);
+		final int lines = document.getNumberOfLines() - 1;
+		final var edits = new ArrayList<TextEdit>(count);
+		final int step = Math.max(1, lines / count);
+		for (int line = 0; line < lines && edits.size() < count; line += step) {
+			final int lineLength = document.getLineLength(line) - 1;
+			final int start = random.nextInt(Math.max(1, lineLength));
+			final int end = Math.min(lineLength, start + random.nextInt(4));
+			edits.add(new TextEdit(new Range(new Position(line, start), new Position(line, end)),
+					" ".repeat(random.nextInt(3)))); //$NON-NLS-1$
+		}
+		return edits;
+	}
+
+	/**
+	 * @return positions spread over the whole text
+	 */
+	public static List<Position> positions(String text, int count) throws BadLocationException {
+		final var random = new Random(count);
+		final LineIndex lineIndex = LineIndex.of(text);
+		final var positions = new ArrayList<Position>(count);
+		for (int i = 0; i < count; i++) {
+			positions.add(lineIndex.toPosition(random.nextInt(text.length())));
+		}
+		return positions;
+	}
+
+	/**
+	 * @return diagnostics spread over the whole text, some with empty ranges
+	 */
+	public static List<Diagnostic> diagnostics(String text, int count) throws BadLocationException {
+		final var random = new Random(count);
+		final DiagnosticSeverity[] severities = DiagnosticSeverity.values();
+		final var diagnostics = new ArrayList<Diagnostic>(count);
+		for (final Position start : positions(text, count)) {
+			final var end = new Position(start.getLine(), start.getCharacter() + random.nextInt(3) * 4);
+			final var diagnostic = new Diagnostic(new Range(start, end), "Unexpected token " + identifier(random), //$NON-NLS-1$
+					severities[random.nextInt(severities.length)], "benchmark"); //$NON-NLS-1$
+			diagnostic.setCode("E" + random.nextInt(100)); //$NON-NLS-1$
+			diagnostics.add(diagnostic);
+		}
+		return diagnostics;
+	}
+
+	/**
+	 * @return a hierarchy of document symbols, the given number of types each
+	 *         with the given number of members
+	 */
+	public static List<Either<SymbolInformation, DocumentSymbol>> documentSymbols(int types, int members) {
+		final var random = new Random(types * members);
+		final var symbols = new ArrayList<Either<SymbolInformation, DocumentSymbol>>(types);
+		int line = 0;
+		for (int type = 0; type < types; type++) {
+			final int typeStart = line++;
+			final var children = new ArrayList<DocumentSymbol>(members);
+			for (int member = 0; member < members; member++) {
+				final int memberStart = line;
+				line += 1 + random.nextInt(20);
+				children.add(symbol(identifier(random), member % 4 == 0 ? SymbolKind.Field : SymbolKind.Method,
+						memberStart, line++, null));
+			}
+			symbols.add(Either.forRight(symbol(identifier(random), SymbolKind.Class, typeStart, line++, children)));
+		}
+		return symbols;
+	}
+
+	/**
+	 * @return the flat symbol information equivalent of
+	 *         {@link #documentSymbols(int, int)}, as returned by older servers
+	 */
+	public static List<Either<SymbolInformation, DocumentSymbol>> symbolInformation(int types, int members) {
+		final var symbols = new ArrayList<Either<SymbolInformation, DocumentSymbol>>(types * (members + 1));
+		for (final Either<SymbolInformation, DocumentSymbol> type : documentSymbols(types, members)) {
+			addSymbolInformation(type.getRight(), null, symbols);
+		}
+		return symbols;
+	}
+
+	@SuppressWarnings("deprecation")
+	private static void addSymbolInformation(DocumentSymbol symbol, @Nullable String containerName,
+			List<Either<SymbolInformation, DocumentSymbol>> symbols) {
+		symbols.add(Either.forLeft(new SymbolInformation(symbol.getName(), symbol.getKind(),
+				new Location("file:///benchmark/Symbols.java", symbol.getRange()), containerName))); //$NON-NLS-1$
+		final List<DocumentSymbol> children = symbol.getChildren();
+		if (children != null) {
+			for (final DocumentSymbol child : children) {
+				addSymbolInformation(child, symbol.getName(), symbols);
+			}
+		}
+	}
+
+	private static DocumentSymbol symbol(String name, SymbolKind kind, int startLine, int endLine,
+			@Nullable List<DocumentSymbol> children) {
+		final var range = new Range(new Position(startLine, 0), new Position(endLine, 1));
+		final var selectionRange = new Range(new Position(startLine, 4), new Position(startLine, 4 + name.length()));
+		return new DocumentSymbol(name, kind, range, selectionRange, null, children);
+	}
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import static org.junit.Assert.assertFalse;
+
+import java.util.Collection;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks selected by the <code>jmh.include</code> system property
+ * inside the test runtime.
+ * <p>
+ * The benchmarks are not forked: a forked JVM would not be an OSGi runtime and
+ * could not load the LSP4E bundles. Results are thus only comparable between
+ * runs on the same machine, use the JSON file written to
+ * <code>jmh.result</code> to compare a change against its baseline.
+ */
+public class BenchmarksTest {
+
+	@Test
+	public void runBenchmarks() throws RunnerException {
+		final var options = new OptionsBuilder() //
+				.include(System.getProperty("jmh.include", ".*")) //$NON-NLS-1$ //$NON-NLS-2$
+				.forks(0) //
+				.warmupIterations(3) //
+				.warmupTime(TimeValue.seconds(1)) //
+				.measurementIterations(5) //
+				.measurementTime(TimeValue.seconds(1)) //
+				.shouldFailOnError(true) //
+				.resultFormat(ResultFormatType.JSON) //
+				.result(System.getProperty("jmh.result", "target/jmh-result.json")) //$NON-NLS-1$ //$NON-NLS-2$
+				.build();
+		final Collection<RunResult> results = new Runner(options).run();
+		assertFalse("No benchmark matched " + System.getProperty("jmh.include"), results.isEmpty()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.lateNonNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextEdit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Conversions of LSP positions to document offsets and application of the
+ * edits of a formatting response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PositionsBenchmark {
+
+	@Param({ "1000", "20000" })
+	public int lines;
+
+	private String text = lateNonNull();
+	private IDocument document = lateNonNull();
+	private List<Position> positions = lateNonNull();
+	private List<TextEdit> edits = lateNonNull();
+	private IDocument editedDocument = lateNonNull();
+
+	@Setup
+	public void setup() throws BadLocationException {
+		text = BenchmarkFixtures.text(lines);
+		document = new Document(text);
+		positions = BenchmarkFixtures.positions(text, 1000);
+		edits = BenchmarkFixtures.formattingEdits(document, lines / 4);
+	}
+
+	@Setup(Level.Invocation)
+	public void resetEditedDocument() {
+		editedDocument = new Document(text);
+	}
+
+	@Benchmark
+	public void toOffset(Blackhole blackhole) throws BadLocationException {
+		for (final Position position : positions) {
+			blackhole.consume(LSPEclipseUtils.toOffset(position, document));
+		}
+	}
+
+	@Benchmark
+	public IDocument applyEdits() throws BadLocationException {
+		LSPEclipseUtils.applyEdits(editedDocument, edits);
+		return editedDocument;
+	}
+}
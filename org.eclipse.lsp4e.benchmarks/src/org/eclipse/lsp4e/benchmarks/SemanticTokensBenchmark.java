@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.lateNonNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.TextAttribute;
+import org.eclipse.jface.text.TextPresentation;
+import org.eclipse.jface.text.rules.IToken;
+import org.eclipse.jface.text.rules.Token;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensDataStreamProcessor;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensStore;
+import org.eclipse.lsp4e.operations.semanticTokens.StyleRangeHolder;
+import org.eclipse.lsp4e.operations.semanticTokens.StyleRangeMerger;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.StyleRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Decoding of a full semantic tokens response and merging of the resulting
+ * styles into the presentation of a visible region.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SemanticTokensBenchmark {
+
+	private static final int VISIBLE_LINES = 80;
+
+	@Param({ "1000", "20000" })
+	public int lines;
+
+	private IDocument document = lateNonNull();
+	private List<Integer> data = lateNonNull();
+	private int[] intData = lateNonNull();
+	private SemanticTokensDataStreamProcessor processor = lateNonNull();
+	private StyleRangeHolder styleRangeHolder = lateNonNull();
+	private final StyleRangeMerger merger = new StyleRangeMerger(true, true);
+	private Region visibleRegion = lateNonNull();
+	private StyleRange[] syntaxStyles = lateNonNull();
+
+	@Setup
+	public void setup() throws BadLocationException {
+		final String text = BenchmarkFixtures.text(lines);
+		document = new Document(text);
+		data = BenchmarkFixtures.semanticTokens(text);
+		intData = SemanticTokensDataStreamProcessor.toIntArray(data);
+		final IToken token = new Token(new TextAttribute(null, null, SWT.BOLD));
+		processor = new SemanticTokensDataStreamProcessor(tokenType -> token, (line, character) -> toOffset(line, character));
+		styleRangeHolder = new StyleRangeHolder();
+		styleRangeHolder.saveStyles(processor.getStyleRanges(data, BenchmarkFixtures.LEGEND));
+
+		final int firstVisibleLine = lines / 2;
+		final int start = document.getLineOffset(firstVisibleLine);
+		visibleRegion = new Region(start, document.getLineOffset(firstVisibleLine + VISIBLE_LINES) - start);
+		// one syntax coloring style per line, as a TM4E or rule based presentation reconciler would
+		syntaxStyles = new StyleRange[VISIBLE_LINES];
+		for (int i = 0; i < VISIBLE_LINES; i++) {
+			final int lineOffset = document.getLineOffset(firstVisibleLine + i);
+			syntaxStyles[i] = new StyleRange(lineOffset, document.getLineLength(firstVisibleLine + i), null, null,
+					SWT.ITALIC);
+		}
+	}
+
+	private int toOffset(int line, int character) {
+		try {
+			return LineIndex.of(document).toOffset(line, character);
+		} catch (BadLocationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Benchmark
+	public List<StyleRange> getStyleRanges() {
+		return processor.getStyleRanges(data, BenchmarkFixtures.LEGEND);
+	}
+
+	@Benchmark
+	public SemanticTokensStore decode() {
+		return processor.decode(intData, BenchmarkFixtures.LEGEND, true);
+	}
+
+	@Benchmark
+	public TextPresentation mergeStyleRanges() {
+		final var presentation = new TextPresentation(visibleRegion, syntaxStyles.length);
+		for (final StyleRange style : syntaxStyles) {
+			presentation.addStyleRange((StyleRange) style.clone());
+		}
+		merger.mergeStyleRanges(presentation, styleRangeHolder);
+		return presentation;
+	}
+}
@@ -0,0 +1,60 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.benchmarks;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.lateNonNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.lsp4e.outline.SymbolsModel;
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Update of the outline model with large document symbol responses, in both
+ * the hierarchical and the flat form.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SymbolsModelBenchmark {
+
+	@Param({ "10", "200" })
+	public int types;
+
+	private List<Either<SymbolInformation, DocumentSymbol>> documentSymbols = lateNonNull();
+	private List<Either<SymbolInformation, DocumentSymbol>> symbolInformation = lateNonNull();
+	private final SymbolsModel model = new SymbolsModel();
+
+	@Setup
+	public void setup() {
+		documentSymbols = BenchmarkFixtures.documentSymbols(types, 50);
+		symbolInformation = BenchmarkFixtures.symbolInformation(types, 50);
+	}
+
+	@Benchmark
+	public boolean updateDocumentSymbols() {
+		return model.update(documentSymbols);
+	}
+
+	@Benchmark
+	public boolean updateSymbolInformation() {
+		return model.update(symbolInformation);
+	}
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.lateNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.BenchmarkServers;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.benchmarks.BenchmarkFixtures;
+import org.eclipse.lsp4j.CompletionItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scoring of completion items against the typed prefix and sorting of the
+ * resulting proposals, as done for every keystroke while the completion popup
+ * is open.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompletionBenchmark {
+
+	@Param({ "", "g", "getVal" })
+	public String prefix = ""; //$NON-NLS-1$
+
+	@Param({ "500", "10000" })
+	public int items;
+
+	private final LSCompletionProposalComparator comparator = new LSCompletionProposalComparator();
+	private LanguageServerWrapper wrapper = lateNonNull();
+	private IDocument document = lateNonNull();
+	private List<String> labels = lateNonNull();
+	private List<CompletionItem> completionItems = lateNonNull();
+
+	@Setup
+	public void setup() {
+		wrapper = BenchmarkServers.createWrapper();
+		document = new Document("\tfinal var value = " + prefix); //$NON-NLS-1$
+		labels = BenchmarkFixtures.identifiers(items);
+		completionItems = new ArrayList<>(items);
+		for (int i = 0; i < labels.size(); i++) {
+			final var item = new CompletionItem(labels.get(i));
+			if (i % 3 == 0) {
+				item.setSortText(String.format("%05d", i)); //$NON-NLS-1$
+			}
+			completionItems.add(item);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		BenchmarkServers.dispose(wrapper);
+	}
+
+	@Benchmark
+	public void scoreFilterMatches(Blackhole blackhole) {
+		for (final String label : labels) {
+			blackhole.consume(CompletionProposalTools.getCategoryOfFilterMatch(prefix, label));
+			blackhole.consume(CompletionProposalTools.getScoreOfFilterMatch(prefix, label));
+		}
+	}
+
+	@Benchmark
+	public List<LSCompletionProposal> sortProposals() {
+		final int offset = document.getLength();
+		final var proposals = new ArrayList<LSCompletionProposal>(completionItems.size());
+		for (final CompletionItem item : completionItems) {
+			proposals.add(new LSCompletionProposal(document, offset, item, wrapper));
+		}
+		comparator.sort(proposals);
+		return proposals;
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.diagnostics;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.lateNonNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.BenchmarkServers;
+import org.eclipse.lsp4e.benchmarks.BenchmarkFixtures;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4j.Diagnostic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Computation of the marker attributes of a large diagnostics notification,
+ * without the workspace operations creating the markers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiagnosticsToMarkersBenchmark {
+
+	@Param({ "100", "5000" })
+	public int diagnostics;
+
+	private final LSPDiagnosticsToMarkers diagnosticsToMarkers = new LSPDiagnosticsToMarkers(
+			BenchmarkServers.getServerId(), null, null);
+	private IDocument document = lateNonNull();
+	private IResource resource = lateNonNull();
+	private List<Diagnostic> diagnosticList = lateNonNull();
+
+	@Setup
+	public void setup() throws BadLocationException {
+		final String text = BenchmarkFixtures.text(20000);
+		document = new Document(text);
+		resource = ResourcesPlugin.getWorkspace().getRoot().getProject("benchmark").getFile("Diagnostics.txt"); //$NON-NLS-1$ //$NON-NLS-2$
+		diagnosticList = BenchmarkFixtures.diagnostics(text, diagnostics);
+	}
+
+	@Benchmark
+	public void computeMarkerAttributes(Blackhole blackhole) {
+		final LineIndex lineIndex = LineIndex.of(document);
+		for (final Diagnostic diagnostic : diagnosticList) {
+			blackhole.consume(diagnosticsToMarkers.computeMarkerAttributes(document, lineIndex, diagnostic, resource));
+		}
+	}
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.test;
+
+import static org.eclipse.lsp4e.LanguageServiceAccessor.*;
+import static org.eclipse.lsp4e.test.utils.TestUtils.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4e.ContentTypeToLanguageServerDefinition;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.LanguageServersRegistry;
+import org.eclipse.lsp4e.LanguageServersRegistry.LanguageServerDefinition;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.ui.UI;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.ui.IEditorPart;
+import org.junit.Test;
+
+public class LanguageServerWrapperIndexTest extends AbstractTestWithProject {
+
+	private static final String SERVER_ID = "org.eclipse.lsp4e.test.server";
+	private static final Predicate<ServerCapabilities> MATCH_ALL = capabilities -> true;
+
+	@Test
+	public void testLookupReusesStartedWrapper() throws Exception {
+		final LanguageServerDefinition serverDefinition = getServerDefinition(SERVER_ID);
+		final LanguageServerWrapper wrapper = getLSWrapper(project, serverDefinition);
+
+		assertSame(wrapper, getLSWrapper(project, serverDefinition));
+		assertEquals(1, getStartedWrappersOf(serverDefinition).size());
+
+		final IFile file = createUniqueTestFile(project, "");
+		final IDocument document = openTextViewer(file).getDocument();
+		assertSame(wrapper, getWrapper(document, SERVER_ID));
+		waitForAndAssertCondition(5_000, () -> wrapper.isConnectedTo(file.getLocationURI()));
+		assertTrue(getLSWrappers(file, MATCH_ALL).contains(wrapper));
+		assertEquals(1, getStartedWrappersOf(serverDefinition).size());
+	}
+
+	@Test
+	public void testStoppedWrapperReused() throws Exception {
+		final IFile file = createUniqueTestFile(project, "");
+		final IDocument document = openTextViewer(file).getDocument();
+		final LanguageServerWrapper wrapper = getWrapper(document, SERVER_ID);
+		assertNotNull(wrapper);
+		waitForAndAssertCondition(5_000, () -> wrapper.isConnectedTo(file.getLocationURI()));
+
+		wrapper.stop();
+		assertFalse(wrapper.isConnectedTo(file.getLocationURI()));
+
+		// the stopped wrapper is started again for the document
+		assertSame(wrapper, getWrapper(document, SERVER_ID));
+		waitForAndAssertCondition(5_000, () -> wrapper.isActive() && wrapper.isConnectedTo(file.getLocationURI()));
+		assertEquals(1, getStartedWrappersOf(wrapper.serverDefinition).size());
+	}
+
+	@Test
+	public void testRestartedWrapperReconnected() throws Exception {
+		final IFile file = createUniqueTestFile(project, "");
+		final IDocument document = openTextViewer(file).getDocument();
+		final LanguageServerWrapper wrapper = getWrapper(document, SERVER_ID);
+		assertNotNull(wrapper);
+		waitForAndAssertCondition(5_000, () -> wrapper.isConnectedTo(file.getLocationURI()));
+
+		wrapper.restart();
+		waitForAndAssertCondition(5_000, () -> wrapper.isActive() && wrapper.isConnectedTo(file.getLocationURI()));
+		assertSame(wrapper, getWrapper(document, SERVER_ID));
+		assertTrue(getLSWrappers(file, MATCH_ALL).contains(wrapper));
+		assertEquals(1, getStartedWrappersOf(wrapper.serverDefinition).size());
+	}
+
+	@Test
+	public void testDisabledContentTypeDisconnected() throws Exception {
+		final ContentTypeToLanguageServerDefinition mapping = getDisabledLS();
+		final String serverId = mapping.getValue().id;
+		mapping.setUserEnabled(true);
+		try {
+			final IFile file = createUniqueTestFile(project, "lspt-disabled", "");
+			final IEditorPart editor = openEditor(file);
+			final IDocument document = LSPEclipseUtils.getDocument(editor.getEditorInput());
+			assertNotNull(document);
+			final LanguageServerWrapper wrapper = getWrapper(document, serverId);
+			assertNotNull(wrapper);
+			waitForAndAssertCondition(5_000, () -> wrapper.isConnectedTo(file.getLocationURI()));
+
+			mapping.setUserEnabled(false);
+			disableLanguageServerContentType(mapping);
+			assertFalse(wrapper.isConnectedTo(file.getLocationURI()));
+			assertNull(getWrapper(document, serverId));
+			assertFalse(getLSWrappers(file, MATCH_ALL).contains(wrapper));
+
+			mapping.setUserEnabled(true);
+			enableLanguageServerContentType(mapping, UI.getActivePage().getEditorReferences());
+			assertSame(wrapper, getWrapper(document, serverId));
+			waitForAndAssertCondition(5_000, () -> wrapper.isConnectedTo(file.getLocationURI()));
+		} finally {
+			mapping.setUserEnabled(true);
+		}
+	}
+
+	@Test
+	public void testContentTypeChangeFindsIndexedWrapper() throws Exception {
+		final IFile file = createFile(project, "wrapperIndex.lsptindex", "");
+		final IDocument document = openTextViewer(file).getDocument();
+		assertNull(getWrapper(document, SERVER_ID));
+
+		final IContentType contentType = Platform.getContentTypeManager()
+				.getContentType("org.eclipse.lsp4e.test.content-type");
+		contentType.addFileSpec("lsptindex", IContentType.FILE_EXTENSION_SPEC);
+		try {
+			final LanguageServerWrapper wrapper = getWrapper(document, SERVER_ID);
+			assertNotNull(wrapper);
+			waitForAndAssertCondition(5_000, () -> wrapper.isConnectedTo(file.getLocationURI()));
+			assertSame(wrapper, getWrapper(document, SERVER_ID));
+			assertEquals(1, getStartedWrappersOf(wrapper.serverDefinition).size());
+		} finally {
+			contentType.removeFileSpec("lsptindex", IContentType.FILE_EXTENSION_SPEC);
+		}
+	}
+
+	private static LanguageServerDefinition getServerDefinition(String serverId) {
+		final LanguageServerDefinition serverDefinition = LanguageServersRegistry.getInstance().getDefinition(serverId);
+		assertNotNull(serverDefinition);
+		return serverDefinition;
+	}
+
+	private static List<LanguageServerWrapper> getStartedWrappersOf(LanguageServerDefinition serverDefinition) {
+		return getStartedWrappers(null, false).stream() //
+				.filter(wrapper -> wrapper.serverDefinition == serverDefinition) //
+				.toList();
+	}
+
+	/**
+	 * @return the wrapper of the given server the document is connected to when
+	 *         running requests on it, <code>null</code> if none
+	 */
+	private static LanguageServerWrapper getWrapper(IDocument document, String serverId) throws Exception {
+		return LanguageServers.forDocument(document)
+				.collectAll((w, ls) -> CompletableFuture.completedFuture(w))
+				.get(5, TimeUnit.SECONDS).stream() //
+				.filter(wrapper -> wrapper.serverDefinition.id.equals(serverId)) //
+				.findFirst().orElse(null);
+	}
+}
@@ -25,11 +25,15 @@
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerMetrics.MethodMetrics;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockConnectionProviderMultiRootFolders;
+import org.eclipse.lsp4j.HoverParams;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.ui.IEditorPart;
 import org.junit.Before;
 import org.junit.Test;
@@ -137,4 +141,27 @@ public void testStartStopAndActive() throws CoreException, AssertionError {
 		assertEquals("startCount == stopCount", cpStartCount, cpStopCount);
 	}
 
+	@Test
+	public void testMetrics() throws Exception {
+		IFile testFile = TestUtils.createUniqueTestFile(project, "");
+		IEditorPart editor = TestUtils.openEditor(testFile);
+		try {
+			LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrappers(testFile, request -> true).iterator().next();
+			final var params = new HoverParams(LSPEclipseUtils.toTextDocumentIdentifier(testFile), new Position(0, 0));
+			wrapper.execute(ls -> ls.getTextDocumentService().hover(params)).get(2, TimeUnit.SECONDS);
+
+			final MethodMetrics hoverMetrics = wrapper.getMetrics().getMethodMetrics("textDocument/hover");
+			assertNotNull(hoverMetrics);
+			assertEquals(1, hoverMetrics.getCount());
+			assertEquals(1, hoverMetrics.getCompletedCount());
+			assertEquals(0, hoverMetrics.getPendingCount());
+			assertEquals(0, hoverMetrics.getErrorCount());
+			assertTrue(hoverMetrics.getSentBytes() > 0);
+			assertTrue(hoverMetrics.getReceivedBytes() > 0);
+			assertNotNull(wrapper.getMetrics().getMethodMetrics("textDocument/didOpen"));
+			assertEquals(0, wrapper.getMetrics().getQueueDepth());
+		} finally {
+			TestUtils.closeEditor(editor, false);
+		}
+	}
 }
@@ -41,7 +41,11 @@
 import org.eclipse.lsp4e.tests.mock.MockConnectionProvider;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
 import org.eclipse.lsp4e.tests.mock.MockTextDocumentService;
+import org.eclipse.lsp4j.CodeLens;
+import org.eclipse.lsp4j.CodeLensParams;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
+import org.eclipse.lsp4j.DocumentLink;
+import org.eclipse.lsp4j.DocumentLinkParams;
 import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.HoverParams;
 import org.eclipse.lsp4j.Location;
@@ -49,6 +53,7 @@
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.TextDocumentSyncKind;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.services.LanguageServer;
@@ -184,6 +189,98 @@ public synchronized CompletableFuture<Hover> hover(HoverParams position) {
 		assertTrue(hovers.contains("HoverContent2"));
 	}
 
+	@Test
+	public void testCachedResponseSharedForDocumentVersion() throws Exception {
+		final var documentLinkCount = new AtomicInteger();
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<List<DocumentLink>> documentLink(DocumentLinkParams params) {
+				documentLinkCount.incrementAndGet();
+				return CompletableFuture.completedFuture(List.of());
+			}
+		});
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "Here is some content");
+		ITextViewer viewer = TestUtils.openTextViewer(testFile);
+		final IDocument document = viewer.getDocument();
+		final var params = new DocumentLinkParams(new TextDocumentIdentifier(testFile.getLocationURI().toString()));
+		final LanguageServerDocumentExecutor executor = LanguageServers.forDocument(document);
+
+		executor.collectAll((w, ls) -> executor.cached(w, "textDocument/documentLink", params,
+				() -> ls.getTextDocumentService().documentLink(params))).get(5, TimeUnit.SECONDS);
+		executor.collectAll((w, ls) -> executor.cached(w, "textDocument/documentLink", params,
+				() -> ls.getTextDocumentService().documentLink(params))).get(5, TimeUnit.SECONDS);
+		assertEquals(1, documentLinkCount.get());
+
+		// a new version of the document is requested again
+		document.replace(0, 0, "Changed: ");
+		executor.collectAll((w, ls) -> executor.cached(w, "textDocument/documentLink", params,
+				() -> ls.getTextDocumentService().documentLink(params))).get(5, TimeUnit.SECONDS);
+		assertEquals(2, documentLinkCount.get());
+	}
+
+	@Test
+	public void testCachedRequestCancelledWithLastFeature() throws Exception {
+		final var pendingDocumentLinks = new CompletableFuture<List<DocumentLink>>();
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<List<DocumentLink>> documentLink(DocumentLinkParams params) {
+				return pendingDocumentLinks;
+			}
+		});
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "Here is some content");
+		ITextViewer viewer = TestUtils.openTextViewer(testFile);
+		final var params = new DocumentLinkParams(new TextDocumentIdentifier(testFile.getLocationURI().toString()));
+		final LanguageServerDocumentExecutor executor = LanguageServers.forDocument(viewer.getDocument());
+		final var sharingFeatures = new AtomicInteger();
+
+		final List<CompletableFuture<@Nullable List<DocumentLink>>> first = executor.computeAll((w, ls) -> {
+			sharingFeatures.incrementAndGet();
+			return executor.cached(w, "textDocument/documentLink", params, () -> ls.getTextDocumentService().documentLink(params));
+		});
+		final List<CompletableFuture<@Nullable List<DocumentLink>>> second = executor.computeAll((w, ls) -> {
+			sharingFeatures.incrementAndGet();
+			return executor.cached(w, "textDocument/documentLink", params, () -> ls.getTextDocumentService().documentLink(params));
+		});
+		waitForAndAssertCondition(5_000, () -> sharingFeatures.get() == 2);
+
+		// the request is kept while a feature still waits for its response
+		first.forEach(response -> response.cancel(true));
+		DisplayHelper.sleep(Display.getCurrent(), 500);
+		assertFalse(pendingDocumentLinks.isCancelled());
+
+		second.forEach(response -> response.cancel(true));
+		waitForAndAssertCondition(5_000, pendingDocumentLinks::isCancelled);
+	}
+
+	@Test
+	public void testCachedResponseDroppedOnRefresh() throws Exception {
+		final var codeLensCount = new AtomicInteger();
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<List<? extends CodeLens>> codeLens(CodeLensParams params) {
+				codeLensCount.incrementAndGet();
+				return CompletableFuture.completedFuture(List.of());
+			}
+		});
+
+		IFile testFile = TestUtils.createUniqueTestFile(project, "Here is some content");
+		ITextViewer viewer = TestUtils.openTextViewer(testFile);
+		final var params = new CodeLensParams(new TextDocumentIdentifier(testFile.getLocationURI().toString()));
+		final LanguageServerDocumentExecutor executor = LanguageServers.forDocument(viewer.getDocument());
+
+		executor.collectAll((w, ls) -> executor.cached(w, "textDocument/codeLens", params,
+				() -> ls.getTextDocumentService().codeLens(params))).get(5, TimeUnit.SECONDS);
+		assertEquals(1, codeLensCount.get());
+
+		// workspace/codeLens/refresh makes the unchanged document be requested again
+		MockLanguageServer.INSTANCE.getRemoteProxies().get(0).refreshCodeLenses().get(5, TimeUnit.SECONDS);
+		executor.collectAll((w, ls) -> executor.cached(w, "textDocument/codeLens", params,
+				() -> ls.getTextDocumentService().codeLens(params))).get(5, TimeUnit.SECONDS);
+		assertEquals(2, codeLensCount.get());
+	}
+
 
 	/**
 	 * The raw CompletableFuture objects returned by the LSP4j layer receive their results on a dedicated listener thread which just reads responses
@@ -320,6 +320,24 @@ public void testLanguageServerHierarchy_parentContentTypeUsed() throws Exception
 		assertFalse("Should only be a single LS", iterator.hasNext());
 	}
 
+	@Test
+	public void testDocumentContentTypesFollowRegistryChanges() throws Exception {
+		var testFile = createFile(project, "contentTypeCache.lsptcache", "");
+		var document = openTextViewer(testFile).getDocument();
+		assertNotNull(document);
+		var contentType = Platform.getContentTypeManager().getContentType("org.eclipse.lsp4e.test.content-type");
+		assertFalse(getDocumentContentTypes(document).contains(contentType));
+		assertEquals(getDocumentContentTypes(document), getDocumentContentTypes(document));
+
+		contentType.addFileSpec("lsptcache", IContentType.FILE_EXTENSION_SPEC);
+		try {
+			assertTrue(getDocumentContentTypes(document).contains(contentType));
+		} finally {
+			contentType.removeFileSpec("lsptcache", IContentType.FILE_EXTENSION_SPEC);
+		}
+		assertFalse(getDocumentContentTypes(document).contains(contentType));
+	}
+
 	@Test
 	public void testLanguageServerEnablement() throws Exception {
 		final var serverId = ContentTypeToLanguageServerDefinitionTest.SERVER_TO_DISABLE;
@@ -22,11 +22,13 @@
 import org.eclipse.core.resources.IFile;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4j.CompletionRegistrationOptions;
 import org.eclipse.lsp4j.ExecuteCommandOptions;
 import org.eclipse.lsp4j.Registration;
 import org.eclipse.lsp4j.RegistrationParams;
@@ -45,10 +47,13 @@ public class DynamicRegistrationTest extends AbstractTestWithProject {
 
 	private static final String WORKSPACE_EXECUTE_COMMAND = "workspace/executeCommand";
 	private static final String WORKSPACE_DID_CHANGE_FOLDERS = "workspace/didChangeWorkspaceFolders";
+	private static final String TEXT_DOCUMENT_COMPLETION = "textDocument/completion";
+
+	private IFile testFile;
 
 	@Before
 	public void setUp() throws Exception {
-		IFile testFile = TestUtils.createFile(project, "shouldUseExtension.lspt", "");
+		testFile = TestUtils.createFile(project, "shouldUseExtension.lspt", "");
 
 		// Make sure mock language server is created...
 		IDocument document = LSPEclipseUtils.getDocument(testFile);
@@ -92,6 +97,21 @@ public void testWorkspaceFoldersRegistration() throws Exception {
 		assertTrue(LanguageServiceAccessor.hasActiveLanguageServers(c -> !hasWorkspaceFolderSupport(c)));
 	}
 
+	@Test
+	public void testCompletionRegistration() throws Exception {
+		LanguageServerWrapper wrapper = LanguageServiceAccessor.getLSWrappers(testFile, c -> true).get(0);
+		assertArrayEquals(new char[0], wrapper.getCompletionTriggerCharacters());
+
+		UUID registration = registerCompletion(".", ":");
+		try {
+			assertTrue(LanguageServiceAccessor.hasActiveLanguageServers(c -> c.getCompletionProvider() != null));
+			assertArrayEquals(new char[] { '.', ':' }, wrapper.getCompletionTriggerCharacters());
+		} finally {
+			unregister(registration);
+		}
+		assertArrayEquals(new char[0], wrapper.getCompletionTriggerCharacters());
+	}
+
 	//////////////////////////////////////////////////////////////////////////////////
 
 	private void unregister(UUID registration) throws Exception {
@@ -123,6 +143,19 @@ private UUID registerCommands(String... command) throws Exception {
 		return id;
 	}
 
+	private UUID registerCompletion(String... triggerCharacters) throws Exception {
+		UUID id = UUID.randomUUID();
+		LanguageClient client = getMockClient();
+		final var registration = new Registration();
+		registration.setId(id.toString());
+		registration.setMethod(TEXT_DOCUMENT_COMPLETION);
+		final var options = new CompletionRegistrationOptions();
+		options.setTriggerCharacters(List.of(triggerCharacters));
+		registration.setRegisterOptions(new Gson().toJsonTree(options));
+		client.registerCapability(new RegistrationParams(List.of(registration))).get(1, TimeUnit.SECONDS);
+		return id;
+	}
+
 	private LanguageClient getMockClient() {
 		List<LanguageClient> proxies = MockLanguageServer.INSTANCE.getRemoteProxies();
 		assertEquals(1, proxies.size());
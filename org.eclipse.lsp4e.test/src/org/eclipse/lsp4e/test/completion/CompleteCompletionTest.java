@@ -25,9 +25,11 @@
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
@@ -40,11 +42,14 @@
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockConnectionProvider;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4e.tests.mock.MockTextDocumentService;
 import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.Command;
 import org.eclipse.lsp4j.CompletionItem;
 import org.eclipse.lsp4j.CompletionItemKind;
 import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.CompletionOptions;
+import org.eclipse.lsp4j.CompletionParams;
 import org.eclipse.lsp4j.ExecuteCommandParams;
 import org.eclipse.lsp4j.InsertTextFormat;
 import org.eclipse.lsp4j.InsertTextMode;
@@ -211,6 +216,20 @@ public void testTriggerCharsWithoutPreliminaryCompletion() throws CoreException
 		));
 	}
 
+	@Test
+	public void testTriggerCharsNotModifiedByCaller() throws CoreException {
+		MockLanguageServer.INSTANCE.setCompletionTriggerChars(Set.of("a", "b"));
+
+		TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "First"));
+		waitForAndAssertCondition(3_000, () -> Arrays.equals(
+			new char[] { 'a', 'b'},
+			contentAssistProcessor.getCompletionProposalAutoActivationCharacters()
+		));
+
+		contentAssistProcessor.getCompletionProposalAutoActivationCharacters()[0] = 'z';
+		assertArrayEquals(new char[] { 'a', 'b' }, contentAssistProcessor.getCompletionProposalAutoActivationCharacters());
+	}
+
 	@Test
 	public void testTriggerCharsNullList() throws CoreException {
 		MockLanguageServer.INSTANCE.setCompletionTriggerChars(null);
@@ -504,6 +523,115 @@ public void testReopeningFileAndReusingContentAssist() throws CoreException {
 		assertEquals(new Point("FirstClass".length(), 0), lsCompletionProposal.getSelection(viewer.getDocument()));
 	}
 
+	@Test
+	public void testCompleteListFilteredWhileTyping() throws Exception {
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(
+				new CompletionItem("FirstClass"), new CompletionItem("FirstInterface"), new CompletionItem("SecondClass"))));
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "Fi"));
+
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 2);
+		assertEquals(3, proposals.length);
+
+		// typing identifier characters filters the previous complete list without a new request
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(new CompletionItem("Other"))));
+		viewer.getDocument().replace(2, 0, "rstI");
+		proposals = contentAssistProcessor.computeCompletionProposals(viewer, 6);
+		assertEquals(1, proposals.length);
+		assertEquals("FirstInterface", proposals[0].getDisplayString());
+
+		// other characters request the completion again
+		viewer.getDocument().replace(6, 0, ".");
+		proposals = contentAssistProcessor.computeCompletionProposals(viewer, 7);
+		assertEquals(1, proposals.length);
+		assertEquals("Other", proposals[0].getDisplayString());
+	}
+
+	@Test
+	public void testFailedCompletionNotFilteredWhileTyping() throws Exception {
+		final var completionCount = new AtomicInteger();
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<Either<List<CompletionItem>, CompletionList>> completion(CompletionParams position) {
+				if (completionCount.incrementAndGet() == 1) {
+					return CompletableFuture.failedFuture(new IllegalStateException("Server failure"));
+				}
+				return CompletableFuture.completedFuture(Either.forRight(new CompletionList(false, List.of(new CompletionItem("FirstClass")))));
+			}
+		});
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, "Fi"));
+
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 2);
+		assertEquals(0, proposals.length);
+
+		// the failed server is asked again instead of filtering its missing proposals
+		viewer.getDocument().replace(2, 0, "r");
+		proposals = contentAssistProcessor.computeCompletionProposals(viewer, 3);
+		assertEquals(2, completionCount.get());
+		assertEquals(1, proposals.length);
+		assertEquals("FirstClass", proposals[0].getDisplayString());
+	}
+
+	@Test
+	public void testCompletionItemsResolvedAhead() throws Exception {
+		MockLanguageServer.reset(() -> {
+			final var capabilities = MockLanguageServer.defaultServerCapabilities();
+			capabilities.setCompletionProvider(new CompletionOptions(true, null));
+			return capabilities;
+		});
+		final var items = new ArrayList<CompletionItem>();
+		for (int i = 0; i < 10; i++) {
+			items.add(new CompletionItem("Item" + i));
+		}
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, items));
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, ""));
+		final var resolveRequests = MockLanguageServer.INSTANCE.getTextDocumentService()
+				.getCompletionItemResolveRequests();
+
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 0);
+		assertEquals(10, proposals.length);
+		// the top proposals are resolved
+		waitForAndAssertCondition(2_000, () -> resolveRequests.size() == 8);
+		((LSCompletionProposal) proposals[0]).getAdditionalProposalInfo(new NullProgressMonitor());
+		assertEquals(8, resolveRequests.size());
+
+		// then the neighbors of the selected proposal
+		((LSCompletionProposal) proposals[9]).selected(viewer, false);
+		waitForAndAssertCondition(2_000, () -> resolveRequests.size() == 9);
+		((LSCompletionProposal) proposals[9]).getAdditionalProposalInfo(new NullProgressMonitor());
+		assertEquals(10, resolveRequests.size());
+	}
+
+	@Test
+	public void testResolvedItemMergedOnValidate() throws Exception {
+		MockLanguageServer.reset(() -> {
+			final var capabilities = MockLanguageServer.defaultServerCapabilities();
+			capabilities.setCompletionProvider(new CompletionOptions(true, null));
+			return capabilities;
+		});
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
+				final var resolved = new CompletionItem("Beta");
+				resolved.setDetail("resolved");
+				return CompletableFuture.completedFuture(resolved);
+			}
+		});
+		MockLanguageServer.INSTANCE.setCompletionList(new CompletionList(false, List.of(new CompletionItem("Alpha"))));
+		ITextViewer viewer = TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, ""));
+
+		ICompletionProposal[] proposals = contentAssistProcessor.computeCompletionProposals(viewer, 0);
+		assertEquals(1, proposals.length);
+		final var proposal = (LSCompletionProposal) proposals[0];
+		// the prefetched resolve only merges the detail and documentation right away
+		waitForAndAssertCondition(2_000, () -> "resolved".equals(proposal.getItem().getDetail()));
+		assertEquals("Alpha", proposal.getDisplayString());
+
+		// the other fields are merged when the proposal is validated, with the new filter text
+		viewer.getDocument().replace(0, 0, "B");
+		assertTrue(proposal.validate(viewer.getDocument(), 1, null));
+		assertEquals("Beta", proposal.getDisplayString());
+	}
+
 	@Test
 	public void testFilterNonmatchingCompletions() throws Exception {
 		final var items = new ArrayList<CompletionItem>();
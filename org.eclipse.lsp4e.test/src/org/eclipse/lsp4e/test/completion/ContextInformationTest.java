@@ -11,8 +11,10 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.test.completion;
 
+import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -76,8 +78,8 @@ public void testTriggerChars() throws CoreException {
 		final var content = "First";
 		TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, content));
 
-		assertArrayEquals(new char[] { 'a', 'b' },
-				contentAssistProcessor.getContextInformationAutoActivationCharacters());
+		waitForAndAssertCondition(3_000, () -> Arrays.equals(new char[] { 'a', 'b' },
+				contentAssistProcessor.getContextInformationAutoActivationCharacters()));
 	}
 
 	@Test
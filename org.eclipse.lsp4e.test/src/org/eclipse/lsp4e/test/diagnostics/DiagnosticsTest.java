@@ -47,17 +47,29 @@
 import org.eclipse.lsp4e.test.utils.BlockingWorkspaceJob;
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4e.tests.mock.MockWorkspaceService;
 import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticRegistrationOptions;
 import org.eclipse.lsp4j.DiagnosticSeverity;
+import org.eclipse.lsp4j.DocumentDiagnosticReport;
 import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PreviousResultId;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.RelatedFullDocumentDiagnosticReport;
+import org.eclipse.lsp4j.RelatedUnchangedDocumentDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceDocumentDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceFullDocumentDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceUnchangedDocumentDiagnosticReport;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.FontData;
 import org.eclipse.swt.graphics.RGB;
 import org.eclipse.ui.ide.IDE;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
 import org.eclipse.ui.texteditor.MarkerUtilities;
 import org.junit.Test;
 
@@ -257,6 +269,136 @@ public void testDiagnosticsFromVariousLS() throws Exception {
 		});
 	}
 
+	@Test
+	public void testPullDiagnostics() throws Exception {
+		MockLanguageServer.reset(() -> {
+			final var capabilities = MockLanguageServer.defaultServerCapabilities();
+			capabilities.setDiagnosticProvider(new DiagnosticRegistrationOptions(false, false));
+			return capabilities;
+		});
+		IFile file = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		final var range = new Range(new Position(0, 0), new Position(0, 10));
+		final var fullReport = new RelatedFullDocumentDiagnosticReport(
+				List.of(createDiagnostic("1", "message1", range, DiagnosticSeverity.Error, "source1")));
+		fullReport.setResultId("1");
+		MockLanguageServer.INSTANCE.getTextDocumentService()
+				.setDocumentDiagnosticReport(new DocumentDiagnosticReport(fullReport));
+
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+
+		waitForAndAssertCondition(10_000, () -> {
+			assertEquals(1, file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, true,
+					IResource.DEPTH_ZERO).length);
+			return true;
+		});
+
+		// the report of the changed document refers to the previous one
+		MockLanguageServer.INSTANCE.getTextDocumentService().setDocumentDiagnosticReport(
+				new DocumentDiagnosticReport(new RelatedUnchangedDocumentDiagnosticReport("1")));
+		viewer.getDocument().replace(0, 0, "Other ");
+
+		waitForAndAssertCondition(10_000, () -> {
+			assertTrue(MockLanguageServer.INSTANCE.getTextDocumentService().getDocumentDiagnosticRequests().stream()
+					.anyMatch(params -> "1".equals(params.getPreviousResultId())));
+			return true;
+		});
+		assertEquals(1, file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, true,
+				IResource.DEPTH_ZERO).length);
+	}
+
+	@Test
+	public void testPullDependentDiagnosticsOnce() throws Exception {
+		MockLanguageServer.reset(() -> {
+			final var capabilities = MockLanguageServer.defaultServerCapabilities();
+			capabilities.setDiagnosticProvider(new DiagnosticRegistrationOptions(true, false));
+			return capabilities;
+		});
+		MockLanguageServer.INSTANCE.getTextDocumentService().setDocumentDiagnosticReport(
+				new DocumentDiagnosticReport(new RelatedFullDocumentDiagnosticReport(List.of())));
+		IFile changedFile = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		IFile dependentFile = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		final String changedUri = LSPEclipseUtils.toUri(changedFile).toString();
+		final String dependentUri = LSPEclipseUtils.toUri(dependentFile).toString();
+		final IntSupplier changedRequests = () -> getDocumentDiagnosticRequests(changedUri);
+		final IntSupplier dependentRequests = () -> getDocumentDiagnosticRequests(dependentUri);
+
+		TestUtils.openTextViewer(dependentFile);
+		ITextViewer viewer = TestUtils.openTextViewer(changedFile);
+		waitForAndAssertCondition(10_000, () -> changedRequests.getAsInt() > 0 && dependentRequests.getAsInt() > 0);
+		// settled once the other documents are pulled after the opened one
+		DisplayHelper.sleep(viewer.getTextWidget().getDisplay(), 2_000);
+		final int changedRequestsBefore = changedRequests.getAsInt();
+		final int dependentRequestsBefore = dependentRequests.getAsInt();
+
+		// a burst of changes pulls the changed document, then the other documents once
+		for (int i = 0; i < 5; i++) {
+			viewer.getDocument().replace(0, 0, "a");
+		}
+		waitForAndAssertCondition(10_000, () -> dependentRequests.getAsInt() > dependentRequestsBefore);
+		assertFalse(TestUtils.waitForCondition(2_000, () -> dependentRequests.getAsInt() > dependentRequestsBefore + 1));
+		assertTrue(changedRequests.getAsInt() > changedRequestsBefore);
+	}
+
+	private static int getDocumentDiagnosticRequests(String uri) {
+		return (int) MockLanguageServer.INSTANCE.getTextDocumentService().getDocumentDiagnosticRequests().stream()
+				.filter(params -> uri.equals(params.getTextDocument().getUri())).count();
+	}
+
+	@Test
+	public void testPullWorkspaceDiagnostics() throws Exception {
+		MockLanguageServer.reset(() -> {
+			final var capabilities = MockLanguageServer.defaultServerCapabilities();
+			capabilities.setDiagnosticProvider(new DiagnosticRegistrationOptions(false, true));
+			return capabilities;
+		});
+		IFile partialFile = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		IFile finalFile = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		final String partialUri = partialFile.getLocationURI().toString();
+		final String finalUri = finalFile.getLocationURI().toString();
+		final var range = new Range(new Position(0, 0), new Position(0, 10));
+		final var partialReport = new WorkspaceFullDocumentDiagnosticReport(
+				List.of(createDiagnostic("1", "message1", range, DiagnosticSeverity.Error, "source1")), partialUri, null);
+		partialReport.setResultId("1");
+		final var finalReport = new WorkspaceFullDocumentDiagnosticReport(
+				List.of(createDiagnostic("2", "message2", range, DiagnosticSeverity.Error, "source2")), finalUri, null);
+		finalReport.setResultId("2");
+		final MockWorkspaceService workspaceService = MockLanguageServer.INSTANCE.getWorkspaceService();
+		workspaceService.setPartialWorkspaceDiagnosticReports(List.of(new WorkspaceDocumentDiagnosticReport(partialReport)));
+		workspaceService.setWorkspaceDiagnosticReport(
+				new WorkspaceDiagnosticReport(List.of(new WorkspaceDocumentDiagnosticReport(finalReport))));
+
+		// the workspace diagnostics are pulled once the server is started
+		TestUtils.openTextViewer(TestUtils.createUniqueTestFile(project, ""));
+
+		waitForAndAssertCondition(10_000, () -> {
+			assertEquals(1, partialFile.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, true,
+					IResource.DEPTH_ZERO).length);
+			assertEquals(1, finalFile.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, true,
+					IResource.DEPTH_ZERO).length);
+			return true;
+		});
+
+		// a refresh pulls them again, with the result ids of the partial and final reports
+		workspaceService.setPartialWorkspaceDiagnosticReports(List.of());
+		workspaceService.setWorkspaceDiagnosticReport(new WorkspaceDiagnosticReport(List.of(
+				new WorkspaceDocumentDiagnosticReport(new WorkspaceUnchangedDocumentDiagnosticReport("1", partialUri, null)),
+				new WorkspaceDocumentDiagnosticReport(new WorkspaceUnchangedDocumentDiagnosticReport("2", finalUri, null)))));
+		MockLanguageServer.INSTANCE.getRemoteProxies().get(0).refreshDiagnostics();
+
+		waitForAndAssertCondition(10_000, () -> {
+			final List<WorkspaceDiagnosticParams> requests = workspaceService.getWorkspaceDiagnosticRequests();
+			assertTrue(requests.size() >= 2);
+			assertThat(requests.get(requests.size() - 1).getPreviousResultIds().stream()
+					.filter(previous -> previous.getUri().equals(partialUri) || previous.getUri().equals(finalUri))
+					.map(PreviousResultId::getValue).sorted().toList(), is(List.of("1", "2")));
+			return true;
+		});
+		assertEquals(1, partialFile.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, true,
+				IResource.DEPTH_ZERO).length);
+		assertEquals(1, finalFile.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, true,
+				IResource.DEPTH_ZERO).length);
+	}
+
 	@Test
 	public void testDiagnosticRedrawingCalls() throws CoreException {
 		IFile file = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text\nDiagnostic Other Text");
@@ -278,6 +420,95 @@ public void testDiagnosticRedrawingCalls() throws CoreException {
 		confirmResourceChanges(file, pos1Info1, 0);
 	}
 
+	@Test
+	public void testPendingPublishesUpdatedInOneOperation() throws Exception {
+		IFile file1 = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		IFile file2 = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		final var range = new Range(new Position(0, 0), new Position(0, 10));
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		final var redrawCountListener = new MarkerRedrawCountListener();
+		workspace.addResourceChangeListener(redrawCountListener);
+		try {
+			Job.getJobManager().suspend();
+			try {
+				diagnosticsToMarkers.accept(new PublishDiagnosticsParams(file1.getLocationURI().toString(),
+						List.of(createDiagnostic("1", "message1", range, DiagnosticSeverity.Error, "source1"))));
+				diagnosticsToMarkers.accept(new PublishDiagnosticsParams(file2.getLocationURI().toString(),
+						List.of(createDiagnostic("2", "message2", range, DiagnosticSeverity.Warning, "source2"))));
+				assertEquals(1, Job.getJobManager().find(LanguageServerPlugin.FAMILY_UPDATE_MARKERS).length);
+			} finally {
+				Job.getJobManager().resume();
+			}
+			Job.getJobManager().join(LanguageServerPlugin.FAMILY_UPDATE_MARKERS, null);
+			assertEquals(1, file1.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false,
+					IResource.DEPTH_ZERO).length);
+			assertEquals(1, file2.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false,
+					IResource.DEPTH_ZERO).length);
+			assertEquals(1, redrawCountListener.getAsInt());
+		} finally {
+			workspace.removeResourceChangeListener(redrawCountListener);
+		}
+	}
+
+	@Test
+	public void testSupersededPublishesDropped() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		final var range = new Range(new Position(0, 0), new Position(0, 10));
+		final String uri = file.getLocationURI().toString();
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		final var redrawCountListener = new MarkerRedrawCountListener();
+		workspace.addResourceChangeListener(redrawCountListener);
+		try {
+			Job.getJobManager().suspend();
+			try {
+				diagnosticsToMarkers.accept(new PublishDiagnosticsParams(uri,
+						List.of(createDiagnostic("1", "message1", range, DiagnosticSeverity.Error, "source1")), 2));
+				diagnosticsToMarkers.accept(new PublishDiagnosticsParams(uri,
+						List.of(createDiagnostic("2", "message2", range, DiagnosticSeverity.Error, "source2")), 3));
+				// computed for an older version of the document than the pending one
+				diagnosticsToMarkers.accept(new PublishDiagnosticsParams(uri,
+						List.of(createDiagnostic("3", "message3", range, DiagnosticSeverity.Error, "source3")), 1));
+			} finally {
+				Job.getJobManager().resume();
+			}
+			Job.getJobManager().join(LanguageServerPlugin.FAMILY_UPDATE_MARKERS, null);
+			IMarker[] markers = file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false,
+					IResource.DEPTH_ZERO);
+			assertEquals(1, markers.length);
+			assertEquals("message2 [2]", MarkerUtilities.getMessage(markers[0]));
+			assertEquals(1, redrawCountListener.getAsInt());
+		} finally {
+			workspace.removeResourceChangeListener(redrawCountListener);
+		}
+	}
+
+	@Test
+	public void testPublishOlderThanAppliedDropped() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "Diagnostic Other Text");
+		final var range = new Range(new Position(0, 0), new Position(0, 10));
+		final String uri = file.getLocationURI().toString();
+		diagnosticsToMarkers.accept(new PublishDiagnosticsParams(uri,
+				List.of(createDiagnostic("1", "message1", range, DiagnosticSeverity.Error, "source1")), 3));
+		Job.getJobManager().join(LanguageServerPlugin.FAMILY_UPDATE_MARKERS, null);
+		// computed for an older version of the document than the applied one
+		diagnosticsToMarkers.accept(new PublishDiagnosticsParams(uri,
+				List.of(createDiagnostic("2", "message2", range, DiagnosticSeverity.Error, "source2")), 2));
+		Job.getJobManager().join(LanguageServerPlugin.FAMILY_UPDATE_MARKERS, null);
+		IMarker[] markers = file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false,
+				IResource.DEPTH_ZERO);
+		assertEquals(1, markers.length);
+		assertEquals("message1 [1]", MarkerUtilities.getMessage(markers[0]));
+
+		// versions start over once the document is opened again
+		diagnosticsToMarkers.documentOpened(file.getLocationURI());
+		diagnosticsToMarkers.accept(new PublishDiagnosticsParams(uri,
+				List.of(createDiagnostic("3", "message3", range, DiagnosticSeverity.Error, "source3")), 1));
+		Job.getJobManager().join(LanguageServerPlugin.FAMILY_UPDATE_MARKERS, null);
+		markers = file.findMarkers(LSPDiagnosticsToMarkers.LS_DIAGNOSTIC_MARKER_TYPE, false, IResource.DEPTH_ZERO);
+		assertEquals(1, markers.length);
+		assertEquals("message3 [3]", MarkerUtilities.getMessage(markers[0]));
+	}
+
 	@Test
 	public void testDiagnosticsOnExternalFile() throws Exception {
 		MockLanguageServer.INSTANCE.setDiagnostics(List.of(new Diagnostic(new Range(new Position(0, 0), new Position(0, 1)), "This is a warning", DiagnosticSeverity.Warning, null)));
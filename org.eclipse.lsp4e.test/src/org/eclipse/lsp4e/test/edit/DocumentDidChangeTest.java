@@ -23,6 +23,7 @@
 import org.eclipse.core.resources.IFile;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
@@ -155,6 +156,41 @@ public void testIncrementalEditOrdering() throws Exception {
 		}
 	}
 
+	@Test
+	public void testIncrementalSyncCoalescing() throws Exception {
+		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities()
+				.setTextDocumentSync(TextDocumentSyncKind.Incremental);
+		final var prefKey = "org.eclipse.lsp4e.test.server.delay.didChangeCoalescing";
+		LanguageServerPlugin.getDefault().getPreferenceStore().setValue(prefKey, 10_000);
+		try {
+			IFile testFile = TestUtils.createUniqueTestFile(project, "");
+			ITextViewer viewer = TestUtils.openTextViewer(testFile);
+			LanguageServers.forDocument(viewer.getDocument()).anyMatching();
+
+			viewer.getDocument().replace(0, 0, "Hello");
+			viewer.getDocument().replace(5, 0, " World");
+			viewer.getDocument().replace(0, 5, "Hallo");
+			assertTrue(MockLanguageServer.INSTANCE.getDidChangeEvents().isEmpty());
+
+			// a request on the document flushes the pending changes as a single notification
+			final var hoverParams = LSPEclipseUtils.toHoverParams(0, viewer.getDocument());
+			LanguageServers.forDocument(viewer.getDocument())
+					.collectAll(ls -> ls.getTextDocumentService().hover(hoverParams)).get();
+			waitForAndAssertCondition(1_000, numberOfChangesIs(1));
+			DidChangeTextDocumentParams change = MockLanguageServer.INSTANCE.getDidChangeEvents().get(0);
+			assertEquals(3, change.getContentChanges().size());
+			assertEquals("Hello", change.getContentChanges().get(0).getText());
+			assertEquals(" World", change.getContentChanges().get(1).getText());
+			Range range = change.getContentChanges().get(2).getRange();
+			assertNotNull(range);
+			assertEquals(0, range.getStart().getCharacter());
+			assertEquals(5, range.getEnd().getCharacter());
+			assertEquals("Hallo", change.getContentChanges().get(2).getText());
+		} finally {
+			LanguageServerPlugin.getDefault().getPreferenceStore().setToDefault(prefKey);
+		}
+	}
+
 	@Test
 	public void testFullSync() throws Exception {
 		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities()
@@ -52,6 +52,7 @@
 import org.eclipse.lsp4j.CreateFile;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PositionEncodingKind;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.RenameFile;
 import org.eclipse.lsp4j.ResourceOperation;
@@ -275,6 +276,17 @@ public void testTextEditInsertSameOffset() throws Exception {
 		Assert.assertEquals(" throws Exception", document.get());
 	}
 
+	@Test
+	public void testTextEditWithPositionEncoding() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "h\u00e9llo world");
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		// "hé" takes 3 bytes in UTF-8
+		final var edits = List.of(new TextEdit(new Range(new Position(0, 3), new Position(0, 6)), "ey"));
+		IDocument document = viewer.getDocument();
+		LSPEclipseUtils.applyEdits(document, edits, PositionEncodingKind.UTF8);
+		Assert.assertEquals("h\u00e9ey world", document.get());
+	}
+
 	@Test
 	public void testTextEditSplittedLineEndings() throws Exception {
 		IFile file = TestUtils.createUniqueTestFile(project, "line1\r\nline2\r\nline3\r\n");
@@ -9,11 +9,22 @@
 package org.eclipse.lsp4e.test.folding;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.AnnotationModelEvent;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelListener;
+import org.eclipse.jface.text.source.IAnnotationModelListenerExtension;
+import org.eclipse.jface.text.source.projection.ProjectionAnnotationModel;
+import org.eclipse.jface.text.source.projection.ProjectionViewer;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.test.utils.AbstractTest;
 import org.eclipse.lsp4e.test.utils.TestUtils;
@@ -92,6 +103,79 @@ public void testAutoFoldingDisabled() throws CoreException {
 		assertEquals(CONTENT, ((StyledText) editor.getAdapter(Control.class)).getText());
 	}
 
+	@Test
+	public void testAnnotationsUpdatedInPlace() throws Exception {
+		configureCollapse(FoldingPreferencePage.PREF_AUTOFOLD_LICENSE_HEADERS_COMMENTS, false);
+		configureCollapse(FoldingPreferencePage.PREF_AUTOFOLD_IMPORT_STATEMENTS, false);
+		final var foldingRangeLicense = new FoldingRange(0, 2);
+		foldingRangeLicense.setKind(FoldingRangeKind.Comment);
+		MockLanguageServer.INSTANCE.setFoldingRanges(List.of(foldingRangeLicense, new FoldingRange(3, 5)));
+		final var viewer = (ProjectionViewer) TestUtils.openTextViewer(TestUtils.createUniqueTestFile(null, CONTENT));
+		final ProjectionAnnotationModel model = viewer.getProjectionAnnotationModel();
+		TestUtils.waitForAndAssertCondition(MAX_WAIT_FOR_FOLDING, () -> assertEquals(2, getAnnotations(model).size()));
+		final List<Annotation> annotations = getAnnotations(model);
+
+		// the range starting on the same line is extended, the other one is unchanged
+		MockLanguageServer.INSTANCE.setFoldingRanges(List.of(foldingRangeLicense, new FoldingRange(3, 8)));
+		final IDocument document = viewer.getDocument();
+		document.replace(document.getLength(), 0, "\n");
+		final int importsEnd = document.getLineOffset(8) + document.getLineLength(8);
+		TestUtils.waitForAndAssertCondition(MAX_WAIT_FOR_FOLDING, () -> assertTrue(getAnnotations(model).stream()
+				.anyMatch(annotation -> model.getPosition(annotation).getOffset()
+						+ model.getPosition(annotation).getLength() == importsEnd)));
+		final List<Annotation> updatedAnnotations = getAnnotations(model);
+		assertEquals(2, updatedAnnotations.size());
+		assertTrue(updatedAnnotations.stream().allMatch(annotation -> annotations.contains(annotation)));
+	}
+
+	@Test
+	public void testAnnotationsModifiedInOneEvent() throws Exception {
+		configureCollapse(FoldingPreferencePage.PREF_AUTOFOLD_LICENSE_HEADERS_COMMENTS, false);
+		configureCollapse(FoldingPreferencePage.PREF_AUTOFOLD_IMPORT_STATEMENTS, false);
+		MockLanguageServer.INSTANCE.setFoldingRanges(List.of(new FoldingRange(0, 2), new FoldingRange(3, 5)));
+		final var viewer = (ProjectionViewer) TestUtils.openTextViewer(TestUtils.createUniqueTestFile(null, CONTENT));
+		final ProjectionAnnotationModel model = viewer.getProjectionAnnotationModel();
+		TestUtils.waitForAndAssertCondition(MAX_WAIT_FOR_FOLDING, () -> assertEquals(2, getAnnotations(model).size()));
+
+		// both ranges span other lines than before
+		MockLanguageServer.INSTANCE.setFoldingRanges(List.of(new FoldingRange(0, 1), new FoldingRange(3, 8)));
+		final IDocument document = viewer.getDocument();
+		document.replace(document.getLength(), 0, "\n");
+		final var changeEvents = new ChangeEventCounter();
+		model.addAnnotationModelListener(changeEvents);
+		final int commentEnd = document.getLineOffset(1) + document.getLineLength(1);
+		final int importsEnd = document.getLineOffset(8) + document.getLineLength(8);
+		TestUtils.waitForAndAssertCondition(MAX_WAIT_FOR_FOLDING, () -> assertTrue(getAnnotations(model).stream()
+				.map(model::getPosition)
+				.map(position -> position.getOffset() + position.getLength())
+				.toList().containsAll(List.of(commentEnd, importsEnd))));
+		assertEquals(1, changeEvents.count.get());
+	}
+
+	private static List<Annotation> getAnnotations(ProjectionAnnotationModel model) {
+		final var annotations = new ArrayList<Annotation>();
+		model.getAnnotationIterator().forEachRemaining(annotations::add);
+		return annotations;
+	}
+
+	/** Counts the events notifying changed annotations */
+	private static final class ChangeEventCounter
+			implements IAnnotationModelListener, IAnnotationModelListenerExtension {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public void modelChanged(AnnotationModelEvent event) {
+			if (event.getChangedAnnotations().length > 0) {
+				count.incrementAndGet();
+			}
+		}
+
+		@Override
+		public void modelChanged(IAnnotationModel model) {
+		}
+	}
+
 	private IEditorPart createEditor() throws CoreException {
 		final var foldingRangeLicense = new FoldingRange(0, 2);
 		foldingRangeLicense.setKind(FoldingRangeKind.Comment);
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.internal;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4j.Position;
+import org.junit.Test;
+
+public class LineIndexFileTest extends AbstractTestWithProject {
+
+	@Test
+	public void testCharsetOfFile() throws Exception {
+		IFile file = project.getFile("latin1.txt");
+		file.create(new ByteArrayInputStream("caf\u00e9\nna\u00efve".getBytes(StandardCharsets.ISO_8859_1)), true, null);
+		file.setCharset(StandardCharsets.ISO_8859_1.name(), null);
+
+		final LineIndex lineIndex = LineIndex.of(file);
+		assertNotNull(lineIndex);
+		assertEquals(2, lineIndex.getNumberOfLines());
+		assertEquals("caf\u00e9", lineIndex.getLineContent(0));
+		assertEquals("na\u00efve", lineIndex.getLineContent(1));
+		assertEquals(10, lineIndex.getLength());
+	}
+
+	@Test
+	public void testByteOrderMarkSkipped() throws Exception {
+		IFile file = project.getFile("bom.txt");
+		file.create(new ByteArrayInputStream("\uFEFFfirst\nsecond".getBytes(StandardCharsets.UTF_8)), true, null);
+		file.setCharset(StandardCharsets.UTF_8.name(), null);
+
+		final LineIndex lineIndex = LineIndex.of(file);
+		assertNotNull(lineIndex);
+		assertEquals("first", lineIndex.getLineContent(0));
+		assertEquals(0, lineIndex.toOffset(new Position(0, 0)));
+		assertEquals(6, lineIndex.toOffset(new Position(1, 0)));
+	}
+
+	@Test
+	public void testCachedUntilModified() throws Exception {
+		IFile file = project.getFile("modified.txt");
+		file.create(new ByteArrayInputStream("first\nsecond".getBytes(StandardCharsets.UTF_8)), true, null);
+
+		final LineIndex lineIndex = LineIndex.of(file);
+		assertNotNull(lineIndex);
+		assertSame(lineIndex, LineIndex.of(file));
+
+		file.setContents(new ByteArrayInputStream("first\nsecond\nthird".getBytes(StandardCharsets.UTF_8)), true, false, null);
+		final LineIndex modifiedLineIndex = LineIndex.of(file);
+		assertNotNull(modifiedLineIndex);
+		assertNotSame(lineIndex, modifiedLineIndex);
+		assertEquals(3, modifiedLineIndex.getNumberOfLines());
+		assertEquals("third", modifiedLineIndex.getLineContent(2));
+	}
+
+	@Test
+	public void testLeastRecentlyUsedFileEvicted() throws Exception {
+		IFile first = project.getFile("file0.txt");
+		first.create(new ByteArrayInputStream("first".getBytes(StandardCharsets.UTF_8)), true, null);
+		final LineIndex lineIndex = LineIndex.of(first);
+		assertNotNull(lineIndex);
+		// more files than the 64 cached ones
+		for (int i = 1; i <= 64; i++) {
+			IFile file = project.getFile("file" + i + ".txt");
+			file.create(new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8)), true, null);
+			assertNotNull(LineIndex.of(file));
+		}
+		final LineIndex recomputed = LineIndex.of(first);
+		assertNotNull(recomputed);
+		assertNotSame(lineIndex, recomputed);
+		assertEquals("first", recomputed.getLineContent(0));
+	}
+}
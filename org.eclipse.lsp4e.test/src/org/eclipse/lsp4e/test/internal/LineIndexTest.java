@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.internal;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.lsp4e.LSPEclipseUtils;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PositionEncodingKind;
+import org.junit.Test;
+
+public class LineIndexTest {
+
+	private static final String TEXT = "first\nsecond\r\n\rfourth\n";
+
+	@Test
+	public void testMatchesDocument() throws BadLocationException {
+		final var document = new Document(TEXT);
+		final var lineIndex = LineIndex.of(TEXT);
+		assertEquals(document.getNumberOfLines(), lineIndex.getNumberOfLines());
+		for (int line = 0; line < document.getNumberOfLines(); line++) {
+			assertEquals(document.getLineOffset(line), lineIndex.getLineOffset(line));
+			assertEquals(document.getLineLength(line), lineIndex.getLineLength(line));
+			final var lineInformation = document.getLineInformation(line);
+			assertEquals(document.get(lineInformation.getOffset(), lineInformation.getLength()),
+					lineIndex.getLineContent(line));
+		}
+		for (int offset = 0; offset <= TEXT.length(); offset++) {
+			assertEquals(document.getLineOfOffset(offset), lineIndex.getLineOfOffset(offset));
+		}
+	}
+
+	@Test
+	public void testToOffset() throws BadLocationException {
+		final var document = new Document(TEXT);
+		final var lineIndex = LineIndex.of(document);
+		for (int line = 0; line < 6; line++) {
+			for (int character = 0; character < 10; character++) {
+				final var position = new Position(line, character);
+				assertEquals(position.toString(), LSPEclipseUtils.toOffset(position, new Document(TEXT)),
+						lineIndex.toOffset(position));
+			}
+		}
+	}
+
+	@Test
+	public void testToPositions() throws BadLocationException {
+		final var lineIndex = LineIndex.of(TEXT);
+		final var offsets = new int[] { 0, 3, 6, 14, 15, 21, 22, 1 };
+		final Position[] positions = lineIndex.toPositions(offsets);
+		for (int i = 0; i < offsets.length; i++) {
+			assertEquals(LSPEclipseUtils.toPosition(offsets[i], new Document(TEXT)), positions[i]);
+		}
+		assertArrayEquals(offsets, lineIndex.toOffsets(List.of(positions)));
+	}
+
+	@Test
+	public void testCachedByModificationStamp() {
+		final var document = new Document(TEXT);
+		final var lineIndex = LineIndex.of(document);
+		assertSame(lineIndex, LineIndex.of(document));
+		assertSame(lineIndex, LineIndex.getCached(document));
+
+		document.set("changed");
+		assertNull(LineIndex.getCached(document));
+		assertEquals(1, LineIndex.of(document).getNumberOfLines());
+	}
+
+	@Test
+	public void testPositionEncodings() throws BadLocationException {
+		// 'é' is 2 UTF-8 bytes, '€' 3 bytes and the emoji a surrogate pair of 4 bytes
+		final String text = "aé€\uD83D\uDE00b\nx";
+		final var document = new Document(text);
+		final var lineIndex = LineIndex.of(document);
+		final int bOffset = text.indexOf('b');
+
+		assertEquals(new Position(0, 10), lineIndex.toPosition(bOffset, PositionEncodingKind.UTF8));
+		assertEquals(new Position(0, 4), lineIndex.toPosition(bOffset, PositionEncodingKind.UTF32));
+		assertEquals(new Position(0, 5), lineIndex.toPosition(bOffset, PositionEncodingKind.UTF16));
+		assertEquals(bOffset, lineIndex.toOffset(new Position(0, 10), PositionEncodingKind.UTF8));
+		assertEquals(bOffset, lineIndex.toOffset(new Position(0, 4), PositionEncodingKind.UTF32));
+
+		// columns inside a multi-unit character map to its start
+		assertEquals(1, lineIndex.toOffset(new Position(0, 2), PositionEncodingKind.UTF8));
+		// columns beyond the line end are clamped to it
+		assertEquals(text.indexOf('x'), lineIndex.toOffset(new Position(0, 50), PositionEncodingKind.UTF8));
+		// ASCII lines are the same in all encodings
+		assertEquals(new Position(1, 1), lineIndex.toPosition(text.length(), PositionEncodingKind.UTF8));
+		assertEquals(text.length(), lineIndex.toOffset(new Position(1, 1), PositionEncodingKind.UTF32));
+
+		for (int offset = 0; offset <= text.length(); offset++) {
+			if (!Character.isLowSurrogate(text.charAt(Math.min(offset, text.length() - 1)))) {
+				assertEquals(offset, lineIndex.toOffset(lineIndex.toPosition(offset, PositionEncodingKind.UTF8), PositionEncodingKind.UTF8));
+				assertEquals(offset, lineIndex.toOffset(lineIndex.toPosition(offset, PositionEncodingKind.UTF32), PositionEncodingKind.UTF32));
+			}
+		}
+	}
+
+	@Test(expected = BadLocationException.class)
+	public void testInvalidOffset() throws BadLocationException {
+		LineIndex.of(TEXT).toPosition(TEXT.length() + 1);
+	}
+
+	@Test(expected = BadLocationException.class)
+	public void testNegativeLine() throws BadLocationException {
+		LineIndex.of(TEXT).toOffset(new Position(-1, 0));
+	}
+
+	@Test(expected = BadLocationException.class)
+	public void testNegativeLineWithPositionEncoding() throws BadLocationException {
+		LineIndex.of("a\u00e9").toOffset(new Position(-1, 0), PositionEncodingKind.UTF8);
+	}
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.operations.codelens;
+
+import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.codemining.ICodeMining;
+import org.eclipse.lsp4e.operations.codelens.CodeLensProvider;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4e.tests.mock.MockTextDocumentService;
+import org.eclipse.lsp4j.CodeLens;
+import org.eclipse.lsp4j.Command;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CodeLensProviderTest extends AbstractTestWithProject {
+
+	private static final int LINE_COUNT = 1000;
+	private static final int HIDDEN_LINE = 800;
+
+	private final List<CodeLens> resolveRequests = new CopyOnWriteArrayList<>();
+
+	@Before
+	public void setUp() {
+		final var textDocumentService = new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<CodeLens> resolveCodeLens(CodeLens unresolved) {
+				resolveRequests.add(unresolved);
+				return CompletableFuture.completedFuture(new CodeLens(unresolved.getRange(),
+						new Command("Resolved", "test.command"), null));
+			}
+		};
+		textDocumentService.setMockCodeLenses(List.of(codeLens(0), codeLens(HIDDEN_LINE)));
+		MockLanguageServer.INSTANCE.setTextDocumentService(textDocumentService);
+	}
+
+	private static CodeLens codeLens(int line) {
+		return new CodeLens(new Range(new Position(line, 0), new Position(line, 1)), null, null);
+	}
+
+	@Test
+	public void testCodeLensesResolvedOnceVisible() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "line\n".repeat(LINE_COUNT));
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		final var provider = new CodeLensProvider();
+
+		List<? extends ICodeMining> minings = provider.provideCodeMinings(viewer, new NullProgressMonitor())
+				.get(5, TimeUnit.SECONDS);
+		assertEquals(2, minings.size());
+		minings.forEach(mining -> mining.resolve(viewer, new NullProgressMonitor()));
+		final ICodeMining visibleMining = minings.get(0);
+		final ICodeMining hiddenMining = minings.get(1);
+		waitForAndAssertCondition(5_000, () -> visibleMining.isResolved());
+		assertEquals("Resolved", visibleMining.getLabel());
+		assertFalse(hiddenMining.isResolved());
+		assertTrue(resolveRequests.stream().noneMatch(codeLens -> codeLens.getRange().getStart().getLine() == HIDDEN_LINE));
+
+		viewer.setTopIndex(HIDDEN_LINE);
+		waitForAndAssertCondition(5_000, () -> hiddenMining.isResolved());
+		assertEquals("Resolved", hiddenMining.getLabel());
+
+		// the lenses of the same document version are not resolved again
+		minings = provider.provideCodeMinings(viewer, new NullProgressMonitor()).get(5, TimeUnit.SECONDS);
+		for (final ICodeMining mining : minings) {
+			assertTrue(mining.resolve(viewer, new NullProgressMonitor()).isDone());
+		}
+	}
+}
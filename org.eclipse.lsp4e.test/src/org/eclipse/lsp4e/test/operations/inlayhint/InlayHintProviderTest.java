@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.operations.inlayhint;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.codemining.ICodeMining;
+import org.eclipse.lsp4e.operations.inlayhint.InlayHintProvider;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4e.tests.mock.MockTextDocumentService;
+import org.eclipse.lsp4j.InlayHint;
+import org.eclipse.lsp4j.InlayHintParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InlayHintProviderTest extends AbstractTestWithProject {
+
+	private static final int LINE_COUNT = 2000;
+
+	private final List<Range> requestedRanges = new CopyOnWriteArrayList<>();
+	private volatile boolean failing;
+
+	@Before
+	public void setUp() {
+		MockLanguageServer.reset(() -> {
+			final var capabilities = MockLanguageServer.defaultServerCapabilities();
+			capabilities.setInlayHintProvider(true);
+			return capabilities;
+		});
+		MockLanguageServer.INSTANCE.setTextDocumentService(new MockTextDocumentService(MockLanguageServer.INSTANCE::buildMaybeDelayedFuture) {
+			@Override
+			public CompletableFuture<List<InlayHint>> inlayHint(InlayHintParams params) {
+				requestedRanges.add(params.getRange());
+				if (failing) {
+					return CompletableFuture.failedFuture(new IllegalStateException("inlay hints failed")); //$NON-NLS-1$
+				}
+				// one hint at the start of each line of the range
+				return CompletableFuture.completedFuture(IntStream
+						.rangeClosed(params.getRange().getStart().getLine(), params.getRange().getEnd().getLine())
+						.mapToObj(line -> new InlayHint(new Position(line, 0), Either.forLeft("hint"))).toList());
+			}
+		});
+	}
+
+	@Test
+	public void testHintsRequestedForVisibleLines() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "line\n".repeat(LINE_COUNT));
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		final var provider = new InlayHintProvider();
+
+		Set<Integer> lines = getLines(viewer.getDocument(),
+				provider.provideCodeMinings(viewer, new NullProgressMonitor()).get(5, TimeUnit.SECONDS));
+		assertTrue(lines.contains(0));
+		assertFalse(lines.contains(LINE_COUNT / 2));
+		assertTrue(requestedRanges.stream().noneMatch(range -> range.getEnd().getLine() >= LINE_COUNT / 2));
+
+		// only the lines scrolled into view are requested, the hints of the others are kept
+		viewer.setTopIndex(LINE_COUNT - 100);
+		lines = getLines(viewer.getDocument(),
+				provider.provideCodeMinings(viewer, new NullProgressMonitor()).get(5, TimeUnit.SECONDS));
+		assertTrue(lines.contains(0));
+		assertTrue(lines.contains(LINE_COUNT - 100));
+		assertFalse(lines.contains(LINE_COUNT / 2));
+		assertTrue(requestedRanges.stream().noneMatch(range -> range.getStart().getLine() <= LINE_COUNT / 2
+				&& range.getEnd().getLine() >= LINE_COUNT / 2));
+	}
+
+	@Test
+	public void testFailedRequestRequestedAgain() throws Exception {
+		IFile file = TestUtils.createUniqueTestFile(project, "line\n".repeat(LINE_COUNT));
+		ITextViewer viewer = TestUtils.openTextViewer(file);
+		final var provider = new InlayHintProvider();
+
+		failing = true;
+		Set<Integer> lines = getLines(viewer.getDocument(),
+				provider.provideCodeMinings(viewer, new NullProgressMonitor()).get(5, TimeUnit.SECONDS));
+		assertTrue(lines.isEmpty());
+
+		// the lines of the failed request are requested again once scrolled
+		failing = false;
+		requestedRanges.clear();
+		viewer.setTopIndex(10);
+		lines = getLines(viewer.getDocument(),
+				provider.provideCodeMinings(viewer, new NullProgressMonitor()).get(5, TimeUnit.SECONDS));
+		assertTrue(lines.contains(0));
+		assertTrue(lines.contains(10));
+		assertFalse(requestedRanges.isEmpty());
+	}
+
+	private static Set<Integer> getLines(IDocument document, List<? extends ICodeMining> codeMinings) {
+		return codeMinings.stream().map(codeMining -> {
+			try {
+				return document.getLineOfOffset(codeMining.getPosition().getOffset());
+			} catch (BadLocationException e) {
+				throw new IllegalStateException(e);
+			}
+		}).collect(Collectors.toSet());
+	}
+}
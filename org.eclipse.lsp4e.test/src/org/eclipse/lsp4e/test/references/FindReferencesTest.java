@@ -22,6 +22,8 @@
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.core.commands.ExecutionEvent;
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.LocationKind;
 import org.eclipse.lsp4e.internal.Pair;
 import org.eclipse.lsp4e.operations.references.LSFindReferences;
 import org.eclipse.lsp4e.operations.references.LSSearchResult;
@@ -93,6 +95,53 @@ public void testFindReferences() throws Exception {
 		waitForAndAssertSearchResult(searchResultListener, 0, 2_000);
 	}
 
+	@Test
+	public void testFindReferencesInClosedFile() throws Exception {
+		final var closedFile = TestUtils.createUniqueTestFile(project, "other\r\nword0 word2 word2");
+		final String closedFileUri = closedFile.getLocationURI().toString();
+		MockLanguageServer.INSTANCE.getTextDocumentService().setMockReferences(
+				new Location(closedFileUri, new Range(new Position(1, 6), new Position(1, 11))),
+				new Location(closedFileUri, new Range(new Position(1, 12), new Position(1, 17))));
+		final var handler = new LSFindReferences();
+		final var evaluationService = PlatformUI.getWorkbench().getService(IEvaluationService.class);
+		final var searchResultListener = registerSearchResultListener();
+		handler.execute(new ExecutionEvent(null, new HashMap<>(), null, evaluationService.getCurrentState()));
+
+		waitForAndAssertCondition(2_000, () -> {
+			final var searchResult = searchResultListener.getNow(null);
+			assertNotNull("No search query was executed", searchResult);
+			final var lsSearchResult = (LSSearchResult) searchResult.first();
+			assertEquals(2, lsSearchResult.getMatchCount());
+			for (final var match : lsSearchResult.getMatches(closedFile)) {
+				assertEquals("word0 word2 word2", ((FileMatch) match).getLineElement().getContents());
+				assertEquals(2, ((FileMatch) match).getLineElement().getLine());
+			}
+			return true;
+		});
+		assertNull(FileBuffers.getTextFileBufferManager().getTextFileBuffer(closedFile.getFullPath(),
+				LocationKind.IFILE));
+	}
+
+	@Test
+	public void testFindReferencesWithPartialResults() throws Exception {
+		final var otherFile = TestUtils.createUniqueTestFile(project, "word2");
+		MockLanguageServer.INSTANCE.getTextDocumentService().setMockPartialReferences(
+				new Location(otherFile.getLocationURI().toString(), new Range(new Position(0, 0), new Position(0, 5))));
+		final var handler = new LSFindReferences();
+		final var evaluationService = PlatformUI.getWorkbench().getService(IEvaluationService.class);
+		final var searchResultListener = registerSearchResultListener();
+		handler.execute(new ExecutionEvent(null, new HashMap<>(), null, evaluationService.getCurrentState()));
+
+		waitForAndAssertCondition(2_000, () -> {
+			final var searchResult = searchResultListener.getNow(null);
+			assertNotNull("No search query was executed", searchResult);
+			final var lsSearchResult = (LSSearchResult) searchResult.first();
+			assertEquals(3, lsSearchResult.getMatchCount());
+			assertEquals(1, lsSearchResult.getMatches(otherFile).length);
+			return true;
+		});
+	}
+
 	@Test
 	public void testFindReferencesIsNonBlocking() throws Exception {
 		final int uiFreezeThreshold = 300;
@@ -14,12 +14,22 @@
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
 import org.eclipse.lsp4e.test.utils.TestUtils;
 import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
 import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
+import org.eclipse.lsp4j.SemanticTokensEdit;
+import org.eclipse.lsp4j.SemanticTokensServerFull;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.swt.custom.StyleRange;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.tests.harness.util.DisplayHelper;
@@ -28,6 +38,11 @@
 
 public class SemanticHighlightReconcilerStrategyTest extends AbstractTestWithProject {
 
+	/** offset of the "type" keyword in the fourth line of the keyword text */
+	private static final int SECOND_TYPE_OFFSET = 15;
+	/** offset of the "extends" keyword in the fourth line of the keyword text */
+	private static final int EXTENDS_OFFSET = 24;
+
 	private Shell shell;
 
 	@Before
@@ -82,4 +97,123 @@ public void testKeyword() throws CoreException {
 		assertEquals(11, styleRanges[5].length);
 		assertNotEquals(styleRanges[5].foreground, backgroundColor);
 	}
+
+	@Test
+	public void testVisibleRangeBeforeFull() throws CoreException {
+		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities().getSemanticTokensProvider().setRange(true);
+		final var semanticTokens = new SemanticTokens();
+		semanticTokens.setData(SemanticTokensTestUtil.keywordSemanticTokens());
+
+		// only the tokens of the visible range are provided
+		MockLanguageServer.INSTANCE.getTextDocumentService().setSemanticTokensRange(semanticTokens);
+		MockLanguageServer.INSTANCE.getTextDocumentService().setSemanticTokens(null);
+
+		IFile file = TestUtils.createUniqueTestFile(project, "lsptm",
+				SemanticTokensTestUtil.keywordText + "\n".repeat(1_000));
+		ITextViewer textViewer = TestUtils.openTextViewer(file);
+
+		Display display = shell.getDisplay();
+		DisplayHelper.sleep(display, 2_000); // Give some time to the editor to update
+
+		StyleRange[] styleRanges = textViewer.getTextWidget().getStyleRanges();
+		var backgroundColor = textViewer.getTextWidget().getBackground();
+
+		assertTrue(styleRanges.length > 0);
+		assertEquals(0, styleRanges[0].start);
+		assertEquals(4, styleRanges[0].length);
+		assertNotEquals(styleRanges[0].foreground, backgroundColor);
+	}
+
+	@Test
+	public void testDeltaRequestedWithPreviousResultId() throws Exception {
+		enableSemanticTokensDelta();
+		MockLanguageServer.INSTANCE.getTextDocumentService()
+				.setSemanticTokens(new SemanticTokens("1", SemanticTokensTestUtil.keywordSemanticTokens()));
+		MockLanguageServer.INSTANCE.getTextDocumentService()
+				.setSemanticTokensDelta(Either.forRight(new SemanticTokensDelta(List.of(), "2")));
+
+		IFile file = TestUtils.createUniqueTestFile(project, "lsptm", SemanticTokensTestUtil.keywordText);
+		ITextViewer textViewer = TestUtils.openTextViewer(file);
+		Display display = shell.getDisplay();
+		DisplayHelper.sleep(display, 2_000); // Give some time to the editor to update
+		assertTrue(MockLanguageServer.INSTANCE.getTextDocumentService().getSemanticTokensDeltaRequests().isEmpty());
+
+		// the result id of the full response, then the one of the delta response, are sent back
+		modifyAndWait(textViewer);
+		modifyAndWait(textViewer);
+		List<SemanticTokensDeltaParams> requests = MockLanguageServer.INSTANCE.getTextDocumentService()
+				.getSemanticTokensDeltaRequests();
+		assertEquals(2, requests.size());
+		assertEquals("1", requests.get(0).getPreviousResultId());
+		assertEquals("2", requests.get(1).getPreviousResultId());
+	}
+
+	@Test
+	public void testDeltaEditsApplied() throws Exception {
+		enableSemanticTokensDelta();
+		MockLanguageServer.INSTANCE.getTextDocumentService()
+				.setSemanticTokens(new SemanticTokens("1", SemanticTokensTestUtil.keywordSemanticTokens()));
+		// removes the "extends" keyword, the third token
+		MockLanguageServer.INSTANCE.getTextDocumentService()
+				.setSemanticTokensDelta(Either.forRight(new SemanticTokensDelta(List.of(new SemanticTokensEdit(10, 5, List.of())), "2")));
+
+		IFile file = TestUtils.createUniqueTestFile(project, "lsptm", SemanticTokensTestUtil.keywordText);
+		ITextViewer textViewer = TestUtils.openTextViewer(file);
+		DisplayHelper.sleep(shell.getDisplay(), 2_000); // Give some time to the editor to update
+		StyledText textWidget = textViewer.getTextWidget();
+		assertEquals(keywordForeground(textWidget), foregroundAt(textWidget, EXTENDS_OFFSET));
+
+		modifyAndWait(textViewer);
+		assertEquals(1, MockLanguageServer.INSTANCE.getTextDocumentService().getSemanticTokensDeltaRequests().size());
+		assertNotEquals(keywordForeground(textWidget), foregroundAt(textWidget, EXTENDS_OFFSET));
+		assertEquals(keywordForeground(textWidget), foregroundAt(textWidget, SECOND_TYPE_OFFSET));
+	}
+
+	@Test
+	public void testFullResponseToDeltaRequest() throws Exception {
+		enableSemanticTokensDelta();
+		MockLanguageServer.INSTANCE.getTextDocumentService()
+				.setSemanticTokens(new SemanticTokens("1", SemanticTokensTestUtil.keywordSemanticTokens()));
+		// the server answers with all tokens but the "extends" keyword instead of a delta
+		MockLanguageServer.INSTANCE.getTextDocumentService().setSemanticTokensDelta(
+				Either.forLeft(new SemanticTokens("3", SemanticTokensTestUtil.keywordSemanticTokens().subList(0, 10))));
+
+		IFile file = TestUtils.createUniqueTestFile(project, "lsptm", SemanticTokensTestUtil.keywordText);
+		ITextViewer textViewer = TestUtils.openTextViewer(file);
+		DisplayHelper.sleep(shell.getDisplay(), 2_000); // Give some time to the editor to update
+		StyledText textWidget = textViewer.getTextWidget();
+		assertEquals(keywordForeground(textWidget), foregroundAt(textWidget, EXTENDS_OFFSET));
+
+		modifyAndWait(textViewer);
+		assertNotEquals(keywordForeground(textWidget), foregroundAt(textWidget, EXTENDS_OFFSET));
+		assertEquals(keywordForeground(textWidget), foregroundAt(textWidget, SECOND_TYPE_OFFSET));
+
+		// the result id of the full response is sent with the next delta request
+		modifyAndWait(textViewer);
+		List<SemanticTokensDeltaParams> requests = MockLanguageServer.INSTANCE.getTextDocumentService()
+				.getSemanticTokensDeltaRequests();
+		assertEquals(2, requests.size());
+		assertEquals("3", requests.get(1).getPreviousResultId());
+	}
+
+	private static void enableSemanticTokensDelta() {
+		MockLanguageServer.INSTANCE.getInitializeResult().getCapabilities().getSemanticTokensProvider()
+				.setFull(new SemanticTokensServerFull(true));
+	}
+
+	private void modifyAndWait(ITextViewer textViewer) throws BadLocationException {
+		IDocument document = textViewer.getDocument();
+		// appended after the tokens, so that their offsets are unchanged
+		document.replace(document.getLength(), 0, "\n");
+		DisplayHelper.sleep(shell.getDisplay(), 2_000); // Give some time to the reconciler
+	}
+
+	private static @Nullable Color keywordForeground(StyledText textWidget) {
+		return foregroundAt(textWidget, 0);
+	}
+
+	private static @Nullable Color foregroundAt(StyledText textWidget, int offset) {
+		StyleRange styleRange = textWidget.getStyleRangeAtOffset(offset);
+		return styleRange == null ? null : styleRange.foreground;
+	}
 }
@@ -8,13 +8,17 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.test.semanticTokens;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.Region;
 import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensDataStreamProcessor;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensStore;
 import org.eclipse.lsp4e.test.utils.AbstractTest;
+import org.eclipse.lsp4j.SemanticTokensEdit;
 import org.eclipse.lsp4j.SemanticTokensLegend;
 import org.eclipse.swt.custom.StyleRange;
 import org.junit.Test;
@@ -40,6 +44,61 @@ public void testKeyword() {
 		assertEquals(expectedStyleRanges, styleRanges);
 	}
 
+	@Test
+	public void testDecodeCreatesStyleRangesForRegionOnly() {
+		final var document = new Document(SemanticTokensTestUtil.keywordText);
+
+		final var processor = new SemanticTokensDataStreamProcessor(SemanticTokensTestUtil
+				.keywordTokenTypeMapper(SemanticTokensTestUtil.RED_TOKEN), SemanticTokensTestUtil.offsetMapper(document));
+
+		final var stream = new ArrayList<>(SemanticTokensTestUtil.keywordSemanticTokens());
+		// deprecated token of a type missing in the legend
+		stream.addAll(List.of(1, 0, 3, 5, 1));
+
+		final var legend = new SemanticTokensLegend(List.of("keyword", "other"), List.of("deprecated"));
+		SemanticTokensStore tokens = processor.decode(SemanticTokensDataStreamProcessor.toIntArray(stream), legend,
+				true);
+
+		assertEquals(4, tokens.size());
+		assertArrayEquals(new StyleRange[] { new StyleRange(15, 4, SemanticTokensTestUtil.RED, null) },
+				tokens.overlappingRanges(new Region(10, 6)));
+		StyleRange[] deprecated = tokens.overlappingRanges(new Region(38, 1));
+		assertEquals(1, deprecated.length);
+		assertEquals(38, deprecated[0].start);
+		assertEquals(3, deprecated[0].length);
+		assertTrue(deprecated[0].strikeout);
+	}
+
+	@Test
+	public void testApplyEditsReplacingInPlace() {
+		final int[] data = { 0, 0, 4, 0, 0, 0, 5, 4, 1, 0 };
+
+		final int[] result = SemanticTokensDataStreamProcessor.applyEdits(data,
+				List.of(new SemanticTokensEdit(7, 1, List.of(0))));
+
+		assertSame(data, result);
+		assertArrayEquals(new int[] { 0, 0, 4, 0, 0, 0, 5, 0, 1, 0 }, result);
+	}
+
+	@Test
+	public void testApplyEditsInsertingAndDeleting() {
+		final int[] data = { 0, 0, 4, 0, 0, 0, 5, 4, 0, 0, 1, 0, 3, 0, 0 };
+
+		// edits are not required to be sorted
+		final int[] result = SemanticTokensDataStreamProcessor.applyEdits(data, List.of( //
+				new SemanticTokensEdit(10, 5, null), //
+				new SemanticTokensEdit(5, 0, List.of(0, 2, 2, 1, 0))));
+
+		assertArrayEquals(new int[] { 0, 0, 4, 0, 0, 0, 2, 2, 1, 0, 0, 5, 4, 0, 0 }, result);
+		assertArrayEquals(new int[] { 0, 0, 4, 0, 0, 0, 5, 4, 0, 0, 1, 0, 3, 0, 0 }, data);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testApplyEditsOutOfBounds() {
+		SemanticTokensDataStreamProcessor.applyEdits(new int[] { 0, 0, 4, 0, 0 },
+				List.of(new SemanticTokensEdit(3, 5, List.of())));
+	}
+
 	private SemanticTokensLegend getSemanticTokensLegend() {
 		final var semanticTokensLegend = new SemanticTokensLegend();
 		semanticTokensLegend.setTokenTypes(List.of("keyword","other"));
@@ -15,6 +15,7 @@
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextEvent;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensStore;
 import org.eclipse.lsp4e.operations.semanticTokens.StyleRangeHolder;
 import org.eclipse.lsp4e.test.utils.AbstractTest;
 import org.eclipse.swt.custom.StyleRange;
@@ -69,4 +70,27 @@ public void testDocumentChange() {
 		assertEquals(25, twoShiftedOverlappingRanges[1].start);
 		assertEquals(7, twoShiftedOverlappingRanges[1].length);
 	}
+
+	@Test
+	public void testRegionTokensSaved() {
+		final var holder = new StyleRangeHolder();
+		holder.saveStyles(originalStyleRanges);
+
+		final Color blue = new Color(0, 0, 255);
+		// the token at 40 is outside of the region and thus ignored
+		holder.saveTokens(SemanticTokensStore.of(List.of(new StyleRange(10, 3, blue, null),
+				new StyleRange(16, 2, blue, null), new StyleRange(40, 4, blue, null))), new Region(10, 10));
+
+		StyleRange[] ranges = holder.overlappingRanges(new Region(0, 50));
+
+		assertEquals(4, ranges.length);
+		assertEquals(0, ranges[0].start);
+		assertEquals(RED, ranges[0].foreground);
+		assertEquals(10, ranges[1].start);
+		assertEquals(blue, ranges[1].foreground);
+		assertEquals(16, ranges[2].start);
+		assertEquals(blue, ranges[2].foreground);
+		assertEquals(24, ranges[3].start);
+		assertEquals(RED, ranges[3].foreground);
+	}
 }
@@ -0,0 +1,67 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.test.symbols;
+
+import static org.eclipse.lsp4e.test.utils.TestUtils.waitForAndAssertCondition;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.lsp4e.operations.symbols.WorkspaceSymbolsQuickAccessProvider;
+import org.eclipse.lsp4e.test.utils.AbstractTestWithProject;
+import org.eclipse.lsp4e.test.utils.TestUtils;
+import org.eclipse.lsp4e.tests.mock.MockLanguageServer;
+import org.eclipse.lsp4j.Location;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.Range;
+import org.eclipse.lsp4j.SymbolKind;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkspaceSymbolsQuickAccessProviderTest extends AbstractTestWithProject {
+
+	@Before
+	public void setUp() throws Exception {
+		MockLanguageServer.reset(() -> {
+			final var capabilities = MockLanguageServer.defaultServerCapabilities();
+			capabilities.setWorkspaceSymbolProvider(true);
+			return capabilities;
+		});
+		final var file = TestUtils.createUniqueTestFile(project, "word world other");
+		final String uri = file.getLocationURI().toString();
+		MockLanguageServer.INSTANCE.getWorkspaceService().setWorkspaceSymbols(List.of( //
+				symbol("word", uri, 0), symbol("world", uri, 5), symbol("other", uri, 11)));
+		TestUtils.openTextViewer(file);
+	}
+
+	private static WorkspaceSymbol symbol(String name, String uri, int character) {
+		final var range = new Range(new Position(0, character), new Position(0, character + name.length()));
+		return new WorkspaceSymbol(name, SymbolKind.Variable, Either.forLeft(new Location(uri, range)));
+	}
+
+	@Test
+	public void testExtendedQueryFilteredFromPreviousResult() {
+		final var provider = new WorkspaceSymbolsQuickAccessProvider();
+		final var monitor = new NullProgressMonitor();
+		waitForAndAssertCondition(5_000, () -> provider.computeElements("wo", monitor).length == 2);
+		final int requests = MockLanguageServer.INSTANCE.getWorkspaceService().getWorkspaceSymbolRequests().size();
+
+		assertEquals(2, provider.computeElements("wor", monitor).length);
+		assertEquals(1, provider.computeElements("word", monitor).length);
+		assertEquals(requests, MockLanguageServer.INSTANCE.getWorkspaceService().getWorkspaceSymbolRequests().size());
+
+		// not an extension of the previous query
+		assertEquals(1, provider.computeElements("ot", monitor).length);
+		assertEquals(requests + 1,
+				MockLanguageServer.INSTANCE.getWorkspaceService().getWorkspaceSymbolRequests().size());
+	}
+}
@@ -142,6 +142,7 @@ public void waitBeforeTearDown() {
 
 	public void addRemoteProxy(LanguageClient remoteProxy) {
 		this.textDocumentService.addRemoteProxy(remoteProxy);
+		this.workspaceService.addRemoteProxy(remoteProxy);
 		this.remoteProxies.add(remoteProxy);
 		this.started = true;
 	}
@@ -44,6 +44,8 @@
 import org.eclipse.lsp4j.DidOpenTextDocumentParams;
 import org.eclipse.lsp4j.DidSaveTextDocumentParams;
 import org.eclipse.lsp4j.DocumentColorParams;
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.DocumentDiagnosticReport;
 import org.eclipse.lsp4j.DocumentFormattingParams;
 import org.eclipse.lsp4j.DocumentHighlight;
 import org.eclipse.lsp4j.DocumentHighlightParams;
@@ -65,12 +67,16 @@
 import org.eclipse.lsp4j.PrepareRenameDefaultBehavior;
 import org.eclipse.lsp4j.PrepareRenameParams;
 import org.eclipse.lsp4j.PrepareRenameResult;
+import org.eclipse.lsp4j.ProgressParams;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.eclipse.lsp4j.RenameParams;
 import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDelta;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
 import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
 import org.eclipse.lsp4j.SignatureHelp;
 import org.eclipse.lsp4j.SignatureHelpParams;
 import org.eclipse.lsp4j.SymbolInformation;
@@ -110,6 +116,7 @@ public class MockTextDocumentService implements TextDocumentService {
 	private Function<?, ? extends CompletableFuture<?>> _futureFactory;
 	private final List<LanguageClient> remoteProxies = new CopyOnWriteArrayList<>();
 	private Location[] mockReferences = new Location[0];
+	private Location[] mockPartialReferences = new Location[0];
 	private List<Diagnostic> diagnostics;
 	private List<Either<Command, CodeAction>> mockCodeActions;
 	private List<ColorInformation> mockDocumentColors;
@@ -117,6 +124,12 @@ public class MockTextDocumentService implements TextDocumentService {
 	private Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior> mockPrepareRenameResult;
 	private List<DocumentSymbol> documentSymbols;
 	private SemanticTokens mockSemanticTokens;
+	private SemanticTokens mockSemanticTokensRange;
+	private Either<SemanticTokens, SemanticTokensDelta> mockSemanticTokensDelta;
+	private final List<SemanticTokensDeltaParams> semanticTokensDeltaRequests = new CopyOnWriteArrayList<>();
+	private DocumentDiagnosticReport mockDocumentDiagnosticReport;
+	private final List<DocumentDiagnosticParams> documentDiagnosticRequests = new CopyOnWriteArrayList<>();
+	private final List<CompletionItem> completionItemResolveRequests = new CopyOnWriteArrayList<>();
 	private List<FoldingRange> foldingRanges;
 	public int codeActionRequests = 0;
 
@@ -145,6 +158,7 @@ public CompletableFuture<Either<List<CompletionItem>, CompletionList>> completio
 
 	@Override
 	public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
+		completionItemResolveRequests.add(unresolved);
 		return CompletableFuture.completedFuture(null);
 	}
 
@@ -166,6 +180,12 @@ public CompletableFuture<Either<List<? extends Location>, List<? extends Locatio
 
 	@Override
 	public CompletableFuture<List<? extends Location>> references(ReferenceParams params) {
+		final var partialResultToken = params.getPartialResultToken();
+		if (partialResultToken != null && mockPartialReferences.length > 0) {
+			final var progress = new ProgressParams(partialResultToken,
+					Either.forRight(List.of(this.mockPartialReferences)));
+			remoteProxies.forEach(remoteProxy -> remoteProxy.notifyProgress(progress));
+		}
 		return futureFactory(List.of(this.mockReferences));
 	}
 
@@ -380,6 +400,14 @@ public void setMockReferences(Location... locations) {
 		this.mockReferences = locations;
 	}
 
+	/**
+	 * Sets the references reported as partial result before the response, if the
+	 * request has a partial result token.
+	 */
+	public void setMockPartialReferences(Location... locations) {
+		this.mockPartialReferences = locations;
+	}
+
 	public void setMockFormattingTextEdits(List<? extends TextEdit> formattingTextEdits) {
 		this.mockFormattingTextEdits = formattingTextEdits;
 	}
@@ -395,12 +423,19 @@ public void reset() {
 		this.mockHover = null;
 		this.mockCodeLenses = null;
 		this.mockReferences = null;
+		this.mockPartialReferences = new Location[0];
 		this.remoteProxies.clear();
 		this.mockCodeActions = new ArrayList<>();
 		this.mockRenameEdit = null;
 		this.documentSymbols = Collections.emptyList();
 		this.foldingRanges = new ArrayList<>();
 		this.codeActionRequests = 0;
+		this.mockSemanticTokensRange = null;
+		this.mockSemanticTokensDelta = null;
+		this.semanticTokensDeltaRequests.clear();
+		this.mockDocumentDiagnosticReport = null;
+		this.documentDiagnosticRequests.clear();
+		this.completionItemResolveRequests.clear();
 	}
 
 	public void setDiagnostics(List<Diagnostic> diagnostics) {
@@ -456,6 +491,48 @@ public CompletableFuture<SemanticTokens> semanticTokensFull(SemanticTokensParams
 		return CompletableFuture.completedFuture(this.mockSemanticTokens);
 	}
 
+	public void setSemanticTokensRange(final SemanticTokens semanticTokens) {
+		this.mockSemanticTokensRange = semanticTokens;
+	}
+
+	@Override
+	public CompletableFuture<SemanticTokens> semanticTokensRange(SemanticTokensRangeParams params) {
+		return CompletableFuture.completedFuture(this.mockSemanticTokensRange);
+	}
+
+	public void setSemanticTokensDelta(final Either<SemanticTokens, SemanticTokensDelta> semanticTokensDelta) {
+		this.mockSemanticTokensDelta = semanticTokensDelta;
+	}
+
+	@Override
+	public CompletableFuture<Either<SemanticTokens, SemanticTokensDelta>> semanticTokensFullDelta(
+			SemanticTokensDeltaParams params) {
+		semanticTokensDeltaRequests.add(params);
+		return CompletableFuture.completedFuture(this.mockSemanticTokensDelta);
+	}
+
+	public List<SemanticTokensDeltaParams> getSemanticTokensDeltaRequests() {
+		return semanticTokensDeltaRequests;
+	}
+
+	public void setDocumentDiagnosticReport(final DocumentDiagnosticReport report) {
+		this.mockDocumentDiagnosticReport = report;
+	}
+
+	public List<DocumentDiagnosticParams> getDocumentDiagnosticRequests() {
+		return documentDiagnosticRequests;
+	}
+
+	public List<CompletionItem> getCompletionItemResolveRequests() {
+		return completionItemResolveRequests;
+	}
+
+	@Override
+	public CompletableFuture<DocumentDiagnosticReport> diagnostic(DocumentDiagnosticParams params) {
+		documentDiagnosticRequests.add(params);
+		return CompletableFuture.completedFuture(this.mockDocumentDiagnosticReport);
+	}
+
 	private static final Range DUMMY_RANGE = new Range(new Position(0, 0), new Position(0, 0));
 
 	@Override
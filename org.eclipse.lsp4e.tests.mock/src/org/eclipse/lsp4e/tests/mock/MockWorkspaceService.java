@@ -15,16 +15,23 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
 import org.eclipse.lsp4j.DidChangeConfigurationParams;
 import org.eclipse.lsp4j.DidChangeWatchedFilesParams;
 import org.eclipse.lsp4j.DidChangeWorkspaceFoldersParams;
 import org.eclipse.lsp4j.ExecuteCommandParams;
+import org.eclipse.lsp4j.ProgressParams;
 import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReportPartialResult;
+import org.eclipse.lsp4j.WorkspaceDocumentDiagnosticReport;
 import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageClient;
 import org.eclipse.lsp4j.services.WorkspaceService;
 
 public class MockWorkspaceService implements WorkspaceService {
@@ -32,6 +39,12 @@ public class MockWorkspaceService implements WorkspaceService {
 	private Function<?, ?> _futureFactory;
 	private CompletableFuture<ExecuteCommandParams> executedCommand = new CompletableFuture<>();
 	private List<DidChangeWorkspaceFoldersParams> workspaceFoldersEvents = new ArrayList<>();
+	private List<WorkspaceSymbol> workspaceSymbols = List.of();
+	private final List<WorkspaceSymbolParams> workspaceSymbolRequests = new CopyOnWriteArrayList<>();
+	private WorkspaceDiagnosticReport workspaceDiagnosticReport;
+	private List<WorkspaceDocumentDiagnosticReport> partialWorkspaceDiagnosticReports = List.of();
+	private final List<WorkspaceDiagnosticParams> workspaceDiagnosticRequests = new CopyOnWriteArrayList<>();
+	private final List<LanguageClient> remoteProxies = new CopyOnWriteArrayList<>();
 
 	public <U> MockWorkspaceService(Function<U, CompletableFuture<U>> futureFactory) {
 		this._futureFactory = futureFactory;
@@ -54,7 +67,50 @@ private <U> CompletableFuture<U> futureFactory(U value) {
 	@Override
 	public CompletableFuture<Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>>> symbol(
 			WorkspaceSymbolParams params) {
-		return null;
+		workspaceSymbolRequests.add(params);
+		final String query = params.getQuery().toLowerCase();
+		return futureFactory(Either.forRight(workspaceSymbols.stream()
+				.filter(symbol -> symbol.getName().toLowerCase().contains(query)).toList()));
+	}
+
+	public void setWorkspaceSymbols(List<WorkspaceSymbol> workspaceSymbols) {
+		this.workspaceSymbols = workspaceSymbols;
+	}
+
+	public List<WorkspaceSymbolParams> getWorkspaceSymbolRequests() {
+		return workspaceSymbolRequests;
+	}
+
+	@Override
+	public CompletableFuture<WorkspaceDiagnosticReport> diagnostic(WorkspaceDiagnosticParams params) {
+		workspaceDiagnosticRequests.add(params);
+		final var partialResultToken = params.getPartialResultToken();
+		if (partialResultToken != null && !partialWorkspaceDiagnosticReports.isEmpty()) {
+			final var progress = new ProgressParams(partialResultToken,
+					Either.forRight(new WorkspaceDiagnosticReportPartialResult(partialWorkspaceDiagnosticReports)));
+			remoteProxies.forEach(remoteProxy -> remoteProxy.notifyProgress(progress));
+		}
+		return futureFactory(workspaceDiagnosticReport);
+	}
+
+	public void setWorkspaceDiagnosticReport(WorkspaceDiagnosticReport workspaceDiagnosticReport) {
+		this.workspaceDiagnosticReport = workspaceDiagnosticReport;
+	}
+
+	/**
+	 * Sets the reports sent as partial result before the response, if the request
+	 * has a partial result token.
+	 */
+	public void setPartialWorkspaceDiagnosticReports(List<WorkspaceDocumentDiagnosticReport> reports) {
+		this.partialWorkspaceDiagnosticReports = reports;
+	}
+
+	public List<WorkspaceDiagnosticParams> getWorkspaceDiagnosticRequests() {
+		return workspaceDiagnosticRequests;
+	}
+
+	public void addRemoteProxy(LanguageClient remoteProxy) {
+		this.remoteProxies.add(remoteProxy);
 	}
 
 	@Override
@@ -0,0 +1,322 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.internal.CancellationUtil;
+import org.eclipse.lsp4j.Diagnostic;
+import org.eclipse.lsp4j.DiagnosticRegistrationOptions;
+import org.eclipse.lsp4j.DocumentDiagnosticParams;
+import org.eclipse.lsp4j.DocumentDiagnosticReport;
+import org.eclipse.lsp4j.FullDocumentDiagnosticReport;
+import org.eclipse.lsp4j.PreviousResultId;
+import org.eclipse.lsp4j.PublishDiagnosticsParams;
+import org.eclipse.lsp4j.UnchangedDocumentDiagnosticReport;
+import org.eclipse.lsp4j.WorkspaceDiagnosticParams;
+import org.eclipse.lsp4j.WorkspaceDiagnosticReportPartialResult;
+import org.eclipse.lsp4j.WorkspaceDocumentDiagnosticReport;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+
+/**
+ * Pulls the diagnostics of a language server providing them on request
+ * (<code>textDocument/diagnostic</code> and <code>workspace/diagnostic</code>)
+ * and hands them to the diagnostics consumer of its client, as if they had been
+ * published.
+ * <p>
+ * The diagnostics of the connected documents are pulled after they are opened
+ * or changed, those of the other files of the workspace by a background
+ * request reporting partial results. If the diagnostics of a document may
+ * depend on other files, the other connected documents and the workspace are
+ * pulled again once the diagnostics of the changed document are pulled. The result id of the last report of each
+ * document is sent with the next request, so that the server only reports the
+ * diagnostics which changed.
+ */
+final class DiagnosticsPuller {
+
+	/**
+	 * Delay after a change before the diagnostics of a document are pulled, so
+	 * that one request is sent for a burst of changes
+	 */
+	private static final long DOCUMENT_PULL_DELAY_MS = 200;
+
+	/**
+	 * Delay after the diagnostics of a changed document are pulled before those
+	 * of the documents which may depend on it are pulled, so that they are pulled
+	 * once for a burst of changes
+	 */
+	private static final long DEPENDENT_PULL_DELAY_MS = 500;
+
+	private final LanguageServerWrapper wrapper;
+	private final LanguageClientImpl languageClient;
+	private final DiagnosticRegistrationOptions diagnosticProvider;
+
+	/** Result ids of the last reports, by document URI */
+	private final Map<String, String> resultIds = new ConcurrentHashMap<>();
+	private final Map<URI, CompletableFuture<@Nullable Void>> documentPulls = new ConcurrentHashMap<>();
+	private volatile @Nullable CompletableFuture<?> workspacePull;
+	/** Documents changed since the documents depending on them were pulled */
+	private final Set<URI> changedDocuments = ConcurrentHashMap.newKeySet();
+	private volatile @Nullable CompletableFuture<@Nullable Void> dependentPull;
+	/** Whether a document changed since the pending workspace request was sent */
+	private volatile boolean workspaceChanged;
+	private volatile boolean disposed;
+
+	DiagnosticsPuller(LanguageServerWrapper wrapper, LanguageClientImpl languageClient,
+			DiagnosticRegistrationOptions diagnosticProvider) {
+		this.wrapper = wrapper;
+		this.languageClient = languageClient;
+		this.diagnosticProvider = diagnosticProvider;
+	}
+
+	/**
+	 * Pulls the diagnostics of the given connected document. Once they are
+	 * pulled, those of the other connected documents are pulled again if the
+	 * server reports that they may depend on each other, and those of the
+	 * workspace unless a workspace request is still pending.
+	 */
+	void documentChanged(URI uri) {
+		if (disposed) {
+			return;
+		}
+		final CompletableFuture<@Nullable Void> pull = pullDocument(uri);
+		if (diagnosticProvider.isInterFileDependencies() || diagnosticProvider.isWorkspaceDiagnostics()) {
+			changedDocuments.add(uri);
+			pull.thenRun(this::pullDependents);
+		}
+	}
+
+	/**
+	 * Pulls the diagnostics of the given connected document and of the workspace,
+	 * a pending workspace request being cancelled.
+	 */
+	void documentSaved(URI uri) {
+		documentChanged(uri);
+		pullWorkspace();
+	}
+
+	void documentClosed(URI uri) {
+		final CompletableFuture<@Nullable Void> pull = documentPulls.remove(uri);
+		if (pull != null) {
+			pull.cancel(true);
+		}
+	}
+
+	/**
+	 * Pulls the diagnostics of all connected documents and of the workspace again,
+	 * as requested by the server.
+	 */
+	void refresh() {
+		if (disposed) {
+			return;
+		}
+		for (final URI connectedUri : List.copyOf(wrapper.connectedDocuments.keySet())) {
+			pullDocument(connectedUri);
+		}
+		pullWorkspace();
+	}
+
+	/**
+	 * Cancels the pending requests, a new instance has to be created once the
+	 * server is restarted.
+	 */
+	void dispose() {
+		disposed = true;
+		documentPulls.values().forEach(pull -> pull.cancel(true));
+		documentPulls.clear();
+		final var dependentPull = this.dependentPull;
+		if (dependentPull != null) {
+			dependentPull.cancel(true);
+		}
+		changedDocuments.clear();
+		final var workspacePull = this.workspacePull;
+		if (workspacePull != null) {
+			workspacePull.cancel(true);
+		}
+		resultIds.clear();
+	}
+
+	private CompletableFuture<@Nullable Void> pullDocument(URI uri) {
+		final var pull = new CompletableFuture<@Nullable Void>();
+		final CompletableFuture<@Nullable Void> previousPull = documentPulls.put(uri, pull);
+		if (previousPull != null) {
+			previousPull.cancel(true);
+		}
+		CompletableFuture.delayedExecutor(DOCUMENT_PULL_DELAY_MS, TimeUnit.MILLISECONDS).execute(() -> {
+			if (pull.isDone()) { // superseded by a newer pull
+				return;
+			}
+			final String uriString = uri.toASCIIString();
+			final var params = new DocumentDiagnosticParams(LSPEclipseUtils.toTextDocumentIdentifier(uri));
+			params.setIdentifier(diagnosticProvider.getIdentifier());
+			params.setPreviousResultId(resultIds.get(uriString));
+			final CompletableFuture<DocumentDiagnosticReport> request = wrapper
+					.execute(ls -> ls.getTextDocumentService().diagnostic(params));
+			pull.whenComplete((result, error) -> request.cancel(true));
+			request.whenComplete((report, error) -> {
+				documentPulls.remove(uri, pull);
+				if (pull.isDone()) {
+					return;
+				}
+				if (report != null) {
+					acceptDocumentReport(uriString, report);
+				} else if (error != null) {
+					logError(error);
+				}
+				pull.complete(null);
+			});
+		});
+		return pull;
+	}
+
+	/**
+	 * Pulls the diagnostics of the connected documents which have not changed and
+	 * of the workspace after a delay, a pending pull of them being cancelled.
+	 */
+	private void pullDependents() {
+		final var pull = new CompletableFuture<@Nullable Void>();
+		final CompletableFuture<@Nullable Void> previousPull;
+		synchronized (changedDocuments) {
+			previousPull = this.dependentPull;
+			this.dependentPull = pull;
+		}
+		if (previousPull != null) {
+			previousPull.cancel(true);
+		}
+		CompletableFuture.delayedExecutor(DEPENDENT_PULL_DELAY_MS, TimeUnit.MILLISECONDS).execute(() -> {
+			if (pull.isDone() || disposed) { // superseded by a newer pull
+				return;
+			}
+			pull.complete(null);
+			if (diagnosticProvider.isInterFileDependencies()) {
+				for (final URI connectedUri : List.copyOf(wrapper.connectedDocuments.keySet())) {
+					// the diagnostics of the changed documents were just pulled
+					if (!changedDocuments.contains(connectedUri)) {
+						pullDocument(connectedUri);
+					}
+				}
+			}
+			changedDocuments.clear();
+			if (diagnosticProvider.isWorkspaceDiagnostics()) {
+				final var workspacePull = this.workspacePull;
+				if (workspacePull == null || workspacePull.isDone()) {
+					pullWorkspace();
+				} else {
+					// pulled again once the pending request finishes
+					workspaceChanged = true;
+				}
+			}
+		});
+	}
+
+	private void acceptDocumentReport(String uri, DocumentDiagnosticReport report) {
+		final Map<String, Either<FullDocumentDiagnosticReport, UnchangedDocumentDiagnosticReport>> relatedDocuments;
+		if (report.isRelatedFullDocumentDiagnosticReport()) {
+			final var fullReport = report.getRelatedFullDocumentDiagnosticReport();
+			accept(uri, fullReport);
+			relatedDocuments = fullReport.getRelatedDocuments();
+		} else {
+			final var unchangedReport = report.getRelatedUnchangedDocumentDiagnosticReport();
+			resultIds.put(uri, unchangedReport.getResultId());
+			relatedDocuments = unchangedReport.getRelatedDocuments();
+		}
+		if (relatedDocuments != null) {
+			relatedDocuments.forEach((relatedUri, relatedReport) -> {
+				if (relatedReport.isLeft()) {
+					accept(relatedUri, relatedReport.getLeft());
+				} else {
+					resultIds.put(relatedUri, relatedReport.getRight().getResultId());
+				}
+			});
+		}
+	}
+
+	/**
+	 * Pulls the diagnostics of the workspace, if supported by the server. A
+	 * pending workspace request is cancelled.
+	 */
+	void pullWorkspace() {
+		if (disposed || !diagnosticProvider.isWorkspaceDiagnostics()) {
+			return;
+		}
+		final var previousWorkspacePull = this.workspacePull;
+		if (previousWorkspacePull != null) {
+			previousWorkspacePull.cancel(true);
+		}
+		final var previousResultIds = new ArrayList<PreviousResultId>(resultIds.size());
+		resultIds.forEach((uri, resultId) -> previousResultIds.add(new PreviousResultId(uri, resultId)));
+		final var params = new WorkspaceDiagnosticParams(previousResultIds);
+		params.setIdentifier(diagnosticProvider.getIdentifier());
+		final String partialResultToken = UUID.randomUUID().toString();
+		params.setPartialResultToken(Either.forLeft(partialResultToken));
+		languageClient.<WorkspaceDiagnosticReportPartialResult>addPartialResultConsumer(partialResultToken,
+				WorkspaceDiagnosticReportPartialResult.class, result -> acceptWorkspaceReports(result.getItems()));
+		workspaceChanged = false;
+		final var request = wrapper.execute(ls -> ls.getWorkspaceService().diagnostic(params));
+		this.workspacePull = request;
+		request.whenComplete((report, error) -> {
+			languageClient.removePartialResultConsumer(partialResultToken);
+			if (report != null) {
+				acceptWorkspaceReports(report.getItems());
+			} else if (error != null) {
+				logError(error);
+			}
+			// documents changed while the request was pending, unless it was superseded
+			if (!disposed && workspaceChanged && this.workspacePull == request) {
+				pullWorkspace();
+			}
+		});
+	}
+
+	private void acceptWorkspaceReports(@Nullable List<WorkspaceDocumentDiagnosticReport> reports) {
+		if (reports == null || disposed) {
+			return;
+		}
+		for (final WorkspaceDocumentDiagnosticReport report : reports) {
+			if (report.isWorkspaceFullDocumentDiagnosticReport()) {
+				final var fullReport = report.getWorkspaceFullDocumentDiagnosticReport();
+				// the diagnostics of the connected documents are pulled for their current content
+				if (!wrapper.isConnectedTo(LSPEclipseUtils.toUri(fullReport.getUri()))) {
+					accept(fullReport.getUri(), fullReport);
+				}
+			} else {
+				final var unchangedReport = report.getWorkspaceUnchangedDocumentDiagnosticReport();
+				resultIds.put(unchangedReport.getUri(), unchangedReport.getResultId());
+			}
+		}
+	}
+
+	private void accept(String uri, FullDocumentDiagnosticReport report) {
+		final String resultId = report.getResultId();
+		if (resultId != null) {
+			resultIds.put(uri, resultId);
+		} else {
+			resultIds.remove(uri);
+		}
+		final List<Diagnostic> diagnostics = report.getItems();
+		languageClient.publishDiagnostics(new PublishDiagnosticsParams(uri, diagnostics != null ? diagnostics : List.of()));
+	}
+
+	private static void logError(Throwable error) {
+		if (!CancellationUtil.isRequestCancelledException(error) && !(error instanceof CancellationException)
+				&& !(error.getCause() instanceof CancellationException)) {
+			LanguageServerPlugin.logError(error);
+		}
+	}
+}
@@ -17,6 +17,7 @@
 
 import java.io.File;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +46,8 @@
 import org.eclipse.jface.text.MultiTextSelection;
 import org.eclipse.lsp4e.format.IFormatRegionsProvider;
 import org.eclipse.lsp4e.internal.DocumentUtil;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4e.internal.PositionEncodings;
 import org.eclipse.lsp4e.operations.format.LSPFormatter;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4j.DidChangeTextDocumentParams;
@@ -81,11 +84,26 @@ final class DocumentContentSynchronizer implements IDocumentListener {
 	private final TextDocumentSyncKind syncKind;
 
 	private int version = 0;
+	/**
+	 * Version of the last content sent to the server, updated on the dispatch
+	 * thread of the server when the notification is sent
+	 */
+	private volatile int sentVersion = 0;
 	private @Nullable DidChangeTextDocumentParams changeParams;
 	private long openSaveStamp;
 	private IPreferenceStore store;
 	private @Nullable IFormatRegionsProvider formatRegionsProvider;
 
+	/**
+	 * Delay in milliseconds during which consecutive changes are merged into a
+	 * single didChange notification, 0 if coalescing is disabled
+	 */
+	private final int changeCoalescingDelay;
+	private final List<TextDocumentContentChangeEvent> pendingChanges = new ArrayList<>();
+	private boolean flushScheduled;
+	private volatile boolean closed;
+	private final @Nullable String positionEncoding;
+
 	public DocumentContentSynchronizer(LanguageServerWrapper languageServerWrapper, LanguageServer languageServer,
 			IDocument document, @Nullable TextDocumentSyncKind syncKind) {
 		this.languageServerWrapper = languageServerWrapper;
@@ -108,6 +126,9 @@ public DocumentContentSynchronizer(LanguageServerWrapper languageServerWrapper,
 
 		this.document = document;
 		this.store = LanguageServerPlugin.getDefault().getPreferenceStore();
+		this.changeCoalescingDelay = Math.max(0, store.getInt(lsToChangeCoalescingDelayKey(languageServerWrapper.serverDefinition.id)));
+		this.positionEncoding = languageServerWrapper.getPositionEncoding();
+		PositionEncodings.connect(document, positionEncoding);
 
 		// add a document buffer
 		final var textDocument = new TextDocumentItem();
@@ -139,6 +160,7 @@ public DocumentContentSynchronizer(LanguageServerWrapper languageServerWrapper,
 		textDocument.setLanguageId(languageId);
 		textDocument.setVersion(++version);
 		languageServer.getTextDocumentService().didOpen(new DidOpenTextDocumentParams(textDocument));
+		sentVersion = version;
 	}
 
 
@@ -153,9 +175,59 @@ public void documentChanged(DocumentEvent event) {
 			final DidChangeTextDocumentParams changeParamsToSend = changeParams;
 			changeParams = null;
 
+			if (changeCoalescingDelay > 0) {
+				enqueueChanges(changeParamsToSend.getContentChanges());
+				return;
+			}
 			changeParamsToSend.getTextDocument().setVersion(++version);
-			languageServerWrapper.sendNotification(ls -> ls.getTextDocumentService().didChange(changeParamsToSend));
+			sendChanges(changeParamsToSend);
+			languageServerWrapper.documentContentChanged(fileUri);
+		}
+	}
+
+	/**
+	 * Keeps the given changes back until the coalescing delay has elapsed or
+	 * {@link #flushPendingChanges()} is called, so that bursts of edits (fast
+	 * typing, macros, multi-caret edits) are sent as a single notification.
+	 */
+	private synchronized void enqueueChanges(List<TextDocumentContentChangeEvent> changes) {
+		if (syncKind == TextDocumentSyncKind.Full) {
+			// only the latest full content is relevant
+			pendingChanges.clear();
+		}
+		pendingChanges.addAll(changes);
+		languageServerWrapper.documentChangesPending(this);
+		if (!flushScheduled) {
+			flushScheduled = true;
+			CompletableFuture.runAsync(this::flushPendingChanges,
+					CompletableFuture.delayedExecutor(changeCoalescingDelay, TimeUnit.MILLISECONDS));
+		}
+	}
+
+	/**
+	 * Sends the changes kept back by the coalescing mode as one didChange
+	 * notification. The incremental changes are already relative to the document
+	 * state resulting from the preceding ones, so they are sent in their original
+	 * order.
+	 */
+	synchronized void flushPendingChanges() {
+		flushScheduled = false;
+		if (closed || pendingChanges.isEmpty()) {
+			return;
 		}
+		final var changeParamsToSend = new DidChangeTextDocumentParams(
+				new VersionedTextDocumentIdentifier(fileUri.toASCIIString(), ++version), new ArrayList<>(pendingChanges));
+		pendingChanges.clear();
+		sendChanges(changeParamsToSend);
+		languageServerWrapper.documentContentChanged(fileUri);
+	}
+
+	private void sendChanges(DidChangeTextDocumentParams changeParams) {
+		final int changedVersion = changeParams.getTextDocument().getVersion();
+		languageServerWrapper.sendNotification(ls -> {
+			ls.getTextDocumentService().didChange(changeParams);
+			sentVersion = changedVersion;
+		});
 	}
 
 	@Override
@@ -198,8 +270,9 @@ private boolean createChangeEvent(DocumentEvent event) {
 			int length = event.getLength();
 			try {
 				// try to convert the Eclipse start/end offset to LS range.
-				final var range = new Range(LSPEclipseUtils.toPosition(offset, document),
-						LSPEclipseUtils.toPosition(offset + length, document));
+				final LineIndex lineIndex = LineIndex.of(document);
+				final var range = new Range(lineIndex.toPosition(offset, positionEncoding),
+						lineIndex.toPosition(offset + length, positionEncoding));
 				changeEvent.setRange(range);
 				changeEvent.setText(newText);
 				changeEvent.setRangeLength(length);
@@ -225,6 +298,7 @@ private boolean serverSupportsWillSaveWaitUntil() {
 	}
 
 	private static final String WILL_SAVE_WAIT_UNTIL_TIMEOUT__KEY = "timeout.willSaveWaitUntil"; //$NON-NLS-1$
+	private static final String CHANGE_COALESCING_DELAY__KEY = "delay.didChangeCoalescing"; //$NON-NLS-1$
 
 	private static final int WILL_SAVE_WAIT_UNTIL_COUNT_THRESHOLD = 3;
 	private static final Map<String, Integer> WILL_SAVE_WAIT_UNTIL_TIMEOUT_MAP = new ConcurrentHashMap<>();
@@ -239,6 +313,17 @@ private static String lsToWillSaveWaitUntilTimeoutKey(String serverId) {
 		return serverId + '.' + WILL_SAVE_WAIT_UNTIL_TIMEOUT__KEY;
 	}
 
+	/**
+	 * Converts a language server ID to the preference ID to define the delay (in
+	 * milliseconds) during which document changes are coalesced before being sent
+	 * to the language server. A value of 0 (the default) disables coalescing.
+	 *
+	 * @return language server's preference ID to define the didChange coalescing delay
+	 */
+	private static String lsToChangeCoalescingDelayKey(String serverId) {
+		return serverId + '.' + CHANGE_COALESCING_DELAY__KEY;
+	}
+
 	private int lsToWillSaveWaitUntilTimeout() {
 		int defaultWillSaveWaitUntilTimeoutInSeconds = 5;
 		int willSaveWaitUntilTimeout = store.getInt(lsToWillSaveWaitUntilTimeoutKey(languageServerWrapper.serverDefinition.id));
@@ -264,7 +349,7 @@ public void documentAboutToBeSaved() {
 			List<TextEdit> edits = languageServerWrapper.executeImpl(ls -> ls.getTextDocumentService().willSaveWaitUntil(params))
 				.get(lsToWillSaveWaitUntilTimeout(), TimeUnit.SECONDS);
 			try {
-				LSPEclipseUtils.applyEdits(document, edits);
+				LSPEclipseUtils.applyEdits(document, edits, positionEncoding);
 			} catch (BadLocationException e) {
 				LanguageServerPlugin.logError(e);
 			}
@@ -349,21 +434,22 @@ private void formatDocument() {
 					&& !(LSPFormatter.isDocumentFormattingSupported(capabilities))) {
 				try {
 					DocumentRangeFormattingParams rangeParams = LSPFormatter.getRangeFormattingParams(document,
-							textSelection, formatOptions, docId);
+							textSelection, formatOptions, docId, positionEncoding);
 					return languageServerWrapper
 							.executeImpl(ls -> ls.getTextDocumentService().rangeFormatting(rangeParams)
-									.thenApply(edits -> new VersionedEdits(modificationStamp, edits, document)));
+									.thenApply(edits -> new VersionedEdits(modificationStamp, edits, document, positionEncoding)));
 				} catch (BadLocationException ex) {
 					throw new RuntimeException(ex);
 				}
 			}
 			var params = LSPFormatter.getFullFormatParams(formatOptions, docId);
 			return languageServerWrapper.executeImpl(ls -> ls.getTextDocumentService().formatting(params)
-					.thenApply(edits -> new VersionedEdits(modificationStamp, edits, document)));
+					.thenApply(edits -> new VersionedEdits(modificationStamp, edits, document, positionEncoding)));
 		});
 	}
 
 	public void documentSaved(IFileBuffer buffer) {
+		flushPendingChanges();
 		if (openSaveStamp >= buffer.getModificationStamp()) {
 			return;
 		}
@@ -380,6 +466,7 @@ public void documentSaved(IFileBuffer buffer) {
 		final var params = new DidSaveTextDocumentParams(identifier, document.get());
 
 		languageServerWrapper.sendNotification(ls -> ls.getTextDocumentService().didSave(params));
+		languageServerWrapper.documentSaved(fileUri);
 
 	}
 
@@ -389,9 +476,12 @@ public void documentSaved(IFileBuffer buffer) {
 		// When LS is shut down all documents are being disconnected. No need to send
 		// "didClose" message to the LS that is being shut down or not yet started
 		if (languageServerWrapper.isActive()) {
+			flushPendingChanges();
 			final var params = new DidCloseTextDocumentParams(identifier);
 			languageServerWrapper.sendNotification(ls -> ls.getTextDocumentService().didClose(params));
 		}
+		closed = true;
+		PositionEncodings.disconnect(document, positionEncoding);
 		return CompletableFuture.completedFuture(null);
 	}
 
@@ -410,10 +500,20 @@ public IDocument getDocument() {
 		return this.document;
 	}
 
-	int getVersion() {
+	synchronized int getVersion() {
+		flushPendingChanges();
 		return version;
 	}
 
+	/**
+	 * @return the version of the content last sent to the server. Read on the
+	 *         dispatch thread of the server, it is the version of the content the
+	 *         server has when a request is sent.
+	 */
+	int getSentVersion() {
+		return sentVersion;
+	}
+
 	private void checkEvent(DocumentEvent event) {
 		if (this.document != event.getDocument()) {
 			throw new IllegalStateException(
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Responses of a language server to idempotent requests on its connected
+ * documents (e.g. <code>textDocument/documentLink</code>), kept for the last
+ * version of each document so that the features sending the same request for
+ * the same version share one response, pending or completed.
+ */
+final class DocumentResponseCache {
+
+	private record DocumentResponses(int version, Map<List<Object>, SharedResponse> responses) {
+
+		void cancel() {
+			responses.values().forEach(SharedResponse::cancel);
+		}
+	}
+
+	/**
+	 * A pending or completed request whose response is shared by the features
+	 * which sent it. The request is cancelled once all of them cancelled their
+	 * response.
+	 */
+	private static final class SharedResponse {
+
+		final CompletableFuture<?> request;
+		private int callers;
+		private boolean cancelled;
+
+		SharedResponse(CompletableFuture<?> request) {
+			this.request = request;
+		}
+
+		/**
+		 * @return whether the response can still be shared by one more feature
+		 */
+		synchronized boolean share() {
+			if (cancelled) {
+				return false;
+			}
+			callers++;
+			return true;
+		}
+
+		/**
+		 * Releases the response of a feature.
+		 *
+		 * @return whether the request was cancelled because no feature needs it
+		 *         anymore
+		 */
+		synchronized boolean release() {
+			callers--;
+			if (callers == 0 && !request.isDone()) {
+				cancel();
+				return true;
+			}
+			return false;
+		}
+
+		synchronized void cancel() {
+			cancelled = true;
+			request.cancel(true);
+		}
+	}
+
+	private final Map<URI, DocumentResponses> documents = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the response to the request with the given method and parameters on
+	 *         the given version of the document, sending the given request if
+	 *         there is none. The pending requests of older versions are cancelled.
+	 */
+	@SuppressWarnings("unchecked")
+	<T> CompletableFuture<T> get(URI uri, int version, String method, Object params,
+			Supplier<? extends CompletableFuture<T>> request) {
+		final DocumentResponses document = documents.compute(uri, (key, previous) -> {
+			if (previous != null && previous.version() >= version) {
+				return previous;
+			}
+			if (previous != null) {
+				previous.cancel();
+			}
+			return new DocumentResponses(version, new ConcurrentHashMap<>());
+		});
+		if (document.version() != version) { // sent for an outdated version
+			return request.get();
+		}
+		final var key = List.of(method, params);
+		while (true) {
+			final SharedResponse shared = document.responses().computeIfAbsent(key, k -> {
+				final var sent = new SharedResponse(request.get());
+				sent.request.whenComplete((result, error) -> {
+					if (error != null) { // sent again next time
+						document.responses().remove(k, sent);
+					}
+				});
+				return sent;
+			});
+			if (!shared.share()) { // cancelled meanwhile
+				document.responses().remove(key, shared);
+				continue;
+			}
+			// cancelling the request of one feature must not cancel those of the others
+			final CompletableFuture<T> response = ((CompletableFuture<T>) shared.request).thenApply(Function.identity());
+			response.whenComplete((result, error) -> {
+				if (shared.release()) {
+					document.responses().remove(key, shared);
+				}
+			});
+			return response;
+		}
+	}
+
+	/**
+	 * Drops the responses to the requests with the given method, which the server
+	 * asked to refresh.
+	 */
+	void remove(String method) {
+		documents.values().forEach(document -> document.responses().keySet().removeIf(key -> key.get(0).equals(method)));
+	}
+
+	void remove(URI uri) {
+		final DocumentResponses document = documents.remove(uri);
+		if (document != null) {
+			document.cancel();
+		}
+	}
+
+	void clear() {
+		documents.values().forEach(DocumentResponses::cancel);
+		documents.clear();
+	}
+}
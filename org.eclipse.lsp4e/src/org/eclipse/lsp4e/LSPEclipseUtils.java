@@ -93,7 +93,10 @@
 import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.ISelectionProvider;
 import org.eclipse.lsp4e.internal.ArrayUtil;
+import org.eclipse.lsp4e.internal.ContentTypeCache;
 import org.eclipse.lsp4e.internal.DocumentInputStream;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4e.internal.PositionEncodings;
 import org.eclipse.lsp4e.refactoring.CreateFileChange;
 import org.eclipse.lsp4e.refactoring.DeleteExternalFile;
 import org.eclipse.lsp4e.refactoring.LSPTextChange;
@@ -190,14 +193,64 @@ private LSPEclipseUtils() {
 		// this class shouldn't be instantiated
 	}
 
+	/**
+	 * Converts the given offset to a position using the position encoding of the
+	 * language servers connected to the document.
+	 *
+	 * @see #toPosition(int, IDocument, String)
+	 */
 	public static Position toPosition(int offset, IDocument document) throws BadLocationException {
+		final String positionEncoding = PositionEncodings.getDocumentEncoding(document);
+		if (positionEncoding != null) {
+			return LineIndex.of(document).toPosition(offset, positionEncoding);
+		}
+		final LineIndex lineIndex = LineIndex.getCached(document);
+		if (lineIndex != null) {
+			return lineIndex.toPosition(offset);
+		}
 		final var res = new Position();
 		res.setLine(document.getLineOfOffset(offset));
 		res.setCharacter(offset - document.getLineInformationOfOffset(offset).getOffset());
 		return res;
 	}
 
+	/**
+	 * Converts the given offset to a position for a language server negotiating
+	 * the given position encoding.
+	 *
+	 * @param positionEncoding
+	 *            see {@link LanguageServerWrapper#getPositionEncoding()}
+	 */
+	public static Position toPosition(int offset, IDocument document, @Nullable String positionEncoding) throws BadLocationException {
+		return LineIndex.of(document).toPosition(offset, positionEncoding);
+	}
+
+	/**
+	 * Converts the given position of a language server negotiating the given
+	 * position encoding to an offset.
+	 *
+	 * @param positionEncoding
+	 *            see {@link LanguageServerWrapper#getPositionEncoding()}
+	 */
+	public static int toOffset(Position position, IDocument document, @Nullable String positionEncoding) throws BadLocationException {
+		return LineIndex.of(document).toOffset(position, positionEncoding);
+	}
+
+	/**
+	 * Converts the given position to an offset using the position encoding of the
+	 * language servers connected to the document.
+	 *
+	 * @see #toOffset(Position, IDocument, String)
+	 */
 	public static int toOffset(Position position, IDocument document) throws BadLocationException {
+		final String positionEncoding = PositionEncodings.getDocumentEncoding(document);
+		if (positionEncoding != null) {
+			return LineIndex.of(document).toOffset(position, positionEncoding);
+		}
+		final LineIndex lineIndex = LineIndex.getCached(document);
+		if (lineIndex != null) {
+			return lineIndex.toOffset(position);
+		}
 		var line = position.getLine();
 		final int character;
 
@@ -288,8 +341,11 @@ public static TextDocumentPositionParams toTextDocumentPosistionParams(URI fileU
 
 	private static <T extends TextDocumentPositionParams> T toTextDocumentPositionParamsCommon(@NonNull T param,  int offset, IDocument document)
 			throws BadLocationException {
+		return toTextDocumentPositionParamsCommon(param, toPosition(offset, document), document);
+	}
+
+	private static <T extends TextDocumentPositionParams> T toTextDocumentPositionParamsCommon(@NonNull T param, Position start, IDocument document) {
 		URI uri = toUri(document);
-		Position start = toPosition(offset, document);
 		param.setPosition(start);
 		final var id = new TextDocumentIdentifier();
 		if (uri != null) {
@@ -303,6 +359,14 @@ public static HoverParams toHoverParams(int offset, IDocument document) throws B
 		return toTextDocumentPositionParamsCommon(new HoverParams(), offset, document);
 	}
 
+	/**
+	 * @param positionEncoding
+	 *            see {@link LanguageServerWrapper#getPositionEncoding()}
+	 */
+	public static HoverParams toHoverParams(int offset, IDocument document, @Nullable String positionEncoding) throws BadLocationException {
+		return toTextDocumentPositionParamsCommon(new HoverParams(), toPosition(offset, document, positionEncoding), document);
+	}
+
 	public static SignatureHelpParams toSignatureHelpParams(int offset, IDocument document)
 			throws BadLocationException {
 		return toTextDocumentPositionParamsCommon(new SignatureHelpParams(), offset, document);
@@ -519,11 +583,33 @@ public static void applyEdits(@Nullable IDocument document, @Nullable List<? ext
 		if (document == null || edits == null || edits.isEmpty()) {
 			return;
 		}
+		applyEdits(document, edits, PositionEncodings.getDocumentEncoding(document));
+	}
 
+	/**
+	 * Method will apply all edits of a language server negotiating the given
+	 * position encoding to document as single modification. Needs to be executed
+	 * in UI thread.
+	 *
+	 * @param document
+	 *            document to modify
+	 * @param edits
+	 *            list of LSP TextEdits
+	 * @param positionEncoding
+	 *            see {@link LanguageServerWrapper#getPositionEncoding()}
+	 * @throws BadLocationException
+	 */
+	public static void applyEdits(@Nullable IDocument document, @Nullable List<? extends TextEdit> edits,
+			@Nullable String positionEncoding) throws BadLocationException {
+		if (document == null || edits == null || edits.isEmpty()) {
+			return;
+		}
+
+		final var lineIndex = LineIndex.of(document);
 		final var edit = new MultiTextEdit();
 		for (final TextEdit textEdit : edits) {
-			int offset = toOffset(textEdit.getRange().getStart(), document);
-			int length = toOffset(textEdit.getRange().getEnd(), document) - offset;
+			int offset = lineIndex.toOffset(textEdit.getRange().getStart(), positionEncoding);
+			int length = lineIndex.toOffset(textEdit.getRange().getEnd(), positionEncoding) - offset;
 			if (length < 0) {
 				// Must be a bad location: we bail out to avoid corrupting the document.
 				throw new BadLocationException("Invalid location information found applying edits"); //$NON-NLS-1$
@@ -532,7 +618,7 @@ public static void applyEdits(@Nullable IDocument document, @Nullable List<? ext
 			var newText = textEdit.getNewText();
 			if (!document.get(offset, length).equals(newText)) {
 				if (newText.length() > 0) {
-					var zeroBasedDocumentLines = Math.max(0, document.getNumberOfLines() - 1);
+					var zeroBasedDocumentLines = Math.max(0, lineIndex.getNumberOfLines() - 1);
 					var endLine = textEdit.getRange().getEnd().getLine();
 					endLine = endLine > zeroBasedDocumentLines ? zeroBasedDocumentLines : endLine;
 					// Do not split "\r\n" line ending:
@@ -923,6 +1009,24 @@ public static void applyWorkspaceEdit(@Nullable WorkspaceEdit wsEdit) {
 	 * @param label
 	 */
 	public static void applyWorkspaceEdit(@Nullable WorkspaceEdit wsEdit, @Nullable String label) {
+		applyWorkspaceEdit(wsEdit, label, null);
+	}
+
+	/**
+	 * Applies a workspace edit sent by the given language server, whose positions
+	 * use the position encoding negotiated by that server. It does simply change
+	 * the underlying documents if all are currently open in an editor, otherwise,
+	 * it performs a refactoring that will result on filesystem changes.
+	 *
+	 * @param wsEdit
+	 * @param label
+	 * @param wrapper
+	 *            the language server which sent the edit, <code>null</code> if
+	 *            unknown, in which case the positions are assumed to use the
+	 *            encoding of the documents
+	 */
+	public static void applyWorkspaceEdit(@Nullable WorkspaceEdit wsEdit, @Nullable String label,
+			@Nullable LanguageServerWrapper wrapper) {
 		if (wsEdit == null) {
 			return;
 		}
@@ -930,16 +1034,16 @@ public static void applyWorkspaceEdit(@Nullable WorkspaceEdit wsEdit, @Nullable
 		String name = label == null ? DEFAULT_LABEL : label;
 
 		if (wsEdit.getChangeAnnotations() != null && wsEdit.getChangeAnnotations().values().stream().anyMatch(ca -> ca.getNeedsConfirmation() != null && ca.getNeedsConfirmation())) {
-			runRefactorWizardOperation(toCompositeChange(wsEdit, name));
+			runRefactorWizardOperation(toCompositeChange(wsEdit, name, wrapper, null));
 		} else {
 
-			if (applyWorkspaceEditIfSingleOpenFile(wsEdit)) {
+			if (applyWorkspaceEditIfSingleOpenFile(wsEdit, wrapper)) {
 				return;
 			}
 
 			// multiple documents or some ResourceChanges => create a refactoring
 			final var changedURIs = new HashMap<URI, Range>();
-			CompositeChange change = toCompositeChange(wsEdit, name, changedURIs);
+			CompositeChange change = toCompositeChange(wsEdit, name, wrapper, changedURIs);
 
 			final var changeOperation = new PerformChangeOperation(change);
 			changeOperation.setUndoManager(RefactoringCore.getUndoManager(), name);
@@ -1012,7 +1116,8 @@ protected void addUserInputPages() {
 	 * @return <code>true<code> if the wsEdit matches a single open file and was performed on editor,
 	 *         <code>false</code> otherwise, thus the wsEdit needs to be performed differently.
 	 */
-	private static boolean applyWorkspaceEditIfSingleOpenFile(WorkspaceEdit wsEdit) {
+	private static boolean applyWorkspaceEditIfSingleOpenFile(WorkspaceEdit wsEdit,
+			@Nullable LanguageServerWrapper wrapper) {
 		final var documentUris = new HashSet<URI>();
 		final var firstDocumentEdits = new ArrayList<TextEdit>(); // collect edits
 		if (wsEdit.getChanges() != null && !wsEdit.getChanges().isEmpty()) {
@@ -1055,7 +1160,11 @@ private static boolean applyWorkspaceEditIfSingleOpenFile(WorkspaceEdit wsEdit)
 
 		doc.ifPresent(document -> UI.getDisplay().syncExec(() -> {
 			try {
-				LSPEclipseUtils.applyEdits(document, firstDocumentEdits);
+				if (wrapper != null) {
+					LSPEclipseUtils.applyEdits(document, firstDocumentEdits, wrapper.getPositionEncoding());
+				} else {
+					LSPEclipseUtils.applyEdits(document, firstDocumentEdits);
+				}
 			} catch (BadLocationException ex) {
 				LanguageServerPlugin.logError(ex);
 			}
@@ -1071,7 +1180,21 @@ private static boolean applyWorkspaceEditIfSingleOpenFile(WorkspaceEdit wsEdit)
 	 * @return a ltk {@link CompositeChange} from a lsp {@link WorkspaceEdit}.
 	 */
 	public static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String name) {
-		return toCompositeChange(wsEdit, name, null);
+		return toCompositeChange(wsEdit, name, null, null);
+	}
+
+	/**
+	 * Returns a ltk {@link CompositeChange} from a lsp {@link WorkspaceEdit} sent
+	 * by the given language server, whose position encoding is used to convert the
+	 * text edits.
+	 *
+	 * @param wsEdit
+	 * @param name
+	 * @param wrapper
+	 * @return a ltk {@link CompositeChange} from a lsp {@link WorkspaceEdit}.
+	 */
+	public static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String name, LanguageServerWrapper wrapper) {
+		return toCompositeChange(wsEdit, name, wrapper, null);
 	}
 
 	/**
@@ -1079,10 +1202,12 @@ public static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String nam
 	 *
 	 * @param wsEdit
 	 * @param name
+	 * @param wrapper the language server which sent the edit, <code>null</code> if unknown
 	 * @param collector A map of URI to Range entries collected from WorkspaceEdit
 	 * @return a ltk {@link CompositeChange} from a lsp {@link WorkspaceEdit}.
 	 */
-	private static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String name, @Nullable Map<URI, Range> collector) {
+	private static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String name,
+			@Nullable LanguageServerWrapper wrapper, @Nullable Map<URI, Range> collector) {
 		final var change = new CompositeChange(name);
 		List<Either<TextDocumentEdit, ResourceOperation>> documentChanges = wsEdit.getDocumentChanges();
 		if (documentChanges != null) {
@@ -1095,7 +1220,7 @@ private static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String na
 					VersionedTextDocumentIdentifier id = edit.getTextDocument();
 					URI uri = URI.create(id.getUri());
 					List<TextEdit> textEdits = edit.getEdits();
-					change.add(toChanges(uri, textEdits));
+					change.add(toChanges(uri, textEdits, wrapper));
 					collectChangedURI(uri, textEdits, collector);
 				} else if (action.isRight()) {
 					ResourceOperation resourceOperation = action.getRight();
@@ -1185,7 +1310,7 @@ private static CompositeChange toCompositeChange(WorkspaceEdit wsEdit, String na
 				for (java.util.Map.Entry<String, List<TextEdit>> edit : changes.entrySet()) {
 					URI uri = URI.create(edit.getKey());
 					List<TextEdit> textEdits = edit.getValue();
-					change.add(toChanges(uri, textEdits));
+					change.add(toChanges(uri, textEdits, wrapper));
 					collectChangedURI(uri, textEdits, collector);
 				}
 			}
@@ -1243,12 +1368,14 @@ private static boolean rangeStartIsLessThan(@Nullable Range range, @Nullable Ran
 	 *            document URI to update
 	 * @param textEdits
 	 *            CompositeChange with LSP text edits
+	 * @param wrapper
+	 *            the language server which sent the edits, <code>null</code> if unknown
 	 */
-	private static Change toChanges(URI uri, List<TextEdit> textEdits) {
+	private static Change toChanges(URI uri, List<TextEdit> textEdits, @Nullable LanguageServerWrapper wrapper) {
 		LSPTextChange[] changes = textEdits.stream()
 				.sorted(Comparator.comparing((TextEdit edit) -> edit.getRange().getStart(),
 						Comparator.comparingInt(Position::getLine).thenComparingInt(Position::getCharacter).reversed()))
-				.map(te -> new LSPTextChange("Line: %d".formatted(te.getRange().getStart().getLine() + 1), uri, te)) //$NON-NLS-1$
+				.map(te -> new LSPTextChange("Line: %d".formatted(te.getRange().getStart().getLine() + 1), uri, te, wrapper)) //$NON-NLS-1$
 				.toArray(LSPTextChange[]::new);
 		return new CompositeChange(uri.toString(), changes);
 	}
@@ -1367,9 +1494,17 @@ private static String getFileName(@Nullable ITextFileBuffer buffer) {
 	}
 
 	public static List<IContentType> getDocumentContentTypes(IDocument document) {
+		ITextFileBuffer buffer = toBuffer(document);
+		if (buffer != null) {
+			// detection may read the whole content, so reuse the content types until the buffer changes
+			return new ArrayList<>(ContentTypeCache.get(buffer, () -> computeDocumentContentTypes(document, buffer)));
+		}
+		return computeDocumentContentTypes(document, null);
+	}
+
+	private static List<IContentType> computeDocumentContentTypes(IDocument document, @Nullable ITextFileBuffer buffer) {
 		final var contentTypes = new ArrayList<IContentType>();
 
-		ITextFileBuffer buffer = toBuffer(document);
 		if (buffer != null) {
 			try {
 				// may be a more specific content-type, relying on some content-type factory and actual content (not just name)
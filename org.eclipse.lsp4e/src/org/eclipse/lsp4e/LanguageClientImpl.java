@@ -15,10 +15,15 @@
 
 import static org.eclipse.lsp4e.internal.NullSafetyHelper.lateNonNull;
 
+import java.lang.reflect.Type;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.eclipse.core.runtime.Adapters;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -28,6 +33,7 @@
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.source.SourceViewer;
+import org.eclipse.lsp4e.operations.diagnostics.LSPDiagnosticsToMarkers;
 import org.eclipse.lsp4e.progress.LSPProgressManager;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4e.ui.UI;
@@ -46,15 +52,22 @@
 import org.eclipse.lsp4j.UnregistrationParams;
 import org.eclipse.lsp4j.WorkDoneProgressCreateParams;
 import org.eclipse.lsp4j.WorkspaceFolder;
+import org.eclipse.lsp4j.jsonrpc.json.MessageJsonHandler;
 import org.eclipse.lsp4j.services.LanguageClient;
 import org.eclipse.lsp4j.services.LanguageServer;
 import org.eclipse.ui.IEditorReference;
 import org.eclipse.ui.IWorkbenchPage;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
 public class LanguageClientImpl implements LanguageClient {
 
+	private static final Gson GSON = new MessageJsonHandler(Map.of()).getGson();
+
 	private Consumer<PublishDiagnosticsParams> diagnosticConsumer = lateNonNull();
 	private final LSPProgressManager progressManager = new LSPProgressManager();
+	private final Map<String, Consumer<Object>> partialResultConsumers = new ConcurrentHashMap<>();
 
 	private LanguageServer server = lateNonNull();
 	private LanguageServerWrapper wrapper = lateNonNull();
@@ -98,6 +111,15 @@ public final void showMessage(MessageParams messageParams) {
 		ServerMessageHandler.showMessage(wrapper.serverDefinition.label, messageParams);
 	}
 
+	/**
+	 * Called once the given document is opened on the server.
+	 */
+	void documentOpened(URI uri) {
+		if (diagnosticConsumer instanceof LSPDiagnosticsToMarkers diagnosticsToMarkers) {
+			diagnosticsToMarkers.documentOpened(uri);
+		}
+	}
+
 	@Override
 	public final void publishDiagnostics(PublishDiagnosticsParams diagnostics) {
 		diagnosticConsumer.accept(diagnostics);
@@ -115,16 +137,41 @@ public CompletableFuture<Void> createProgress(final WorkDoneProgressCreateParams
 
 	@Override
 	public void notifyProgress(final ProgressParams params) {
+		final Object partialResult = params.getValue().getRight();
+		if (partialResult != null) {
+			final Consumer<Object> partialResultConsumer = partialResultConsumers
+					.get(params.getToken().map(Function.identity(), Object::toString));
+			if (partialResultConsumer != null) {
+				partialResultConsumer.accept(partialResult);
+			}
+			return;
+		}
 		progressManager.notifyProgress(params);
 	}
 
+	/**
+	 * Registers a consumer of the partial results reported by the server for the
+	 * given partial result token of a request. The partial results are decoded
+	 * into the given type, usually the result type of the request.
+	 */
+	@SuppressWarnings("unchecked")
+	final <P> void addPartialResultConsumer(String token, Type partialResultType, Consumer<P> consumer) {
+		partialResultConsumers.put(token, partialResult -> consumer.accept(partialResult instanceof JsonElement json
+				? GSON.fromJson(json, partialResultType)
+				: (P) partialResult));
+	}
+
+	final void removePartialResultConsumer(String token) {
+		partialResultConsumers.remove(token);
+	}
+
 	@Override
 	public final CompletableFuture<ApplyWorkspaceEditResponse> applyEdit(ApplyWorkspaceEditParams params) {
 		return CompletableFuture.supplyAsync(() -> {
 			final var job = new Job(Messages.serverEdit) {
 				@Override
 				public IStatus run(IProgressMonitor monitor) {
-					LSPEclipseUtils.applyWorkspaceEdit(params.getEdit(), params.getLabel());
+					LSPEclipseUtils.applyWorkspaceEdit(params.getEdit(), params.getLabel(), wrapper);
 					return Status.OK_STATUS;
 				}
 			};
@@ -183,6 +230,7 @@ private void updateCodeMinings() {
 
 	@Override
 	public CompletableFuture<@Nullable Void> refreshCodeLenses() {
+		wrapper.documentResponses.remove("textDocument/codeLens"); //$NON-NLS-1$
 		return CompletableFuture.runAsync(() -> UI.getDisplay().syncExec(this::updateCodeMinings));
 	}
 
@@ -191,10 +239,16 @@ private void updateCodeMinings() {
 		return CompletableFuture.runAsync(() -> UI.getDisplay().syncExec(this::updateCodeMinings));
 	}
 
+	@Override
+	public CompletableFuture<@Nullable Void> refreshDiagnostics() {
+		return CompletableFuture.runAsync(wrapper::refreshDiagnostics);
+	}
+
 	/**
 	 * Dispose language client.
 	 */
 	public void dispose() {
 		progressManager.dispose();
+		partialResultConsumers.clear();
 	}
 }
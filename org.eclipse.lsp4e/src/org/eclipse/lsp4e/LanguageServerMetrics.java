@@ -0,0 +1,403 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.messages.CancelParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Message;
+import org.eclipse.lsp4j.jsonrpc.messages.NotificationMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.RequestMessage;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseMessage;
+
+/**
+ * Request and notification statistics of a language server, per LSP method.
+ * <p>
+ * For every method it records how long messages waited on the dispatcher of
+ * the {@link LanguageServerWrapper} before being sent, the round-trip time of
+ * requests, their errors and cancellations and the size of the exchanged JSON
+ * messages. Messages sent by the server to the client are counted under their
+ * own method.
+ */
+public final class LanguageServerMetrics {
+
+	private static final String CANCEL_REQUEST_METHOD = "$/cancelRequest"; //$NON-NLS-1$
+
+	/**
+	 * Statistics of a single LSP method.
+	 */
+	public static final class MethodMetrics {
+
+		private final String method;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder completed = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder cancellations = new LongAdder();
+		private final AtomicInteger pending = new AtomicInteger();
+		private final LongAdder dispatched = new LongAdder();
+		private final LongAdder queueTimeNanos = new LongAdder();
+		private final LongAccumulator maxQueueTimeNanos = new LongAccumulator(Math::max, 0);
+		private final LongAdder roundTripNanos = new LongAdder();
+		private final LongAccumulator maxRoundTripNanos = new LongAccumulator(Math::max, 0);
+		private final LongAdder sentBytes = new LongAdder();
+		private final LongAdder receivedBytes = new LongAdder();
+
+		private MethodMetrics(String method) {
+			this.method = method;
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		/**
+		 * @return the number of requests or notifications
+		 */
+		public long getCount() {
+			return count.sum();
+		}
+
+		/**
+		 * @return the number of requests whose response was received
+		 */
+		public long getCompletedCount() {
+			return completed.sum();
+		}
+
+		public long getErrorCount() {
+			return errors.sum();
+		}
+
+		public long getCancellationCount() {
+			return cancellations.sum();
+		}
+
+		/**
+		 * @return the number of requests awaiting a response
+		 */
+		public int getPendingCount() {
+			return pending.get();
+		}
+
+		/**
+		 * @return the average time in milliseconds messages waited to be
+		 *         dispatched, including the initialization of the server
+		 */
+		public double getAverageQueueTimeMillis() {
+			final long n = dispatched.sum();
+			return n == 0 ? 0 : toMillis(queueTimeNanos.sum()) / n;
+		}
+
+		public double getMaxQueueTimeMillis() {
+			return toMillis(maxQueueTimeNanos.get());
+		}
+
+		/**
+		 * @return the average time in milliseconds between sending a request and
+		 *         receiving its response
+		 */
+		public double getAverageRoundTripMillis() {
+			final long n = completed.sum();
+			return n == 0 ? 0 : toMillis(roundTripNanos.sum()) / n;
+		}
+
+		public double getMaxRoundTripMillis() {
+			return toMillis(maxRoundTripNanos.get());
+		}
+
+		/**
+		 * @return the size in bytes of the messages sent to the server
+		 */
+		public long getSentBytes() {
+			return sentBytes.sum();
+		}
+
+		/**
+		 * @return the size in bytes of the messages received from the server
+		 */
+		public long getReceivedBytes() {
+			return receivedBytes.sum();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s: %d calls, %d pending, %d errors, %d cancelled, queue avg %.1fms max %.1fms, round-trip avg %.1fms max %.1fms, %d bytes sent, %d bytes received", //$NON-NLS-1$
+					method, getCount(), getPendingCount(), getErrorCount(), getCancellationCount(),
+					getAverageQueueTimeMillis(), getMaxQueueTimeMillis(), getAverageRoundTripMillis(),
+					getMaxRoundTripMillis(), getSentBytes(), getReceivedBytes());
+		}
+	}
+
+	private record PendingRequest(MethodMetrics metrics, long sentNanos) {
+	}
+
+	/** time spent by the message currently being dispatched in the dispatcher queue */
+	private final ThreadLocal<@Nullable Long> currentQueueTime = new ThreadLocal<>();
+
+	private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+	private final Map<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+	/** requests of the server awaiting a response of the client */
+	private final Map<String, MethodMetrics> serverRequests = new ConcurrentHashMap<>();
+	private final AtomicInteger queueDepth = new AtomicInteger();
+	private final AtomicLong sentBytes = new AtomicLong();
+	private final AtomicLong receivedBytes = new AtomicLong();
+
+	LanguageServerMetrics() {
+	}
+
+	/**
+	 * @return the statistics of all methods exchanged with the server so far,
+	 *         sorted by method name
+	 */
+	public List<MethodMetrics> getMethodMetrics() {
+		final var result = new ArrayList<>(methods.values());
+		result.sort(Comparator.comparing(MethodMetrics::getMethod));
+		return result;
+	}
+
+	public @Nullable MethodMetrics getMethodMetrics(String method) {
+		return methods.get(method);
+	}
+
+	/**
+	 * @return the number of requests and notifications waiting to be dispatched
+	 *         to the server
+	 */
+	public int getQueueDepth() {
+		return Math.max(0, queueDepth.get());
+	}
+
+	/**
+	 * @return the number of requests awaiting a response
+	 */
+	public int getPendingRequestCount() {
+		return pendingRequests.size();
+	}
+
+	/**
+	 * Clears the recorded statistics.
+	 */
+	public void reset() {
+		methods.clear();
+	}
+
+	private MethodMetrics metricsFor(String method) {
+		return methods.computeIfAbsent(method, MethodMetrics::new);
+	}
+
+	/**
+	 * Tracks a message being enqueued on the dispatcher.
+	 *
+	 * @return a ticket to pass to {@link #dispatched(Ticket)} once dispatched
+	 */
+	Ticket enqueued() {
+		queueDepth.incrementAndGet();
+		return new Ticket(System.nanoTime());
+	}
+
+	/**
+	 * Tracks a message leaving the dispatcher queue on the current thread; the
+	 * messages sent until {@link #dispatchDone()} are attributed the queue time.
+	 */
+	void dispatched(Ticket ticket) {
+		if (ticket.done.compareAndSet(false, true)) {
+			queueDepth.decrementAndGet();
+		}
+		currentQueueTime.set(System.nanoTime() - ticket.enqueuedNanos);
+	}
+
+	void dispatchDone() {
+		currentQueueTime.remove();
+	}
+
+	/**
+	 * Tracks a message leaving the queue without being dispatched, e.g. because
+	 * the server failed to start.
+	 */
+	void discarded(Ticket ticket) {
+		if (ticket.done.compareAndSet(false, true)) {
+			queueDepth.decrementAndGet();
+		}
+	}
+
+	static final class Ticket {
+		private final long enqueuedNanos;
+		private final AtomicBoolean done = new AtomicBoolean();
+
+		private Ticket(long enqueuedNanos) {
+			this.enqueuedNanos = enqueuedNanos;
+		}
+	}
+
+	/**
+	 * @return a consumer recording the messages received from the server before
+	 *         passing them to the given consumer
+	 */
+	MessageConsumer wrapIncoming(MessageConsumer consumer) {
+		return message -> {
+			messageReceived(message, receivedBytes.getAndSet(0));
+			consumer.consume(message);
+		};
+	}
+
+	/**
+	 * @return a consumer recording the messages sent to the server by the given
+	 *         consumer
+	 */
+	MessageConsumer wrapOutgoing(MessageConsumer consumer) {
+		return message -> {
+			final long size;
+			synchronized (sentBytes) {
+				sentBytes.set(0);
+				consumer.consume(message);
+				size = sentBytes.get();
+			}
+			messageSent(message, size);
+		};
+	}
+
+	/**
+	 * @return an input stream counting the received bytes
+	 */
+	InputStream countReceived(InputStream in) {
+		return new FilterInputStream(in) {
+			@Override
+			public int read() throws IOException {
+				final int b = super.read();
+				if (b >= 0) {
+					receivedBytes.incrementAndGet();
+				}
+				return b;
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				final int n = super.read(b, off, len);
+				if (n > 0) {
+					receivedBytes.addAndGet(n);
+				}
+				return n;
+			}
+		};
+	}
+
+	/**
+	 * @return an output stream counting the sent bytes
+	 */
+	OutputStream countSent(OutputStream out) {
+		return new FilterOutputStream(out) {
+			@Override
+			public void write(int b) throws IOException {
+				out.write(b);
+				sentBytes.incrementAndGet();
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException {
+				out.write(b, off, len);
+				sentBytes.addAndGet(len);
+			}
+		};
+	}
+
+	private void messageSent(Message message, long size) {
+		if (message instanceof RequestMessage request) {
+			final MethodMetrics metrics = metricsFor(request.getMethod());
+			recordSent(metrics, size);
+			metrics.pending.incrementAndGet();
+			pendingRequests.put(request.getId(), new PendingRequest(metrics, System.nanoTime()));
+		} else if (message instanceof NotificationMessage notification) {
+			recordSent(metricsFor(notification.getMethod()), size);
+			if (CANCEL_REQUEST_METHOD.equals(notification.getMethod())
+					&& notification.getParams() instanceof CancelParams cancelParams) {
+				final PendingRequest pending = pendingRequests.get(cancelParams.getId());
+				if (pending != null) {
+					pending.metrics.cancellations.increment();
+				}
+			}
+		} else if (message instanceof ResponseMessage response) {
+			// response to a request of the server
+			final MethodMetrics metrics = serverRequests.remove(response.getId());
+			if (metrics != null) {
+				metrics.sentBytes.add(size);
+			}
+		}
+	}
+
+	private void recordSent(MethodMetrics metrics, long size) {
+		metrics.count.increment();
+		metrics.sentBytes.add(size);
+		final Long queueTime = currentQueueTime.get();
+		if (queueTime != null) {
+			metrics.dispatched.increment();
+			metrics.queueTimeNanos.add(queueTime);
+			metrics.maxQueueTimeNanos.accumulate(queueTime);
+		}
+	}
+
+	private void messageReceived(Message message, long size) {
+		if (message instanceof ResponseMessage response) {
+			final PendingRequest pending = pendingRequests.remove(response.getId());
+			if (pending != null) {
+				final MethodMetrics metrics = pending.metrics;
+				final long roundTrip = System.nanoTime() - pending.sentNanos;
+				metrics.pending.decrementAndGet();
+				metrics.completed.increment();
+				metrics.roundTripNanos.add(roundTrip);
+				metrics.maxRoundTripNanos.accumulate(roundTrip);
+				metrics.receivedBytes.add(size);
+				final var error = response.getError();
+				if (error != null && error.getCode() != ResponseErrorCode.RequestCancelled.getValue()) {
+					metrics.errors.increment();
+				}
+			}
+		} else if (message instanceof RequestMessage request) {
+			final MethodMetrics metrics = metricsFor(request.getMethod());
+			metrics.count.increment();
+			metrics.receivedBytes.add(size);
+			serverRequests.put(request.getId(), metrics);
+		} else if (message instanceof NotificationMessage notification) {
+			final MethodMetrics metrics = metricsFor(notification.getMethod());
+			metrics.count.increment();
+			metrics.receivedBytes.add(size);
+		}
+	}
+
+	/**
+	 * Forgets the requests still awaiting a response, e.g. after the server was
+	 * stopped.
+	 */
+	void clearPendingRequests() {
+		pendingRequests.values().forEach(pending -> pending.metrics.pending.decrementAndGet());
+		pendingRequests.clear();
+		serverRequests.clear();
+	}
+
+	private static double toMillis(long nanos) {
+		return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
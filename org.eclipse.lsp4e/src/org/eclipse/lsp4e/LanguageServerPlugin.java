@@ -23,6 +23,7 @@
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.resource.ImageRegistry;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.lsp4e.internal.ContentTypeCache;
 import org.eclipse.lsp4e.ui.LSPImages;
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
@@ -64,6 +65,7 @@ public void start(BundleContext context) throws Exception {
 	public void stop(BundleContext context) throws Exception {
 		plugin = null;
 		LanguageServiceAccessor.shutdownAllDispatchers();
+		ContentTypeCache.dispose();
 		super.stop(context);
 	}
 
@@ -22,17 +22,22 @@
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.UUID;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -40,6 +45,7 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
@@ -74,12 +80,15 @@
 import org.eclipse.lsp4e.internal.ArrayUtil;
 import org.eclipse.lsp4e.internal.CancellationUtil;
 import org.eclipse.lsp4e.internal.FileBufferListenerAdapter;
+import org.eclipse.lsp4e.internal.PositionEncodings;
 import org.eclipse.lsp4e.internal.SupportedFeatures;
 import org.eclipse.lsp4e.server.StreamConnectionProvider;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4j.ClientCapabilities;
 import org.eclipse.lsp4j.ClientInfo;
 import org.eclipse.lsp4j.CodeActionOptions;
+import org.eclipse.lsp4j.CompletionOptions;
+import org.eclipse.lsp4j.DiagnosticRegistrationOptions;
 import org.eclipse.lsp4j.DidChangeWorkspaceFoldersParams;
 import org.eclipse.lsp4j.DocumentFormattingOptions;
 import org.eclipse.lsp4j.DocumentRangeFormattingOptions;
@@ -91,6 +100,7 @@
 import org.eclipse.lsp4j.RegistrationParams;
 import org.eclipse.lsp4j.SelectionRangeRegistrationOptions;
 import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.SignatureHelpOptions;
 import org.eclipse.lsp4j.TextDocumentSyncKind;
 import org.eclipse.lsp4j.TextDocumentSyncOptions;
 import org.eclipse.lsp4j.TypeHierarchyRegistrationOptions;
@@ -103,6 +113,7 @@
 import org.eclipse.lsp4j.WorkspaceSymbolOptions;
 import org.eclipse.lsp4j.jsonrpc.Launcher;
 import org.eclipse.lsp4j.jsonrpc.MessageConsumer;
+import org.eclipse.lsp4j.jsonrpc.RemoteEndpoint;
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.lsp4j.jsonrpc.messages.Message;
@@ -119,6 +130,12 @@
 
 public class LanguageServerWrapper {
 
+	/**
+	 * Preference key of the per server opt-in to negotiate UTF-8 or UTF-32
+	 * position encodings instead of UTF-16.
+	 */
+	private static final String NEGOTIATE_POSITION_ENCODING__KEY = "positionEncoding.negotiate"; //$NON-NLS-1$
+
 	private final IFileBufferListener fileBufferListener = new FileBufferListenerAdapter() {
 		@Override
 		public void bufferDisposed(IFileBuffer buffer) {
@@ -189,6 +206,8 @@ synchronized void close() {
 	public final LanguageServerDefinition serverDefinition;
 	public final @Nullable IProject initialProject;
 	protected Map<URI, DocumentContentSynchronizer> connectedDocuments;
+	/** Synchronizers holding back coalesced document changes that have not been sent yet */
+	private final Set<DocumentContentSynchronizer> synchronizersWithPendingChanges = ConcurrentHashMap.newKeySet();
 	protected final @Nullable IPath initialPath;
 	protected final InitializeParams initParams = new InitializeParams();
 
@@ -196,7 +215,14 @@ synchronized void close() {
 	private final AtomicReference<@Nullable IProgressMonitor> initializeFutureMonitorRef = new AtomicReference<>();
 	private final int initializeFutureNumberOfStages = 7;
 	private @Nullable LanguageClientImpl languageClient;
+	private volatile @Nullable DiagnosticsPuller diagnosticsPuller;
 	private @Nullable ServerCapabilities serverCapabilities;
+	private volatile @Nullable String positionEncoding;
+	/** Characters triggering completion and signature help, kept up to date with the capabilities */
+	private volatile char[] completionTriggerCharacters = ArrayUtil.NO_CHARS;
+	private volatile char[] signatureHelpTriggerCharacters = ArrayUtil.NO_CHARS;
+	final DocumentResponseCache documentResponses = new DocumentResponseCache();
+	private final LanguageServerMetrics metrics = new LanguageServerMetrics();
 	private final Timer timer = new Timer("Stop Language Server Task Processor"); //$NON-NLS-1$
 	private @Nullable TimerTask stopTimerTask;
 
@@ -351,22 +377,29 @@ private synchronized void start(boolean forceRestart) {
 						initParams.setRootPath(rootURI.getPath());
 					}
 
-					UnaryOperator<MessageConsumer> wrapper = consumer -> message -> {
-						logMessage(message);
-						consumer.consume(message);
-						final var lspStreamProvider = workingContext.lspStreamProvider;
-						final var languageServer = workingContext.languageServer;
-						if (lspStreamProvider != null && isActive() &&  languageServer != null) {
-							lspStreamProvider.handleMessage(message, languageServer, rootURI);
-						}
+					UnaryOperator<MessageConsumer> wrapper = consumer -> {
+						// the launcher wraps both the remote endpoint receiving the messages of the
+						// server and the consumer it sends its own messages with
+						final MessageConsumer measuredConsumer = consumer instanceof RemoteEndpoint
+								? metrics.wrapIncoming(consumer)
+								: metrics.wrapOutgoing(consumer);
+						return message -> {
+							logMessage(message);
+							measuredConsumer.consume(message);
+							final var lspStreamProvider = workingContext.lspStreamProvider;
+							final var languageServer = workingContext.languageServer;
+							if (lspStreamProvider != null && isActive() &&  languageServer != null) {
+								lspStreamProvider.handleMessage(message, languageServer, rootURI);
+							}
+						};
 					};
 					initParams.setWorkspaceFolders(getRelevantWorkspaceFolders());
 					final var lspStreamProvider= castNonNull(workingContext.lspStreamProvider);
 					Launcher<LanguageServer> launcher = serverDefinition.createLauncherBuilder() //
 							.setLocalService(languageClient)//
 							.setRemoteInterface(serverDefinition.getServerInterface())//
-							.setInput(lspStreamProvider.getInputStream())//
-							.setOutput(lspStreamProvider.getOutputStream())//
+							.setInput(metrics.countReceived(lspStreamProvider.getInputStream()))//
+							.setOutput(metrics.countSent(lspStreamProvider.getOutputStream()))//
 							.setExecutorService(listener)//
 							.wrapMessages(wrapper)//
 							.create();
@@ -381,7 +414,13 @@ private synchronized void start(boolean forceRestart) {
 				synchronized (workingContext) {
 					markInitializationProgress(workingContext);
 					serverCapabilities = res.getCapabilities();
+					positionEncoding = res.getCapabilities().getPositionEncoding();
+					PositionEncodings.setServerEncoding(serverDefinition.id, positionEncoding);
 					this.initiallySupportsWorkspaceFolders = supportsWorkspaceFolders(serverCapabilities);
+					updateTriggerCharacters();
+					final DiagnosticRegistrationOptions diagnosticProvider = res.getCapabilities().getDiagnosticProvider();
+					this.diagnosticsPuller = diagnosticProvider == null ? null
+							: new DiagnosticsPuller(this, castNonNull(languageClient), diagnosticProvider);
 				}
 			}).thenRun(() -> {
 				synchronized (workingContext) {
@@ -397,6 +436,10 @@ private synchronized void start(boolean forceRestart) {
 						for (Entry<URI, IDocument> fileToReconnect : toReconnect.entrySet()) {
 							connect(fileToReconnect.getKey(), fileToReconnect.getValue());
 						}
+						final var diagnosticsPuller = this.diagnosticsPuller;
+						if (diagnosticsPuller != null) {
+							diagnosticsPuller.pullWorkspace();
+						}
 					});
 					FileBuffers.getTextFileBufferManager().addFileBufferListener(fileBufferListener);
 				}
@@ -471,11 +514,14 @@ private CompletableFuture<InitializeResult> initServer(final @Nullable URI rootU
 		final var textDocumentClientCapabilities = SupportedFeatures.getTextDocumentClientCapabilities();
 
 		WindowClientCapabilities windowClientCapabilities = SupportedFeatures.getWindowClientCapabilities();
-		initParams.setCapabilities(new ClientCapabilities(
+		final var clientCapabilities = new ClientCapabilities(
 				workspaceClientCapabilities,
 				textDocumentClientCapabilities,
 				windowClientCapabilities,
-				castNonNull(context.lspStreamProvider).getExperimentalFeaturesPOJO()));
+				castNonNull(context.lspStreamProvider).getExperimentalFeaturesPOJO());
+		clientCapabilities.setGeneral(SupportedFeatures.getGeneralClientCapabilities(LanguageServerPlugin.getDefault()
+				.getPreferenceStore().getBoolean(serverDefinition.id + '.' + NEGOTIATE_POSITION_ENCODING__KEY)));
+		initParams.setCapabilities(clientCapabilities);
 		initParams.setClientInfo(getClientInfo(name));
 		initParams.setTrace(castNonNull(context.lspStreamProvider).getTrace(rootURI));
 
@@ -599,8 +645,17 @@ private void shutdown(LanguageServerContext workingContext) {
 		if (this.languageClient != null) {
 			this.languageClient.dispose();
 		}
+		final var diagnosticsPuller = this.diagnosticsPuller;
+		if (diagnosticsPuller != null) {
+			diagnosticsPuller.dispose();
+			this.diagnosticsPuller = null;
+		}
 
 		this.serverCapabilities = null;
+		this.positionEncoding = null;
+		updateTriggerCharacters();
+		this.documentResponses.clear();
+		this.metrics.clearPendingRequests();
 		this.dynamicRegistrations.clear();
 
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(workspaceFolderUpdater);
@@ -734,10 +789,16 @@ private boolean supportsWorkspaceFolderCapability() {
 				}
 				TextDocumentSyncKind syncKind = initializeFuture == null ? null
 						: castNonNull(serverCapabilities).getTextDocumentSync().map(Functions.identity(), TextDocumentSyncOptions::getChange);
+				final var languageClient = this.languageClient;
+				if (languageClient != null) {
+					languageClient.documentOpened(uri);
+				}
 				final var listener = new DocumentContentSynchronizer(this, castNonNull(context.languageServer), theDocument, syncKind);
 				theDocument.addPrenotifiedDocumentListener(listener);
 				LanguageServerWrapper.this.connectedDocuments.put(uri, listener);
+				LanguageServiceAccessor.documentConnected(uri, this);
 			}
+			documentContentChanged(uri);
 		}).thenApply(theVoid -> this);
 	}
 
@@ -747,8 +808,15 @@ private boolean supportsWorkspaceFolderCapability() {
 	 */
 	public @Nullable CompletableFuture<@Nullable Void> disconnect(URI uri) {
 		DocumentContentSynchronizer documentListener = this.connectedDocuments.remove(uri);
+		documentResponses.remove(uri);
 		CompletableFuture<@Nullable Void> documentClosedFuture = null;
 		if (documentListener != null) {
+			LanguageServiceAccessor.documentDisconnected(uri, this);
+			synchronizersWithPendingChanges.remove(documentListener);
+			final var diagnosticsPuller = this.diagnosticsPuller;
+			if (diagnosticsPuller != null) {
+				diagnosticsPuller.documentClosed(uri);
+			}
 			documentListener.getDocument().removePrenotifiedDocumentListener(documentListener);
 			documentClosedFuture = documentListener.documentClosed();
 		}
@@ -826,7 +894,15 @@ public void sendNotification(Consumer<LanguageServer> fn) {
 		// Enqueues a notification on the dispatch thread associated with the wrapped language server. This
 		// ensures the interleaving of document updates and other requests in the UI is mirrored in the
 		// order in which they get dispatched to the server
-		getInitializedServer().thenAcceptAsync(fn, this.dispatcher);
+		final var ticket = metrics.enqueued();
+		getInitializedServer().thenAcceptAsync(ls -> {
+			metrics.dispatched(ticket);
+			try {
+				fn.accept(ls);
+			} finally {
+				metrics.dispatchDone();
+			}
+		}, this.dispatcher).whenComplete((result, error) -> metrics.discarded(ticket));
 	}
 
 	/**
@@ -891,13 +967,21 @@ public void sendNotification(Consumer<LanguageServer> fn) {
 		// Note this doesn't get the .thenApplyAsync(Function.identity()) chained on additionally, unlike
 		// the public-facing version of this method, because we trust the LSPExecutor implementations to
 		// make sure the server response thread doesn't get blocked by any further work
+		flushPendingDocumentChanges();
 		final var request = new AtomicReference<@Nullable CompletableFuture<T>>();
+		final var ticket = metrics.enqueued();
 		Function<LanguageServer, CompletableFuture<T>> cancelWrapper = ls -> {
-			CompletableFuture<T> res = fn.apply(ls);
-			request.set(res);
-			return res;
+			metrics.dispatched(ticket);
+			try {
+				CompletableFuture<T> res = fn.apply(ls);
+				request.set(res);
+				return res;
+			} finally {
+				metrics.dispatchDone();
+			}
 		};
 		CompletableFuture<T> res = getInitializedServer().thenComposeAsync(cancelWrapper, this.dispatcher);
+		res.whenComplete((result, error) -> metrics.discarded(ticket));
 		res.exceptionally(e -> {
 			if (e instanceof CancellationException) {
 				CompletableFuture<T> stage = request.get();
@@ -910,6 +994,93 @@ public void sendNotification(Consumer<LanguageServer> fn) {
 		return res;
 	}
 
+	/**
+	 * Runs a request on the language server like {@link #executeImpl(Function)},
+	 * passing it a new partial result token. The partial results reported by the
+	 * server for this token are decoded into the given type and handed to the
+	 * given consumer, until the request completes.
+	 */
+	<@Nullable T, P> CompletableFuture<T> executeImpl(
+			BiFunction<LanguageServer, Either<String, Integer>, ? extends CompletableFuture<T>> fn,
+			Type partialResultType, Consumer<P> partialResultConsumer) {
+		final String token = UUID.randomUUID().toString();
+		final var client = new AtomicReference<@Nullable LanguageClientImpl>();
+		final CompletableFuture<T> res = executeImpl(ls -> {
+			final var languageClient = this.languageClient;
+			if (languageClient != null) {
+				languageClient.addPartialResultConsumer(token, partialResultType, partialResultConsumer);
+				client.set(languageClient);
+			}
+			return fn.apply(ls, Either.forLeft(token));
+		});
+		res.whenComplete((result, error) -> {
+			final var languageClient = client.get();
+			if (languageClient != null) {
+				languageClient.removePartialResultConsumer(token);
+			}
+		});
+		return res;
+	}
+
+	/**
+	 * Registers a document synchronizer that holds back coalesced changes, so they
+	 * get sent before the next request is enqueued on the dispatcher.
+	 */
+	void documentChangesPending(DocumentContentSynchronizer synchronizer) {
+		synchronizersWithPendingChanges.add(synchronizer);
+	}
+
+	/**
+	 * Pulls the diagnostics of the given connected document once the server has
+	 * been notified of its current content, if the server provides diagnostics on
+	 * request.
+	 */
+	void documentContentChanged(URI uri) {
+		final var diagnosticsPuller = this.diagnosticsPuller;
+		if (diagnosticsPuller != null) {
+			diagnosticsPuller.documentChanged(uri);
+		}
+	}
+
+	/**
+	 * Pulls the diagnostics of the given connected document and of the workspace
+	 * once the server has been notified that it was saved, if the server provides
+	 * diagnostics on request.
+	 */
+	void documentSaved(URI uri) {
+		final var diagnosticsPuller = this.diagnosticsPuller;
+		if (diagnosticsPuller != null) {
+			diagnosticsPuller.documentSaved(uri);
+		}
+	}
+
+	/**
+	 * Pulls the diagnostics of the connected documents and of the workspace again,
+	 * as requested by the server with <code>workspace/diagnostic/refresh</code>.
+	 */
+	void refreshDiagnostics() {
+		final var diagnosticsPuller = this.diagnosticsPuller;
+		if (diagnosticsPuller != null) {
+			diagnosticsPuller.refresh();
+		}
+	}
+
+	/**
+	 * Sends all document changes that are still being coalesced, so that requests
+	 * enqueued afterwards are evaluated by the server against the current content
+	 * of the documents.
+	 */
+	private void flushPendingDocumentChanges() {
+		if (synchronizersWithPendingChanges.isEmpty()) {
+			return;
+		}
+		for (final var it = synchronizersWithPendingChanges.iterator(); it.hasNext();) {
+			DocumentContentSynchronizer synchronizer = it.next();
+			it.remove();
+			synchronizer.flushPendingChanges();
+		}
+	}
+
 	/**
 	 * <b>IMPORTANT:</b> If the server isn't yet initialized this method will be
 	 * blocking for up to 10 seconds!
@@ -934,6 +1105,66 @@ public void sendNotification(Consumer<LanguageServer> fn) {
 		return this.serverCapabilities;
 	}
 
+	/**
+	 * @return the position encoding negotiated with the server, <code>null</code>
+	 *         if the server is not initialized or uses the default UTF-16
+	 *         encoding
+	 * @see org.eclipse.lsp4e.internal.LineIndex#toOffset(org.eclipse.lsp4j.Position, String)
+	 */
+	public @Nullable String getPositionEncoding() {
+		return positionEncoding;
+	}
+
+	/**
+	 * @return the request and notification statistics of this language server
+	 */
+	public LanguageServerMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * @return the characters triggering completion on this server, empty if it is
+	 *         not initialized. Does not wait for the server.
+	 */
+	public char[] getCompletionTriggerCharacters() {
+		return completionTriggerCharacters;
+	}
+
+	/**
+	 * @return the characters triggering signature help on this server, empty if
+	 *         it is not initialized. Does not wait for the server.
+	 */
+	public char[] getSignatureHelpTriggerCharacters() {
+		return signatureHelpTriggerCharacters;
+	}
+
+	private void updateTriggerCharacters() {
+		final var serverCapabilities = this.serverCapabilities;
+		final CompletionOptions completionProvider = serverCapabilities == null ? null
+				: serverCapabilities.getCompletionProvider();
+		final SignatureHelpOptions signatureHelpProvider = serverCapabilities == null ? null
+				: serverCapabilities.getSignatureHelpProvider();
+		completionTriggerCharacters = toTriggerCharacters(
+				completionProvider == null ? null : completionProvider.getTriggerCharacters());
+		signatureHelpTriggerCharacters = toTriggerCharacters(
+				signatureHelpProvider == null ? null : signatureHelpProvider.getTriggerCharacters());
+	}
+
+	private static char[] toTriggerCharacters(@Nullable List<String> triggers) {
+		if (triggers == null || triggers.isEmpty()) {
+			return ArrayUtil.NO_CHARS;
+		}
+		final var characters = new StringBuilder(triggers.size());
+		for (final String trigger : triggers) {
+			if (trigger != null && !trigger.isEmpty() && characters.indexOf(trigger.substring(0, 1)) < 0) {
+				characters.append(trigger.charAt(0));
+			}
+		}
+		final char[] sortedCharacters = characters.toString().toCharArray();
+		Arrays.sort(sortedCharacters);
+		return sortedCharacters;
+	}
+
 	public CompletableFuture<ServerCapabilities> getServerCapabilitiesAsync() {
 		return getInitializedServer().thenApply(ls -> castNonNull(this.serverCapabilities));
 	}
@@ -1026,6 +1257,28 @@ void registerCapability(RegistrationParams params) {
 					addRegistration(reg, () -> serverCapabilities.setSelectionRangeProvider(selectionRangeProvider));
 				}
 				break;
+			case "textDocument/completion": //$NON-NLS-1$
+				final CompletionOptions completionBeforeRegistration = serverCapabilities.getCompletionProvider();
+				serverCapabilities.setCompletionProvider(reg.getRegisterOptions() instanceof JsonObject options
+						? castNonNull(new Gson().fromJson(options, CompletionOptions.class))
+						: new CompletionOptions());
+				updateTriggerCharacters();
+				addRegistration(reg, () -> {
+					serverCapabilities.setCompletionProvider(completionBeforeRegistration);
+					updateTriggerCharacters();
+				});
+				break;
+			case "textDocument/signatureHelp": //$NON-NLS-1$
+				final SignatureHelpOptions signatureHelpBeforeRegistration = serverCapabilities.getSignatureHelpProvider();
+				serverCapabilities.setSignatureHelpProvider(reg.getRegisterOptions() instanceof JsonObject options
+						? castNonNull(new Gson().fromJson(options, SignatureHelpOptions.class))
+						: new SignatureHelpOptions());
+				updateTriggerCharacters();
+				addRegistration(reg, () -> {
+					serverCapabilities.setSignatureHelpProvider(signatureHelpBeforeRegistration);
+					updateTriggerCharacters();
+				});
+				break;
 			case "textDocument/typeHierarchy": //$NON-NLS-1$
 				final Either<Boolean, TypeHierarchyRegistrationOptions> typeHierarchyBeforeRegistration = serverCapabilities.getTypeHierarchyProvider();
 				serverCapabilities.setTypeHierarchyProvider(Boolean.TRUE);
@@ -1123,6 +1376,24 @@ public int getTextDocumentVersion(URI uri) {
 		return -1;
 	}
 
+	/**
+	 * Returns the version of the content of the given document last sent to the
+	 * server. Unlike {@link #getTextDocumentVersion(URI)}, which includes the
+	 * changes still queued, this is the version a request is computed on when read
+	 * by the functions run with {@link #execute(Function)} and the
+	 * {@link LanguageServers} executors, which are called on the dispatch thread
+	 * right before the request is sent.
+	 *
+	 * @return the version, or -1 if the document is not connected
+	 */
+	public int getSentTextDocumentVersion(URI uri) {
+		DocumentContentSynchronizer documentContentSynchronizer = connectedDocuments.get(uri);
+		if (documentContentSynchronizer != null) {
+			return documentContentSynchronizer.getSentVersion();
+		}
+		return -1;
+	}
+
 	@Override
 	public String toString() {
 		final var ph = getProcessHandle();
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.LanguageServersRegistry.LanguageServerDefinition;
+
+/**
+ * Index of the started {@link LanguageServerWrapper}s by server definition,
+ * initial project and connected document URI, so that looking up the wrappers
+ * of a document or project does not evaluate predicates on every started
+ * wrapper.
+ * <p>
+ * Lookups are lock-free. Creating a wrapper is only serialized with the other
+ * creations for the same server definition, see {@link #lock(LanguageServerDefinition)}.
+ */
+final class LanguageServerWrapperIndex implements Iterable<LanguageServerWrapper> {
+
+	private record ProjectKey(LanguageServerDefinition definition, @Nullable IProject project) {
+	}
+
+	private final AtomicLong sequence = new AtomicLong();
+	/** the started wrappers and the order in which they were added */
+	private final Map<LanguageServerWrapper, Long> wrappers = new ConcurrentHashMap<>();
+	private final List<LanguageServerWrapper> ordered = new CopyOnWriteArrayList<>();
+	private final Map<LanguageServerDefinition, List<LanguageServerWrapper>> byDefinition = new ConcurrentHashMap<>();
+	private final Map<ProjectKey, List<LanguageServerWrapper>> byProject = new ConcurrentHashMap<>();
+	private final Map<URI, Set<LanguageServerWrapper>> byConnectedUri = new ConcurrentHashMap<>();
+	private final Map<LanguageServerDefinition, Object> locks = new ConcurrentHashMap<>();
+
+	private final Comparator<LanguageServerWrapper> startOrder = Comparator
+			.comparingLong(wrapper -> wrappers.getOrDefault(wrapper, Long.MAX_VALUE));
+
+	void add(LanguageServerWrapper wrapper) {
+		if (wrappers.putIfAbsent(wrapper, sequence.incrementAndGet()) != null) {
+			return;
+		}
+		ordered.add(wrapper);
+		byDefinition.computeIfAbsent(wrapper.serverDefinition, d -> new CopyOnWriteArrayList<>()).add(wrapper);
+		byProject.computeIfAbsent(new ProjectKey(wrapper.serverDefinition, wrapper.initialProject),
+				k -> new CopyOnWriteArrayList<>()).add(wrapper);
+	}
+
+	/**
+	 * Removes all wrappers matching the given predicate.
+	 */
+	void removeIf(Predicate<LanguageServerWrapper> filter) {
+		for (final LanguageServerWrapper wrapper : getAll()) {
+			if (filter.test(wrapper) && wrappers.remove(wrapper) != null) {
+				ordered.remove(wrapper);
+				remove(byDefinition, wrapper.serverDefinition, wrapper);
+				remove(byProject, new ProjectKey(wrapper.serverDefinition, wrapper.initialProject), wrapper);
+				byConnectedUri.values().forEach(connected -> connected.remove(wrapper));
+			}
+		}
+	}
+
+	private static <K> void remove(Map<K, List<LanguageServerWrapper>> index, K key, LanguageServerWrapper wrapper) {
+		index.computeIfPresent(key, (k, list) -> {
+			list.remove(wrapper);
+			return list.isEmpty() ? null : list;
+		});
+	}
+
+	boolean contains(LanguageServerWrapper wrapper) {
+		return wrappers.containsKey(wrapper);
+	}
+
+	/**
+	 * @return all started wrappers in start order
+	 */
+	List<LanguageServerWrapper> getAll() {
+		return Collections.unmodifiableList(ordered);
+	}
+
+	@Override
+	public Iterator<LanguageServerWrapper> iterator() {
+		return getAll().iterator();
+	}
+
+	/**
+	 * @return the started wrappers of the given definition in start order
+	 */
+	List<LanguageServerWrapper> getByDefinition(LanguageServerDefinition definition) {
+		return byDefinition.getOrDefault(definition, List.of());
+	}
+
+	/**
+	 * @return the started wrappers of the given definition whose initial project
+	 *         is the given one
+	 */
+	List<LanguageServerWrapper> getByProject(LanguageServerDefinition definition, @Nullable IProject project) {
+		return byProject.getOrDefault(new ProjectKey(definition, project), List.of());
+	}
+
+	/**
+	 * @return the started wrappers connected to the given document URI, in start
+	 *         order
+	 */
+	List<LanguageServerWrapper> getConnectedTo(URI uri) {
+		final Set<LanguageServerWrapper> connected = byConnectedUri.get(uri);
+		if (connected == null || connected.isEmpty()) {
+			return List.of();
+		}
+		final var result = new ArrayList<LanguageServerWrapper>(connected.size());
+		for (final LanguageServerWrapper wrapper : connected) {
+			if (wrappers.containsKey(wrapper)) {
+				result.add(wrapper);
+			}
+		}
+		result.sort(startOrder);
+		return result;
+	}
+
+	void documentConnected(URI uri, LanguageServerWrapper wrapper) {
+		byConnectedUri.computeIfAbsent(uri, u -> ConcurrentHashMap.newKeySet()).add(wrapper);
+	}
+
+	void documentDisconnected(URI uri, LanguageServerWrapper wrapper) {
+		byConnectedUri.computeIfPresent(uri, (u, connected) -> {
+			connected.remove(wrapper);
+			return connected.isEmpty() ? null : connected;
+		});
+	}
+
+	/**
+	 * @return the lock serializing the creation of wrappers for the given
+	 *         definition
+	 */
+	Object lock(LanguageServerDefinition definition) {
+		return locks.computeIfAbsent(definition, d -> new Object());
+	}
+
+	List<LanguageServerWrapper> sorted(Collection<LanguageServerWrapper> toSort) {
+		final var result = new ArrayList<>(toSort);
+		result.sort(startOrder);
+		return result;
+	}
+}
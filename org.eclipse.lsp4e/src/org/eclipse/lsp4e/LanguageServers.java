@@ -12,6 +12,8 @@
  *******************************************************************************/
 package org.eclipse.lsp4e;
 
+import java.lang.reflect.Type;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -23,9 +25,11 @@
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import org.eclipse.core.resources.IProject;
@@ -130,6 +134,55 @@ public <T> CompletableFuture<List<T>> collectAll(BiFunction<? super LanguageServ
 				}).toList();
 	}
 
+	/**
+	 * An operation performed on a language server with a partial result token
+	 *
+	 * @param <T> Type of result being computed on the language server
+	 */
+	@FunctionalInterface
+	public interface PartialResultRequest<T> {
+		/**
+		 * @param wrapper the wrapper of the language server the operation is performed on
+		 * @param languageServer the language server
+		 * @param partialResultToken token to be set on the request parameters
+		 * @return the pending response of the language server
+		 */
+		CompletableFuture<T> apply(LanguageServerWrapper wrapper, LanguageServer languageServer,
+				Either<String, Integer> partialResultToken);
+	}
+
+	/**
+	 * Runs an operation on all applicable language servers, streaming the partial results reported by the servers
+	 * to the given consumer, and returning a list of asynchronous responses that complete once each server sent
+	 * its final response
+	 *
+	 * @param <T> Type of result being computed on the language server(s)
+	 * @param <P> Type of the partial results
+	 * @param fn An individual operation to be performed on the language server, which following the LSP4j API
+	 * will return a <code>CompletableFuture&lt;T&gt;</code>. This function additionally receives the
+	 * {@link LanguageServerWrapper} and a partial result token, to be set on the request parameters; the parameters
+	 * must thus not be shared between servers.
+	 * @param partialResultType Type the partial results are decoded into, usually the result type of the request
+	 * (e.g. <code>Location[].class</code> for references)
+	 * @param partialResultConsumer Consumer of the partial results and of the wrapper of the server reporting them,
+	 * called on the thread reading the messages of the server so it must not block
+	 *
+	 * @return A list of pending results (note that these may be null or empty), holding the results not reported as
+	 * partial results
+	 */
+	public <T, P> List<CompletableFuture<@Nullable T>> computeAll(PartialResultRequest<T> fn,
+			Type partialResultType, BiConsumer<? super LanguageServerWrapper, P> partialResultConsumer) {
+		return getServers().stream().map(serverFuture -> {
+					CompletableFuture<CompletableFuture<T>> requestFuture = serverFuture
+						.thenApply(w -> w == null ? CompletableFuture.completedFuture(null)
+								: w.executeImpl((ls, token) -> fn.apply(w, ls, token), partialResultType,
+										(P partialResult) -> partialResultConsumer.accept(w, partialResult)));
+					CompletableFuture<T> res = requestFuture.thenCompose(Function.identity());
+					requestFuture.thenAccept(request -> forwardCancellation(res, request));
+					return res;
+				}).toList();
+	}
+
 	/**
 	 * Runs an operation on all applicable language servers, returning an async result that will receive the first
 	 * non-null response
@@ -295,6 +348,32 @@ public boolean anyMatching() {
 			return LanguageServiceAccessor.getLSWrappers(document).stream()
 					.map(this::filter).anyMatch(this::matches);
 		}
+
+		/**
+		 * Shares the responses to an idempotent request on the document of this executor, such as
+		 * <code>textDocument/documentLink</code>, between the features sending it: the pending or completed response
+		 * of the given server to a request with the same method and parameters for the version of the document known
+		 * by the server is returned instead of sending the given request again. To be called from the functions passed to
+		 * the execution methods of this executor, with the server they receive.
+		 *
+		 * @param <T> Type of the response
+		 * @param wrapper the server the request is sent to
+		 * @param method the LSP method of the request
+		 * @param params the parameters of the request, equal parameters having the same response
+		 * @param request the direct call to the language server sending the request
+		 * @return the response to the request, which can be cancelled without cancelling it for the other features;
+		 * the request is cancelled once all features sharing it cancelled their response
+		 */
+		public <T> CompletableFuture<T> cached(LanguageServerWrapper wrapper, String method, Object params,
+				Supplier<? extends CompletableFuture<T>> request) {
+			final URI uri = LSPEclipseUtils.toUri(document);
+			// the version sent to the server, as the changes queued after it are sent after the request
+			final int version = uri == null ? -1 : wrapper.getSentTextDocumentVersion(uri);
+			if (uri == null || version < 0) { // not connected, so not synchronized with the server
+				return request.get();
+			}
+			return wrapper.documentResponses.get(uri, version, method, params, request);
+		}
 	}
 
 	/**
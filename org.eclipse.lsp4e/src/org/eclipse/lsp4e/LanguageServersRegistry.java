@@ -444,6 +444,14 @@ public boolean matches(IDocument document, LanguageServerDefinition serverDefini
 		return getAvailableLSFor(LSPEclipseUtils.getDocumentContentTypes(document), LSPEclipseUtils.toUri(document)).contains(serverDefinition);
 	}
 
+	/**
+	 * @return the definitions of the language servers suitable for the given
+	 *         document
+	 */
+	Set<LanguageServerDefinition> getAvailableLSFor(IDocument document) {
+		return getAvailableLSFor(LSPEclipseUtils.getDocumentContentTypes(document), LSPEclipseUtils.toUri(document));
+	}
+
 	public boolean canUseLanguageServer(IEditorInput editorInput) {
 		return !getAvailableLSFor(List.of(Platform.getContentTypeManager().findContentTypesFor(editorInput.getName())),
 				LSPEclipseUtils.toUri(editorInput)).isEmpty();
@@ -28,11 +28,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -64,7 +61,7 @@ private LanguageServiceAccessor() {
 		// this class shouldn't be instantiated
 	}
 
-	private static final Set<LanguageServerWrapper> startedServers = new CopyOnWriteArraySet<>();
+	private static final LanguageServerWrapperIndex startedServers = new LanguageServerWrapperIndex();
 	private static final Map<StreamConnectionProvider, LanguageServerDefinition> providersToLSDefinitions = new HashMap<>();
 
 	/**
@@ -79,6 +76,14 @@ public static void clearStartedServers() {
 		});
 	}
 
+	static void documentConnected(URI uri, LanguageServerWrapper wrapper) {
+		startedServers.documentConnected(uri, wrapper);
+	}
+
+	static void documentDisconnected(URI uri, LanguageServerWrapper wrapper) {
+		startedServers.documentDisconnected(uri, wrapper);
+	}
+
 	/**
 	 * A bean storing association of a Document/File with a language server wrapper.
 	 *
@@ -129,8 +134,8 @@ public boolean isActive() {
 
 	public static void disableLanguageServerContentType(
 			ContentTypeToLanguageServerDefinition contentTypeToLSDefinition) {
-		Optional<LanguageServerWrapper> result = startedServers.stream()
-				.filter(server -> server.serverDefinition.equals(contentTypeToLSDefinition.getValue())).findFirst();
+		Optional<LanguageServerWrapper> result = startedServers.getByDefinition(contentTypeToLSDefinition.getValue())
+				.stream().findFirst();
 		if (result.isPresent()) {
 			IContentType contentType = contentTypeToLSDefinition.getKey();
 			result.get().disconnectContentType(contentType);
@@ -248,9 +253,13 @@ public static List<LanguageServerWrapper> getLSWrappers(final IFile file,
 			return Collections.emptyList();
 		}
 
-		List<LanguageServerWrapper> wrappers = getStartedWrappers(file.getProject(), request, true);
-		wrappers.removeIf(
-				wrapper -> !wrapper.isConnectedTo(fileURI) || !lsRegistry.matches(file, wrapper.serverDefinition));
+		final var wrappers = new ArrayList<LanguageServerWrapper>();
+		for (final LanguageServerWrapper wrapper : startedServers.getConnectedTo(fileURI)) {
+			if (wrapper.isActive() && wrapper.canOperate(project) && capabilitiesComply(wrapper, request)
+					&& lsRegistry.matches(file, wrapper.serverDefinition)) {
+				wrappers.add(wrapper);
+			}
+		}
 
 		// look for running language servers via content-type
 		final var directContentTypes = LSPEclipseUtils.getFileContentTypes(file);
@@ -293,16 +302,22 @@ protected static Collection<LanguageServerWrapper> getLSWrappers(final IDocument
 		// look for already started compatible servers suitable for the given document
 		final Predicate<LanguageServerWrapper> selectServersForDocument = wrapper -> {
 			try {
-				return wrapper.isConnectedTo(uri)
-						|| (lsRegistry.matches(document, wrapper.serverDefinition) && wrapper.canOperate(document));
+				return wrapper.isConnectedTo(uri) || wrapper.canOperate(document);
 			} catch (Exception ex) {
 				LanguageServerPlugin.logError(ex);
 				return false;
 			}
 		};
+		final var candidates = new LinkedHashSet<LanguageServerWrapper>(startedServers.getConnectedTo(uri));
+		for (final LanguageServerDefinition serverDefinition : lsRegistry.getAvailableLSFor(document)) {
+			for (final LanguageServerWrapper wrapper : startedServers.getByDefinition(serverDefinition)) {
+				if (!candidates.contains(wrapper) && selectServersForDocument.test(wrapper)) {
+					candidates.add(wrapper);
+				}
+			}
+		}
 		@NonNull
-		final LinkedHashSet<LanguageServerWrapper> res = startedServers.stream().filter(selectServersForDocument)
-				.collect(Collectors.toCollection(LinkedHashSet::new));
+		final LinkedHashSet<LanguageServerWrapper> res = new LinkedHashSet<>(startedServers.sorted(candidates));
 
 		// look for running language servers via content-type
 		final var directContentTypes = LSPEclipseUtils.getDocumentContentTypes(document);
@@ -328,9 +343,9 @@ protected static Collection<LanguageServerWrapper> getLSWrappers(final IDocument
 					continue;
 				}
 
-				synchronized (startedServers) {
+				synchronized (startedServers.lock(serverDefinition)) {
 					// check again while holding the write lock
-					startedServers.stream().filter(selectServersForDocument).forEach(res::add);
+					startedServers.getByDefinition(serverDefinition).stream().filter(selectServersForDocument).forEach(res::add);
 					if (res.stream().anyMatch(selectServersWithEqualDefinition)) {
 						// we already found a compatible LS with this definition
 						continue;
@@ -371,19 +386,16 @@ public static LanguageServerWrapper getLSWrapper(@Nullable IProject project,
 	private static LanguageServerWrapper getLSWrapper(@Nullable IProject project,
 			LanguageServerDefinition serverDefinition, @Nullable IPath initialPath) {
 
-		final Predicate<LanguageServerWrapper> serverSelector = wrapper -> wrapper.canOperate(project)
-				&& wrapper.serverDefinition.equals(serverDefinition);
-
-		var matchingServer = startedServers.stream().filter(serverSelector).findFirst();
-		if (matchingServer.isPresent()) {
-			return matchingServer.get();
+		var matchingServer = findLSWrapper(project, serverDefinition);
+		if (matchingServer != null) {
+			return matchingServer;
 		}
 
-		synchronized (startedServers) {
+		synchronized (startedServers.lock(serverDefinition)) {
 			// check again while holding the write lock
-			matchingServer = startedServers.stream().filter(serverSelector).findFirst();
-			if (matchingServer.isPresent()) {
-				return matchingServer.get();
+			matchingServer = findLSWrapper(project, serverDefinition);
+			if (matchingServer != null) {
+				return matchingServer;
 			}
 
 			final var wrapper = project != null //
@@ -396,9 +408,24 @@ private static LanguageServerWrapper getLSWrapper(@Nullable IProject project,
 		}
 	}
 
+	private static @Nullable LanguageServerWrapper findLSWrapper(@Nullable IProject project,
+			LanguageServerDefinition serverDefinition) {
+		// a wrapper started for the project can always operate on it
+		final List<LanguageServerWrapper> projectWrappers = startedServers.getByProject(serverDefinition, project);
+		if (!projectWrappers.isEmpty()) {
+			return projectWrappers.get(0);
+		}
+		for (final LanguageServerWrapper wrapper : startedServers.getByDefinition(serverDefinition)) {
+			if (wrapper.canOperate(project)) {
+				return wrapper;
+			}
+		}
+		return null;
+	}
+
 	public static LanguageServerWrapper startLanguageServer(LanguageServerDefinition serverDefinition) {
-		synchronized (startedServers) {
-			LanguageServerWrapper wrapper = startedServers.stream().filter(w -> w.serverDefinition == serverDefinition)
+		synchronized (startedServers.lock(serverDefinition)) {
+			LanguageServerWrapper wrapper = startedServers.getByDefinition(serverDefinition).stream()
 					.findFirst().orElseGet(() -> {
 						final var w = new LanguageServerWrapper(serverDefinition, null);
 						startedServers.add(w);
@@ -15,9 +15,11 @@
 import java.util.ConcurrentModificationException;
 import java.util.List;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.internal.DocumentUtil;
+import org.eclipse.lsp4e.internal.PositionEncodings;
 import org.eclipse.lsp4j.TextEdit;
 
 /**
@@ -26,8 +28,21 @@
  */
 public class VersionedEdits extends Versioned<List<? extends TextEdit>> {
 
+	private final @Nullable String positionEncoding;
+
 	public VersionedEdits(long version, List<? extends TextEdit> data, IDocument document) {
+		this(version, data, document, PositionEncodings.getDocumentEncoding(document));
+	}
+
+	/**
+	 * @param positionEncoding
+	 *            the position encoding of the language server which computed the
+	 *            edits, see {@link LanguageServerWrapper#getPositionEncoding()}
+	 */
+	public VersionedEdits(long version, List<? extends TextEdit> data, IDocument document,
+			@Nullable String positionEncoding) {
 		super(document, version, data);
+		this.positionEncoding = positionEncoding;
 	}
 
 	/**
@@ -42,7 +57,7 @@ public void apply() throws BadLocationException, ConcurrentModificationException
 		if (this.sourceDocumentVersion != DocumentUtil.getDocumentModificationStamp(this.document)) {
 			throw new ConcurrentModificationException();
 		} else {
-			LSPEclipseUtils.applyEdits(this.document, data);
+			LSPEclipseUtils.applyEdits(this.document, data, positionEncoding);
 		}
 	}
 }
@@ -32,6 +32,7 @@
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.command.internal.CommandEventParameter;
 import org.eclipse.lsp4j.Command;
 import org.eclipse.lsp4j.TextEdit;
@@ -61,6 +62,21 @@ public class CommandExecutor {
 	private static final String LSP_PATH_PARAMETER_TYPE_ID = "org.eclipse.lsp4e.pathParameterType"; //$NON-NLS-1$
 
 	public static @Nullable CompletableFuture<Object> executeCommandClientSide(Command command, IDocument document) {
+		return executeCommandClientSide(command, document, null);
+	}
+
+	/**
+	 * Executes the given command of the given language server on client side.
+	 *
+	 * @param command
+	 * @param document
+	 * @param wrapper
+	 *            the language server which sent the command, whose position
+	 *            encoding is used for the fallback edit, <code>null</code> if
+	 *            unknown
+	 */
+	public static @Nullable CompletableFuture<Object> executeCommandClientSide(Command command, IDocument document,
+			@Nullable LanguageServerWrapper wrapper) {
 		IPath path = LSPEclipseUtils.toPath(document);
 		if (path == null) {
 			path = ResourcesPlugin.getWorkspace().getRoot().getLocation();
@@ -72,19 +88,34 @@ public class CommandExecutor {
 
 		URI uri = LSPEclipseUtils.toUri(document);
 		if (uri != null) {
-			return CommandExecutor.executeFallbackClientSide(command, uri);
+			return CommandExecutor.executeFallbackClientSide(command, uri, wrapper);
 		}
 		return CompletableFuture.completedFuture(null);
 	}
 
 	public static @Nullable CompletableFuture<Object> executeCommandClientSide(Command command, IResource resource) {
+		return executeCommandClientSide(command, resource, null);
+	}
+
+	/**
+	 * Executes the given command of the given language server on client side.
+	 *
+	 * @param command
+	 * @param resource
+	 * @param wrapper
+	 *            the language server which sent the command, whose position
+	 *            encoding is used for the fallback edit, <code>null</code> if
+	 *            unknown
+	 */
+	public static @Nullable CompletableFuture<Object> executeCommandClientSide(Command command, IResource resource,
+			@Nullable LanguageServerWrapper wrapper) {
 		CompletableFuture<Object> r = executeCommandClientSide(command, resource.getFullPath());
 		if (r != null) {
 			return r;
 		}
 		URI uri = LSPEclipseUtils.toUri(resource);
 		if (uri != null) {
-			return executeFallbackClientSide(command, uri);
+			return executeFallbackClientSide(command, uri, wrapper);
 		}
 		return CompletableFuture.completedFuture(null);
 	}
@@ -111,10 +142,11 @@ public class CommandExecutor {
 	}
 
 	// tentative fallback
-	private static @Nullable CompletableFuture<Object> executeFallbackClientSide(Command command, URI initialUri) {
+	private static @Nullable CompletableFuture<Object> executeFallbackClientSide(Command command, URI initialUri,
+			@Nullable LanguageServerWrapper wrapper) {
 		if (command.getArguments() != null) {
 			WorkspaceEdit edit = createWorkspaceEdit(command.getArguments(), initialUri);
-			LSPEclipseUtils.applyWorkspaceEdit(edit, command.getTitle());
+			LSPEclipseUtils.applyWorkspaceEdit(edit, command.getTitle(), wrapper);
 			return CompletableFuture.completedFuture(null);
 		}
 		return null;
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.internal;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.IFileBuffer;
+import org.eclipse.core.filebuffers.IFileBufferListener;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.content.IContentType;
+import org.eclipse.core.runtime.content.IContentTypeManager.ContentTypeChangeEvent;
+import org.eclipse.core.runtime.content.IContentTypeManager.IContentTypeChangeListener;
+
+/**
+ * Caches the content types detected for file buffers, so that resolving the
+ * language servers of a document does not scan its whole content for every
+ * request.
+ * <p>
+ * Entries are invalidated when the content type registry changes, and when the
+ * content of a buffer is replaced, saved, reverted, moved or deleted. Edits
+ * made in between do not invalidate the cached content types.
+ */
+public final class ContentTypeCache {
+
+	private static final Map<ITextFileBuffer, List<IContentType>> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/** incremented on every invalidation, to not cache content types computed concurrently */
+	private static final AtomicLong GENERATION = new AtomicLong();
+
+	private static final IContentTypeChangeListener CONTENT_TYPE_LISTENER = new IContentTypeChangeListener() {
+		@Override
+		public void contentTypeChanged(ContentTypeChangeEvent event) {
+			invalidateAll();
+		}
+	};
+
+	private static final IFileBufferListener FILE_BUFFER_LISTENER = new FileBufferListenerAdapter() {
+		@Override
+		public void bufferDisposed(IFileBuffer buffer) {
+			invalidate(buffer);
+		}
+
+		@Override
+		public void bufferContentReplaced(IFileBuffer buffer) {
+			invalidate(buffer);
+		}
+
+		@Override
+		public void dirtyStateChanged(IFileBuffer buffer, boolean isDirty) {
+			invalidate(buffer);
+		}
+
+		@Override
+		public void underlyingFileMoved(IFileBuffer buffer, IPath path) {
+			invalidate(buffer);
+		}
+
+		@Override
+		public void underlyingFileDeleted(IFileBuffer buffer) {
+			invalidate(buffer);
+		}
+	};
+
+	private static volatile boolean listening;
+
+	private ContentTypeCache() {
+	}
+
+	/**
+	 * Returns the cached content types of the given buffer, computing them with
+	 * the given supplier if needed.
+	 */
+	public static List<IContentType> get(ITextFileBuffer buffer, Supplier<List<IContentType>> computer) {
+		List<IContentType> contentTypes = CACHE.get(buffer);
+		if (contentTypes != null) {
+			return contentTypes;
+		}
+		startListening();
+		final long generation = GENERATION.get();
+		contentTypes = List.copyOf(computer.get());
+		synchronized (CACHE) {
+			if (generation == GENERATION.get()) {
+				CACHE.put(buffer, contentTypes);
+			}
+		}
+		return contentTypes;
+	}
+
+	private static void invalidate(IFileBuffer buffer) {
+		synchronized (CACHE) {
+			GENERATION.incrementAndGet();
+			CACHE.remove(buffer);
+		}
+	}
+
+	public static void invalidateAll() {
+		synchronized (CACHE) {
+			GENERATION.incrementAndGet();
+			CACHE.clear();
+		}
+	}
+
+	private static void startListening() {
+		if (listening) {
+			return;
+		}
+		synchronized (ContentTypeCache.class) {
+			if (!listening) {
+				Platform.getContentTypeManager().addContentTypeChangeListener(CONTENT_TYPE_LISTENER);
+				FileBuffers.getTextFileBufferManager().addFileBufferListener(FILE_BUFFER_LISTENER);
+				listening = true;
+			}
+		}
+	}
+
+	/**
+	 * Unregisters the listeners and clears the cache.
+	 */
+	public static void dispose() {
+		synchronized (ContentTypeCache.class) {
+			if (listening) {
+				Platform.getContentTypeManager().removeContentTypeChangeListener(CONTENT_TYPE_LISTENER);
+				FileBuffers.getTextFileBufferManager().removeFileBufferListener(FILE_BUFFER_LISTENER);
+				listening = false;
+			}
+		}
+		invalidateAll();
+	}
+}
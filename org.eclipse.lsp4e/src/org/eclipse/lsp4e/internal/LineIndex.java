@@ -0,0 +1,443 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.internal;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.WeakHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.PositionEncodingKind;
+
+/**
+ * Immutable snapshot of the line start offsets of a text, allowing to convert
+ * between LSP {@link Position}s and offsets without querying the line tracker
+ * of an {@link IDocument} for every conversion.
+ * <p>
+ * Indexes of documents are cached by document and modification stamp, so they
+ * are shared by all features converting positions for the same document
+ * version.
+ * <p>
+ * The content of closed files can be indexed without connecting a text file
+ * buffer, see {@link #of(IFile)}.
+ * <p>
+ * Besides the default UTF-16 code unit columns, positions can be converted
+ * using the UTF-8 and UTF-32 {@link PositionEncodingKind}s. Column tables for
+ * those encodings are only computed for lines containing characters whose
+ * length differs from UTF-16.
+ */
+public final class LineIndex {
+
+	private static final Map<IDocument, LineIndex> CACHE = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private static final int MAX_CACHED_FILES = 64;
+
+	/** indexes of files read from disk, keyed by file and modification stamp */
+	private static final Map<IFile, LineIndex> FILE_CACHE = Collections
+			.synchronizedMap(new LinkedHashMap<>(MAX_CACHED_FILES, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Entry<IFile, LineIndex> eldest) {
+					return size() > MAX_CACHED_FILES;
+				}
+			});
+
+	/** marks lines whose columns are the same as in UTF-16 */
+	private static final int[] SAME_AS_UTF16 = new int[0];
+
+	/** start offset of each line */
+	private final int[] lineOffsets;
+	private final int length;
+	private final long modificationStamp;
+	/** the indexed text, either a {@link CharSequence} or a weakly referenced {@link IDocument} */
+	private final Object text;
+
+	/** lazily computed column tables of the last used non UTF-16 encoding */
+	private @Nullable String columnsEncoding;
+	private int @Nullable [][] columns;
+
+	private LineIndex(int[] lineOffsets, int length, long modificationStamp, Object text) {
+		this.lineOffsets = lineOffsets;
+		this.length = length;
+		this.modificationStamp = modificationStamp;
+		this.text = text;
+	}
+
+	/**
+	 * Returns the line index for the current content of the given document,
+	 * reusing a cached one if the document has not been modified since it was
+	 * computed.
+	 */
+	public static LineIndex of(IDocument document) {
+		LineIndex lineIndex = getCached(document);
+		if (lineIndex != null) {
+			return lineIndex;
+		}
+		final long modificationStamp = DocumentUtil.getDocumentModificationStamp(document);
+		lineIndex = compute(document, modificationStamp);
+		if (modificationStamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP
+				&& modificationStamp == DocumentUtil.getDocumentModificationStamp(document)) {
+			CACHE.put(document, lineIndex);
+		}
+		return lineIndex;
+	}
+
+	/**
+	 * @return the cached line index of the given document if it is up-to-date,
+	 *         <code>null</code> otherwise
+	 */
+	public static @Nullable LineIndex getCached(IDocument document) {
+		final LineIndex lineIndex = CACHE.get(document);
+		if (lineIndex != null && lineIndex.modificationStamp == DocumentUtil.getDocumentModificationStamp(document)) {
+			return lineIndex;
+		}
+		return null;
+	}
+
+	/**
+	 * Computes the line index of the given text. Lines are delimited by
+	 * <code>\r</code>, <code>\n</code> or <code>\r\n</code>.
+	 */
+	public static LineIndex of(CharSequence text) {
+		return new LineIndex(computeLineOffsets(text), text.length(), IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP, text);
+	}
+
+	/**
+	 * Returns the line index of the content of the given file on disk, decoded
+	 * with the charset of the file.
+	 * Unlike {@link org.eclipse.lsp4e.LSPEclipseUtils#getDocument(org.eclipse.core.resources.IResource)}
+	 * no text file buffer is connected, which makes it suitable to convert
+	 * positions in many closed files. A few indexes are cached, as long as the
+	 * modification stamp of their file does not change.
+	 *
+	 * @return the line index, or <code>null</code> if the file is not stored in
+	 *         the local file system or cannot be read
+	 */
+	public static @Nullable LineIndex of(IFile file) {
+		final long modificationStamp = file.getModificationStamp();
+		LineIndex lineIndex = FILE_CACHE.get(file);
+		if (lineIndex != null && lineIndex.modificationStamp == modificationStamp) {
+			return lineIndex;
+		}
+		final IPath location = file.getLocation();
+		if (location == null || modificationStamp == IFile.NULL_STAMP) {
+			return null;
+		}
+		try {
+			final byte[] bytes = Files.readAllBytes(location.toPath());
+			String content = new String(bytes, Charset.forName(file.getCharset()));
+			// like text file buffers, the content starts after the byte order mark
+			if (!content.isEmpty() && content.charAt(0) == '\uFEFF') {
+				content = content.substring(1);
+			}
+			lineIndex = new LineIndex(computeLineOffsets(content), content.length(), modificationStamp, content);
+		} catch (IOException | CoreException | IllegalArgumentException ex) {
+			return null;
+		}
+		FILE_CACHE.put(file, lineIndex);
+		return lineIndex;
+	}
+
+	/**
+	 * @return whether the given position encoding uses UTF-16 code units like
+	 *         Java strings and Eclipse documents do. <code>null</code> stands for
+	 *         the default encoding which is UTF-16.
+	 */
+	public static boolean isUtf16(@Nullable String positionEncoding) {
+		return positionEncoding == null || PositionEncodingKind.UTF16.equals(positionEncoding)
+				|| !(PositionEncodingKind.UTF8.equals(positionEncoding) || PositionEncodingKind.UTF32.equals(positionEncoding));
+	}
+
+	private static LineIndex compute(IDocument document, long modificationStamp) {
+		try {
+			final int numberOfLines = document.getNumberOfLines();
+			final var lineOffsets = new int[numberOfLines];
+			for (int line = 0; line < numberOfLines; line++) {
+				lineOffsets[line] = document.getLineOffset(line);
+			}
+			return new LineIndex(lineOffsets, document.getLength(), modificationStamp, new WeakReference<>(document));
+		} catch (BadLocationException ex) {
+			// concurrent modification, fall back to a snapshot of the content
+			final String text = document.get();
+			return new LineIndex(computeLineOffsets(text), text.length(), IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP, text);
+		}
+	}
+
+	private static int[] computeLineOffsets(CharSequence text) {
+		var lineOffsets = new int[Math.max(16, text.length() / 32)];
+		int lines = 1;
+		final int textLength = text.length();
+		for (int i = 0; i < textLength; i++) {
+			final char c = text.charAt(i);
+			if (c == '\r' || c == '\n') {
+				if (c == '\r' && i + 1 < textLength && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+				if (lines == lineOffsets.length) {
+					lineOffsets = Arrays.copyOf(lineOffsets, lines * 2);
+				}
+				lineOffsets[lines++] = i + 1;
+			}
+		}
+		return Arrays.copyOf(lineOffsets, lines);
+	}
+
+	public int getNumberOfLines() {
+		return lineOffsets.length;
+	}
+
+	/**
+	 * @return the length of the indexed text
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	public int getLineOffset(int line) throws BadLocationException {
+		if (line < 0 || line >= lineOffsets.length) {
+			throw new BadLocationException("Invalid line: " + line); //$NON-NLS-1$
+		}
+		return lineOffsets[line];
+	}
+
+	/**
+	 * @return the length of the given line including its delimiter
+	 */
+	public int getLineLength(int line) throws BadLocationException {
+		final int lineOffset = getLineOffset(line);
+		return (line + 1 < lineOffsets.length ? lineOffsets[line + 1] : length) - lineOffset;
+	}
+
+	/**
+	 * @return the text of the given line without its delimiter
+	 */
+	public String getLineContent(int line) throws BadLocationException {
+		final CharSequence lineText = getLineText(line);
+		int lineLength = lineText.length();
+		if (line + 1 < lineOffsets.length) { // all lines but the last end with a delimiter
+			lineLength -= lineLength > 1 && lineText.charAt(lineLength - 2) == '\r' && lineText.charAt(lineLength - 1) == '\n' ? 2 : 1;
+		}
+		return lineText.subSequence(0, lineLength).toString();
+	}
+
+	public int getLineOfOffset(int offset) throws BadLocationException {
+		if (offset < 0 || offset > length) {
+			throw new BadLocationException("Invalid offset: " + offset); //$NON-NLS-1$
+		}
+		final int index = Arrays.binarySearch(lineOffsets, offset);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	/**
+	 * Same as {@link org.eclipse.lsp4e.LSPEclipseUtils#toOffset(Position, IDocument)}.
+	 */
+	public int toOffset(Position position) throws BadLocationException {
+		return toOffset(position.getLine(), position.getCharacter());
+	}
+
+	/**
+	 * Same as {@link #toOffset(Position)}, without a {@link Position} instance.
+	 */
+	public int toOffset(int line, int character) throws BadLocationException {
+		if (line < 0) {
+			throw new BadLocationException("Invalid line: " + line); //$NON-NLS-1$
+		}
+		final int lastLine = lineOffsets.length - 1;
+		if (lastLine < line) {
+			return lineOffsets[lastLine] + getLineLength(lastLine);
+		}
+		return lineOffsets[line] + Math.min(getLineLength(line), character);
+	}
+
+	/**
+	 * Same as {@link org.eclipse.lsp4e.LSPEclipseUtils#toPosition(int, IDocument)}.
+	 */
+	public Position toPosition(int offset) throws BadLocationException {
+		final int line = getLineOfOffset(offset);
+		return new Position(line, offset - lineOffsets[line]);
+	}
+
+	/**
+	 * Converts the given positions to offsets.
+	 */
+	public int[] toOffsets(List<Position> positions) throws BadLocationException {
+		final var offsets = new int[positions.size()];
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = toOffset(positions.get(i));
+		}
+		return offsets;
+	}
+
+	/**
+	 * Converts the given offsets to positions. Ascending offsets are converted in
+	 * a single linear pass over the lines, other offsets fall back to a binary
+	 * search.
+	 */
+	public Position[] toPositions(int[] offsets) throws BadLocationException {
+		final var positions = new Position[offsets.length];
+		int line = 0;
+		int previousOffset = 0;
+		for (int i = 0; i < offsets.length; i++) {
+			final int offset = offsets[i];
+			if (offset < previousOffset || offset > length) {
+				line = getLineOfOffset(offset);
+			} else {
+				while (line + 1 < lineOffsets.length && lineOffsets[line + 1] <= offset) {
+					line++;
+				}
+			}
+			positions[i] = new Position(line, offset - lineOffsets[line]);
+			previousOffset = offset;
+		}
+		return positions;
+	}
+
+	/**
+	 * Converts the given position, whose character is expressed in units of the
+	 * given position encoding, to an offset. Positions beyond the end of a line or
+	 * of the text are clamped like {@link #toOffset(Position)} does.
+	 */
+	public int toOffset(Position position, @Nullable String positionEncoding) throws BadLocationException {
+		return toOffset(position.getLine(), position.getCharacter(), positionEncoding);
+	}
+
+	/**
+	 * Same as {@link #toOffset(Position, String)}, without a {@link Position}
+	 * instance.
+	 */
+	public int toOffset(int line, int character, @Nullable String positionEncoding) throws BadLocationException {
+		if (isUtf16(positionEncoding) || line < 0 || line >= lineOffsets.length) {
+			return toOffset(line, character);
+		}
+		final int[] lineColumns = getColumns(line, castNonNull(positionEncoding));
+		final int lineLength = getLineLength(line);
+		if (lineColumns == SAME_AS_UTF16) {
+			return lineOffsets[line] + Math.min(lineLength, character);
+		}
+		if (character >= lineColumns[lineLength]) {
+			return lineOffsets[line] + lineLength;
+		}
+		// last char index starting at or before the given column
+		int low = 0;
+		int high = lineLength;
+		while (low < high) {
+			final int mid = (low + high + 1) >>> 1;
+			if (lineColumns[mid] <= character) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return lineOffsets[line] + low;
+	}
+
+	/**
+	 * Converts the given offset to a position whose character is expressed in
+	 * units of the given position encoding.
+	 */
+	public Position toPosition(int offset, @Nullable String positionEncoding) throws BadLocationException {
+		final Position position = toPosition(offset);
+		if (!isUtf16(positionEncoding)) {
+			final int[] lineColumns = getColumns(position.getLine(), castNonNull(positionEncoding));
+			if (lineColumns != SAME_AS_UTF16) {
+				position.setCharacter(lineColumns[position.getCharacter()]);
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * @return for each char index of the line (including its end) the column in
+	 *         the given encoding, or {@link #SAME_AS_UTF16}
+	 */
+	private synchronized int[] getColumns(int line, String positionEncoding) throws BadLocationException {
+		int[][] columns = this.columns;
+		if (columns == null || !positionEncoding.equals(columnsEncoding)) {
+			columns = new int[lineOffsets.length][];
+			this.columns = columns;
+			this.columnsEncoding = positionEncoding;
+		}
+		int[] lineColumns = columns[line];
+		if (lineColumns == null) {
+			lineColumns = computeColumns(getLineText(line), PositionEncodingKind.UTF8.equals(positionEncoding));
+			columns[line] = lineColumns;
+		}
+		return lineColumns;
+	}
+
+	private CharSequence getLineText(int line) throws BadLocationException {
+		final int lineOffset = lineOffsets[line];
+		final int lineLength = getLineLength(line);
+		if (text instanceof CharSequence charSequence) {
+			return charSequence.subSequence(lineOffset, lineOffset + lineLength);
+		}
+		final IDocument document = ((WeakReference<?>) text).get() instanceof IDocument doc ? doc : null;
+		if (document == null || DocumentUtil.getDocumentModificationStamp(document) != modificationStamp) {
+			throw new BadLocationException("Document has changed since the line index was computed"); //$NON-NLS-1$
+		}
+		return document.get(lineOffset, lineLength);
+	}
+
+	private static int[] computeColumns(CharSequence lineText, boolean utf8) {
+		final int lineLength = lineText.length();
+		int i = 0;
+		while (i < lineLength && !needsColumnTable(lineText.charAt(i), utf8)) {
+			i++;
+		}
+		if (i == lineLength) {
+			return SAME_AS_UTF16;
+		}
+		final var lineColumns = new int[lineLength + 1];
+		for (int j = 0; j <= i; j++) {
+			lineColumns[j] = j;
+		}
+		int column = i;
+		while (i < lineLength) {
+			final char c = lineText.charAt(i);
+			if (Character.isHighSurrogate(c) && i + 1 < lineLength && Character.isLowSurrogate(lineText.charAt(i + 1))) {
+				// a supplementary code point is 4 UTF-8 bytes or 1 UTF-32 unit, offsets
+				// inside the surrogate pair map to the column after it
+				column += utf8 ? 4 : 1;
+				lineColumns[++i] = column;
+			} else if (!utf8) {
+				column++;
+			} else if (c < 0x80) {
+				column++;
+			} else if (c < 0x800) {
+				column += 2;
+			} else {
+				column += 3;
+			}
+			lineColumns[++i] = column;
+		}
+		return lineColumns;
+	}
+
+	private static boolean needsColumnTable(char c, boolean utf8) {
+		return utf8 ? c >= 0x80 : Character.isSurrogate(c);
+	}
+}
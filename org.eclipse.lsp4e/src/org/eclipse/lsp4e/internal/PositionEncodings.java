@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.internal;
+
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.lsp4j.PositionEncodingKind;
+
+/**
+ * Keeps track of the position encodings negotiated with the language servers,
+ * so that position conversions which only know the document (like
+ * {@link org.eclipse.lsp4e.LSPEclipseUtils#toOffset(org.eclipse.lsp4j.Position, IDocument)})
+ * use the encoding of the servers connected to it.
+ * <p>
+ * A document connected to several servers using different encodings falls
+ * back to UTF-16; conversions for such documents have to pass the encoding of
+ * the server explicitly.
+ */
+public final class PositionEncodings {
+
+	/**
+	 * The position encodings offered to servers opting in, by order of
+	 * preference. UTF-16 is the one of Eclipse documents and thus the cheapest.
+	 */
+	public static final List<String> SUPPORTED = List.of( //
+			PositionEncodingKind.UTF16, //
+			PositionEncodingKind.UTF8, //
+			PositionEncodingKind.UTF32);
+
+	private static final Map<String, String> SERVER_ENCODINGS = new ConcurrentHashMap<>();
+	/** Documents are connected and disconnected by their synchronizers, and compared by identity */
+	private static final Map<IDocument, DocumentEncodings> DOCUMENT_ENCODINGS = new ConcurrentHashMap<>();
+
+	private PositionEncodings() {
+	}
+
+	/**
+	 * Records the position encoding negotiated with a server of the given
+	 * definition.
+	 */
+	public static void setServerEncoding(String serverId, @Nullable String positionEncoding) {
+		if (LineIndex.isUtf16(positionEncoding)) {
+			SERVER_ENCODINGS.remove(serverId);
+		} else {
+			SERVER_ENCODINGS.put(serverId, castNonNull(positionEncoding));
+		}
+	}
+
+	/**
+	 * @return the position encoding negotiated with the servers of the given
+	 *         definition, <code>null</code> for the default UTF-16
+	 */
+	public static @Nullable String getServerEncoding(String serverId) {
+		return SERVER_ENCODINGS.get(serverId);
+	}
+
+	/**
+	 * Records that a server using the given position encoding is connected to the
+	 * document.
+	 */
+	public static void connect(IDocument document, @Nullable String positionEncoding) {
+		DOCUMENT_ENCODINGS.compute(document, (d, encodings) -> {
+			final var connected = new ArrayList<String>(encodings == null ? List.of() : encodings.connected());
+			connected.add(positionEncoding == null ? PositionEncodingKind.UTF16 : positionEncoding);
+			return DocumentEncodings.of(connected);
+		});
+	}
+
+	public static void disconnect(IDocument document, @Nullable String positionEncoding) {
+		DOCUMENT_ENCODINGS.computeIfPresent(document, (d, encodings) -> {
+			final var connected = new ArrayList<String>(encodings.connected());
+			connected.remove(positionEncoding == null ? PositionEncodingKind.UTF16 : positionEncoding);
+			return connected.isEmpty() ? null : DocumentEncodings.of(connected);
+		});
+	}
+
+	/**
+	 * @return the position encoding shared by all servers connected to the
+	 *         document, or <code>null</code> if UTF-16 has to be used
+	 */
+	public static @Nullable String getDocumentEncoding(IDocument document) {
+		final DocumentEncodings encodings = DOCUMENT_ENCODINGS.get(document);
+		return encodings == null ? null : encodings.shared();
+	}
+
+	/**
+	 * The encodings of the servers connected to a document, and the one they
+	 * share, computed once per connection change since it is read for each
+	 * position conversion.
+	 */
+	private record DocumentEncodings(List<String> connected, @Nullable String shared) {
+
+		static DocumentEncodings of(List<String> connected) {
+			final String encoding = connected.get(0);
+			String shared = LineIndex.isUtf16(encoding) ? null : encoding;
+			for (final String other : connected) {
+				if (!encoding.equals(other)) {
+					shared = null;
+					break;
+				}
+			}
+			return new DocumentEncodings(List.copyOf(connected), shared);
+		}
+	}
+}
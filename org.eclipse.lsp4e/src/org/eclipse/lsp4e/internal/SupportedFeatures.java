@@ -28,6 +28,8 @@
 import org.eclipse.lsp4j.CompletionItemResolveSupportCapabilities;
 import org.eclipse.lsp4j.CompletionListCapabilities;
 import org.eclipse.lsp4j.DefinitionCapabilities;
+import org.eclipse.lsp4j.DiagnosticCapabilities;
+import org.eclipse.lsp4j.DiagnosticWorkspaceCapabilities;
 import org.eclipse.lsp4j.DocumentHighlightCapabilities;
 import org.eclipse.lsp4j.DocumentLinkCapabilities;
 import org.eclipse.lsp4j.DocumentSymbolCapabilities;
@@ -38,16 +40,23 @@
 import org.eclipse.lsp4j.FoldingRangeKindSupportCapabilities;
 import org.eclipse.lsp4j.FoldingRangeSupportCapabilities;
 import org.eclipse.lsp4j.FormattingCapabilities;
+import org.eclipse.lsp4j.GeneralClientCapabilities;
 import org.eclipse.lsp4j.HoverCapabilities;
 import org.eclipse.lsp4j.InlayHintCapabilities;
 import org.eclipse.lsp4j.InsertTextMode;
 import org.eclipse.lsp4j.MarkupKind;
+import org.eclipse.lsp4j.PositionEncodingKind;
 import org.eclipse.lsp4j.PublishDiagnosticsCapabilities;
 import org.eclipse.lsp4j.RangeFormattingCapabilities;
 import org.eclipse.lsp4j.ReferencesCapabilities;
 import org.eclipse.lsp4j.RenameCapabilities;
 import org.eclipse.lsp4j.ResourceOperationKind;
 import org.eclipse.lsp4j.SelectionRangeCapabilities;
+import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokenTypes;
+import org.eclipse.lsp4j.SemanticTokensCapabilities;
+import org.eclipse.lsp4j.SemanticTokensClientCapabilitiesRequests;
+import org.eclipse.lsp4j.SemanticTokensClientCapabilitiesRequestsFull;
 import org.eclipse.lsp4j.ShowDocumentCapabilities;
 import org.eclipse.lsp4j.SignatureHelpCapabilities;
 import org.eclipse.lsp4j.SymbolCapabilities;
@@ -55,12 +64,14 @@
 import org.eclipse.lsp4j.SymbolKindCapabilities;
 import org.eclipse.lsp4j.SynchronizationCapabilities;
 import org.eclipse.lsp4j.TextDocumentClientCapabilities;
+import org.eclipse.lsp4j.TokenFormat;
 import org.eclipse.lsp4j.TypeDefinitionCapabilities;
 import org.eclipse.lsp4j.WindowClientCapabilities;
 import org.eclipse.lsp4j.WindowShowMessageRequestCapabilities;
 import org.eclipse.lsp4j.WorkspaceClientCapabilities;
 import org.eclipse.lsp4j.WorkspaceEditCapabilities;
 import org.eclipse.lsp4j.WorkspaceEditChangeAnnotationSupportCapabilities;
+import org.eclipse.lsp4j.WorkspaceSymbolResolveSupportCapabilities;
 
 public class SupportedFeatures {
 
@@ -83,6 +94,7 @@ public static TextDocumentClientCapabilities getTextDocumentClientCapabilities()
 		textDocumentClientCapabilities.setInlayHint(new InlayHintCapabilities());
 		textDocumentClientCapabilities.setColorProvider(new ColorProviderCapabilities());
 		textDocumentClientCapabilities.setPublishDiagnostics(new PublishDiagnosticsCapabilities());
+		textDocumentClientCapabilities.setDiagnostic(new DiagnosticCapabilities(false, true));
 		final var completionItemCapabilities = new CompletionItemCapabilities(true);
 		completionItemCapabilities.setDocumentationFormat(List.of( //
 				MarkupKind.MARKDOWN, //
@@ -139,6 +151,26 @@ public static TextDocumentClientCapabilities getTextDocumentClientCapabilities()
 		textDocumentClientCapabilities.setSynchronization(new SynchronizationCapabilities(true, true, true));
 		final var selectionRange = new SelectionRangeCapabilities();
 		textDocumentClientCapabilities.setSelectionRange(selectionRange);
+		final var semanticTokensRequests = new SemanticTokensClientCapabilitiesRequests(
+				new SemanticTokensClientCapabilitiesRequestsFull(true));
+		semanticTokensRequests.setRange(true);
+		textDocumentClientCapabilities.setSemanticTokens(new SemanticTokensCapabilities(semanticTokensRequests,
+				List.of( //
+						SemanticTokenTypes.Namespace, SemanticTokenTypes.Type, SemanticTokenTypes.Class,
+						SemanticTokenTypes.Enum, SemanticTokenTypes.Interface, SemanticTokenTypes.Struct,
+						SemanticTokenTypes.TypeParameter, SemanticTokenTypes.Parameter, SemanticTokenTypes.Variable,
+						SemanticTokenTypes.Property, SemanticTokenTypes.EnumMember, SemanticTokenTypes.Event,
+						SemanticTokenTypes.Function, SemanticTokenTypes.Method, SemanticTokenTypes.Macro,
+						SemanticTokenTypes.Keyword, SemanticTokenTypes.Modifier, SemanticTokenTypes.Comment,
+						SemanticTokenTypes.String, SemanticTokenTypes.Number, SemanticTokenTypes.Regexp,
+						SemanticTokenTypes.Operator, SemanticTokenTypes.Decorator),
+				List.of( //
+						SemanticTokenModifiers.Declaration, SemanticTokenModifiers.Definition,
+						SemanticTokenModifiers.Readonly, SemanticTokenModifiers.Static,
+						SemanticTokenModifiers.Deprecated, SemanticTokenModifiers.Abstract,
+						SemanticTokenModifiers.Async, SemanticTokenModifiers.Modification,
+						SemanticTokenModifiers.Documentation, SemanticTokenModifiers.DefaultLibrary),
+				List.of(TokenFormat.Relative)));
 		return textDocumentClientCapabilities;
 	}
 
@@ -147,7 +179,10 @@ public static WorkspaceClientCapabilities getWorkspaceClientCapabilities() {
 		workspaceClientCapabilities.setApplyEdit(true);
 		workspaceClientCapabilities.setConfiguration(true);
 		workspaceClientCapabilities.setExecuteCommand(new ExecuteCommandCapabilities(true));
-		workspaceClientCapabilities.setSymbol(new SymbolCapabilities(true));
+		final var symbol = new SymbolCapabilities(true);
+		// locations are resolved when symbols are opened
+		symbol.setResolveSupport(new WorkspaceSymbolResolveSupportCapabilities(List.of("location.range"))); //$NON-NLS-1$
+		workspaceClientCapabilities.setSymbol(symbol);
 		workspaceClientCapabilities.setWorkspaceFolders(true);
 		final var editCapabilities = new WorkspaceEditCapabilities();
 		editCapabilities.setDocumentChanges(true);
@@ -160,6 +195,7 @@ public static WorkspaceClientCapabilities getWorkspaceClientCapabilities() {
 		workspaceClientCapabilities.setWorkspaceEdit(editCapabilities);
 		final var codeLensWorkspaceCapabilities = new CodeLensWorkspaceCapabilities(true);
 		workspaceClientCapabilities.setCodeLens(codeLensWorkspaceCapabilities);
+		workspaceClientCapabilities.setDiagnostics(new DiagnosticWorkspaceCapabilities(true));
 		return workspaceClientCapabilities;
 	}
 
@@ -171,6 +207,19 @@ public static WindowClientCapabilities getWindowClientCapabilities() {
 		return windowClientCapabilities;
 	}
 
+	/**
+	 * @param negotiatePositionEncoding
+	 *            whether to offer UTF-8 and UTF-32 position encodings in addition
+	 *            to the default UTF-16 one
+	 */
+	public static GeneralClientCapabilities getGeneralClientCapabilities(boolean negotiatePositionEncoding) {
+		final var generalClientCapabilities = new GeneralClientCapabilities();
+		generalClientCapabilities.setPositionEncodings(negotiatePositionEncoding
+				? PositionEncodings.SUPPORTED
+				: List.of(PositionEncodingKind.UTF16));
+		return generalClientCapabilities;
+	}
+
 	private SupportedFeatures() {
 	}
 }
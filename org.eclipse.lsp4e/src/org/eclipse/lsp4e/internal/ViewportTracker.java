@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.internal;
+
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.IViewportListener;
+import org.eclipse.lsp4e.ui.UI;
+import org.eclipse.swt.custom.StyledText;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Tracks the document lines visible in a text viewer, so that they can be read
+ * from any thread. The given callback is run in the UI thread when the viewer
+ * is scrolled.
+ */
+public final class ViewportTracker {
+
+	/** Visible lines of the document, from the first one to the last one included */
+	public record VisibleLines(int first, int last) {
+
+		/**
+		 * @return whether the given line is visible, or at most the given number of
+		 *         lines away from the visible ones
+		 */
+		public boolean contains(int line, int margin) {
+			return first - margin <= line && line <= last + margin;
+		}
+	}
+
+	private final Consumer<ITextViewer> viewportChanged;
+	private final IViewportListener viewportListener;
+	private @Nullable ITextViewer viewer;
+	private volatile VisibleLines visibleLines = new VisibleLines(0, -1);
+
+	public ViewportTracker(Consumer<ITextViewer> viewportChanged) {
+		this.viewportChanged = viewportChanged;
+		this.viewportListener = verticalOffset -> {
+			final ITextViewer viewer = this.viewer;
+			if (viewer != null && update(viewer)) {
+				viewportChanged.accept(viewer);
+			}
+		};
+	}
+
+	/**
+	 * Tracks the given viewer if it is not already. In the UI thread, the visible
+	 * lines are updated right away. Otherwise they are updated later in the UI
+	 * thread and the callback is run.
+	 */
+	public void track(ITextViewer viewer) {
+		if (Display.getCurrent() != null) {
+			update(viewer);
+		} else {
+			UI.getDisplay().asyncExec(() -> {
+				if (update(viewer)) {
+					viewportChanged.accept(viewer);
+				}
+			});
+		}
+	}
+
+	/**
+	 * @return the lines visible the last time they were updated, none before the
+	 *         first update
+	 */
+	public VisibleLines getVisibleLines() {
+		return visibleLines;
+	}
+
+	/**
+	 * @return <code>false</code> if the given viewer is disposed
+	 */
+	private boolean update(ITextViewer viewer) {
+		final StyledText textWidget = viewer.getTextWidget();
+		if (textWidget == null || textWidget.isDisposed()) {
+			return false;
+		}
+		if (this.viewer != viewer) {
+			final ITextViewer previousViewer = this.viewer;
+			if (previousViewer != null) {
+				previousViewer.removeViewportListener(viewportListener);
+			}
+			viewer.addViewportListener(viewportListener);
+			this.viewer = viewer;
+		}
+		final int topIndex = viewer.getTopIndex();
+		visibleLines = topIndex < 0 ? new VisibleLines(0, -1)
+				: new VisibleLines(topIndex, Math.max(topIndex, viewer.getBottomIndex()));
+		return true;
+	}
+
+	/**
+	 * Stops tracking the viewer. Must be called in the UI thread.
+	 */
+	public void dispose() {
+		final ITextViewer viewer = this.viewer;
+		if (viewer != null) {
+			viewer.removeViewportListener(viewportListener);
+			this.viewer = null;
+		}
+	}
+}
@@ -81,7 +81,7 @@ public void apply(IDocument document) {
 	private void apply(@Nullable CodeAction codeaction) {
 		if (codeaction != null) {
 			if (codeaction.getEdit() != null) {
-				LSPEclipseUtils.applyWorkspaceEdit(codeaction.getEdit(), codeaction.getTitle());
+				LSPEclipseUtils.applyWorkspaceEdit(codeaction.getEdit(), codeaction.getTitle(), serverWrapper);
 			}
 			if (codeaction.getCommand() != null) {
 				executeCommand(codeaction.getCommand());
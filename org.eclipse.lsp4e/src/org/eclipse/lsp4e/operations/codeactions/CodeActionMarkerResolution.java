@@ -72,15 +72,15 @@ public String getLabel() {
 
 	@Override
 	public void run(IMarker marker) {
+		LanguageServerWrapper wrapper = getLanguageServerWrapper(marker);
 		if (codeAction.getEdit() != null) {
-			LSPEclipseUtils.applyWorkspaceEdit(codeAction.getEdit(), codeAction.getTitle());
+			LSPEclipseUtils.applyWorkspaceEdit(codeAction.getEdit(), codeAction.getTitle(), wrapper);
 			return;
 		}
-		LanguageServerWrapper wrapper = getLanguageServerWrapper(marker);
 		if (wrapper != null) {
 			resolveCodeAction(wrapper);
 			if (codeAction.getEdit() != null) {
-				LSPEclipseUtils.applyWorkspaceEdit(codeAction.getEdit(), codeAction.getTitle());
+				LSPEclipseUtils.applyWorkspaceEdit(codeAction.getEdit(), codeAction.getTitle(), wrapper);
 			}
 			if (codeAction.getCommand() != null) {
 				Command command = codeAction.getCommand();
@@ -95,7 +95,7 @@ public void run(IMarker marker) {
 				} else  {
 					IResource resource = marker.getResource();
 					if (resource != null) {
-						CommandExecutor.executeCommandClientSide(command, resource);
+						CommandExecutor.executeCommandClientSide(command, resource, wrapper);
 					}
 				}
 			}
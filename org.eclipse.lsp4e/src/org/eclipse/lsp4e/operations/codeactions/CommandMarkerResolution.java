@@ -66,7 +66,7 @@ public void run(IMarker marker) {
 			wrapper.execute(ls -> ls.getWorkspaceService()
 					.executeCommand(new ExecuteCommandParams(command.getCommand(), command.getArguments())));
 		} else {
-			CommandExecutor.executeCommandClientSide(command, resource);
+			CommandExecutor.executeCommandClientSide(command, resource, wrapper);
 		}
 	}
 
@@ -30,6 +30,8 @@
 
 public class CodeLensProvider extends AbstractCodeMiningProvider {
 
+	private final CodeLensResolver resolver = new CodeLensResolver();
+
 	private @Nullable CompletableFuture<List<? extends ICodeMining>> provideCodeMinings(IDocument document) {
 		URI docURI = LSPEclipseUtils.toUri(document);
 		if (docURI != null) {
@@ -37,9 +39,15 @@ public class CodeLensProvider extends AbstractCodeMiningProvider {
 			LanguageServerDocumentExecutor executor = LanguageServers.forDocument(document)
 					.withFilter(sc -> sc.getCodeLensProvider() != null);
 			return executor
-					.collectAll((w, ls) -> ls.getTextDocumentService().codeLens(param)
-							.thenApply(codeLenses -> LanguageServers.streamSafely(codeLenses)
-									.map(codeLens -> toCodeMining(document, w, codeLens)).filter(Objects::nonNull)))
+					.collectAll((w, ls) -> {
+						// run on the dispatcher of the server, thus the version of the content the lenses are for
+						final int version = w.getSentTextDocumentVersion(docURI);
+						return executor.cached(w, "textDocument/codeLens", param, //$NON-NLS-1$
+								() -> ls.getTextDocumentService().codeLens(param))
+								.thenApply(codeLenses -> LanguageServers.streamSafely(codeLenses)
+										.map(codeLens -> toCodeMining(document, w, version, codeLens))
+										.filter(Objects::nonNull));
+					})
 					.thenApply(result -> result.stream().flatMap(s -> s).toList());
 		} else {
 			return null;
@@ -47,12 +55,12 @@ public class CodeLensProvider extends AbstractCodeMiningProvider {
 	}
 
 	private @Nullable LSPCodeMining toCodeMining(IDocument document, LanguageServerWrapper languageServerWrapper,
-			@Nullable CodeLens codeLens) {
+			int version, @Nullable CodeLens codeLens) {
 		if (codeLens == null) {
 			return null;
 		}
 		try {
-			return new LSPCodeMining(codeLens, document, languageServerWrapper, CodeLensProvider.this);
+			return new LSPCodeMining(codeLens, document, languageServerWrapper, CodeLensProvider.this, version);
 		} catch (BadLocationException e) {
 			LanguageServerPlugin.logError(e);
 			return null;
@@ -63,7 +71,21 @@ public class CodeLensProvider extends AbstractCodeMiningProvider {
 	public @Nullable CompletableFuture<List<? extends ICodeMining>> provideCodeMinings(ITextViewer viewer,
 			IProgressMonitor monitor) {
 		IDocument document = viewer.getDocument();
-		return document != null ? provideCodeMinings(document) : null;
+		if (document == null) {
+			return null;
+		}
+		resolver.track(viewer);
+		return provideCodeMinings(document);
+	}
+
+	CodeLensResolver getResolver() {
+		return resolver;
+	}
+
+	@Override
+	public void dispose() {
+		resolver.dispose();
+		super.dispose();
 	}
 
 }
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.codelens;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.internal.ViewportTracker;
+import org.eclipse.lsp4e.internal.ViewportTracker.VisibleLines;
+import org.eclipse.lsp4j.CodeLens;
+
+/**
+ * Resolves the code lenses of a viewer (<code>codeLens/resolve</code>) once
+ * their line is scrolled into view, instead of all the lenses of the document
+ * at once. Few resolve requests are sent at once to each server. The resolved
+ * lenses are kept for the document version they were received for, so that
+ * the code minings created again for the same lenses, e.g. when the code
+ * minings of the viewer are updated, do not send requests.
+ */
+final class CodeLensResolver {
+
+	/** Number of lines before and after the visible ones whose lenses are resolved too */
+	private static final int PREFETCH_LINES = 20;
+	private static final int MAX_CONCURRENT_RESOLVES = 4;
+
+	/** The resolves of the lenses of a document version, by lens instance */
+	private record Resolves(int version, Map<CodeLens, CompletableFuture<@Nullable CodeLens>> resolves) {
+	}
+
+	private record PendingResolve(LanguageServerWrapper wrapper, int version, CodeLens codeLens, int line,
+			CompletableFuture<@Nullable CodeLens> resolve) {
+	}
+
+	private final ViewportTracker viewport = new ViewportTracker(viewer -> startResolves());
+	private final Map<LanguageServerWrapper, Resolves> resolves = new HashMap<>();
+	/** Resolves of lenses not visible yet, or waiting for other resolves of their server */
+	private final List<PendingResolve> pendingResolves = new ArrayList<>();
+	private final Map<LanguageServerWrapper, Integer> runningResolves = new HashMap<>();
+	/** Whether a thread is starting the pending resolves, and whether they have to be looked at again */
+	private boolean starting;
+	private boolean restart;
+
+	/**
+	 * Resolves the lenses of the given viewer, once they are visible.
+	 */
+	void track(ITextViewer viewer) {
+		viewport.track(viewer);
+	}
+
+	/**
+	 * @return the resolve of the given lens on the given version of the document,
+	 *         started once the given line is visible if it is not already
+	 */
+	CompletableFuture<@Nullable CodeLens> resolve(LanguageServerWrapper wrapper, int version, CodeLens codeLens,
+			int line) {
+		final CompletableFuture<@Nullable CodeLens> resolve;
+		synchronized (this) {
+			Resolves documentResolves = resolves.get(wrapper);
+			if (documentResolves == null || documentResolves.version() != version) {
+				// the lenses of the previous version are not shown anymore
+				cancelPendingResolves(wrapper);
+				documentResolves = new Resolves(version, new IdentityHashMap<>());
+				resolves.put(wrapper, documentResolves);
+			}
+			final CompletableFuture<@Nullable CodeLens> existingResolve = documentResolves.resolves().get(codeLens);
+			if (existingResolve != null) {
+				return existingResolve.copy();
+			}
+			resolve = new CompletableFuture<>();
+			documentResolves.resolves().put(codeLens, resolve);
+			pendingResolves.add(new PendingResolve(wrapper, version, codeLens, line, resolve));
+		}
+		startResolves();
+		return resolve.copy();
+	}
+
+	/**
+	 * Starts the pending resolves which can be. Resolves completing while they are
+	 * started, possibly in the same thread, let the starting thread look at the
+	 * pending resolves again instead of starting them themselves.
+	 */
+	private void startResolves() {
+		synchronized (this) {
+			restart = true;
+			if (starting) {
+				return;
+			}
+			starting = true;
+		}
+		while (true) {
+			final var startable = new ArrayList<PendingResolve>();
+			synchronized (this) {
+				if (!restart) {
+					starting = false;
+					return;
+				}
+				restart = false;
+				final VisibleLines visibleLines = viewport.getVisibleLines();
+				for (final Iterator<PendingResolve> iterator = pendingResolves.iterator(); iterator.hasNext();) {
+					final PendingResolve pending = iterator.next();
+					if (visibleLines.contains(pending.line(), PREFETCH_LINES)
+							&& runningResolves.getOrDefault(pending.wrapper(), 0) < MAX_CONCURRENT_RESOLVES) {
+						iterator.remove();
+						runningResolves.merge(pending.wrapper(), 1, Integer::sum);
+						startable.add(pending);
+					}
+				}
+			}
+			startable.forEach(this::startResolve);
+		}
+	}
+
+	private void startResolve(PendingResolve pending) {
+		pending.wrapper().execute(ls -> ls.getTextDocumentService().resolveCodeLens(pending.codeLens()))
+				.whenComplete((resolved, error) -> {
+					synchronized (this) {
+						runningResolves.merge(pending.wrapper(), -1, Integer::sum);
+						final Resolves documentResolves = resolves.get(pending.wrapper());
+						if (error != null && documentResolves != null && documentResolves.version() == pending.version()) {
+							// resolved again if needed
+							documentResolves.resolves().remove(pending.codeLens(), pending.resolve());
+						}
+					}
+					if (error != null) {
+						pending.resolve().completeExceptionally(error);
+					} else {
+						pending.resolve().complete(resolved);
+					}
+					startResolves();
+				});
+	}
+
+	private void cancelPendingResolves(LanguageServerWrapper wrapper) {
+		for (final Iterator<PendingResolve> iterator = pendingResolves.iterator(); iterator.hasNext();) {
+			final PendingResolve pending = iterator.next();
+			if (pending.wrapper() == wrapper) {
+				iterator.remove();
+				pending.resolve().cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Stops tracking the viewer and cancels the resolves not started yet. Must be
+	 * called in the UI thread.
+	 */
+	void dispose() {
+		viewport.dispose();
+		final List<PendingResolve> cancelledResolves;
+		synchronized (this) {
+			cancelledResolves = List.copyOf(pendingResolves);
+			pendingResolves.clear();
+			resolves.clear();
+		}
+		cancelledResolves.forEach(pending -> pending.resolve().cancel(true));
+	}
+}
@@ -8,6 +8,7 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.operations.codelens;
 
+import java.net.URI;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 
@@ -17,6 +18,7 @@
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.codemining.LineHeaderCodeMining;
+import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.command.CommandExecutor;
 import org.eclipse.lsp4j.CodeLens;
@@ -31,16 +33,36 @@ public class LSPCodeMining extends LineHeaderCodeMining {
 
 	private final LanguageServerWrapper languageServerWrapper;
 	private final IDocument document;
+	private final CodeLensProvider provider;
+	/** Version of the document the lens was received for */
+	private final int documentVersion;
 
 	public LSPCodeMining(CodeLens codeLens, IDocument document, LanguageServerWrapper languageServerWrapper,
 			CodeLensProvider provider) throws BadLocationException {
+		this(codeLens, document, languageServerWrapper, provider, getTextDocumentVersion(document, languageServerWrapper));
+	}
+
+	/**
+	 * @param documentVersion
+	 *            the version of the document sent to the server when the lens was
+	 *            requested
+	 */
+	public LSPCodeMining(CodeLens codeLens, IDocument document, LanguageServerWrapper languageServerWrapper,
+			CodeLensProvider provider, int documentVersion) throws BadLocationException {
 		super(codeLens.getRange().getStart().getLine(), document, provider, null);
 		this.codeLens = codeLens;
 		this.languageServerWrapper = languageServerWrapper;
 		this.document = document;
+		this.provider = provider;
+		this.documentVersion = documentVersion;
 		setLabel(getCodeLensString(codeLens));
 	}
 
+	private static int getTextDocumentVersion(IDocument document, LanguageServerWrapper languageServerWrapper) {
+		final URI uri = LSPEclipseUtils.toUri(document);
+		return uri != null ? languageServerWrapper.getTextDocumentVersion(uri) : -1;
+	}
+
 	protected static @Nullable String getCodeLensString(CodeLens codeLens) {
 		Command command = codeLens.getCommand();
 		if (command == null || command.getTitle().isEmpty()) {
@@ -57,7 +79,9 @@ public LSPCodeMining(CodeLens codeLens, IDocument document, LanguageServerWrappe
 				return CompletableFuture.completedFuture(null);
 			}
 
-			return languageServerWrapper.execute(languageServer -> languageServer.getTextDocumentService().resolveCodeLens(this.codeLens))
+			// resolved once visible
+			return provider.getResolver()
+					.resolve(languageServerWrapper, documentVersion, this.codeLens, this.codeLens.getRange().getStart().getLine())
 					.thenAccept(resolvedCodeLens -> {
 						if (resolvedCodeLens != null) {
 							codeLens = resolvedCodeLens;
@@ -85,7 +109,7 @@ private void performAction(MouseEvent mouseEvent) {
 			languageServerWrapper.execute(ls -> ls.getWorkspaceService()
 					.executeCommand(new ExecuteCommandParams(command.getCommand(), command.getArguments())));
 		} else  {
-			CommandExecutor.executeCommandClientSide(command, document);
+			CommandExecutor.executeCommandClientSide(command, document, languageServerWrapper);
 		}
 	}
 
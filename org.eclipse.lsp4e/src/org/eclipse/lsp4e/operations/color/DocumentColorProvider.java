@@ -30,6 +30,7 @@
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
 import org.eclipse.lsp4j.ColorInformation;
 import org.eclipse.lsp4j.DocumentColorParams;
 import org.eclipse.lsp4j.ServerCapabilities;
@@ -57,12 +58,14 @@ public DocumentColorProvider() {
 		if (docURI != null) {
 			final var textDocumentIdentifier = LSPEclipseUtils.toTextDocumentIdentifier(docURI);
 			final var param = new DocumentColorParams(textDocumentIdentifier);
-			return LanguageServers.forDocument(document)
-				.withCapability(ServerCapabilities::getColorProvider)
+			final LanguageServerDocumentExecutor executor = LanguageServers.forDocument(document)
+				.withCapability(ServerCapabilities::getColorProvider);
+			return executor
 				.collectAll(
 					// Need to do some of the result processing inside the function we supply to collectAll(...)
 					// as need the LSW to construct the ColorInformationMining
-					(wrapper, ls) -> ls.getTextDocumentService().documentColor(param)
+					(wrapper, ls) -> executor.cached(wrapper, "textDocument/documentColor", param, //$NON-NLS-1$
+								() -> ls.getTextDocumentService().documentColor(param))
 								.thenApply(colors -> LanguageServers.streamSafely(colors)
 										.map(color -> toMining(color, document, textDocumentIdentifier, wrapper))))
 				.thenApply(res -> res.stream().flatMap(Function.identity()).filter(Objects::nonNull).toList());
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4j.CompletionItem;
+
+/**
+ * Resolves the completion items of the proposals of a completion session
+ * (<code>completionItem/resolve</code>) ahead of their documentation being
+ * shown: the top proposals once they are computed and the neighbors of the
+ * selected proposal. Few resolve requests are sent at once, and the pending
+ * ones are cancelled when the session ends. The resolved items are kept in a
+ * cache of bounded size.
+ */
+final class CompletionItemResolver {
+
+	/** Number of proposals at the top of the list resolved once it is computed */
+	private static final int PREFETCH_TOP_COUNT = 8;
+	/** Number of proposals before and after the selected one resolved */
+	private static final int PREFETCH_NEIGHBORS_COUNT = 2;
+	private static final int MAX_CONCURRENT_PREFETCHES = 4;
+	private static final int MAX_RESOLVED_ITEMS = 500;
+
+	/** Identifies an item by its instance and the server it comes from */
+	private record Key(LanguageServerWrapper wrapper, CompletionItem item) {
+
+		@Override
+		public boolean equals(@Nullable Object obj) {
+			return obj instanceof Key other && wrapper == other.wrapper && item == other.item;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * System.identityHashCode(wrapper) + System.identityHashCode(item);
+		}
+	}
+
+	private final Map<Key, CompletableFuture<@Nullable Void>> resolves = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<@Nullable Void>> eldest) {
+			return size() > MAX_RESOLVED_ITEMS;
+		}
+	};
+	private final Deque<LSCompletionProposal> prefetchQueue = new ArrayDeque<>();
+	private List<LSCompletionProposal> proposals = List.of();
+	private int runningPrefetches;
+
+	/**
+	 * Starts resolving the top proposals of the given sorted proposals, which are
+	 * shown to the user.
+	 */
+	synchronized void prefetch(List<LSCompletionProposal> sortedProposals) {
+		proposals = List.copyOf(sortedProposals);
+		prefetchQueue.clear();
+		proposals.stream().limit(PREFETCH_TOP_COUNT).forEach(prefetchQueue::add);
+		startPrefetches();
+	}
+
+	/**
+	 * Starts resolving the neighbors of the given selected proposal, the closest
+	 * ones first.
+	 */
+	synchronized void selected(LSCompletionProposal proposal) {
+		final int index = proposals.indexOf(proposal);
+		if (index < 0) {
+			return;
+		}
+		for (int distance = PREFETCH_NEIGHBORS_COUNT; distance > 0; distance--) {
+			if (index + distance < proposals.size()) {
+				prefetchQueue.addFirst(proposals.get(index + distance));
+			}
+			if (index - distance >= 0) {
+				prefetchQueue.addFirst(proposals.get(index - distance));
+			}
+		}
+		startPrefetches();
+	}
+
+	/**
+	 * @return the resolve of the item of the given proposal, started now if it
+	 *         is not already
+	 */
+	synchronized CompletableFuture<@Nullable Void> resolve(LSCompletionProposal proposal) {
+		final CompletableFuture<@Nullable Void> resolve = resolves.get(key(proposal));
+		return resolve != null ? resolve : startResolve(proposal, false);
+	}
+
+	/**
+	 * Cancels the pending resolves of the session which ended, the resolved items
+	 * are kept.
+	 */
+	void cancel() {
+		final List<CompletableFuture<@Nullable Void>> pendingResolves;
+		synchronized (this) {
+			proposals = List.of();
+			prefetchQueue.clear();
+			pendingResolves = new ArrayList<>();
+			for (final CompletableFuture<@Nullable Void> resolve : resolves.values()) {
+				if (!resolve.isDone()) {
+					pendingResolves.add(resolve);
+				}
+			}
+		}
+		pendingResolves.forEach(resolve -> resolve.cancel(true));
+	}
+
+	private void startPrefetches() {
+		while (runningPrefetches < MAX_CONCURRENT_PREFETCHES && !prefetchQueue.isEmpty()) {
+			final LSCompletionProposal proposal = prefetchQueue.poll();
+			if (proposal.canResolve() && !resolves.containsKey(key(proposal))) {
+				startResolve(proposal, true);
+			}
+		}
+	}
+
+	private CompletableFuture<@Nullable Void> startResolve(LSCompletionProposal proposal, boolean prefetch) {
+		final Key key = key(proposal);
+		final CompletableFuture<@Nullable Void> resolve = proposal.requestResolve();
+		resolves.put(key, resolve);
+		if (prefetch) {
+			runningPrefetches++;
+		}
+		resolve.whenComplete((result, error) -> {
+			synchronized (this) {
+				if (error != null) {
+					// resolved again if needed
+					resolves.remove(key, resolve);
+				}
+				if (prefetch) {
+					runningPrefetches--;
+					startPrefetches();
+				}
+			}
+		});
+		return resolve;
+	}
+
+	private static Key key(LSCompletionProposal proposal) {
+		return new Key(proposal.getLanguageServerWrapper(), proposal.getItem());
+	}
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.completion;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * The last complete completion lists (not <code>isIncomplete</code>) received
+ * for a document. While the user only types identifier characters after the
+ * offset the lists were requested for, their proposals are filtered and ranked
+ * again for the new offset instead of requesting the completion again.
+ */
+final class CompletionSession {
+
+	private final IDocument document;
+	private final int offset;
+	/** Length of the document after the offset, which typing does not change */
+	private final int suffixLength;
+	/** Content of the line before the offset, which typing does not change */
+	private final String linePrefix;
+	private final List<LSCompletionProposal> proposals;
+
+	CompletionSession(IDocument document, int offset, List<LSCompletionProposal> proposals)
+			throws BadLocationException {
+		this.document = document;
+		this.offset = offset;
+		this.suffixLength = document.getLength() - offset;
+		this.linePrefix = getLinePrefix(document, offset);
+		this.proposals = List.copyOf(proposals);
+	}
+
+	/**
+	 * @return the proposals of this session still valid at the given offset, or
+	 *         <code>null</code> if the completion has to be requested again as the
+	 *         cursor moved or other characters than identifier ones were typed
+	 */
+	@Nullable
+	List<LSCompletionProposal> proposals(IDocument document, int offset, char[] triggerChars) {
+		if (document != this.document || offset < this.offset
+				|| document.getLength() - offset != suffixLength) {
+			return null;
+		}
+		try {
+			if (!linePrefix.equals(getLinePrefix(document, this.offset))) {
+				return null;
+			}
+			final String typed = document.get(this.offset, offset - this.offset);
+			for (int i = 0; i < typed.length(); i++) {
+				final char c = typed.charAt(i);
+				if (!Character.isUnicodeIdentifierPart(c) || isTrigger(c, triggerChars)) {
+					return null;
+				}
+			}
+		} catch (BadLocationException e) {
+			return null;
+		}
+		return proposals.stream().filter(proposal -> proposal.validate(document, offset, null)).toList();
+	}
+
+	private static boolean isTrigger(char c, char[] triggerChars) {
+		for (final char triggerChar : triggerChars) {
+			if (c == triggerChar) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String getLinePrefix(IDocument document, int offset) throws BadLocationException {
+		final int lineOffset = document.getLineInformationOfOffset(offset).getOffset();
+		return document.get(lineOffset, offset - lineOffset);
+	}
+}
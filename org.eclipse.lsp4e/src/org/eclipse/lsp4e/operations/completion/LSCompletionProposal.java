@@ -23,6 +23,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -129,9 +131,14 @@
 	// private LSPDocumentInfo info;
 	private @Nullable Integer rankCategory;
 	private @Nullable Integer rankScore;
+	private LSCompletionProposalComparator.@Nullable SortKey sortKey;
 	private @Nullable String documentFilter;
 	private String documentFilterAddition = ""; //$NON-NLS-1$
 	private final LanguageServerWrapper languageServerWrapper;
+	private final @Nullable String positionEncoding;
+	private @Nullable CompletionItemResolver resolver;
+	/** Resolved item whose fields read on the UI thread are not merged yet */
+	private volatile @Nullable CompletionItem resolvedItem;
 
 	public LSCompletionProposal(IDocument document, int offset, CompletionItem item,
 			LanguageServerWrapper languageServerWrapper) {
@@ -143,6 +150,7 @@ public LSCompletionProposal(IDocument document, int offset, CompletionItem item,
 		this.item = item;
 		this.document = document;
 		this.languageServerWrapper = languageServerWrapper;
+		this.positionEncoding = languageServerWrapper.getPositionEncoding();
 		this.initialOffset = offset;
 		this.currentOffset = offset;
 		this.bestOffset = getPrefixCompletionStart(document, offset);
@@ -178,6 +186,7 @@ public String getDocumentFilter(int offset) throws BadLocationException {
 				currentOffset = offset;
 				rankScore = null;
 				rankCategory = null;
+				sortKey = null;
 				documentFilterAddition = offset > initialOffset ? document.get(initialOffset, offset - initialOffset) : ""; //$NON-NLS-1$
 			}
 			return documentFilter + documentFilterAddition;
@@ -246,6 +255,26 @@ public int getRankCategory() {
 		return rankCategory;
 	}
 
+	/**
+	 * @return The keys this proposal is sorted by for the last given offset,
+	 *         computed once per offset.
+	 */
+	LSCompletionProposalComparator.SortKey getSortKey() {
+		final var sortKey = this.sortKey;
+		if (sortKey != null) {
+			return sortKey;
+		}
+		int documentFilterLength;
+		try {
+			documentFilterLength = getDocumentFilter().length();
+		} catch (BadLocationException e) {
+			LanguageServerPlugin.logError(e);
+			documentFilterLength = 0;
+		}
+		return this.sortKey = new LSCompletionProposalComparator.SortKey(documentFilterLength, getRankCategory(),
+				getRankScore(), getSortText());
+	}
+
 	public int getBestOffset() {
 		return bestOffset;
 	}
@@ -258,6 +287,18 @@ public CompletionItem getItem() {
 		return item;
 	}
 
+	LanguageServerWrapper getLanguageServerWrapper() {
+		return languageServerWrapper;
+	}
+
+	/**
+	 * Sets the resolver of the completion session this proposal belongs to, which
+	 * resolves its item ahead of time and caches it.
+	 */
+	void setResolver(CompletionItemResolver resolver) {
+		this.resolver = resolver;
+	}
+
 	private boolean isDeprecated() {
 		return item.getDeprecated() != null && item.getDeprecated().booleanValue();
 	}
@@ -334,7 +375,7 @@ protected IInformationControl doCreateInformationControl(Shell parent) {
 
 	@Override
 	public String getAdditionalProposalInfo(IProgressMonitor monitor) {
-		if (languageServerWrapper.isActive() && resolvesCompletionItem(languageServerWrapper.getServerCapabilities())) {
+		if (canResolve()) {
 			resolveItem();
 		}
 
@@ -355,6 +396,14 @@ public String getAdditionalProposalInfo(IProgressMonitor monitor) {
 		return res.toString();
 	}
 
+	/**
+	 * @return whether the item of this proposal can be resolved by its language
+	 *         server
+	 */
+	boolean canResolve() {
+		return languageServerWrapper.isActive() && resolvesCompletionItem(languageServerWrapper.getServerCapabilities());
+	}
+
 	private boolean resolvesCompletionItem(final @Nullable ServerCapabilities capabilities) {
 		if (capabilities != null) {
 			CompletionOptions completionProvider = capabilities.getCompletionProvider();
@@ -366,10 +415,29 @@ private boolean resolvesCompletionItem(final @Nullable ServerCapabilities capabi
 		return false;
 	}
 
+	/**
+	 * Sends a <code>completionItem/resolve</code> request, which updates the
+	 * item of this proposal once it is resolved
+	 */
+	CompletableFuture<@Nullable Void> requestResolve() {
+		final CompletableFuture<CompletionItem> request = languageServerWrapper
+				.execute(ls -> ls.getTextDocumentService().resolveCompletionItem(item));
+		final CompletableFuture<@Nullable Void> resolve = request.thenAccept(this::resolved);
+		resolve.exceptionally(t -> {
+			if (t instanceof CancellationException) {
+				request.cancel(true);
+			}
+			return null;
+		});
+		return resolve;
+	}
+
 	private void resolveItem() {
+		final var resolver = this.resolver;
 		try {
-			languageServerWrapper.execute(ls -> ls.getTextDocumentService().resolveCompletionItem(item).thenAccept(this::updateCompletionItem))
-					.get(RESOLVE_TIMEOUT, TimeUnit.MILLISECONDS);
+			(resolver != null ? resolver.resolve(this) : requestResolve()).get(RESOLVE_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (CancellationException e) {
+			// the completion session ended
 		} catch (ExecutionException e) {
 			LanguageServerPlugin.logError(e);
 		} catch (InterruptedException e) {
@@ -380,22 +448,42 @@ private void resolveItem() {
 		}
 	}
 
-	private void updateCompletionItem(@Nullable CompletionItem resolvedItem) {
+	/**
+	 * Merges the detail and documentation of the resolved item, which are only
+	 * read for the additional proposal info, on the thread of the response. The
+	 * other fields are read on the UI thread and merged there by
+	 * {@link #updateCompletionItem()}.
+	 */
+	private void resolved(@Nullable CompletionItem resolvedItem) {
 		if (resolvedItem == null) {
 			return;
 		}
-		if (resolvedItem.getLabel() != null) {
-			item.setLabel(resolvedItem.getLabel());
-		}
-		if (resolvedItem.getKind() != null) {
-			item.setKind(resolvedItem.getKind());
-		}
 		if (resolvedItem.getDetail() != null) {
 			item.setDetail(resolvedItem.getDetail());
 		}
 		if (resolvedItem.getDocumentation() != null) {
 			item.setDocumentation(resolvedItem.getDocumentation());
 		}
+		this.resolvedItem = resolvedItem;
+	}
+
+	/**
+	 * Merges the fields of the resolved item used to display and apply this
+	 * proposal. Called on the UI thread.
+	 */
+	private void updateCompletionItem() {
+		final var resolvedItem = this.resolvedItem;
+		if (resolvedItem == null) {
+			return;
+		}
+		this.resolvedItem = null;
+		final String filterString = getFilterString();
+		if (resolvedItem.getLabel() != null) {
+			item.setLabel(resolvedItem.getLabel());
+		}
+		if (resolvedItem.getKind() != null) {
+			item.setKind(resolvedItem.getKind());
+		}
 		if (resolvedItem.getInsertText() != null) {
 			item.setInsertText(resolvedItem.getInsertText());
 		}
@@ -408,6 +496,12 @@ private void updateCompletionItem(@Nullable CompletionItem resolvedItem) {
 		if (resolvedItem.getAdditionalTextEdits() != null) {
 			item.setAdditionalTextEdits(resolvedItem.getAdditionalTextEdits());
 		}
+		if (!filterString.equals(getFilterString())) {
+			documentFilter = null;
+			rankScore = null;
+			rankCategory = null;
+			sortKey = null;
+		}
 	}
 
 	@Override
@@ -420,7 +514,7 @@ public int getPrefixCompletionStart(IDocument document, int completionOffset) {
 		Either<TextEdit, InsertReplaceEdit> textEdit = item.getTextEdit();
 		if (textEdit != null) {
 			try {
-				return LSPEclipseUtils.toOffset(getTextEditRange().getStart(), document);
+				return LSPEclipseUtils.toOffset(getTextEditRange().getStart(), document, positionEncoding);
 			} catch (BadLocationException e) {
 				LanguageServerPlugin.logError(e);
 			}
@@ -444,6 +538,11 @@ public int getPrefixCompletionStart(IDocument document, int completionOffset) {
 	}
 
 	protected void apply(IDocument document, char trigger, int stateMask, int offset) {
+		final var resolver = this.resolver;
+		if (resolver != null) {
+			resolver.cancel();
+		}
+		updateCompletionItem();
 		String insertText = null;
 		Either<TextEdit, InsertReplaceEdit> eitherTextEdit = item.getTextEdit();
 		TextEdit textEdit = null;
@@ -459,8 +558,8 @@ protected void apply(IDocument document, char trigger, int stateMask, int offset
 		try {
 			if (textEdit == null) {
 				insertText = getInsertText();
-				Position start = LSPEclipseUtils.toPosition(bestOffset, document);
-				Position end = LSPEclipseUtils.toPosition(offset, document); // need 2 distinct objects
+				Position start = LSPEclipseUtils.toPosition(bestOffset, document, positionEncoding);
+				Position end = LSPEclipseUtils.toPosition(offset, document, positionEncoding); // need 2 distinct objects
 				textEdit = new TextEdit(new Range(start, end), insertText);
 			} else if (offset > initialOffset) {
 				// characters were added after completion was activated
@@ -476,7 +575,7 @@ protected void apply(IDocument document, char trigger, int stateMask, int offset
 				}
 			}
 			{ // allow completion items to be wrong with a too wide range
-				Position documentEnd = LSPEclipseUtils.toPosition(document.getLength(), document);
+				Position documentEnd = LSPEclipseUtils.toPosition(document.getLength(), document, positionEncoding);
 				Position textEditEnd = textEdit.getRange().getEnd();
 				if (documentEnd.getLine() < textEditEnd.getLine()
 					|| (documentEnd.getLine() == textEditEnd.getLine() && documentEnd.getCharacter() < textEditEnd.getCharacter())) {
@@ -498,7 +597,7 @@ protected void apply(IDocument document, char trigger, int stateMask, int offset
 			}
 			insertText = textEdit.getNewText();
 			Map<String, List<LinkedPosition>> regions = Collections.emptyMap();
-			int insertionOffset = LSPEclipseUtils.toOffset(textEdit.getRange().getStart(), document);
+			int insertionOffset = LSPEclipseUtils.toOffset(textEdit.getRange().getStart(), document, positionEncoding);
 			if (item.getInsertTextMode() == InsertTextMode.AdjustIndentation) {
 				insertText = adjustIndentation(document, insertText, insertionOffset);
 			}
@@ -514,7 +613,7 @@ protected void apply(IDocument document, char trigger, int stateMask, int offset
 			textEdit.setNewText(insertText); // insertText now has placeholder removed
 			List<TextEdit> additionalEdits = item.getAdditionalTextEdits();
 			if (additionalEdits != null && !additionalEdits.isEmpty()) {
-				Position initialPosition = LSPEclipseUtils.toPosition(initialOffset, document);
+				Position initialPosition = LSPEclipseUtils.toPosition(initialOffset, document, positionEncoding);
 
 				final var allEdits = new ArrayList<TextEdit>();
 				allEdits.add(textEdit);
@@ -522,12 +621,12 @@ protected void apply(IDocument document, char trigger, int stateMask, int offset
 					int shift = offset - initialOffset;
 					if (shift != 0) {
 						try {
-							int start = LSPEclipseUtils.toOffset(te.getRange().getStart(), document);
-							int end = LSPEclipseUtils.toOffset(te.getRange().getEnd(), document);
+							int start = LSPEclipseUtils.toOffset(te.getRange().getStart(), document, positionEncoding);
+							int end = LSPEclipseUtils.toOffset(te.getRange().getEnd(), document, positionEncoding);
 							if (start > initialOffset && te.getRange().getStart().getLine() == initialPosition.getLine()) {
 								// We need to shift the Range according to the shift (if on the same line)
-								te.getRange().setStart(LSPEclipseUtils.toPosition(start + shift, document));
-								te.getRange().setEnd(LSPEclipseUtils.toPosition(end + shift, document));
+								te.getRange().setStart(LSPEclipseUtils.toPosition(start + shift, document, positionEncoding));
+								te.getRange().setEnd(LSPEclipseUtils.toPosition(end + shift, document, positionEncoding));
 							}
 						} catch (BadLocationException e) {
 							LanguageServerPlugin.logError(e);
@@ -535,7 +634,7 @@ protected void apply(IDocument document, char trigger, int stateMask, int offset
 					}
 					allEdits.add(te);
 				});
-				LSPEclipseUtils.applyEdits(document, allEdits);
+				LSPEclipseUtils.applyEdits(document, allEdits, positionEncoding);
 			} else {
 				LSPEclipseUtils.applyEdit(textEdit, document);
 			}
@@ -574,7 +673,7 @@ protected void apply(IDocument document, char trigger, int stateMask, int offset
 					languageServerWrapper.execute(ls -> ls.getWorkspaceService()
 							.executeCommand(new ExecuteCommandParams(command.getCommand(), command.getArguments())));
 				} else {
-					CommandExecutor.executeCommandClientSide(command, document);
+					CommandExecutor.executeCommandClientSide(command, document, languageServerWrapper);
 				}
 			}
 		} catch (BadLocationException ex) {
@@ -600,9 +699,9 @@ private int computeNewOffset(@Nullable List<TextEdit> additionalTextEdits, int i
 			for (TextEdit edit : additionalTextEdits) {
 				try {
 					Range rng = edit.getRange();
-					int start = LSPEclipseUtils.toOffset(rng.getStart(), doc);
+					int start = LSPEclipseUtils.toOffset(rng.getStart(), doc, positionEncoding);
 					if (start <= insertionOffset) {
-						int end = LSPEclipseUtils.toOffset(rng.getEnd(), doc);
+						int end = LSPEclipseUtils.toOffset(rng.getEnd(), doc, positionEncoding);
 						int orgLen = end - start;
 						int newLeng = edit.getNewText().length();
 						int editChange = newLeng - orgLen;
@@ -703,8 +802,8 @@ private Range getTextEditRange() throws BadLocationException {
 		if (textEdit != null) {
 			return textEdit.map(TextEdit::getRange, InsertReplaceEdit::getInsert);
 		} else {
-				Position start = LSPEclipseUtils.toPosition(bestOffset, document);
-				Position end = LSPEclipseUtils.toPosition(initialOffset, document);
+				Position start = LSPEclipseUtils.toPosition(bestOffset, document, positionEncoding);
+				Position end = LSPEclipseUtils.toPosition(initialOffset, document, positionEncoding);
 				return new Range(start, end);
 		}
 	}
@@ -800,6 +899,10 @@ public boolean isValidFor(IDocument document, int offset) {
 	@Override
 	public void selected(ITextViewer viewer, boolean smartToggle) {
 		this.viewer = viewer;
+		final var resolver = this.resolver;
+		if (resolver != null) {
+			resolver.selected(this);
+		}
 	}
 
 	@Override
@@ -808,6 +911,7 @@ public void unselected(ITextViewer viewer) {
 
 	@Override
 	public boolean validate(IDocument document, int offset, @Nullable DocumentEvent event) {
+		updateCompletionItem();
 		if (item.getLabel() == null || item.getLabel().isEmpty()) {
 			return false;
 		}
@@ -819,7 +923,7 @@ public boolean validate(IDocument document, int offset, @Nullable DocumentEvent
 			if (!documentFilter.isEmpty()) {
 				return !(isIncomplete && currentOffset != initialOffset) && CompletionProposalTools.isSubstringFoundOrderedInString(documentFilter, getFilterString());
 			} else if (item.getTextEdit() != null) {
-				return offset == LSPEclipseUtils.toOffset(getTextEditRange().getStart(), document);
+				return offset == LSPEclipseUtils.toOffset(getTextEditRange().getStart(), document, positionEncoding);
 			}
 		} catch (BadLocationException e) {
 			LanguageServerPlugin.logError(e);
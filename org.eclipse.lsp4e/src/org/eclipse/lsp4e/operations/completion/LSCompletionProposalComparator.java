@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Red Hat Inc. and others.
+ * Copyright (c) 2016, 2024 Red Hat Inc. and others.
  * This program and the accompanying materials are made
  * available under the terms of the Eclipse Public License 2.0
  * which is available at https://www.eclipse.org/legal/epl-2.0/
@@ -14,42 +14,62 @@
 package org.eclipse.lsp4e.operations.completion;
 
 import java.util.Comparator;
+import java.util.List;
 
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.jdt.annotation.Nullable;
 
 final class LSCompletionProposalComparator implements Comparator<LSCompletionProposal> {
+
+	/** Number of proposals from which their sort keys are computed in parallel */
+	private static final int PARALLEL_SORT_KEYS_THRESHOLD = 1000;
+
+	/**
+	 * The ranking of a proposal for the typed prefix, see
+	 * {@link LSCompletionProposal#getSortKey()}
+	 */
+	record SortKey(int documentFilterLength, int rankCategory, int rankScore, @Nullable String sortText) {
+	}
+
+	/**
+	 * Sorts the given proposals, after computing the sort key of each of them once
+	 * (in parallel for large lists) so that comparisons do not read the document.
+	 */
+	void sort(List<LSCompletionProposal> proposals) {
+		if (proposals.size() >= PARALLEL_SORT_KEYS_THRESHOLD) {
+			proposals.parallelStream().forEach(LSCompletionProposal::getSortKey);
+		}
+		proposals.sort(this);
+	}
+
 	@Override
 	public int compare(LSCompletionProposal o1, LSCompletionProposal o2) {
-		try {
-			int docFilterLen1 = o1.getDocumentFilter().length();
-			int docFilterLen2 = o2.getDocumentFilter().length();
-			if (docFilterLen1 > docFilterLen2) {
-				return -1;
-			} else if (docFilterLen1 < docFilterLen2) {
-				return +1;
-			}
-		} catch (BadLocationException e) {
-			LanguageServerPlugin.logError(e);
+		return compare(o1.getSortKey(), o2.getSortKey());
+	}
+
+	private static int compare(SortKey o1, SortKey o2) {
+		if (o1.documentFilterLength() > o2.documentFilterLength()) {
+			return -1;
+		} else if (o1.documentFilterLength() < o2.documentFilterLength()) {
+			return +1;
 		}
-		if (o1.getRankCategory() < o2.getRankCategory()) {
+		if (o1.rankCategory() < o2.rankCategory()) {
 			return -1;
-		} else if (o1.getRankCategory() > o2.getRankCategory()) {
+		} else if (o1.rankCategory() > o2.rankCategory()) {
 			return +1;
 		}
-		if ((o1.getRankCategory() < 5 && o2.getRankCategory() < 5)
-				&& (!(o1.getRankScore() == -1 && o2.getRankScore() == -1))) {
-			if (o2.getRankScore() == -1 || o1.getRankScore() < o2.getRankScore()) {
+		if ((o1.rankCategory() < 5 && o2.rankCategory() < 5)
+				&& (!(o1.rankScore() == -1 && o2.rankScore() == -1))) {
+			if (o2.rankScore() == -1 || o1.rankScore() < o2.rankScore()) {
 				return -1;
-			} else if (o1.getRankScore() == -1 || o1.getRankScore() > o2.getRankScore()) {
+			} else if (o1.rankScore() == -1 || o1.rankScore() > o2.rankScore()) {
 				return +1;
 			}
 		}
-		String c1 = o1.getSortText();
-		String c2 = o2.getSortText();
+		String c1 = o1.sortText();
+		String c2 = o2.sortText();
 		if (c1 == null) {
 			return -1;
 		}
 		return c1.compareToIgnoreCase(c2);
 	}
-}
\ No newline at end of file
+}
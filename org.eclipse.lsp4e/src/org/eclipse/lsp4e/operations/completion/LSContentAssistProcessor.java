@@ -14,24 +14,21 @@
 package org.eclipse.lsp4e.operations.completion;
 
 import static org.eclipse.lsp4e.internal.ArrayUtil.NO_CHARS;
-import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
 
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
-import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -49,6 +46,8 @@
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.internal.CancellationSupport;
 import org.eclipse.lsp4e.internal.CancellationUtil;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4e.internal.PositionEncodings;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.CompletionItem;
@@ -63,22 +62,32 @@
 import org.eclipse.ui.texteditor.ITextEditor;
 
 import com.google.common.base.Functions;
-import com.google.common.base.Strings;
 
 public class LSContentAssistProcessor implements IContentAssistProcessor {
 
 	private static final ICompletionProposal[] NO_COMPLETION_PROPOSALS = new ICompletionProposal[0];
-	private static final long TRIGGERS_TIMEOUT = 50;
 	private static final long CONTEXT_INFORMATION_TIMEOUT = 1000;
 
-	private @Nullable IDocument currentDocument;
+	private volatile @Nullable IDocument currentDocument;
 	private @Nullable String errorMessage;
 	private final boolean errorAsCompletionItem;
-	private @Nullable CompletableFuture<List<@Nullable Void>> completionLanguageServersFuture;
-	private volatile char[] completionTriggerChars = NO_CHARS;
+	/**
+	 * The language servers of the current document, added as they come up, whose
+	 * trigger characters are read without waiting for them
+	 */
+	private volatile List<LanguageServerWrapper> documentLanguageServers = List.of();
+	private final MergedTriggers completionTriggers = new MergedTriggers(
+			LanguageServerWrapper::getCompletionTriggerCharacters);
+	private final MergedTriggers contextTriggers = new MergedTriggers(
+			LanguageServerWrapper::getSignatureHelpTriggerCharacters);
 	private @Nullable CompletableFuture<List<@Nullable Void>> contextInformationLanguageServersFuture;
-	private volatile char[] contextTriggerChars = NO_CHARS;
 	private final boolean incompleteAsCompletionItem;
+	/**
+	 * The last complete completion lists, filtered again while identifier
+	 * characters are typed instead of requesting the completion again
+	 */
+	private volatile @Nullable CompletionSession completionSession;
+	private final CompletionItemResolver completionItemResolver = new CompletionItemResolver();
 
 	/**
 	 * The cancellation support used to cancel previous LSP requests
@@ -86,8 +95,8 @@ public class LSContentAssistProcessor implements IContentAssistProcessor {
 	 */
 	private CancellationSupport completionCancellationSupport;
 	/**
-	 * The cancellation support used to cancel previous LSP requests
-	 * for fetching the trigger characters
+	 * The cancellation support used to cancel the previous lookup of the
+	 * language servers of the current document
 	 */
 	private CancellationSupport triggerCharsCancellationSupport;
 
@@ -106,7 +115,7 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 		this.incompleteAsCompletionItem = incompleteAsCompletionItem;
 	}
 
-	private final Comparator<LSCompletionProposal> proposalComparator = new LSCompletionProposalComparator();
+	private final LSCompletionProposalComparator proposalComparator = new LSCompletionProposalComparator();
 
 	@Override
 	public ICompletionProposal @Nullable [] computeCompletionProposals(ITextViewer viewer, int offset) {
@@ -121,10 +130,26 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 		}
 
 		initiateLanguageServers(document);
+
+		final CompletionSession session = this.completionSession;
+		if (session != null) {
+			final List<LSCompletionProposal> sessionProposals = session.proposals(document, offset,
+					getCompletionTriggerChars());
+			if (sessionProposals != null) {
+				this.completionCancellationSupport.cancel();
+				final var sortedProposals = new ArrayList<>(sessionProposals);
+				proposalComparator.sort(sortedProposals);
+				completionItemResolver.prefetch(sortedProposals);
+				return sortedProposals.toArray(ICompletionProposal[]::new);
+			}
+			this.completionSession = null;
+		}
+		completionItemResolver.cancel();
+
 		CompletionParams param;
 
 		try {
-			param = LSPEclipseUtils.toCompletionParams(uri, offset, document, this.completionTriggerChars);
+			param = LSPEclipseUtils.toCompletionParams(uri, offset, document, getCompletionTriggerChars());
 		} catch (BadLocationException e) {
 			LanguageServerPlugin.logError(e);
 			this.errorMessage = createErrorMessage(offset, e);
@@ -132,7 +157,9 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 		}
 
 		final var proposals = Collections.synchronizedList(new ArrayList<ICompletionProposal>());
+		final var allProposals = Collections.synchronizedList(new ArrayList<LSCompletionProposal>());
 		final var anyIncomplete = new AtomicBoolean(false);
+		final var anyFailed = new AtomicBoolean(false);
 		try {
 			// Cancel the previous LSP requests 'textDocument/completions' and
 			// completionLanguageServersFuture
@@ -142,18 +169,27 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 			// - LSP requests 'textDocument/completions'
 			// - completionLanguageServersFuture
 			final var cancellationSupport = new CancellationSupport();
-			final var completionLanguageServersFuture = this.completionLanguageServersFuture = cancellationSupport.execute(
+			final var completionLanguageServersFuture = cancellationSupport.execute(
 					LanguageServers.forDocument(document).withFilter(capabilities -> capabilities.getCompletionProvider() != null) //
-					.collectAll((w, ls) -> cancellationSupport.execute(ls.getTextDocumentService().completion(param)) //
+					.collectAll((w, ls) -> cancellationSupport.execute(ls.getTextDocumentService().completion(forServer(param, w, document, offset))) //
 							.thenAccept(completion -> {
 								boolean isIncomplete = completion != null && completion.isRight()
 										&& completion.getRight().isIncomplete();
-								proposals.addAll(toProposals(document, offset, completion, w, cancellationSupport,
-										isIncomplete));
+								final List<LSCompletionProposal> serverProposals = toProposals(document, offset,
+										completion, w, cancellationSupport, isIncomplete);
+								allProposals.addAll(serverProposals);
+								for (final LSCompletionProposal proposal : serverProposals) {
+									// Stop the compute of ICompletionProposal if the completion has been cancelled
+									cancellationSupport.checkCanceled();
+									if (proposal.validate(document, offset, null)) {
+										proposals.add(proposal);
+									}
+								}
 								if (isIncomplete) {
 									anyIncomplete.set(true);
 								}
 							}).exceptionally(t -> {
+								anyFailed.set(true);
 								if (!CancellationUtil.isRequestCancelledException(t)) {
 									LanguageServerPlugin.logError("'%s' LS failed to compute completion items." //$NON-NLS-1$
 											.formatted(w.serverDefinition.label), t);
@@ -165,6 +201,12 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 			// Wait for the result of all LSP requests 'textDocument/completions', this
 			// future will be canceled with the next completion
 			completionLanguageServersFuture.get();
+			// a server which failed might have proposals for the next offsets
+			if (!anyIncomplete.get() && !anyFailed.get()) {
+				this.completionSession = new CompletionSession(document, offset, allProposals);
+			}
+		} catch (BadLocationException e) {
+			LanguageServerPlugin.logError(e);
 		} catch (ExecutionException e) {
 			// Ideally exceptions from each LS are handled above and we shouldn't be getting
 			// into this block
@@ -184,7 +226,9 @@ public LSContentAssistProcessor(boolean errorAsCompletionItem, boolean incomplet
 			}
 			completeProposals.add(completeProposal);
 		}
-		completeProposals.sort(proposalComparator);
+		proposalComparator.sort(completeProposals);
+		completeProposals.forEach(proposal -> proposal.setResolver(completionItemResolver));
+		completionItemResolver.prefetch(completeProposals);
 		final ICompletionProposal incompleteProposal = createIncompleteProposal(offset, anyIncomplete.get());
 		if (incompleteProposal != null) {
 			@SuppressWarnings("unchecked")
@@ -220,28 +264,17 @@ private void initiateLanguageServers(IDocument document) {
 		if (currentDocument != document) {
 			currentDocument = document;
 			triggerCharsCancellationSupport.cancel();
+			final var languageServers = new CopyOnWriteArrayList<LanguageServerWrapper>();
+			documentLanguageServers = languageServers;
 
-			completionTriggerChars = NO_CHARS;
-			contextTriggerChars = NO_CHARS;
-
-			completionLanguageServersFuture = triggerCharsCancellationSupport.execute(//
-					LanguageServers.forDocument(document)
-					.withFilter(capabilities -> capabilities.getCompletionProvider() != null) //
-					.collectAll((w, ls) -> {
-						List<String> triggerChars = castNonNull(w.getServerCapabilities()).getCompletionProvider().getTriggerCharacters();
-						completionTriggerChars = mergeTriggers(completionTriggerChars,triggerChars);
-						return CompletableFuture.completedFuture(null);
-					}));
-			contextInformationLanguageServersFuture = triggerCharsCancellationSupport.execute(//
-					LanguageServers.forDocument(document)
-					.withFilter(capabilities -> capabilities.getSignatureHelpProvider() != null) //
+			final var cancellationSupport = new CancellationSupport();
+			cancellationSupport.execute(LanguageServers.forDocument(document) //
 					.collectAll((w, ls) -> {
-						List<String> triggerChars = castNonNull(w.getServerCapabilities()).getSignatureHelpProvider().getTriggerCharacters();
-						contextTriggerChars = mergeTriggers(contextTriggerChars, triggerChars);
+						languageServers.addIfAbsent(w);
 						return CompletableFuture.completedFuture(null);
 					}));
+			triggerCharsCancellationSupport = cancellationSupport;
 		}
-
 	}
 
 	private void initiateLanguageServers() {
@@ -254,7 +287,27 @@ private void initiateLanguageServers() {
 		}
 	}
 
-	private static List<ICompletionProposal> toProposals(IDocument document, int offset,
+	/**
+	 * @return the given params, with the position converted to the encoding of the
+	 *         given server if it differs from the one used for the document
+	 */
+	private static CompletionParams forServer(CompletionParams param, LanguageServerWrapper wrapper, IDocument document,
+			int offset) {
+		final String positionEncoding = wrapper.getPositionEncoding();
+		if (Objects.equals(LineIndex.isUtf16(positionEncoding) ? null : positionEncoding,
+				PositionEncodings.getDocumentEncoding(document))) {
+			return param;
+		}
+		try {
+			return new CompletionParams(param.getTextDocument(),
+					LSPEclipseUtils.toPosition(offset, document, positionEncoding), param.getContext());
+		} catch (BadLocationException e) {
+			LanguageServerPlugin.logError(e);
+			return param;
+		}
+	}
+
+	private static List<LSCompletionProposal> toProposals(IDocument document, int offset,
 			@Nullable Either<List<CompletionItem>, CompletionList> completionList,
 			LanguageServerWrapper languageServerWrapper, CancelChecker cancelChecker, boolean isIncomplete) {
 		if (completionList == null) {
@@ -266,12 +319,6 @@ private static List<ICompletionProposal> toProposals(IDocument document, int off
 		return completionList.map( Functions.identity(), CompletionList::getItems).stream() //
 				.filter(Objects::nonNull) //
 				.map(item -> new LSCompletionProposal(document, offset, item, defaults, languageServerWrapper, isIncomplete))
-				.filter(proposal -> {
-					// Stop the compute of ICompletionProposal if the completion has been cancelled
-					cancelChecker.checkCanceled();
-					return true;
-				}).filter(proposal -> proposal.validate(document, offset, null)) //
-				.map(ICompletionProposal.class::cast)
 				.toList();
 	}
 
@@ -327,62 +374,86 @@ private static IContextInformation toContextInformation(SignatureInformation inf
 		return new ContextInformation(information.getLabel(), signature.toString());
 	}
 
-	private void getFuture(@Nullable CompletableFuture<?> future) {
-		if (future == null) {
-			return;
+	private char[] getCompletionTriggerChars() {
+		return completionTriggers.get(documentLanguageServers);
+	}
+
+	/**
+	 * The sorted trigger characters of the language servers of the current
+	 * document, merged again only when the servers or the trigger characters of
+	 * one of them change. The trigger characters are computed by each server from
+	 * its capabilities, and replaced rather than modified when they change.
+	 */
+	private static final class MergedTriggers {
+
+		private final Function<LanguageServerWrapper, char[]> triggers;
+		/** the trigger characters of each server the merged ones were computed from */
+		private List<char[]> sources = List.of();
+		private char[] merged = NO_CHARS;
+
+		MergedTriggers(Function<LanguageServerWrapper, char[]> triggers) {
+			this.triggers = triggers;
 		}
 
-		try {
-			future.get(TRIGGERS_TIMEOUT, TimeUnit.MILLISECONDS);
-		} catch (InterruptedException e) {
-			LanguageServerPlugin.logError(e);
-			Thread.currentThread().interrupt();
-		} catch (TimeoutException e) {
-			LanguageServerPlugin.logWarning(
-					"Could not get trigger characters due to timeout after " + TRIGGERS_TIMEOUT + " milliseconds", e); //$NON-NLS-1$//$NON-NLS-2$
-		} catch (OperationCanceledException | ResponseErrorException | ExecutionException | CancellationException e) {
-			if (!CancellationUtil.isRequestCancelledException(e)) { // do not report error if the server has cancelled
-																	// the request
-				LanguageServerPlugin.logError(e);
+		/**
+		 * @return the merged trigger characters of the given language servers, which
+		 *         must not be modified
+		 */
+		synchronized char[] get(List<LanguageServerWrapper> wrappers) {
+			if (!isUpToDate(wrappers)) {
+				final var newSources = new ArrayList<char[]>(wrappers.size());
+				for (final LanguageServerWrapper wrapper : wrappers) {
+					newSources.add(triggers.apply(wrapper));
+				}
+				sources = newSources;
+				merged = merge(newSources);
 			}
+			return merged;
 		}
-	}
 
-	private static char[] mergeTriggers(char @Nullable [] initialArray,
-			@Nullable Collection<String> additionalTriggers) {
-		if (initialArray == null) {
-			initialArray = NO_CHARS;
-		}
-		if (additionalTriggers == null) {
-			additionalTriggers = Collections.emptySet();
-		}
-		final var triggers = new HashSet<Character>(initialArray.length);
-		for (char c : initialArray) {
-			triggers.add(c);
+		private boolean isUpToDate(List<LanguageServerWrapper> wrappers) {
+			if (wrappers.size() != sources.size()) {
+				return false;
+			}
+			for (int i = 0; i < wrappers.size(); i++) {
+				if (triggers.apply(wrappers.get(i)) != sources.get(i)) {
+					return false;
+				}
+			}
+			return true;
 		}
-		additionalTriggers.stream().filter(s -> !Strings.isNullOrEmpty(s)).map(triggerChar -> triggerChar.charAt(0))
-				.forEach(triggers::add);
-		final var res = new char[triggers.size()];
-		int i = 0;
-		for (Character c : triggers) {
-			res[i] = c;
-			i++;
+
+		private static char[] merge(List<char[]> sources) {
+			if (sources.size() == 1) {
+				return sources.get(0);
+			}
+			final var merged = new StringBuilder();
+			for (final char[] source : sources) {
+				for (final char trigger : source) {
+					if (merged.indexOf(String.valueOf(trigger)) < 0) {
+						merged.append(trigger);
+					}
+				}
+			}
+			if (merged.isEmpty()) {
+				return NO_CHARS;
+			}
+			final char[] res = merged.toString().toCharArray();
+			Arrays.sort(res);
+			return res;
 		}
-		return res;
 	}
 
 	@Override
 	public char @Nullable [] getCompletionProposalAutoActivationCharacters() {
 		initiateLanguageServers();
-		getFuture(completionLanguageServersFuture);
-		return completionTriggerChars;
+		return getCompletionTriggerChars().clone();
 	}
 
 	@Override
 	public char @Nullable [] getContextInformationAutoActivationCharacters() {
 		initiateLanguageServers();
-		getFuture(contextInformationLanguageServersFuture);
-		return contextTriggerChars;
+		return contextTriggers.get(documentLanguageServers).clone();
 	}
 
 	@Override
@@ -12,9 +12,15 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.operations.diagnostics;
 
+import java.net.URI;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -23,14 +29,19 @@
 
 import org.eclipse.core.filebuffers.FileBuffers;
 import org.eclipse.core.filebuffers.LocationKind;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.WorkspaceJob;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -43,13 +54,13 @@
 import org.eclipse.lsp4e.IMarkerAttributeComputer;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
-import org.eclipse.lsp4e.internal.ArrayUtil;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4e.internal.PositionEncodings;
 import org.eclipse.lsp4j.Diagnostic;
 import org.eclipse.lsp4j.PublishDiagnosticsParams;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.ui.IEditorReference;
-import org.eclipse.ui.texteditor.MarkerUtilities;
 
 public class LSPDiagnosticsToMarkers implements Consumer<PublishDiagnosticsParams> {
 
@@ -69,12 +80,28 @@ public void addMarkerAttributesForDiagnostic(Diagnostic diagnostic, @Nullable ID
 	private final String languageServerId;
 	private final String markerType;
 	private final IMarkerAttributeComputer markerAttributeComputer;
+	/** Latest pending publish of each resource, in the order of their first publish */
+	private final Map<IResource, PendingUpdate> pendingUpdates = new LinkedHashMap<>();
+	/** Document version of the last publish taken for update of each resource, guarded by pendingUpdates */
+	private final Map<IResource, Integer> appliedVersions = new HashMap<>();
+	private final Job updateMarkersJob = new Job("Update markers from diagnostics") { //$NON-NLS-1$
+		@Override
+		public boolean belongsTo(@Nullable Object family) {
+			return LanguageServerPlugin.FAMILY_UPDATE_MARKERS == family;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			return updatePendingMarkers(monitor);
+		}
+	};
 
 	public LSPDiagnosticsToMarkers(String serverId, @Nullable String markerType, @Nullable IMarkerAttributeComputer markerAttributeComputer) {
 		this.languageServerId = serverId;
 		this.markerType = markerType != null ? markerType : LS_DIAGNOSTIC_MARKER_TYPE;
 		this.markerAttributeComputer = markerAttributeComputer == null ? DEFAULT_MARKER_ATTRIBUTE_COMPUTER
 				: markerAttributeComputer;
+		updateMarkersJob.setSystem(true);
 	}
 
 	public LSPDiagnosticsToMarkers(String serverId) {
@@ -114,12 +141,14 @@ private void updateEditorAnnotations(ISourceViewer sourceViewer, PublishDiagnost
 				}
 			});
 			final var toAdd = new HashMap<Annotation, Position>(diagnostics.getDiagnostics().size(), 1.f);
+			final var doc = sourceViewer.getDocument();
+			final var lineIndex = doc == null ? null : LineIndex.of(doc);
+			final String positionEncoding = PositionEncodings.getServerEncoding(languageServerId);
 			diagnostics.getDiagnostics().forEach(diagnostic -> {
 				try {
-					final var doc = sourceViewer.getDocument();
-					if (doc != null) {
-						int startOffset = LSPEclipseUtils.toOffset(diagnostic.getRange().getStart(), doc);
-						int endOffset = LSPEclipseUtils.toOffset(diagnostic.getRange().getEnd(), doc);
+					if (lineIndex != null) {
+						int startOffset = lineIndex.toOffset(diagnostic.getRange().getStart(), positionEncoding);
+						int endOffset = lineIndex.toOffset(diagnostic.getRange().getEnd(), positionEncoding);
 						toAdd.put(new DiagnosticAnnotation(diagnostic, markerAttributeComputer::computeMarkerMessage),
 								new Position(startOffset, endOffset - startOffset));
 					}
@@ -131,76 +160,138 @@ private void updateEditorAnnotations(ISourceViewer sourceViewer, PublishDiagnost
 		}
 	}
 
-	private WorkspaceJob updateMarkers(PublishDiagnosticsParams diagnostics, IResource resource) {
-		final var job = new WorkspaceJob("Update markers from diagnostics") { //$NON-NLS-1$
-			@Override
-			public boolean belongsTo(@Nullable Object family) {
-				return LanguageServerPlugin.FAMILY_UPDATE_MARKERS == family;
+	/**
+	 * Forgets the document version of the diagnostics applied to the given
+	 * resource, since the versions start over once its document is opened again.
+	 */
+	public void documentOpened(URI uri) {
+		final IResource resource = LSPEclipseUtils.findResourceFor(uri);
+		if (resource != null) {
+			synchronized (pendingUpdates) {
+				appliedVersions.remove(resource);
 			}
+		}
+	}
 
-			@Override
-			public IStatus runInWorkspace(@Nullable IProgressMonitor monitor) throws CoreException {
-				if (!resource.exists()) {
-					return Status.OK_STATUS;
-				}
+	private void updateMarkers(PublishDiagnosticsParams diagnostics, IResource resource) {
+		synchronized (pendingUpdates) {
+			final Integer appliedVersion = appliedVersions.get(resource);
+			final Integer version = diagnostics.getVersion();
+			if (appliedVersion != null && version != null && version < appliedVersion) {
+				// the diagnostics of a newer document version were already applied
+				return;
+			}
+			// a publish supersedes the pending one of the same resource, unless it is for an older document version
+			pendingUpdates.merge(resource, new PendingUpdate(resource, diagnostics),
+					(pending, update) -> isOlder(update.diagnostics(), pending.diagnostics()) ? pending : update);
+		}
+		// a running job is rescheduled once it is done, to process the updates added in the meantime
+		updateMarkersJob.schedule();
+	}
 
-				final var toDeleteMarkers = ArrayUtil
-						.asHashSet(resource.findMarkers(markerType, true, IResource.DEPTH_ZERO));
-				toDeleteMarkers
-						.removeIf(marker -> !Objects.equals(marker.getAttribute(LANGUAGE_SERVER_ID, ""), languageServerId)); //$NON-NLS-1$
-				final var newDiagnostics = new ArrayList<Diagnostic>();
-				final var toUpdate = new HashMap<IMarker, Diagnostic>();
+	private static boolean isOlder(PublishDiagnosticsParams diagnostics, PublishDiagnosticsParams other) {
+		final Integer version = diagnostics.getVersion();
+		final Integer otherVersion = other.getVersion();
+		return version != null && otherVersion != null && version < otherVersion;
+	}
 
-				// A language server can scan the whole project and generate diagnostics for files that are not currently open in the IDE
-				// (the markers will show up in the problem view). If so, need to open the document temporarily but be sure to release it
-				// when we're done
-				IDocument existingDocument = LSPEclipseUtils.getExistingDocument(resource);
-				final boolean hasDiagnostics = !diagnostics.getDiagnostics().isEmpty();
-				final boolean temporaryLoadDocument = existingDocument == null;
-				IDocument document = (hasDiagnostics && temporaryLoadDocument) ? LSPEclipseUtils.getDocument(resource): existingDocument;
-				for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
-					IMarker associatedMarker = getExistingMarkerFor(document, diagnostic, toDeleteMarkers);
-					if (associatedMarker == null) {
-						newDiagnostics.add(diagnostic);
-					} else {
-						toDeleteMarkers.remove(associatedMarker);
-						toUpdate.put(associatedMarker, diagnostic);
-					}
+	/**
+	 * Updates the markers of all the pending publishes in one workspace operation,
+	 * so that a burst of publishes results in one resource change event.
+	 */
+	private IStatus updatePendingMarkers(IProgressMonitor monitor) {
+		final List<PendingUpdate> updates;
+		synchronized (pendingUpdates) {
+			updates = new ArrayList<>(pendingUpdates.values());
+			pendingUpdates.clear();
+			for (final PendingUpdate update : updates) {
+				final Integer version = update.diagnostics().getVersion();
+				if (version != null) {
+					appliedVersions.put(update.resource(), version);
 				}
-
-				try {
-					for (Diagnostic diagnostic : newDiagnostics) {
-						if (resource.exists()) {
-							Map<String, Object> markerAttributes = computeMarkerAttributes(document, diagnostic, resource);
-							resource.createMarker(markerType, markerAttributes);
-						}
-					}
-					for (Entry<IMarker, Diagnostic> entry : toUpdate.entrySet()) {
-						IMarker marker = entry.getKey();
-						if (marker.exists()) {
-							Map<String, Object> markerAttributes = computeMarkerAttributes(document, entry.getValue(), resource);
-							updateMarker(markerAttributes, marker);
-						}
+			}
+		}
+		if (updates.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		final IResourceRuleFactory ruleFactory = ResourcesPlugin.getWorkspace().getRuleFactory();
+		final ISchedulingRule rule = MultiRule.combine(updates.stream() //
+				.map(update -> ruleFactory.markerRule(update.resource())) //
+				.filter(Objects::nonNull) //
+				.toArray(ISchedulingRule[]::new));
+		try {
+			ResourcesPlugin.getWorkspace().run(m -> {
+				for (final PendingUpdate update : updates) {
+					if (m.isCanceled()) {
+						return;
 					}
-					toDeleteMarkers.forEach(t -> {
-						try {
-							t.delete();
-						} catch (CoreException e) {
-							LanguageServerPlugin.logError(e);
-						}
-					});
-				} finally {
-					if (document != null && temporaryLoadDocument) {
-						FileBuffers.getTextFileBufferManager().disconnect(resource.getFullPath(), LocationKind.IFILE, new NullProgressMonitor());
+					try {
+						updateMarkers(update.diagnostics(), update.resource(), m);
+					} catch (CoreException | RuntimeException e) {
+						LanguageServerPlugin.logError(e);
 					}
 				}
-				return Status.OK_STATUS;
+			}, rule, IWorkspace.AVOID_UPDATE, monitor);
+		} catch (CoreException e) {
+			return e.getStatus();
+		}
+		return Status.OK_STATUS;
+	}
+
+	private void updateMarkers(PublishDiagnosticsParams diagnostics, IResource resource, IProgressMonitor monitor)
+			throws CoreException {
+		if (!resource.exists()) {
+			return;
+		}
+
+		// A language server can scan the whole project and generate diagnostics for files that are not currently open in the IDE
+		// (the markers will show up in the problem view). If so, their content on disk is indexed without connecting a file buffer,
+		// unless a custom attribute computer may need the document. It is then opened temporarily but released when we're done
+		IDocument document = LSPEclipseUtils.getExistingDocument(resource);
+		boolean temporaryLoadDocument = false;
+		LineIndex lineIndex = document == null ? null : LineIndex.of(document);
+		if (document == null && !diagnostics.getDiagnostics().isEmpty()) {
+			if (markerAttributeComputer == DEFAULT_MARKER_ATTRIBUTE_COMPUTER && resource instanceof IFile file) {
+				lineIndex = LineIndex.of(file);
+			}
+			if (lineIndex == null) {
+				document = LSPEclipseUtils.getDocument(resource);
+				temporaryLoadDocument = document != null;
+				lineIndex = document == null ? null : LineIndex.of(document);
 			}
-		};
-		job.setSystem(true);
-		job.setRule(resource.getWorkspace().getRuleFactory().markerRule(resource));
-		job.schedule();
-		return job;
+		}
+		try {
+			final var remainingMarkers = new ExistingMarkers(resource.findMarkers(markerType, true, IResource.DEPTH_ZERO));
+			final var newDiagnostics = new ArrayList<Diagnostic>();
+			final var toUpdate = new HashMap<IMarker, Diagnostic>();
+			for (Diagnostic diagnostic : diagnostics.getDiagnostics()) {
+				IMarker associatedMarker = lineIndex == null ? null : remainingMarkers.take(lineIndex, diagnostic);
+				if (associatedMarker == null) {
+					newDiagnostics.add(diagnostic);
+				} else {
+					toUpdate.put(associatedMarker, diagnostic);
+				}
+			}
+
+			for (Diagnostic diagnostic : newDiagnostics) {
+				if (resource.exists()) {
+					Map<String, Object> markerAttributes = computeMarkerAttributes(document, lineIndex, diagnostic, resource);
+					resource.createMarker(markerType, markerAttributes);
+				}
+			}
+			for (Entry<IMarker, Diagnostic> entry : toUpdate.entrySet()) {
+				IMarker marker = entry.getKey();
+				if (marker.exists()) {
+					Map<String, Object> markerAttributes = computeMarkerAttributes(document, lineIndex, entry.getValue(), resource);
+					updateMarker(markerAttributes, marker);
+				}
+			}
+			remainingMarkers.deleteUnmatched();
+		} finally {
+			if (temporaryLoadDocument) {
+				FileBuffers.getTextFileBufferManager().disconnect(resource.getFullPath(), LocationKind.IFILE, monitor);
+			}
+		}
 	}
 
 	protected void updateMarker(Map<String, Object> targetAttributes, IMarker marker) {
@@ -213,31 +304,84 @@ protected void updateMarker(Map<String, Object> targetAttributes, IMarker marker
 		}
 	}
 
-	private @Nullable IMarker getExistingMarkerFor(@Nullable IDocument document, Diagnostic diagnostic, Set<IMarker> remainingMarkers) {
-		if (document == null) {
-			return null;
+	private record PendingUpdate(IResource resource, PublishDiagnosticsParams diagnostics) {
+	}
+
+	private record MarkerKey(int start, int end, @Nullable Object message) {
+	}
+
+	/**
+	 * The existing markers of this language server on a resource, indexed by
+	 * offsets and message so that each diagnostic is matched to a marker in
+	 * constant time. A diagnostic with an empty range matches a marker with the
+	 * same start and message regardless of its end, as the range of such markers
+	 * is extended by {@link #computeMarkerAttributes}.
+	 */
+	private final class ExistingMarkers {
+
+		private final Map<MarkerKey, Deque<IMarker>> byRange = new HashMap<>();
+		private final Map<MarkerKey, Deque<IMarker>> byStart = new HashMap<>();
+		private final Set<IMarker> unmatched = new LinkedHashSet<>();
+
+		ExistingMarkers(IMarker[] markers) throws CoreException {
+			for (final IMarker marker : markers) {
+				final Map<String, Object> attributes = marker.getAttributes();
+				if (!Objects.equals(attributes.get(LANGUAGE_SERVER_ID), languageServerId)) {
+					continue;
+				}
+				final int start = attributes.get(IMarker.CHAR_START) instanceof Integer i ? i : -1;
+				final int end = attributes.get(IMarker.CHAR_END) instanceof Integer i ? i : -1;
+				final Object message = attributes.get(IMarker.MESSAGE);
+				byRange.computeIfAbsent(new MarkerKey(start, end, message), key -> new ArrayDeque<>()).add(marker);
+				byStart.computeIfAbsent(new MarkerKey(start, -1, message), key -> new ArrayDeque<>()).add(marker);
+				unmatched.add(marker);
+			}
 		}
 
-		final var markerMessage = markerAttributeComputer.computeMarkerMessage(diagnostic);
-		for (IMarker marker : remainingMarkers) {
-			if (!marker.exists()) {
-				continue;
+		/**
+		 * @return an unmatched marker for the given diagnostic, then considered as
+		 *         matched, or <code>null</code>
+		 */
+		@Nullable
+		IMarker take(LineIndex lineIndex, Diagnostic diagnostic) {
+			if (unmatched.isEmpty()) {
+				return null;
 			}
+			final String positionEncoding = PositionEncodings.getServerEncoding(languageServerId);
+			final Range range = diagnostic.getRange();
+			final String message = markerAttributeComputer.computeMarkerMessage(diagnostic);
 			try {
-				if (LSPEclipseUtils.toOffset(diagnostic.getRange().getStart(), document) == MarkerUtilities.getCharStart(marker)
-						&& (LSPEclipseUtils.toOffset(diagnostic.getRange().getEnd(), document) == MarkerUtilities.getCharEnd(marker) || Objects.equals(diagnostic.getRange().getStart(), diagnostic.getRange().getEnd()))
-						&& Objects.equals(marker.getAttribute(IMarker.MESSAGE), markerMessage)
-						&& Objects.equals(marker.getAttribute(LANGUAGE_SERVER_ID), this.languageServerId)) {
-					return marker;
+				final int start = lineIndex.toOffset(range.getStart(), positionEncoding);
+				final Deque<IMarker> candidates = Objects.equals(range.getStart(), range.getEnd())
+						? byStart.get(new MarkerKey(start, -1, message))
+						: byRange.get(new MarkerKey(start, lineIndex.toOffset(range.getEnd(), positionEncoding), message));
+				if (candidates == null) {
+					return null;
+				}
+				// the markers taken through the other index are left in this one
+				for (IMarker marker = candidates.poll(); marker != null; marker = candidates.poll()) {
+					if (unmatched.remove(marker) && marker.exists()) {
+						return marker;
+					}
 				}
-			} catch (CoreException | BadLocationException e) {
+			} catch (BadLocationException e) {
 				LanguageServerPlugin.logError(e);
 			}
+			return null;
+		}
+
+		void deleteUnmatched() {
+			unmatched.forEach(marker -> {
+				try {
+					marker.delete();
+				} catch (CoreException e) {
+					LanguageServerPlugin.logError(e);
+				}
+			});
 		}
-		return null;
 	}
 
-	private Map<String, Object> computeMarkerAttributes(@Nullable IDocument document,
+	Map<String, Object> computeMarkerAttributes(@Nullable IDocument document, @Nullable LineIndex lineIndex,
 			Diagnostic diagnostic, IResource resource) {
 		Either<String, Integer> code = diagnostic.getCode();
 		if (code != null && code.isLeft()) {
@@ -253,28 +397,29 @@ private Map<String, Object> computeMarkerAttributes(@Nullable IDocument document
 		attributes.put(IMarker.MESSAGE, markerAttributeComputer.computeMarkerMessage(diagnostic));
 		attributes.put(IMarker.SEVERITY, LSPEclipseUtils.toEclipseMarkerSeverity(diagnostic.getSeverity()));
 
-		if (document != null) {
+		if (lineIndex != null) {
+			final String positionEncoding = PositionEncodings.getServerEncoding(languageServerId);
 			Range range = diagnostic.getRange();
-			int documentLength = document.getLength();
+			int documentLength = lineIndex.getLength();
 			int start;
 			try {
-				start = Math.min(LSPEclipseUtils.toOffset(range.getStart(), document), documentLength);
+				start = Math.min(lineIndex.toOffset(range.getStart(), positionEncoding), documentLength);
 			} catch (BadLocationException ex) {
 				start = documentLength;
 			}
 			int end;
 			try {
-				end = Math.min(LSPEclipseUtils.toOffset(range.getEnd(), document), documentLength);
+				end = Math.min(lineIndex.toOffset(range.getEnd(), positionEncoding), documentLength);
 			} catch (BadLocationException ex) {
 				end = documentLength;
 			}
 			try {
-				int lineOfStartOffset = document.getLineOfOffset(start);
+				int lineOfStartOffset = lineIndex.getLineOfOffset(start);
 				attributes.put(IMarker.LINE_NUMBER, lineOfStartOffset + 1);
 				// Empty range arbitrary implementation: extend one char forward or backward if at EOL
 				if (start == end && documentLength > end) {
 					end++;
-					if (document.getLineOfOffset(end) != lineOfStartOffset) {
+					if (lineIndex.getLineOfOffset(end) != lineOfStartOffset) {
 						start--;
 						end--;
 					}
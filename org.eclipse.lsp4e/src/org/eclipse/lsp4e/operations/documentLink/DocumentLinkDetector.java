@@ -31,6 +31,7 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
 import org.eclipse.lsp4j.DocumentLink;
 import org.eclipse.lsp4j.DocumentLinkParams;
 
@@ -80,9 +81,11 @@ public void open() {
 		}
 		final var params = new DocumentLinkParams(LSPEclipseUtils.toTextDocumentIdentifier(uri));
 		try {
-			return LanguageServers.forDocument(document)
-					.withFilter(capabilities -> capabilities.getDocumentLinkProvider() != null)
-					.collectAll(languageServer -> languageServer.getTextDocumentService().documentLink(params))
+			final LanguageServerDocumentExecutor executor = LanguageServers.forDocument(document)
+					.withFilter(capabilities -> capabilities.getDocumentLinkProvider() != null);
+			return executor
+					.collectAll((wrapper, languageServer) -> executor.cached(wrapper, "textDocument/documentLink", params, //$NON-NLS-1$
+							() -> languageServer.getTextDocumentService().documentLink(params)))
 					.thenApply(links -> {
 						IHyperlink[] res = links.stream().flatMap(List<DocumentLink>::stream).filter(Objects::nonNull)
 								.filter(link -> link.getTarget() != null).map(link -> toHyperlink(region, document, link))
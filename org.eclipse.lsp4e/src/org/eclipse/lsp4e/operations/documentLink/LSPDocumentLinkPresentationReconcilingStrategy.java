@@ -27,6 +27,7 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
 import org.eclipse.lsp4j.DocumentLink;
 import org.eclipse.lsp4j.DocumentLinkParams;
 import org.eclipse.swt.custom.StyleRange;
@@ -80,9 +81,11 @@ private void underline() {
 		final Control control = theViewer.getTextWidget();
 		if (control != null && !control.isDisposed()) {
 			Display display = control.getDisplay();
-			request = LanguageServers.forDocument(document)
-					.withFilter(capabilities -> capabilities.getDocumentLinkProvider() != null)
-					.collectAll(languageServer -> languageServer.getTextDocumentService().documentLink(params))
+			final LanguageServerDocumentExecutor executor = LanguageServers.forDocument(document)
+					.withFilter(capabilities -> capabilities.getDocumentLinkProvider() != null);
+			request = executor
+					.collectAll((wrapper, languageServer) -> executor.cached(wrapper, "textDocument/documentLink", params, //$NON-NLS-1$
+							() -> languageServer.getTextDocumentService().documentLink(params)))
 					.thenAcceptAsync(links -> links.forEach(this::underline), display);
 		}
 	}
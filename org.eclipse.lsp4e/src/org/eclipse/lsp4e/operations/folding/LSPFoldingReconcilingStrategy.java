@@ -45,6 +45,7 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
 import org.eclipse.lsp4e.internal.DocumentUtil;
 import org.eclipse.lsp4e.ui.FoldingPreferencePage;
 import org.eclipse.lsp4j.FoldingRange;
@@ -62,7 +63,9 @@
 public class LSPFoldingReconcilingStrategy
 		implements IReconcilingStrategy, IReconcilingStrategyExtension, IProjectionListener, ITextViewerLifecycle {
 
-	private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+	/** The lines spanned by a folding annotation, from the start line to the end line included */
+	private record LineSpan(int startLine, int endLine) {
+	}
 
 	private static final Pattern LICENSE_KEYWORDS = Pattern
 			.compile("(?i)(copyright|licensed under|all rights reserved|SPDX-License-Identifier)"); //$NON-NLS-1$
@@ -178,60 +181,102 @@ public void reconcile(@Nullable IRegion subRegion) {
 		final var params = new FoldingRangeRequestParams(identifier);
 		// cancel previous requests
 		requests.forEach(request -> request.cancel(true));
-		requests = LanguageServers.forDocument(document)
-				.withCapability(ServerCapabilities::getFoldingRangeProvider)
-				.computeAll(server -> server.getTextDocumentService().foldingRange(params));
+		final LanguageServerDocumentExecutor executor = LanguageServers.forDocument(document)
+				.withCapability(ServerCapabilities::getFoldingRangeProvider);
+		requests = executor.computeAll((wrapper, server) -> executor.cached(wrapper, "textDocument/foldingRange", params, //$NON-NLS-1$
+				() -> server.getTextDocumentService().foldingRange(params)));
 		requests.forEach(ranges -> ranges.thenAccept(this::applyFolding));
 	}
 
 	private void applyFolding(@Nullable List<FoldingRange> ranges) {
+		// be sure projection has not been disabled
+		final var projectionAnnotationModel = this.projectionAnnotationModel; //use local variable to prevent possible NPE
+		final var document = this.document;
+		if (projectionAnnotationModel == null || document == null) {
+			return;
+		}
 		// these are what are passed off to the annotation model to
 		// actually create and maintain the annotations
-		final var deletions = new ArrayList<FoldingAnnotation>();
-		final var existing = new HashMap<Position, FoldingAnnotation>();
+		final var deletions = new ArrayList<Annotation>();
 		final var additions = new HashMap<Annotation, Position>();
+		final var modifications = new HashMap<Annotation, Position>();
 
-		// find and mark all folding annotations with length 0 for deletion
-		markInvalidAnnotationsForDeletion(deletions, existing);
+		// index the current folding annotations by the lines they span,
+		// and mark the folding annotations with length 0 for deletion
+		final Map<LineSpan, FoldingAnnotation> existing = indexAnnotations(projectionAnnotationModel, document, deletions);
 
-		if (ranges != null) {
-			boolean[] isFirstFoldingRange = { true };
-			ranges.stream() //
-					.sorted(Comparator.comparing(FoldingRange::getEndLine)) //
-					.forEach(foldingRange -> {
-						try {
-							final var collapsByDefault = foldingRange.getKind() != null
-									&& switch (foldingRange.getKind()) {
-									case FoldingRangeKind.Comment -> {
-										if (isFirstFoldingRange[0]
-												&& LICENSE_KEYWORDS.matcher(getTextOfFoldingRange(foldingRange)).find())
-											yield collapseLicenseHeader || collapseComments;
-										yield collapseComments;
-									}
-									case FoldingRangeKind.Imports -> collapseImports;
-									case FoldingRangeKind.Region -> collapseFoldingRegions;
-									default -> false;
-									};
-							updateAnnotation(deletions, existing, additions, foldingRange.getStartLine(),
-									foldingRange.getEndLine(), collapsByDefault);
-						} catch (BadLocationException ex) {
-							LanguageServerPlugin.logError(ex);
-						}
-						isFirstFoldingRange[0] = false;
-					});
+		if (ranges != null && !ranges.isEmpty()) {
+			final FoldingRange firstFoldingRange = ranges.stream() //
+					.min(Comparator.comparing(FoldingRange::getEndLine)).get();
+			// the ranges without annotation spanning the same lines
+			final var unmatchedRanges = new ArrayList<FoldingRange>();
+			for (final FoldingRange foldingRange : ranges) {
+				final var annotation = existing.remove(new LineSpan(foldingRange.getStartLine(), foldingRange.getEndLine()));
+				if (annotation == null) {
+					unmatchedRanges.add(foldingRange);
+					continue;
+				}
+				try {
+					// the end of the last line may have been typed out of the annotation
+					final var position = toPosition(document, foldingRange.getStartLine(), foldingRange.getEndLine());
+					if (!position.equals(projectionAnnotationModel.getPosition(annotation))) {
+						modifications.put(annotation, position);
+					}
+				} catch (BadLocationException ex) {
+					LanguageServerPlugin.logError(ex);
+				}
+			}
+			// the annotations which span other lines than before keep their state if they
+			// start on the same line, the collapsed state is only computed for the new ones
+			final var previousSpans = new HashMap<Integer, LineSpan>();
+			existing.keySet().forEach(span -> previousSpans.putIfAbsent(span.startLine(), span));
+			for (final FoldingRange foldingRange : unmatchedRanges) {
+				try {
+					final var position = toPosition(document, foldingRange.getStartLine(), foldingRange.getEndLine());
+					final var previousSpan = previousSpans.remove(foldingRange.getStartLine());
+					if (previousSpan != null) {
+						modifications.put(castNonNull(existing.remove(previousSpan)), position);
+					} else {
+						additions.put(new FoldingAnnotation(
+								isCollapsedByDefault(foldingRange, foldingRange == firstFoldingRange)), position);
+					}
+				} catch (BadLocationException ex) {
+					LanguageServerPlugin.logError(ex);
+				}
+			}
 		}
 
-		// be sure projection has not been disabled
-		var theProjectionAnnotationModel = projectionAnnotationModel; //use local variable to prevent possible NPE
-		if (theProjectionAnnotationModel != null) {
-			if (!existing.isEmpty()) {
-				deletions.addAll(existing.values());
+		deletions.addAll(existing.values());
+		// the positions of the modified annotations are updated in place, so that
+		// all the changes are notified to the listeners in a single event
+		final var modified = new ArrayList<Annotation>(modifications.size());
+		modifications.forEach((annotation, position) -> {
+			final Position current = projectionAnnotationModel.getPosition(annotation);
+			if (current != null) {
+				current.setOffset(position.getOffset());
+				current.setLength(position.getLength());
+				modified.add(annotation);
 			}
+		});
+		if (!deletions.isEmpty() || !additions.isEmpty() || !modified.isEmpty()) {
 			// send the calculated updates to the annotations to the
 			// annotation model
-			theProjectionAnnotationModel.modifyAnnotations(deletions.toArray(Annotation[]::new), additions,
-					NO_ANNOTATIONS);
+			projectionAnnotationModel.modifyAnnotations(deletions.toArray(Annotation[]::new), additions,
+					modified.toArray(Annotation[]::new));
+		}
+	}
+
+	private boolean isCollapsedByDefault(FoldingRange foldingRange, boolean isFirstFoldingRange) {
+		return foldingRange.getKind() != null && switch (foldingRange.getKind()) {
+		case FoldingRangeKind.Comment -> {
+			if (isFirstFoldingRange && LICENSE_KEYWORDS.matcher(getTextOfFoldingRange(foldingRange)).find())
+				yield collapseLicenseHeader || collapseComments;
+			yield collapseComments;
 		}
+		case FoldingRangeKind.Imports -> collapseImports;
+		case FoldingRangeKind.Region -> collapseFoldingRegions;
+		default -> false;
+		};
 	}
 
 	private String getTextOfFoldingRange(final FoldingRange range) {
@@ -291,69 +336,51 @@ public void projectionEnabled() {
 		}
 	}
 
-	/**
-	 * Update annotations.
-	 *
-	 * @param deletions
-	 *            the folding annotations to delete.
-	 * @param existing
-	 *            the existing folding annotations.
-	 * @param additions
-	 *            annotation to add
-	 * @param line
-	 *            the line index
-	 * @param endLineNumber
-	 *            the end line number
-	 * @throws BadLocationException
-	 */
-	private void updateAnnotation(List<FoldingAnnotation> deletions, Map<Position, FoldingAnnotation> existing,
-			Map<Annotation, Position> additions, int line, Integer endLineNumber, boolean collapsedByDefault)
-			throws BadLocationException {
-		final var document = castNonNull(this.document);
-		int startOffset = document.getLineOffset(line);
-		int endOffset = document.getLineOffset(endLineNumber) + document.getLineLength(endLineNumber);
-		final var newPos = new Position(startOffset, endOffset - startOffset);
-		FoldingAnnotation existingAnnotation = existing.remove(newPos);
-		if (existingAnnotation == null) {
-			additions.put(new FoldingAnnotation(collapsedByDefault), newPos);
-		}
+	private static Position toPosition(IDocument document, int startLine, int endLine) throws BadLocationException {
+		int startOffset = document.getLineOffset(startLine);
+		int endOffset = document.getLineOffset(endLine) + document.getLineLength(endLine);
+		return new Position(startOffset, endOffset - startOffset);
 	}
 
-
 	/**
 	 * <p>
-	 * Searches the given {@link DirtyRegion} for annotations that now have a length
-	 * of 0. This is caused when something that was being folded has been deleted.
-	 * These {@link FoldingAnnotation}s are then added to the {@link List} of
-	 * {@link FoldingAnnotation}s to be deleted
+	 * Indexes the {@link FoldingAnnotation}s of the given model by the lines they
+	 * span in the given document. The {@link FoldingAnnotation}s which now have a
+	 * length of 0, caused when something that was being folded has been deleted,
+	 * and the duplicates are added to the {@link List} of annotations to be deleted
+	 * instead.
 	 * </p>
 	 *
 	 * @param deletions
-	 *            the current list of {@link FoldingAnnotation}s marked for deletion
-	 *            that the newly found invalid {@link FoldingAnnotation}s will be
-	 *            added to
+	 *            the current list of annotations marked for deletion that the
+	 *            newly found invalid {@link FoldingAnnotation}s will be added to
 	 */
-	private void markInvalidAnnotationsForDeletion(List<FoldingAnnotation> deletions,
-			Map<Position, FoldingAnnotation> existing) {
-		final var projectionAnnotationModel = this.projectionAnnotationModel;
-		if (projectionAnnotationModel == null)
-			return;
+	private static Map<LineSpan, FoldingAnnotation> indexAnnotations(
+			ProjectionAnnotationModel projectionAnnotationModel, IDocument document, List<Annotation> deletions) {
+		final var annotations = new HashMap<LineSpan, FoldingAnnotation>();
 		Iterator<Annotation> iter = projectionAnnotationModel.getAnnotationIterator();
 		if (iter != null) {
 			while (iter.hasNext()) {
 				if (iter.next() instanceof FoldingAnnotation foldingAnno) {
 					Position pos = projectionAnnotationModel.getPosition(foldingAnno);
-					if (pos.length == 0) {
+					if (pos == null || pos.length == 0) {
 						deletions.add(foldingAnno);
-					} else {
-						var duplicate = existing.put(pos, foldingAnno);
+						continue;
+					}
+					try {
+						final var span = new LineSpan(document.getLineOfOffset(pos.offset),
+								document.getLineOfOffset(pos.offset + pos.length - 1));
+						var duplicate = annotations.put(span, foldingAnno);
 						if (duplicate != null) {
 							deletions.add(duplicate);
 						}
+					} catch (BadLocationException ex) {
+						deletions.add(foldingAnno);
 					}
 				}
 			}
 		}
+		return annotations;
 	}
 
 	@Override
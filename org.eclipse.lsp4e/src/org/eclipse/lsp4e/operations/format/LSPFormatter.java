@@ -17,6 +17,7 @@
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
+import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
@@ -26,6 +27,7 @@
 import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
 import org.eclipse.lsp4e.VersionedEdits;
 import org.eclipse.lsp4e.internal.DocumentUtil;
+import org.eclipse.lsp4e.internal.PositionEncodings;
 import org.eclipse.lsp4j.DocumentFormattingParams;
 import org.eclipse.lsp4j.DocumentRangeFormattingParams;
 import org.eclipse.lsp4j.FormattingOptions;
@@ -46,9 +48,6 @@ public CompletableFuture<Optional<VersionedEdits>> requestFormatting(IDocument d
 		FormattingOptions formatOptions = getFormatOptions();
 		final var docId = new TextDocumentIdentifier(uri.toString());
 
-		DocumentRangeFormattingParams rangeParams = getRangeFormattingParams(document, textSelection, formatOptions,
-				docId);
-
 		DocumentFormattingParams params = getFullFormatParams(formatOptions, docId);
 
 		// TODO: Could refine this algorithm: at present this grabs the first non-null response but the most functional
@@ -56,12 +55,20 @@ public CompletableFuture<Optional<VersionedEdits>> requestFormatting(IDocument d
 		// range formatting, falling back to a full format if unavailable
 		long modificationStamp = DocumentUtil.getDocumentModificationStamp(document);
 		return executor.computeFirst((w, ls) -> w.getServerCapabilitiesAsync().thenCompose(capabilities -> {
+			final String positionEncoding = w.getPositionEncoding();
 			if (textSelection.getLength() != 0 && isDocumentRangeFormattingSupported(capabilities)) {
+				final DocumentRangeFormattingParams rangeParams;
+				try {
+					rangeParams = getRangeFormattingParams(document, textSelection, formatOptions, docId,
+							positionEncoding);
+				} catch (BadLocationException ex) {
+					throw new RuntimeException(ex);
+				}
 				return ls.getTextDocumentService().rangeFormatting(rangeParams)
-						.thenApply(edits -> new VersionedEdits(modificationStamp, edits, document));
+						.thenApply(edits -> new VersionedEdits(modificationStamp, edits, document, positionEncoding));
 			} else if (isDocumentFormattingSupported(capabilities)) {
 				return ls.getTextDocumentService().formatting(params)
-						.thenApply(edits -> new VersionedEdits(modificationStamp, edits, document));
+						.thenApply(edits -> new VersionedEdits(modificationStamp, edits, document, positionEncoding));
 			}
 			return CompletableFuture.<VersionedEdits>completedFuture(null);
 		}));
@@ -77,14 +84,26 @@ public static DocumentFormattingParams getFullFormatParams(FormattingOptions for
 
 	public static DocumentRangeFormattingParams getRangeFormattingParams(IDocument document, ITextSelection textSelection,
 			FormattingOptions formatOptions, TextDocumentIdentifier docId) throws BadLocationException {
+		return getRangeFormattingParams(document, textSelection, formatOptions, docId,
+				PositionEncodings.getDocumentEncoding(document));
+	}
+
+	/**
+	 * @param positionEncoding
+	 *            see {@link org.eclipse.lsp4e.LanguageServerWrapper#getPositionEncoding()}
+	 */
+	public static DocumentRangeFormattingParams getRangeFormattingParams(IDocument document, ITextSelection textSelection,
+			FormattingOptions formatOptions, TextDocumentIdentifier docId, @Nullable String positionEncoding)
+			throws BadLocationException {
 		final var rangeParams = new DocumentRangeFormattingParams();
 		rangeParams.setTextDocument(docId);
 		rangeParams.setOptions(formatOptions);
 		boolean fullFormat = textSelection.getLength() == 0;
-		Position start = LSPEclipseUtils.toPosition(fullFormat ? 0 : textSelection.getOffset(), document);
+		Position start = LSPEclipseUtils.toPosition(fullFormat ? 0 : textSelection.getOffset(), document,
+				positionEncoding);
 		Position end = LSPEclipseUtils.toPosition(
 				fullFormat ? document.getLength() : textSelection.getOffset() + textSelection.getLength(),
-				document);
+				document, positionEncoding);
 		rangeParams.setRange(new Range(start, end));
 		return rangeParams;
 	}
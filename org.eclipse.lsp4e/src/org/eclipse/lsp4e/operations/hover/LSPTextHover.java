@@ -49,6 +49,7 @@
 import org.eclipse.lsp4j.HoverParams;
 import org.eclipse.lsp4j.MarkedString;
 import org.eclipse.lsp4j.MarkupContent;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.swt.widgets.Shell;
@@ -64,7 +65,13 @@ public class LSPTextHover implements ITextHover, ITextHoverExtension {
 
 	private @Nullable IRegion lastRegion;
 	private @Nullable ITextViewer lastViewer;
-	private @Nullable CompletableFuture<List<Hover>> request;
+	private @Nullable CompletableFuture<List<ServerHover>> request;
+
+	/**
+	 * A hover with the position encoding of the server which sent it.
+	 */
+	private record ServerHover(Hover hover, @Nullable String positionEncoding) {
+	}
 
 	@Override
 	public @Nullable String getHoverInfo(ITextViewer textViewer, IRegion hoverRegion) {
@@ -88,6 +95,7 @@ public class LSPTextHover implements ITextHover, ITextHoverExtension {
 		return castNonNull(request).thenApply(hoversList -> {
 			String result = hoversList.stream()
 				.filter(Objects::nonNull)
+				.map(ServerHover::hover)
 				.map(LSPTextHover::getHoverString)
 				.filter(Objects::nonNull)
 				.collect(Collectors.joining("\n\n")) //$NON-NLS-1$
@@ -150,14 +158,14 @@ public class LSPTextHover implements ITextHover, ITextHoverExtension {
 			final var regionEndOffset = new int[] { document.getLength() };
 			castNonNull(this.request).get(GET_TIMEOUT_MS, TimeUnit.MILLISECONDS).stream()
 				.filter(Objects::nonNull)
-				.map(Hover::getRange)
-				.filter(Objects::nonNull)
-				.forEach(range -> {
+				.filter(serverHover -> serverHover.hover().getRange() != null)
+				.forEach(serverHover -> {
+					final Range range = serverHover.hover().getRange();
 					try {
 							regionStartOffset[0] = Math.max(regionStartOffset[0],
-									LSPEclipseUtils.toOffset(range.getStart(), document));
+									LSPEclipseUtils.toOffset(range.getStart(), document, serverHover.positionEncoding()));
 							regionEndOffset[0] = Math.min(regionEndOffset[0],
-									LSPEclipseUtils.toOffset(range.getEnd(), document));
+									LSPEclipseUtils.toOffset(range.getEnd(), document, serverHover.positionEncoding()));
 						oneHoverAtLeast[0] = true;
 					} catch (BadLocationException e) {
 						LanguageServerPlugin.logError(e);
@@ -193,15 +201,20 @@ private void initiateHoverRequest(ITextViewer viewer, int offset) {
 			return;
 		}
 		this.lastViewer = viewer;
-		try {
-			HoverParams params = LSPEclipseUtils.toHoverParams(offset, document);
-
-			this.request = LanguageServers.forDocument(document)
-				.withCapability(ServerCapabilities::getHoverProvider)
-				.collectAll(server -> server.getTextDocumentService().hover(params));
-		} catch (BadLocationException e) {
-			LanguageServerPlugin.logError(e);
-		}
+		this.request = LanguageServers.forDocument(document)
+			.withCapability(ServerCapabilities::getHoverProvider)
+			.collectAll((w, server) -> {
+				final String positionEncoding = w.getPositionEncoding();
+				final HoverParams params;
+				try {
+					params = LSPEclipseUtils.toHoverParams(offset, document, positionEncoding);
+				} catch (BadLocationException e) {
+					LanguageServerPlugin.logError(e);
+					return CompletableFuture.completedFuture(null);
+				}
+				return server.getTextDocumentService().hover(params)
+						.thenApply(hover -> hover == null ? null : new ServerHover(hover, positionEncoding));
+			});
 	}
 
 	@Override
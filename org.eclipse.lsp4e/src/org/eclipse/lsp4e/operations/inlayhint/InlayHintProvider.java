@@ -9,12 +9,13 @@
 package org.eclipse.lsp4e.operations.inlayhint;
 
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.Nullable;
@@ -23,53 +24,103 @@
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.codemining.AbstractCodeMiningProvider;
 import org.eclipse.jface.text.codemining.ICodeMining;
+import org.eclipse.jface.text.source.ISourceViewerExtension5;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
+import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
 import org.eclipse.lsp4e.internal.CancellationUtil;
+import org.eclipse.lsp4e.internal.ViewportTracker;
+import org.eclipse.lsp4e.internal.ViewportTracker.VisibleLines;
+import org.eclipse.lsp4e.operations.inlayhint.InlayHintRangeCache.LineRange;
+import org.eclipse.lsp4e.operations.inlayhint.InlayHintRangeCache.LineRanges;
 import org.eclipse.lsp4j.InlayHint;
 import org.eclipse.lsp4j.InlayHintParams;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.services.LanguageServer;
 
 public class InlayHintProvider extends AbstractCodeMiningProvider {
 
+	/** Number of lines before and after the visible ones whose hints are requested too */
+	private static final int PREFETCH_LINES = 100;
+
+	private final Map<LanguageServerWrapper, InlayHintRangeCache> caches = new ConcurrentHashMap<>();
+	/** Lines whose hints were requested since the last update not due to scrolling */
+	private final LineRanges requestedLines = new LineRanges();
+	/** Whether the next update of the code minings is due to scrolling */
+	private final AtomicBoolean scrolled = new AtomicBoolean();
+	private final ViewportTracker viewport = new ViewportTracker(this::viewportChanged);
+
 	private @Nullable CompletableFuture<List<? extends ICodeMining>> provideCodeMinings(IDocument document) {
 		URI docURI = LSPEclipseUtils.toUri(document);
 		if (docURI != null) {
-			// Eclipse seems to request minings only when the document is loaded (or changed), rather than
-			// whenever the viewport [displayed area] changes, so request minings for the whole document in one go.
-			var end = new Position(0,0);
+			// Eclipse requests minings when the document is loaded or changed, and when the hints
+			// of lines scrolled into view are missing. Only the hints of those lines are requested,
+			// the hints of the lines already requested for the document version are kept.
+			final LineRange window = getRequestedWindow(viewport.getVisibleLines(), document.getNumberOfLines());
+			if (!scrolled.getAndSet(false)) {
+				// document changed or hints refreshed
+				caches.clear();
+				synchronized (requestedLines) {
+					requestedLines.clear();
+				}
+			}
+			synchronized (requestedLines) {
+				requestedLines.add(window);
+			}
+			final LanguageServerDocumentExecutor executor = LanguageServers.forDocument(document)
+					.withCapability(ServerCapabilities::getInlayHintProvider);
+			return executor
+					.collectAll((w, ls) -> {
+						// run on the dispatcher of the server, thus the version of the content the requests are for
+						final int version = w.getSentTextDocumentVersion(docURI);
+						final InlayHintRangeCache cache = caches.computeIfAbsent(w, key -> new InlayHintRangeCache());
+						final CompletableFuture<?>[] requests = cache.uncovered(version, window).stream()
+								.map(range -> requestInlayHints(document, docURI, w, ls, range)
+										.thenAccept(inlayHints -> cache.add(version, range, inlayHints))
+										.exceptionally(ex -> {
+											// the range is not covered, so it is requested again once scrolled into view
+											synchronized (requestedLines) {
+												requestedLines.remove(range);
+											}
+											if (!(ex instanceof CancellationException
+													|| CancellationUtil.isRequestCancelledException(ex))) {
+												LanguageServerPlugin.logError(ex);
+											}
+											return null;
+										}))
+								.toArray(CompletableFuture[]::new);
+						return CompletableFuture.allOf(requests).thenApply(theVoid -> cache.hints(version).stream()
+								.map(inlayHint -> toCodeMining(document, w, inlayHint))
+								.filter(Objects::nonNull)
+								.toList());
+					}).thenApply(result -> result.stream().flatMap(List::stream).toList());
+		} else {
+			return null;
+		}
+	}
+
+	private static LineRange getRequestedWindow(VisibleLines visibleLines, int numberOfLines) {
+		return new LineRange(Math.max(0, visibleLines.first() - PREFETCH_LINES),
+				Math.min(numberOfLines, visibleLines.last() + 1 + PREFETCH_LINES));
+	}
+
+	private static CompletableFuture<@Nullable List<InlayHint>> requestInlayHints(IDocument document, URI docURI,
+			LanguageServerWrapper wrapper, LanguageServer languageServer, LineRange lines) {
+		var end = new Position(lines.end(), 0);
+		if (lines.end() >= document.getNumberOfLines()) {
 			try {
-				end = LSPEclipseUtils.toPosition(document.getLength(), document);
+				end = LSPEclipseUtils.toPosition(document.getLength(), document, wrapper.getPositionEncoding());
 			} catch (BadLocationException e) {
 				LanguageServerPlugin.logWarning("Unable to compute end of document", e); //$NON-NLS-1$
 			}
-			final var viewPortRange = new Range(new Position(0,0), end);
-			final var param = new InlayHintParams(LSPEclipseUtils.toTextDocumentIdentifier(docURI), viewPortRange);
-			List<LSPLineContentCodeMining> inlayHintResults = Collections.synchronizedList(new ArrayList<>());
-			return LanguageServers.forDocument(document).withCapability(ServerCapabilities::getInlayHintProvider)
-					.collectAll((w, ls) -> ls.getTextDocumentService() //
-					.inlayHint(param).exceptionally((ex -> {
-						if (!(ex instanceof CancellationException || CancellationUtil.isRequestCancelledException(ex))) {
-							LanguageServerPlugin.logError(ex);
-						}
-						return Collections.emptyList();
-					})) //
-					.thenAcceptAsync(inlayHints -> {
-						// textDocument/inlayHint may return null
-						if (inlayHints != null) {
-							inlayHints.stream().filter(Objects::nonNull)
-									.map(inlayHint -> toCodeMining(document, w, inlayHint))
-									.filter(Objects::nonNull)
-									.forEach(inlayHintResults::add);
-						}
-					})).thenApplyAsync(theVoid -> inlayHintResults);
-		} else {
-			return null;
 		}
+		final var range = new Range(new Position(lines.start(), 0), end);
+		final var param = new InlayHintParams(LSPEclipseUtils.toTextDocumentIdentifier(docURI), range);
+		return languageServer.getTextDocumentService().inlayHint(param);
 	}
 
 	private @Nullable LSPLineContentCodeMining toCodeMining(IDocument document, LanguageServerWrapper languageServerWrapper,
@@ -86,7 +137,34 @@ public class InlayHintProvider extends AbstractCodeMiningProvider {
 	public @Nullable CompletableFuture<List<? extends ICodeMining>> provideCodeMinings(ITextViewer viewer,
 			IProgressMonitor monitor) {
 		IDocument document = viewer.getDocument();
-		return document != null ? provideCodeMinings(document) : null;
+		if (document == null) {
+			return null;
+		}
+		// the hints of the last known visible lines are requested, and the missing ones once they are known
+		viewport.track(viewer);
+		return provideCodeMinings(document);
+	}
+
+	/**
+	 * Updates the code minings of the given viewer if the hints of its visible
+	 * lines were not requested yet.
+	 */
+	private void viewportChanged(ITextViewer viewer) {
+		final VisibleLines visibleLines = viewport.getVisibleLines();
+		final boolean covered;
+		synchronized (requestedLines) {
+			covered = requestedLines.covers(new LineRange(visibleLines.first(), visibleLines.last() + 1));
+		}
+		if (!covered && viewer instanceof ISourceViewerExtension5 sourceViewer) {
+			scrolled.set(true);
+			sourceViewer.updateCodeMinings();
+		}
+	}
+
+	@Override
+	public void dispose() {
+		viewport.dispose();
+		super.dispose();
 	}
 
 }
@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.inlayhint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4j.InlayHint;
+
+/**
+ * Inlay hints of one language server for the line ranges of a document version
+ * requested so far, so that only the lines scrolled into view for the first
+ * time are requested.
+ */
+final class InlayHintRangeCache {
+
+	/** Lines from the start line to the end line, excluded */
+	record LineRange(int start, int end) {
+
+		boolean contains(int line) {
+			return start <= line && line < end;
+		}
+	}
+
+	/** Sorted and disjoint line ranges */
+	static final class LineRanges {
+
+		private final List<LineRange> ranges = new ArrayList<>();
+
+		/**
+		 * @return the parts of the given range not covered by these ranges
+		 */
+		List<LineRange> uncovered(LineRange range) {
+			final var uncovered = new ArrayList<LineRange>();
+			int start = range.start();
+			for (final LineRange covered : ranges) {
+				if (covered.end() <= start) {
+					continue;
+				}
+				if (covered.start() >= range.end()) {
+					break;
+				}
+				if (covered.start() > start) {
+					uncovered.add(new LineRange(start, covered.start()));
+				}
+				start = covered.end();
+			}
+			if (start < range.end()) {
+				uncovered.add(new LineRange(start, range.end()));
+			}
+			return uncovered;
+		}
+
+		boolean covers(LineRange range) {
+			return uncovered(range).isEmpty();
+		}
+
+		void add(LineRange range) {
+			int start = range.start();
+			int end = range.end();
+			int index = 0;
+			while (index < ranges.size() && ranges.get(index).end() < start) {
+				index++;
+			}
+			while (index < ranges.size() && ranges.get(index).start() <= end) {
+				final LineRange merged = ranges.remove(index);
+				start = Math.min(start, merged.start());
+				end = Math.max(end, merged.end());
+			}
+			if (start < end) {
+				ranges.add(index, new LineRange(start, end));
+			}
+		}
+
+		void remove(LineRange range) {
+			final var remaining = new ArrayList<LineRange>();
+			for (final LineRange covered : ranges) {
+				if (covered.end() <= range.start() || covered.start() >= range.end()) {
+					remaining.add(covered);
+					continue;
+				}
+				if (covered.start() < range.start()) {
+					remaining.add(new LineRange(covered.start(), range.start()));
+				}
+				if (covered.end() > range.end()) {
+					remaining.add(new LineRange(range.end(), covered.end()));
+				}
+			}
+			ranges.clear();
+			ranges.addAll(remaining);
+		}
+
+		void clear() {
+			ranges.clear();
+		}
+	}
+
+	private int version = -1;
+	private final LineRanges lines = new LineRanges();
+	private final List<InlayHint> hints = new ArrayList<>();
+
+	/**
+	 * @return the parts of the given range whose hints are not known for the
+	 *         given version of the document, the hints of other versions being
+	 *         dropped
+	 */
+	synchronized List<LineRange> uncovered(int version, LineRange range) {
+		if (version != this.version) {
+			this.version = version;
+			lines.clear();
+			hints.clear();
+		}
+		return lines.uncovered(range);
+	}
+
+	/**
+	 * Adds the hints received for the given range of the given version of the
+	 * document, except those out of the range or already known. Only called for
+	 * successful responses, <code>null</code> meaning that the range has no
+	 * hints, so that the ranges of failed requests remain uncovered.
+	 */
+	synchronized void add(int version, LineRange range, @Nullable List<? extends @Nullable InlayHint> newHints) {
+		if (version != this.version) {
+			return;
+		}
+		if (newHints != null) {
+			for (final LineRange uncovered : lines.uncovered(range)) {
+				for (final InlayHint hint : newHints) {
+					if (hint != null && uncovered.contains(hint.getPosition().getLine())) {
+						hints.add(hint);
+					}
+				}
+			}
+		}
+		lines.add(range);
+	}
+
+	/**
+	 * @return the known hints of the given version of the document
+	 */
+	synchronized List<InlayHint> hints(int version) {
+		return version == this.version ? List.copyOf(hints) : List.of();
+	}
+}
@@ -158,7 +158,7 @@ private static org.eclipse.jface.text.Position toPosition(Position position, IDo
 								return CompletableFuture.completedFuture(null);
 							});
 						} else {
-							CommandExecutor.executeCommandClientSide(command, document);
+							CommandExecutor.executeCommandClientSide(command, document, wrapper);
 						}
 					});
 		}
@@ -16,9 +16,13 @@
 
 import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.eclipse.core.filebuffers.FileBuffers;
 import org.eclipse.core.filebuffers.LocationKind;
@@ -33,17 +37,19 @@
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IRegion;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
+import org.eclipse.lsp4e.internal.LineIndex;
 import org.eclipse.lsp4e.ui.Messages;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.ReferenceContext;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.search.internal.ui.text.FileMatch;
 import org.eclipse.search.internal.ui.text.FileSearchQuery;
 import org.eclipse.search.internal.ui.text.LineElement;
@@ -79,26 +85,25 @@ public IStatus run(@Nullable IProgressMonitor monitor) throws OperationCanceledE
 
 		try {
 			// Execute LSP "references" service
-			final var params = new ReferenceParams();
-			params.setContext(new ReferenceContext(false));
-			params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(document)));
-			params.setPosition(LSPEclipseUtils.toPosition(offset, document));
+			final TextDocumentIdentifier textDocument = castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(document));
+			final Position position = LSPEclipseUtils.toPosition(offset, document);
 
+			// servers supporting it stream their results, which are converted as they arrive with the
+			// position encoding of the server
+			final var partialResultFutures = new ConcurrentLinkedQueue<CompletableFuture<?>>();
+			final var populateUIFutures = new ConcurrentLinkedQueue<CompletableFuture<?>>();
 			List<CompletableFuture<@Nullable List<? extends Location>>> requests = LanguageServers.forDocument(document).withCapability(ServerCapabilities::getReferencesProvider)
-				.computeAll(languageServer -> languageServer.getTextDocumentService().references(params));
-			CompletableFuture<?>[] populateUIFutures = requests.stream().map(request ->
-				request.thenAcceptAsync(locations -> {
-						final var result = this.result;
-						if (locations != null && result != null) {
-							// Convert each LSP Location to a Match search.
-							locations.stream() //
-								.filter(Objects::nonNull) //
-								.map(LSSearchQuery::toMatch) //
-								.filter(Objects::nonNull) //
-								.forEach(result::addMatch);
-						}
-				})).toArray(CompletableFuture[]::new);
-			CompletableFuture.allOf(populateUIFutures).join();
+				.computeAll((wrapper, languageServer, partialResultToken) -> {
+					final var params = new ReferenceParams(textDocument, position, new ReferenceContext(false));
+					params.setPartialResultToken(partialResultToken);
+					final CompletableFuture<List<? extends Location>> request = languageServer.getTextDocumentService().references(params);
+					populateUIFutures.add(request.thenComposeAsync(locations -> addMatches(locations, wrapper.getPositionEncoding(), monitor)));
+					return request;
+				}, Location[].class, (LanguageServerWrapper wrapper, Location[] locations) -> partialResultFutures.add(addMatches(Arrays.asList(locations), wrapper.getPositionEncoding(), monitor)));
+			CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new)).join();
+			CompletableFuture.allOf(populateUIFutures.toArray(CompletableFuture[]::new)).join();
+			// the partial results were all reported before the final responses
+			CompletableFuture.allOf(partialResultFutures.toArray(CompletableFuture[]::new)).join();
 			return Status.OK_STATUS;
 		} catch (Exception ex) {
 			return new Status(IStatus.ERROR, LanguageServerPlugin.getDefault().getBundle().getSymbolicName(),
@@ -107,48 +112,114 @@ public IStatus run(@Nullable IProgressMonitor monitor) throws OperationCanceledE
 	}
 
 	/**
-	 * Convert the given LSP {@link Location} to Eclipse search {@link Match}.
-	 *
-	 * @param location
-	 *            the LSP location to convert.
-	 * @return the converted Eclipse search {@link Match}.
+	 * Converts the given LSP {@link Location}s to Eclipse search {@link Match}es
+	 * and adds them to the search result. The locations are grouped by file, the
+	 * files are converted in parallel and their matches added as soon as they are
+	 * available.
 	 */
-	private static @Nullable Match toMatch(Location location) {
-		IResource resource = LSPEclipseUtils.findResourceFor(location.getUri());
-		if (resource != null) {
-			IDocument document = LSPEclipseUtils.getExistingDocument(resource);
-			boolean temporaryLoadDocument = document == null;
-			if (temporaryLoadDocument) {
-				document = LSPEclipseUtils.getDocument(resource);
+	private CompletableFuture<?> addMatches(@Nullable List<? extends Location> locations,
+			@Nullable String positionEncoding, @Nullable IProgressMonitor monitor) {
+		final var result = this.result;
+		if (locations == null || result == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		final var locationsByUri = new LinkedHashMap<String, List<Location>>();
+		for (final Location location : locations) {
+			if (location != null) {
+				locationsByUri.computeIfAbsent(location.getUri(), uri -> new ArrayList<>()).add(location);
 			}
-			if (document != null) {
-				try {
-					int startOffset = LSPEclipseUtils.toOffset(location.getRange().getStart(), document);
-					int endOffset = LSPEclipseUtils.toOffset(location.getRange().getEnd(), document);
-
-					IRegion lineInformation = document.getLineInformationOfOffset(startOffset);
-					final var lineEntry = new LineElement(resource, document.getLineOfOffset(startOffset) + 1,
-							lineInformation.getOffset(),
-							document.get(lineInformation.getOffset(), lineInformation.getLength()));
-					return new FileMatch((IFile) resource, startOffset, endOffset - startOffset, lineEntry);
-				} catch (BadLocationException ex) {
-					LanguageServerPlugin.logError(ex);
-				} finally {
-					if (temporaryLoadDocument) {
-						try {
-							FileBuffers.getTextFileBufferManager().disconnect(resource.getFullPath(), LocationKind.IFILE, new NullProgressMonitor());
-						} catch (CoreException e) {
-							LanguageServerPlugin.logError(e);
+		}
+		return CompletableFuture.allOf(locationsByUri.entrySet().stream() //
+				.map(entry -> CompletableFuture.runAsync(() -> {
+					if (monitor == null || !monitor.isCanceled()) {
+						final Match[] matches = toMatches(entry.getKey(), entry.getValue(), positionEncoding);
+						if (matches.length > 0) {
+							result.addMatches(matches);
 						}
 					}
+				})).toArray(CompletableFuture[]::new));
+	}
+
+	/**
+	 * Converts the given LSP {@link Location}s of the same file to Eclipse search
+	 * {@link Match}es. The file is only loaded once, without connecting a file
+	 * buffer if possible.
+	 *
+	 * @param uri
+	 *            the URI of the file the locations refer to
+	 * @param locations
+	 *            the LSP locations to convert.
+	 * @param positionEncoding
+	 *            the position encoding of the server which sent the locations
+	 * @return the converted Eclipse search {@link Match}es.
+	 */
+	private static Match[] toMatches(String uri, List<Location> locations, @Nullable String positionEncoding) {
+		IResource resource = LSPEclipseUtils.findResourceFor(uri);
+		if (resource == null) {
+			return locations.stream().map(LSSearchQuery::toURIMatch).filter(Objects::nonNull).toArray(Match[]::new);
+		}
+		IDocument document = LSPEclipseUtils.getExistingDocument(resource);
+		LineIndex lineIndex = document != null ? LineIndex.of(document)
+				: resource instanceof IFile file ? LineIndex.of(file) : null;
+		boolean temporaryLoadDocument = false;
+		if (lineIndex == null) {
+			document = LSPEclipseUtils.getDocument(resource);
+			temporaryLoadDocument = document != null;
+			lineIndex = document != null ? LineIndex.of(document) : null;
+		}
+		try {
+			final var matches = new Match[locations.size()];
+			for (int i = 0; i < matches.length; i++) {
+				matches[i] = toMatch(locations.get(i), (IFile) resource, lineIndex, positionEncoding);
+			}
+			return matches;
+		} finally {
+			if (temporaryLoadDocument) {
+				try {
+					FileBuffers.getTextFileBufferManager().disconnect(resource.getFullPath(), LocationKind.IFILE, new NullProgressMonitor());
+				} catch (CoreException e) {
+					LanguageServerPlugin.logError(e);
 				}
 			}
+		}
+	}
 
-			Position startPosition = location.getRange().getStart();
-			final var lineEntry = new LineElement(resource, startPosition.getLine() + 1, 0,
-					String.format("%s:%s", startPosition.getLine(), startPosition.getCharacter())); //$NON-NLS-1$
-			return new FileMatch((IFile) resource, 0, 0, lineEntry);
+	/**
+	 * Convert the given LSP {@link Location} to Eclipse search {@link Match}.
+	 *
+	 * @param location
+	 *            the LSP location to convert.
+	 * @param file
+	 *            the file of the location
+	 * @param lineIndex
+	 *            the line index of the file content, if available
+	 * @param positionEncoding
+	 *            the position encoding of the server which sent the location
+	 * @return the converted Eclipse search {@link Match}.
+	 */
+	private static Match toMatch(Location location, IFile file, @Nullable LineIndex lineIndex,
+			@Nullable String positionEncoding) {
+		if (lineIndex != null) {
+			try {
+				int startOffset = lineIndex.toOffset(location.getRange().getStart(), positionEncoding);
+				int endOffset = lineIndex.toOffset(location.getRange().getEnd(), positionEncoding);
+
+				int line = lineIndex.getLineOfOffset(startOffset);
+				final var lineEntry = new LineElement(file, line + 1, lineIndex.getLineOffset(line),
+						lineIndex.getLineContent(line));
+				return new FileMatch(file, startOffset, endOffset - startOffset, lineEntry);
+			} catch (BadLocationException ex) {
+				LanguageServerPlugin.logError(ex);
+			}
 		}
+
+		Position startPosition = location.getRange().getStart();
+		final var lineEntry = new LineElement(file, startPosition.getLine() + 1, 0,
+				String.format("%s:%s", startPosition.getLine(), startPosition.getCharacter())); //$NON-NLS-1$
+		return new FileMatch(file, 0, 0, lineEntry);
+	}
+
+	private static @Nullable Match toURIMatch(Location location) {
 		try {
 			return URIMatch.create(location);
 		} catch (Exception ex) {
@@ -18,8 +18,10 @@
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
@@ -36,6 +38,7 @@
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.internal.Pair;
 import org.eclipse.lsp4e.ui.Messages;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.PrepareRenameDefaultBehavior;
 import org.eclipse.lsp4j.PrepareRenameParams;
 import org.eclipse.lsp4j.PrepareRenameResult;
@@ -43,6 +46,7 @@
 import org.eclipse.lsp4j.RenameOptions;
 import org.eclipse.lsp4j.RenameParams;
 import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
 import org.eclipse.lsp4j.WorkspaceEdit;
 import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
@@ -103,14 +107,13 @@ public RefactoringStatus checkInitialConditions(IProgressMonitor pm)
 		final var status = new RefactoringStatus();
 
 		try {
-			final var params = new PrepareRenameParams();
-			params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(document)));
-			params.setPosition(LSPEclipseUtils.toPosition(offset, document));
+			final TextDocumentIdentifier textDocument = castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(document));
 
 			@SuppressWarnings("null")
 			List<Pair<LanguageServerWrapper, Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>>> list = LanguageServers
 					.forDocument(document).withFilter(LSPRenameProcessor::isPrepareRenameProvider)
-					.collectAll((w, ls) -> ls.getTextDocumentService().prepareRename(params)
+					.collectAll((w, ls) -> requestAtOffset(w, position -> ls.getTextDocumentService()
+							.prepareRename(new PrepareRenameParams(textDocument, position)))
 							.thenApply(result -> new Pair<>(w, result)))
 					.get(1000, TimeUnit.MILLISECONDS);
 
@@ -137,13 +140,15 @@ public RefactoringStatus checkInitialConditions(IProgressMonitor pm)
 
 	public String getPlaceholder() {
 		final var prepareRenameResult = this.prepareRenameResult;
-		if (prepareRenameResult == null)
+		final var refactoringServer = this.refactoringServer;
+		if (prepareRenameResult == null || refactoringServer == null)
 			return "newName"; //$NON-NLS-1$
 
+		final String positionEncoding = refactoringServer.getPositionEncoding();
 		final String placeholder = prepareRenameResult.map(range -> {
 				try {
-					int startOffset = LSPEclipseUtils.toOffset(range.getStart(), document);
-					int endOffset = LSPEclipseUtils.toOffset(range.getEnd(), document);
+					int startOffset = LSPEclipseUtils.toOffset(range.getStart(), document, positionEncoding);
+					int endOffset = LSPEclipseUtils.toOffset(range.getEnd(), document, positionEncoding);
 					return document.get(startOffset, endOffset - startOffset);
 				} catch (BadLocationException e) {
 					LanguageServerPlugin.logError(e);
@@ -179,23 +184,25 @@ public RefactoringStatus checkFinalConditions(IProgressMonitor pm, CheckConditio
 			return status;
 		}
 		try {
-			final var params = new RenameParams();
-			params.setPosition(LSPEclipseUtils.toPosition(offset, document));
-			params.setTextDocument(castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(document)));
-			params.setNewName(newName);
+			final TextDocumentIdentifier textDocument = castNonNull(LSPEclipseUtils.toTextDocumentIdentifier(document));
 
 			// TODO: how to manage ltk with CompletableFuture? Is 1000 ms is enough?
 			final var refactoringServer = this.refactoringServer;
 			final WorkspaceEdit rename;
 			if (refactoringServer != null) {
-				rename = this.rename = refactoringServer.execute(ls -> ls.getTextDocumentService().rename(params))
+				rename = this.rename = refactoringServer.execute(ls -> requestAtOffset(refactoringServer,
+						position -> ls.getTextDocumentService().rename(new RenameParams(textDocument, position, newName))))
 						.get(1000, TimeUnit.MILLISECONDS);
 			} else {
 				// Prepare timed out so we don't have a preferred server, so just try all the servers again
-				rename = this.rename = LanguageServers.forDocument(document)
+				final Optional<Pair<LanguageServerWrapper, WorkspaceEdit>> result = LanguageServers.forDocument(document)
 						.withCapability(ServerCapabilities::getRenameProvider)
-						.computeFirst(ls -> ls.getTextDocumentService().rename(params)).get(1000, TimeUnit.MILLISECONDS)
-						.orElse(null);
+						.computeFirst((w, ls) -> requestAtOffset(w,
+								position -> ls.getTextDocumentService().rename(new RenameParams(textDocument, position, newName)))
+								.thenApply(edit -> edit == null ? null : new Pair<>(w, edit)))
+						.get(1000, TimeUnit.MILLISECONDS);
+				this.refactoringServer = result.map(Pair::first).orElse(null);
+				rename = this.rename = result.map(Pair::second).orElse(null);
 			}
 			if (!status.hasError()
 					&& (rename == null || (rename.getChanges().isEmpty() && rename.getDocumentChanges().isEmpty()))) {
@@ -207,6 +214,19 @@ public RefactoringStatus checkFinalConditions(IProgressMonitor pm, CheckConditio
 		return status;
 	}
 
+	/**
+	 * Sends a request at the offset of the renamed symbol, converted to the
+	 * position encoding of the given server.
+	 */
+	private <T> CompletableFuture<T> requestAtOffset(LanguageServerWrapper wrapper,
+			Function<Position, CompletableFuture<T>> request) {
+		try {
+			return request.apply(LSPEclipseUtils.toPosition(offset, document, wrapper.getPositionEncoding()));
+		} catch (BadLocationException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+	}
+
 	private String getErrorMessage(Throwable e) {
 		if (e.getCause() instanceof ResponseErrorException responseErrorException) {
 			ResponseError responseError = responseErrorException.getResponseError();
@@ -224,7 +244,10 @@ public Change createChange(IProgressMonitor pm) throws CoreException, OperationC
 			throw new CoreException(
 					new Status(IStatus.ERROR, LanguageServerPlugin.PLUGIN_ID, Messages.rename_processor_required));
 		}
-		return LSPEclipseUtils.toCompositeChange(rename, Messages.rename_title);
+		final var refactoringServer = this.refactoringServer;
+		return refactoringServer != null
+				? LSPEclipseUtils.toCompositeChange(rename, Messages.rename_title, refactoringServer)
+				: LSPEclipseUtils.toCompositeChange(rename, Messages.rename_title);
 	}
 
 	@Override
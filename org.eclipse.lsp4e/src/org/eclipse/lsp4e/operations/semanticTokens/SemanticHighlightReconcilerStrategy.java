@@ -11,10 +11,13 @@
 import static org.eclipse.lsp4e.internal.NullSafetyHelper.*;
 
 import java.net.URI;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.annotation.Nullable;
@@ -22,6 +25,7 @@
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.ITextListener;
 import org.eclipse.jface.text.ITextPresentationListener;
 import org.eclipse.jface.text.ITextViewer;
@@ -36,16 +40,25 @@
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServers.LanguageServerDocumentExecutor;
+import org.eclipse.lsp4e.Versioned;
 import org.eclipse.lsp4e.internal.CancellationUtil;
 import org.eclipse.lsp4e.internal.DocumentUtil;
-import org.eclipse.lsp4e.internal.Pair;
-import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4e.internal.LineIndex;
+import org.eclipse.lsp4e.internal.ViewportTracker;
+import org.eclipse.lsp4e.internal.ViewportTracker.VisibleLines;
+import org.eclipse.lsp4e.operations.semanticTokens.SemanticTokensDataStreamProcessor.OffsetMapper;
+import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.SemanticTokens;
+import org.eclipse.lsp4j.SemanticTokensDeltaParams;
 import org.eclipse.lsp4j.SemanticTokensLegend;
 import org.eclipse.lsp4j.SemanticTokensParams;
+import org.eclipse.lsp4j.SemanticTokensRangeParams;
 import org.eclipse.lsp4j.SemanticTokensWithRegistrationOptions;
+import org.eclipse.lsp4j.SemanticTokensServerFull;
 import org.eclipse.lsp4j.ServerCapabilities;
-import org.eclipse.swt.custom.StyleRange;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.services.LanguageServer;
+import org.eclipse.lsp4j.services.TextDocumentService;
 import org.eclipse.swt.custom.StyledText;
 
 /**
@@ -74,6 +87,15 @@
  * For simplicity, out-dated responses are discarded, as we know we shall get
  * newer ones.
  * <p>
+ * When a document is opened, the tokens of the visible lines are requested
+ * along with the tokens of the whole document from servers supporting range
+ * requests, so that they are highlighted before the tokens of the whole
+ * document are available.
+ * <p>
+ * Servers supporting delta requests only send the changes to the tokens of their
+ * previous response, identified by its result id, on top of which the tokens
+ * are rebuilt.
+ * <p>
  * In case the reconciler produces bogus results, it can be disabled with the key
  * {@literal semanticHighlightReconciler.disabled} until fix is provided.
  */
@@ -88,7 +110,7 @@
 
 	private @Nullable StyleRangeHolder styleRangeHolder;
 
-	private @Nullable SemanticTokensDataStreamProcessor semanticTokensDataStreamProcessor;
+	private @Nullable TokenTypeMapper tokenTypeMapper;
 
 	/**
 	 * Written in {@link this.class#applyTextPresentation(TextPresentation)}
@@ -103,7 +125,30 @@
 
 	private volatile long timestamp = 0;
 
-	private @Nullable CompletableFuture<Optional<VersionedSemanticTokens>> semanticTokensFullFuture;
+	private @Nullable CompletableFuture<Optional<Versioned<ServerTokens>>> semanticTokensFuture;
+
+	private @Nullable CompletableFuture<Optional<Versioned<ServerTokens>>> rangeTokensFuture;
+
+	private final ViewportTracker viewport = new ViewportTracker(viewer -> {
+		// the visible lines are only read when the document is opened
+	});
+
+	/**
+	 * The tokens of a response, with the legend and the position encoding of the
+	 * server which sent them.
+	 */
+	private record ServerTokens(int[] data, @Nullable SemanticTokensLegend legend,
+			@Nullable String positionEncoding) {
+	}
+
+	/**
+	 * The tokens of the last response of a server, on which the edits of the next
+	 * delta response are applied.
+	 */
+	private record SemanticTokensResult(String resultId, int[] data) {
+	}
+
+	private final Map<LanguageServerWrapper, SemanticTokensResult> lastResults = new ConcurrentHashMap<>();
 
 	private StyleRangeMerger merger;
 
@@ -128,14 +173,14 @@ public void install(final ITextViewer textViewer) {
 		if (disabled || viewer != null) {
 			return;
 		}
-		semanticTokensDataStreamProcessor = new SemanticTokensDataStreamProcessor(TokenTypeMapper.create(textViewer),
-				offsetMapper());
+		tokenTypeMapper = TokenTypeMapper.create(textViewer);
 
 		if (textViewer instanceof final TextViewer textViewerImpl) {
 			textViewerImpl.addTextPresentationListener(this);
 		}
 		styleRangeHolder = new StyleRangeHolder();
 		textViewer.addTextListener(styleRangeHolder);
+		viewport.track(textViewer);
 		viewer = textViewer;
 	}
 
@@ -150,8 +195,10 @@ public void uninstall() {
 			return;
 		}
 		this.viewer = null; // Indicate that we're not installed or in the phase of deinstalling
-		cancelSemanticTokensFull();
-		semanticTokensDataStreamProcessor = null;
+		cancelSemanticTokens();
+		lastResults.clear();
+		viewport.dispose();
+		tokenTypeMapper = null;
 		if (viewer instanceof final TextViewer textViewerImpl) {
 			textViewerImpl.removeTextPresentationListener(this);
 		}
@@ -161,10 +208,10 @@ public void uninstall() {
 		}
 	}
 
-	private Function<Position, Integer> offsetMapper() {
-		return p -> {
+	private static OffsetMapper offsetMapper(final LineIndex lineIndex, final @Nullable String positionEncoding) {
+		return (line, character) -> {
 			try {
-				return LSPEclipseUtils.toOffset(p, castNonNull(document));
+				return lineIndex.toOffset(line, character, positionEncoding);
 			} catch (BadLocationException e) {
 				throw new RuntimeException(e);
 			}
@@ -178,30 +225,88 @@ private SemanticTokensParams getSemanticTokensParams() {
 		return semanticTokensParams;
 	}
 
-	private void saveStyle(final Pair<@Nullable SemanticTokens, @Nullable SemanticTokensLegend> pair) {
-		final SemanticTokens semanticTokens = pair.first();
-		final SemanticTokensLegend semanticTokensLegend = pair.second();
+	/**
+	 * Saves the given tokens, only the ones inside the given region if not
+	 * <code>null</code>.
+	 */
+	private void saveStyle(final ServerTokens tokens, final @Nullable IRegion region) {
+		final int[] data = tokens.data();
+		final SemanticTokensLegend semanticTokensLegend = tokens.legend();
 
-		// Skip any processing if not installed or at least one of the pair values is null
-		if (viewer == null || semanticTokens == null || semanticTokensLegend == null) {
+		// Skip any processing if not installed or the legend is missing
+		if (viewer == null || semanticTokensLegend == null) {
 			return;
 		}
-		List<Integer> dataStream = semanticTokens.getData();
-		final var semanticTokensDataStreamProcessor = this.semanticTokensDataStreamProcessor;
+		final var tokenTypeMapper = this.tokenTypeMapper;
 		final var styleRangeHolder = this.styleRangeHolder;
-		if (!dataStream.isEmpty() && semanticTokensDataStreamProcessor != null && styleRangeHolder != null) {
-			List<StyleRange> styleRanges = semanticTokensDataStreamProcessor.getStyleRanges(dataStream,
-					semanticTokensLegend);
-			styleRangeHolder.saveStyles(styleRanges);
+		if (data.length > 0 && tokenTypeMapper != null && styleRangeHolder != null) {
+			final IDocument document = castNonNull(this.document);
+			final String positionEncoding = LineIndex.isUtf16(tokens.positionEncoding()) ? null
+					: tokens.positionEncoding();
+			final var processor = new SemanticTokensDataStreamProcessor(tokenTypeMapper,
+					offsetMapper(LineIndex.of(document), positionEncoding));
+			final SemanticTokensStore store = processor.decode(data, semanticTokensLegend, positionEncoding == null);
+			if (region != null) {
+				styleRangeHolder.saveTokens(store, region);
+			} else {
+				styleRangeHolder.saveTokens(store);
+			}
 		}
 	}
 
+	/**
+	 * Requests the tokens of the whole document, as delta to the last response of
+	 * the same server if it supports it.
+	 *
+	 * @return the relative encoded tokens
+	 */
+	private CompletableFuture<int @Nullable []> requestSemanticTokens(final LanguageServerWrapper wrapper,
+			final LanguageServer languageServer) {
+		final TextDocumentService textDocumentService = languageServer.getTextDocumentService();
+		final SemanticTokensParams params = getSemanticTokensParams();
+		// a cancelled or failed request leaves the tokens of the server unknown
+		final SemanticTokensResult previous = lastResults.remove(wrapper);
+		if (previous != null && hasSemanticTokensDelta(wrapper)) {
+			return textDocumentService
+					.semanticTokensFullDelta(new SemanticTokensDeltaParams(params.getTextDocument(), previous.resultId()))
+					.thenApply(result -> {
+						if (result == null) {
+							return null;
+						}
+						if (result.isLeft()) {
+							return saveResult(wrapper, result.getLeft());
+						}
+						final var delta = result.getRight();
+						final int[] data = SemanticTokensDataStreamProcessor.applyEdits(previous.data(),
+								delta.getEdits());
+						return saveResult(wrapper, delta.getResultId(), data);
+					});
+		}
+		return textDocumentService.semanticTokensFull(params)
+				.thenApply(semanticTokens -> semanticTokens == null ? null : saveResult(wrapper, semanticTokens));
+	}
+
+	private int[] saveResult(final LanguageServerWrapper wrapper, final SemanticTokens semanticTokens) {
+		return saveResult(wrapper, semanticTokens.getResultId(),
+				SemanticTokensDataStreamProcessor.toIntArray(semanticTokens.getData()));
+	}
+
+	private int[] saveResult(final LanguageServerWrapper wrapper, final @Nullable String resultId, final int[] data) {
+		if (resultId != null) {
+			lastResults.put(wrapper, new SemanticTokensResult(resultId, data));
+		}
+		return data;
+	}
+
 	@Override
 	public void setProgressMonitor(final @Nullable IProgressMonitor monitor) {
 	}
 
 	@Override
 	public void setDocument(final @Nullable IDocument document) {
+		if (document != this.document) {
+			lastResults.clear();
+		}
 		this.document = document;
 	}
 
@@ -210,6 +315,24 @@ private boolean hasSemanticTokensFull(final ServerCapabilities serverCapabilitie
 				&& LSPEclipseUtils.hasCapability(serverCapabilities.getSemanticTokensProvider().getFull());
 	}
 
+	private boolean hasSemanticTokensRange(final ServerCapabilities serverCapabilities) {
+		return serverCapabilities.getSemanticTokensProvider() != null
+				&& LSPEclipseUtils.hasCapability(serverCapabilities.getSemanticTokensProvider().getRange());
+	}
+
+	private boolean hasSemanticTokensDelta(final LanguageServerWrapper wrapper) {
+		final ServerCapabilities serverCapabilities = wrapper.getServerCapabilities();
+		if (serverCapabilities == null || serverCapabilities.getSemanticTokensProvider() == null) {
+			return false;
+		}
+		final var full = serverCapabilities.getSemanticTokensProvider().getFull();
+		if (full == null || !full.isRight()) {
+			return false;
+		}
+		final SemanticTokensServerFull serverFull = full.getRight();
+		return Boolean.TRUE.equals(serverFull.getDelta());
+	}
+
 	// public for testing
 	public @Nullable SemanticTokensLegend getSemanticTokensLegend(final LanguageServerWrapper wrapper) {
 		ServerCapabilities serverCapabilities = wrapper.getServerCapabilities();
@@ -250,9 +373,12 @@ private void invalidateTextPresentation(final Long documentTimestamp) {
 		});
 	}
 
-	private void cancelSemanticTokensFull() {
-		if (semanticTokensFullFuture != null) {
-			semanticTokensFullFuture.cancel(true);
+	private void cancelSemanticTokens() {
+		if (semanticTokensFuture != null) {
+			semanticTokensFuture.cancel(true);
+		}
+		if (rangeTokensFuture != null) {
+			rangeTokensFuture.cancel(true);
 		}
 	}
 
@@ -262,34 +388,142 @@ private void fullReconcile() {
 			return;
 		}
 		final var document = this.document;
-		cancelSemanticTokensFull();
+		cancelSemanticTokens();
 		if (document != null) {
-			long modificationStamp = DocumentUtil.getDocumentModificationStamp(document);
-			LanguageServerDocumentExecutor executor = LanguageServers.forDocument(document)
-					.withFilter(this::hasSemanticTokensFull);
-			try {
-				final var semanticTokensFullFuture = executor //
-					.computeFirst((w, ls) -> ls.getTextDocumentService().semanticTokensFull(getSemanticTokensParams()) //
-							.thenApply(semanticTokens -> new VersionedSemanticTokens(modificationStamp,
-									Pair.of(semanticTokens, getSemanticTokensLegend(w)), document)));
-				this.semanticTokensFullFuture = semanticTokensFullFuture;
-				semanticTokensFullFuture.get() // background thread with cancellation support, no timeout needed
-						.ifPresent(versionedSemanticTokens ->
-								versionedSemanticTokens.apply(this::saveStyle, this::invalidateTextPresentation));
-			} catch (InterruptedException e) {
+			saveStyle(document, requestFullTokens(document), null);
+		}
+	}
+
+	private CompletableFuture<Optional<Versioned<ServerTokens>>> requestFullTokens(final IDocument document) {
+		final var semanticTokensFuture = computeTokens(document,
+				LanguageServers.forDocument(document).withFilter(this::hasSemanticTokensFull),
+				this::requestSemanticTokens);
+		this.semanticTokensFuture = semanticTokensFuture;
+		return semanticTokensFuture;
+	}
+
+	/**
+	 * Requests the tokens of the visible lines only, so that they are highlighted
+	 * before the tokens of a large document are all computed and decoded.
+	 */
+	private CompletableFuture<Optional<Versioned<ServerTokens>>> requestRangeTokens(final IDocument document,
+			final IRegion visibleRegion) {
+		final TextDocumentIdentifier textDocument = getSemanticTokensParams().getTextDocument();
+		final var rangeTokensFuture = computeTokens(document,
+				LanguageServers.forDocument(document).withFilter(this::hasSemanticTokensRange), (w, ls) -> {
+					final String positionEncoding = w.getPositionEncoding();
+					final Range range;
+					try {
+						range = new Range(
+								LSPEclipseUtils.toPosition(visibleRegion.getOffset(), document, positionEncoding),
+								LSPEclipseUtils.toPosition(visibleRegion.getOffset() + visibleRegion.getLength(),
+										document, positionEncoding));
+					} catch (BadLocationException e) {
+						throw new RuntimeException(e);
+					}
+					return ls.getTextDocumentService()
+							.semanticTokensRange(new SemanticTokensRangeParams(textDocument, range))
+							.thenApply(semanticTokens -> semanticTokens == null ? null
+									: SemanticTokensDataStreamProcessor.toIntArray(semanticTokens.getData()));
+				});
+		this.rangeTokensFuture = rangeTokensFuture;
+		return rangeTokensFuture;
+	}
+
+	/**
+	 * @return the region of the document lines visible the last time the viewport
+	 *         was updated in the UI thread, <code>null</code> if unknown
+	 */
+	private @Nullable IRegion getVisibleRegion(final IDocument document) {
+		final VisibleLines lines = viewport.getVisibleLines();
+		if (lines.first() > lines.last()) {
+			return null;
+		}
+		try {
+			final int start = document.getLineOffset(lines.first());
+			final int lastLine = Math.min(lines.last(), document.getNumberOfLines() - 1);
+			return new Region(start, document.getLineOffset(lastLine) + document.getLineLength(lastLine) - start);
+		} catch (BadLocationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Runs the given request on the first language server matching the executor.
+	 */
+	private CompletableFuture<Optional<Versioned<ServerTokens>>> computeTokens(final IDocument document,
+			final LanguageServerDocumentExecutor executor,
+			final BiFunction<LanguageServerWrapper, LanguageServer, CompletableFuture<int @Nullable []>> request) {
+		long modificationStamp = DocumentUtil.getDocumentModificationStamp(document);
+		return executor //
+				.computeFirst((w, ls) -> request.apply(w, ls) //
+						.thenApply(data -> data == null ? null
+								: new Versioned<>(document, modificationStamp,
+										new ServerTokens(data, getSemanticTokensLegend(w),
+												w.getPositionEncoding()))));
+	}
+
+	/**
+	 * Waits for the given tokens and saves them, provided the document is
+	 * unchanged since they were requested.
+	 */
+	private void saveStyle(final IDocument document,
+			final CompletableFuture<Optional<Versioned<ServerTokens>>> semanticTokensFuture,
+			final @Nullable IRegion region) {
+		try {
+			semanticTokensFuture.get() // background thread with cancellation support, no timeout needed
+					.ifPresent(versionedSemanticTokens -> {
+						if (versionedSemanticTokens.sourceDocumentVersion == DocumentUtil
+								.getDocumentModificationStamp(document)) {
+							saveStyle(versionedSemanticTokens.data, region);
+							invalidateTextPresentation(versionedSemanticTokens.sourceDocumentVersion);
+						}
+					});
+		} catch (InterruptedException e) {
+			LanguageServerPlugin.logError(e);
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			if (!CancellationUtil.isRequestCancelledException(e)) { // do not report error if the server has cancelled the request
 				LanguageServerPlugin.logError(e);
-				Thread.currentThread().interrupt();
-			} catch (Exception e) {
-				if (!CancellationUtil.isRequestCancelledException(e)) { // do not report error if the server has cancelled the request
-					LanguageServerPlugin.logError(e);
-				}
 			}
 		}
 	}
 
+	/**
+	 * Requests the tokens of the visible lines along with the ones of the whole
+	 * document. The former are only saved for the visible lines, unless the
+	 * latter came first.
+	 */
 	@Override
 	public void initialReconcile() {
-		fullReconcile();
+		final var viewer = this.viewer;
+		final var document = this.document;
+		if (disabled || viewer == null || document == null) { // Skip any processing
+			return;
+		}
+		cancelSemanticTokens();
+		final IRegion visibleRegion = getVisibleRegion(document);
+		final var rangeTokens = visibleRegion == null || visibleRegion.getLength() >= document.getLength() ? null
+				: requestRangeTokens(document, visibleRegion);
+		final var fullTokens = requestFullTokens(document);
+		if (rangeTokens != null && visibleRegion != null) {
+			try {
+				CompletableFuture.anyOf(rangeTokens, fullTokens).get();
+			} catch (InterruptedException e) {
+				LanguageServerPlugin.logError(e);
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException | CancellationException e) {
+				// reported once the failed request is processed
+			}
+			if (fullTokens.isDone() && !fullTokens.isCompletedExceptionally()
+					&& fullTokens.getNow(Optional.empty()).isPresent()) {
+				rangeTokens.cancel(true);
+			} else {
+				saveStyle(document, rangeTokens, visibleRegion);
+			}
+		}
+		saveStyle(document, fullTokens, null);
 	}
 
 	@Override
@@ -10,8 +10,7 @@
 package org.eclipse.lsp4e.operations.semanticTokens;
 
 import java.util.ArrayList;
-import java.util.BitSet;
-import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.function.Function;
 
@@ -21,6 +20,7 @@
 import org.eclipse.lsp4e.internal.StyleUtil;
 import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.SemanticTokenModifiers;
+import org.eclipse.lsp4j.SemanticTokensEdit;
 import org.eclipse.lsp4j.SemanticTokensLegend;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.custom.StyleRange;
@@ -31,7 +31,15 @@
  */
 public class SemanticTokensDataStreamProcessor {
 
-	private final Function<Position, Integer> offsetMapper;
+	/**
+	 * Maps a line and a column of a semantic token to a document offset.
+	 */
+	@FunctionalInterface
+	public interface OffsetMapper {
+		int toOffset(int line, int character);
+	}
+
+	private final OffsetMapper offsetMapper;
 	private final Function<String, @Nullable IToken> tokenTypeMapper;
 
 	/**
@@ -42,6 +50,17 @@ public class SemanticTokensDataStreamProcessor {
 	 */
 	public SemanticTokensDataStreamProcessor(final Function<String, @Nullable IToken> tokenTypeMapper,
 			final Function<Position, Integer> offsetMapper) {
+		this(tokenTypeMapper, (line, character) -> offsetMapper.apply(new Position(line, character)));
+	}
+
+	/**
+	 * Creates a new instance of {@link SemanticTokensDataStreamProcessor}.
+	 *
+	 * @param tokenTypeMapper
+	 * @param offsetMapper
+	 */
+	public SemanticTokensDataStreamProcessor(final Function<String, @Nullable IToken> tokenTypeMapper,
+			final OffsetMapper offsetMapper) {
 		this.tokenTypeMapper = tokenTypeMapper;
 		this.offsetMapper = offsetMapper;
 	}
@@ -54,77 +73,159 @@ public SemanticTokensDataStreamProcessor(final Function<String, @Nullable IToken
 	 */
 	public List<StyleRange> getStyleRanges(final List<Integer> dataStream,
 			final SemanticTokensLegend semanticTokensLegend) {
-		final var styleRanges = new ArrayList<StyleRange>(dataStream.size() / 5);
+		return getStyleRanges(dataStream, semanticTokensLegend, true);
+	}
+
+	/**
+	 * Get the StyleRanges for the given data stream and tokens legend.
+	 *
+	 * @param dataStream
+	 * @param semanticTokensLegend
+	 * @param utf16Columns
+	 *            whether the token columns and lengths are UTF-16 code units,
+	 *            otherwise every token start and end is converted with the offset
+	 *            mapper
+	 */
+	public List<StyleRange> getStyleRanges(final List<Integer> dataStream,
+			final SemanticTokensLegend semanticTokensLegend, final boolean utf16Columns) {
+		return decode(toIntArray(dataStream), semanticTokensLegend, utf16Columns).toStyleRanges();
+	}
+
+	/**
+	 * Decodes the given data stream into a compact token store, without creating
+	 * objects per token.
+	 *
+	 * @param data
+	 *            the relative encoded tokens
+	 * @param semanticTokensLegend
+	 * @param utf16Columns
+	 *            whether the token columns and lengths are UTF-16 code units,
+	 *            otherwise every token start and end is converted with the offset
+	 *            mapper
+	 */
+	public SemanticTokensStore decode(final int[] data, final SemanticTokensLegend semanticTokensLegend,
+			final boolean utf16Columns) {
+		final List<String> tokenTypes = semanticTokensLegend.getTokenTypes();
+		final int unknownType = tokenTypes.size();
+		final int deprecatedMask = modifierMask(SemanticTokenModifiers.Deprecated,
+				semanticTokensLegend.getTokenModifiers());
+		final @Nullable StyleRange[] styles = styleTable(tokenTypes);
+		final var store = new SemanticTokensStore(styles, data.length / 5);
 
-		int idx = 0;
-		int prevLine = 0;
 		int line = 0;
+		int character = 0;
 		int offset = 0;
-		int length = 0;
-		String tokenType = null;
-		for (Integer data : dataStream) {
-			switch (idx % 5) {
-			case 0: // line
-				line += data;
-				break;
-			case 1: // offset
-				if (line == prevLine) {
-					offset += data;
-				} else {
-					offset = offsetMapper.apply(new Position(line, data));
-				}
-				break;
-			case 2: // length
-				length = data;
-				break;
-			case 3: // token type
-				tokenType = tokenType(data, semanticTokensLegend.getTokenTypes());
-				break;
-			case 4: // token modifier
-				prevLine = line;
-				List<String> tokenModifiers = tokenModifiers(data, semanticTokensLegend.getTokenModifiers());
-				StyleRange styleRange = getStyleRange(offset, length, textAttribute(tokenType));
-				if (tokenModifiers.stream().anyMatch(x -> x.equals(SemanticTokenModifiers.Deprecated))) {
-					if (styleRange == null) {
-						styleRange = new StyleRange();
-						styleRange.start = offset;
-						styleRange.length = length;
-					}
-					StyleUtil.DEPRECATE.applyStyles(styleRange);
-				}
-				if (styleRange != null) {
-					styleRanges.add(styleRange);
-				}
-				break;
+		for (int i = 0; i + 4 < data.length; i += 5) {
+			final int deltaLine = data[i];
+			final int deltaStart = data[i + 1];
+			final int length = data[i + 2];
+			final int tokenType = data[i + 3];
+			final int tokenModifiers = data[i + 4];
+			if (i == 0 || deltaLine != 0) {
+				line += deltaLine;
+				character = deltaStart;
+				offset = offsetMapper.toOffset(line, character);
+			} else {
+				character += deltaStart;
+				offset = utf16Columns ? offset + deltaStart : offsetMapper.toOffset(line, character);
+			}
+			final int styleIndex = 2 * (tokenType >= 0 && tokenType < unknownType ? tokenType : unknownType)
+					+ ((tokenModifiers & deprecatedMask) != 0 ? 1 : 0);
+			if (styles[styleIndex] != null) {
+				store.add(offset, utf16Columns ? length : offsetMapper.toOffset(line, character + length) - offset,
+						styleIndex);
 			}
-			idx++;
 		}
-		return styleRanges;
+		// offsets of columns beyond the line ends are clamped and may thus go backwards
+		store.sort();
+		return store;
 	}
 
-	private @Nullable String tokenType(final Integer data, final List<String> legend) {
-		try {
-			return legend.get(data);
-		} catch (IndexOutOfBoundsException e) {
-			return null; // no match
+	/**
+	 * @return the given boxed data stream as a primitive array
+	 */
+	public static int[] toIntArray(final List<Integer> dataStream) {
+		final var data = new int[dataStream.size()];
+		int i = 0;
+		for (final Integer value : dataStream) {
+			data[i++] = value;
 		}
+		return data;
 	}
 
-	private List<String> tokenModifiers(final Integer data, final List<String> legend) {
-		if (data.intValue() == 0) {
-			return Collections.emptyList();
+	/**
+	 * Applies the edits of a semantic tokens delta response to the data stream of
+	 * the previous response. The edits refer to the previous data stream and must
+	 * not overlap. If all of them replace as many integers as they remove the
+	 * given array is updated in place, otherwise a new one is returned.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the edits do not fit the given data stream
+	 */
+	public static int[] applyEdits(final int[] data, final List<SemanticTokensEdit> edits) {
+		final var sortedEdits = new ArrayList<>(edits);
+		sortedEdits.sort(Comparator.comparingInt(SemanticTokensEdit::getStart));
+		int newLength = data.length;
+		boolean inPlace = true;
+		int end = 0;
+		for (final SemanticTokensEdit edit : sortedEdits) {
+			if (edit.getStart() < end || edit.getDeleteCount() < 0
+					|| edit.getStart() + edit.getDeleteCount() > data.length) {
+				throw new IllegalArgumentException("Invalid semantic tokens edit at " + edit.getStart()); //$NON-NLS-1$
+			}
+			end = edit.getStart() + edit.getDeleteCount();
+			final int inserted = insertedData(edit).size();
+			newLength += inserted - edit.getDeleteCount();
+			inPlace &= inserted == edit.getDeleteCount();
 		}
-		final var bitSet = BitSet.valueOf(new long[] { data });
-		final var tokenModifiers = new ArrayList<String>();
-		for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
-			try {
-				tokenModifiers.add(legend.get(i));
-			} catch (IndexOutOfBoundsException e) {
-				// no match
+
+		final int[] result = inPlace ? data : new int[newLength];
+		int source = 0;
+		int target = 0;
+		for (final SemanticTokensEdit edit : sortedEdits) {
+			final int unchanged = edit.getStart() - source;
+			if (!inPlace) {
+				System.arraycopy(data, source, result, target, unchanged);
+			}
+			target += unchanged;
+			source = edit.getStart() + edit.getDeleteCount();
+			for (final Integer value : insertedData(edit)) {
+				result[target++] = value;
 			}
 		}
+		if (!inPlace) {
+			System.arraycopy(data, source, result, target, data.length - source);
+		}
+		return result;
+	}
+
+	private static List<Integer> insertedData(final SemanticTokensEdit edit) {
+		final List<Integer> data = edit.getData();
+		return data != null ? data : List.of();
+	}
+
+	private static int modifierMask(final String modifier, final List<String> legend) {
+		final int index = legend.indexOf(modifier);
+		return index >= 0 && index < Integer.SIZE ? 1 << index : 0;
+	}
 
-		return tokenModifiers;
+	/**
+	 * @return the styles of the token types resolved once per stream, at
+	 *         <code>2 * tokenType</code> without and at
+	 *         <code>2 * tokenType + 1</code> with the deprecated modifier. The
+	 *         last two entries are for token types missing in the legend.
+	 */
+	private @Nullable StyleRange[] styleTable(final List<String> tokenTypes) {
+		final var styles = new @Nullable StyleRange[2 * (tokenTypes.size() + 1)];
+		for (int type = 0; type <= tokenTypes.size(); type++) {
+			final StyleRange style = type < tokenTypes.size() ? getStyleRange(textAttribute(tokenTypes.get(type)))
+					: null;
+			styles[2 * type] = style;
+			final var deprecatedStyle = style != null ? (StyleRange) style.clone() : new StyleRange();
+			StyleUtil.DEPRECATE.applyStyles(deprecatedStyle);
+			styles[2 * type + 1] = deprecatedStyle;
+		}
+		return styles;
 	}
 
 	private @Nullable TextAttribute textAttribute(final @Nullable String tokenType) {
@@ -141,20 +242,16 @@ private List<String> tokenModifiers(final Integer data, final List<String> legen
 	}
 
 	/**
-	 * Gets a style range for the given inputs.
+	 * Gets a style range for the given attribute, with start and length 0.
 	 *
-	 * @param offset
-	 *            the offset of the range to be styled
-	 * @param length
-	 *            the length of the range to be styled
 	 * @param attr
 	 *            the attribute describing the style of the range to be styled
 	 */
-	private @Nullable StyleRange getStyleRange(final int offset, final int length, final @Nullable TextAttribute attr) {
+	private @Nullable StyleRange getStyleRange(final @Nullable TextAttribute attr) {
 		if (attr != null) {
 			final int style = attr.getStyle();
 			final int fontStyle = style & (SWT.ITALIC | SWT.BOLD | SWT.NORMAL);
-			final var styleRange = new StyleRange(offset, length, attr.getForeground(), attr.getBackground(), fontStyle);
+			final var styleRange = new StyleRange(0, 0, attr.getForeground(), attr.getBackground(), fontStyle);
 			styleRange.strikeout = (style & TextAttribute.STRIKETHROUGH) != 0;
 			styleRange.underline = (style & TextAttribute.UNDERLINE) != 0;
 			styleRange.font = attr.getFont();
@@ -162,4 +259,4 @@ private List<String> tokenModifiers(final Integer data, final List<String> legen
 		}
 		return null;
 	}
-}
\ No newline at end of file
+}
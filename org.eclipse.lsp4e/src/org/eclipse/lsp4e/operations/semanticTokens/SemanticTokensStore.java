@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.semanticTokens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.TextUtilities;
+import org.eclipse.swt.custom.StyleRange;
+
+/**
+ * Semantic tokens resolved to document offsets, stored in parallel arrays
+ * sorted by offset. Each token refers to one of a few shared style templates,
+ * {@link StyleRange}s are only created for the tokens overlapping a presented
+ * region.
+ * <p>
+ * Instances are not thread safe, see {@link StyleRangeHolder}.
+ */
+public final class SemanticTokensStore {
+
+	private final @Nullable StyleRange[] styles;
+	private int[] starts;
+	private int[] lengths;
+	private int[] styleIndexes;
+	private int size;
+	private int maxLength;
+	private boolean sorted = true;
+
+	/**
+	 * @param styles
+	 *            the style templates the tokens refer to by index, only their
+	 *            style attributes are used
+	 */
+	SemanticTokensStore(final @Nullable StyleRange[] styles, final int capacity) {
+		this.styles = styles;
+		this.starts = new int[capacity];
+		this.lengths = new int[capacity];
+		this.styleIndexes = new int[capacity];
+	}
+
+	/**
+	 * @return a store holding copies of the style attributes of the given style
+	 *         ranges
+	 */
+	public static SemanticTokensStore of(final List<StyleRange> styleRanges) {
+		final var sorted = new ArrayList<>(styleRanges);
+		sorted.sort(Comparator.comparingInt(s -> s.start));
+		final var store = new SemanticTokensStore(sorted.toArray(StyleRange[]::new), sorted.size());
+		for (int i = 0; i < sorted.size(); i++) {
+			final StyleRange styleRange = sorted.get(i);
+			store.add(styleRange.start, styleRange.length, i);
+		}
+		return store;
+	}
+
+	/**
+	 * Appends a token. Tokens are expected to be added by ascending offset,
+	 * {@link #sort()} has to be called otherwise.
+	 */
+	void add(final int start, final int length, final int styleIndex) {
+		if (size == starts.length) {
+			final int capacity = Math.max(16, size + (size >> 1));
+			starts = Arrays.copyOf(starts, capacity);
+			lengths = Arrays.copyOf(lengths, capacity);
+			styleIndexes = Arrays.copyOf(styleIndexes, capacity);
+		}
+		starts[size] = start;
+		lengths[size] = length;
+		styleIndexes[size] = styleIndex;
+		maxLength = Math.max(maxLength, length);
+		if (size > 0 && start < starts[size - 1]) {
+			sorted = false;
+		}
+		size++;
+	}
+
+	/**
+	 * Sorts the tokens by offset, if they were not added in that order.
+	 */
+	void sort() {
+		if (sorted) {
+			return;
+		}
+		final Integer[] order = new Integer[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.comparingInt(i -> starts[i]));
+		final var sortedStarts = new int[size];
+		final var sortedLengths = new int[size];
+		final var sortedStyleIndexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			sortedStarts[i] = starts[order[i]];
+			sortedLengths[i] = lengths[order[i]];
+			sortedStyleIndexes[i] = styleIndexes[order[i]];
+		}
+		starts = sortedStarts;
+		lengths = sortedLengths;
+		styleIndexes = sortedStyleIndexes;
+		sorted = true;
+	}
+
+	/**
+	 * @return a new store with the tokens of this store outside of the given
+	 *         region, and the tokens of the given store inside of it
+	 */
+	SemanticTokensStore replaceRegion(final IRegion region, final SemanticTokensStore tokens) {
+		final int regionEnd = region.getOffset() + region.getLength();
+		final @Nullable StyleRange[] mergedStyles = Arrays.copyOf(styles, styles.length + tokens.styles.length);
+		System.arraycopy(tokens.styles, 0, mergedStyles, styles.length, tokens.styles.length);
+		final var merged = new SemanticTokensStore(mergedStyles, size + tokens.size);
+		for (int i = 0; i < size; i++) {
+			if (!TextUtilities.overlaps(region, new Region(starts[i], lengths[i]))) {
+				merged.add(starts[i], lengths[i], styleIndexes[i]);
+			}
+		}
+		for (int i = 0; i < tokens.size; i++) {
+			final int start = tokens.starts[i];
+			if (start >= region.getOffset() && start + tokens.lengths[i] <= regionEnd) {
+				merged.add(start, tokens.lengths[i], styles.length + tokens.styleIndexes[i]);
+			}
+		}
+		merged.sort();
+		return merged;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return new style ranges for the tokens overlapping the given region. As
+	 *         the presentation may modify them, only the colors, the font style
+	 *         and the strikeout of the style templates are copied.
+	 */
+	public StyleRange[] overlappingRanges(final IRegion region) {
+		final int regionEnd = region.getOffset() + region.getLength();
+		// no token starting before this one can reach the region
+		int i = firstStartingAtOrAfter(region.getOffset() - maxLength);
+		final var result = new ArrayList<StyleRange>();
+		for (; i < size && starts[i] <= regionEnd; i++) {
+			if (TextUtilities.overlaps(region, new Region(starts[i], lengths[i]))) {
+				final StyleRange style = getStyle(i);
+				final var styleRange = new StyleRange(starts[i], lengths[i], style.foreground, style.background,
+						style.fontStyle);
+				styleRange.strikeout = style.strikeout;
+				result.add(styleRange);
+			}
+		}
+		return result.toArray(StyleRange[]::new);
+	}
+
+	/**
+	 * @return new style ranges with all the style attributes of the templates,
+	 *         for all tokens
+	 */
+	public List<StyleRange> toStyleRanges() {
+		final var styleRanges = new ArrayList<StyleRange>(size);
+		for (int i = 0; i < size; i++) {
+			final var styleRange = (StyleRange) getStyle(i).clone();
+			styleRange.start = starts[i];
+			styleRange.length = lengths[i];
+			styleRanges.add(styleRange);
+		}
+		return styleRanges;
+	}
+
+	private StyleRange getStyle(final int index) {
+		final StyleRange style = styles[styleIndexes[index]];
+		if (style == null) {
+			throw new IllegalStateException("No style for token " + index); //$NON-NLS-1$
+		}
+		return style;
+	}
+
+	private int firstStartingAtOrAfter(final int offset) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (starts[mid] < offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Adapts the tokens to a document change: tokens touched by the replaced text
+	 * are removed, the following ones are shifted.
+	 */
+	void textChanged(final int offset, final int replacedLength, final int delta) {
+		final int replacedEnd = offset + replacedLength;
+		// tokens ending before the offset are left as they are
+		int kept = firstStartingAtOrAfter(offset - maxLength);
+		for (int i = kept; i < size; i++) {
+			final int start = starts[i];
+			final boolean containsOffset = start <= offset && offset < start + lengths[i];
+			final boolean replaced = start >= offset && start < replacedEnd;
+			if (containsOffset || replaced) {
+				continue;
+			}
+			starts[kept] = start >= offset ? start + delta : start;
+			lengths[kept] = lengths[i];
+			styleIndexes[kept] = styleIndexes[i];
+			kept++;
+		}
+		size = kept;
+	}
+}
@@ -9,19 +9,16 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.operations.semanticTokens;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextListener;
-import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextEvent;
-import org.eclipse.jface.text.TextUtilities;
 import org.eclipse.swt.custom.StyleRange;
 
 /**
- * The Class SemanticTokensDataStreamProcessor holds a list of StyleRanges.
+ * The Class StyleRangeHolder holds the semantic tokens of a document in a
+ * {@link SemanticTokensStore} and creates StyleRanges for presented regions.
  * <p>
  * To avoid flickering, we also implement {@link ITextListener} to adapt (the
  * only adaptation currently supported shifting ranges) recorded semantic
@@ -31,10 +28,10 @@
  * (still unclear on how to do that).
  */
 public class StyleRangeHolder implements ITextListener {
-	private final List<StyleRange> previousRanges;
+	private SemanticTokensStore previousTokens;
 
 	public StyleRangeHolder() {
-		previousRanges = new ArrayList<>();
+		previousTokens = SemanticTokensStore.of(List.of());
 	}
 
 	/**
@@ -43,10 +40,30 @@ public StyleRangeHolder() {
 	 * @param styleRanges
 	 */
 	public void saveStyles(final List<StyleRange> styleRanges) {
-		synchronized (previousRanges) {
-			previousRanges.clear();
-			previousRanges.addAll(styleRanges);
-			previousRanges.sort(Comparator.comparing(s -> s.start));
+		saveTokens(SemanticTokensStore.of(styleRanges));
+	}
+
+	/**
+	 * save the decoded tokens, the holder takes ownership of the store.
+	 *
+	 * @param tokens
+	 */
+	public void saveTokens(final SemanticTokensStore tokens) {
+		synchronized (this) {
+			previousTokens = tokens;
+		}
+	}
+
+	/**
+	 * save the decoded tokens of the given region only, the styles saved for the
+	 * rest of the document are kept.
+	 *
+	 * @param tokens
+	 * @param region
+	 */
+	public void saveTokens(final SemanticTokensStore tokens, final IRegion region) {
+		synchronized (this) {
+			previousTokens = previousTokens.replaceRegion(region, tokens);
 		}
 	}
 
@@ -56,36 +73,23 @@ public void saveStyles(final List<StyleRange> styleRanges) {
 	 * @param region
 	 */
 	public StyleRange[] overlappingRanges(final IRegion region) {
-		synchronized (previousRanges) {
+		synchronized (this) {
 			// we need to create new styles because the text presentation might change a
 			// style when applied to the presentation
 			// and we want the ones saved from the reconciling as immutable
-			return previousRanges.stream()//
-					.filter(r -> TextUtilities.overlaps(region, new Region(r.start, r.length)))//
-					.map(this::clone).toArray(StyleRange[]::new);
+			return previousTokens.overlappingRanges(region);
 		}
 	}
 
-	private StyleRange clone(final StyleRange styleRange) {
-		final var clonedStyleRange = new StyleRange(styleRange.start, styleRange.length, styleRange.foreground,
-				styleRange.background, styleRange.fontStyle);
-		clonedStyleRange.strikeout = styleRange.strikeout;
-		return clonedStyleRange;
-	}
-
-	private boolean isContained(final int offset, final IRegion region) {
-		return offset >= region.getOffset() && offset < (region.getOffset() + region.getLength());
-	}
-
 	@Override
 	public void textChanged(final TextEvent event) {
 		if (event.getDocumentEvent() != null) { // if null, it is an internal event, not a changed text
 			String replacedText = event.getReplacedText();
 			String text = event.getText();
-			int delta = (text != null ? text.length() : 0) - (replacedText != null ? replacedText.length() : 0);
-			synchronized (previousRanges) {
-				previousRanges.removeIf(r -> isContained(event.getOffset(), new Region(r.start, r.length)));
-				previousRanges.stream().filter(r -> r.start >= event.getOffset()).forEach(r -> r.start += delta);
+			int replacedLength = replacedText != null ? replacedText.length() : 0;
+			int delta = (text != null ? text.length() : 0) - replacedLength;
+			synchronized (this) {
+				previousTokens.textChanged(event.getOffset(), replacedLength, delta);
 			}
 		}
 	}
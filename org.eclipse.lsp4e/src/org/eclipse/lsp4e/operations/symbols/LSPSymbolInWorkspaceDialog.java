@@ -45,7 +45,6 @@
 import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.SymbolTag;
 import org.eclipse.lsp4j.WorkspaceSymbol;
-import org.eclipse.lsp4j.WorkspaceSymbolParams;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
@@ -120,7 +119,9 @@ public boolean isSubFilter(@Nullable ItemsFilter filter) {
 
 	private final IProject project;
 
-	private @Nullable List<CompletableFuture<@Nullable Either<List<? extends SymbolInformation>, List<? extends WorkspaceSymbol>>>> request;
+	private final WorkspaceSymbolsSession session = new WorkspaceSymbolsSession();
+
+	private @Nullable List<CompletableFuture<@Nullable List<WorkspaceSymbol>>> request;
 
 	public LSPSymbolInWorkspaceDialog(Shell shell, IProject project, BoldStylerProvider stylerProvider) {
 		super(shell);
@@ -144,23 +145,23 @@ protected void fillContentProvider(AbstractContentProvider contentProvider, Item
 		if (request != null) {
 			request.forEach(f -> f.cancel(true));
 		}
-		if (itemsFilter.getPattern().isEmpty()) {
+		final String pattern = itemsFilter.getPattern();
+		if (pattern.isEmpty() || !session.canFilter(pattern) && !WorkspaceSymbolsSession.debounce(monitor)) {
 			return;
 		}
-		final var params = new WorkspaceSymbolParams(itemsFilter.getPattern());
-		request = LanguageServers.forProject(project) //
+		final var request = this.request = LanguageServers.forProject(project) //
 				.withCapability(ServerCapabilities::getWorkspaceSymbolProvider) //
-				.computeAll((w, ls) -> ls.getWorkspaceService().symbol(params));
-		request.stream().map((
-				CompletableFuture<@Nullable Either<List<? extends SymbolInformation>, List<@Nullable ? extends WorkspaceSymbol>>> f) -> f
-						.thenApply(LSPSymbolInWorkspaceDialog::eitherToWorkspaceSymbols))
-				.forEach(cf -> {
+				.computeAll((w, ls) -> session.symbols(w, ls, pattern));
+		request.forEach(cf -> {
 					if (monitor.isCanceled()) {
 						return;
 					}
 					try {
-						for (Object item : cf.get(1, TimeUnit.SECONDS)) {
-							contentProvider.add(item, itemsFilter);
+						final List<WorkspaceSymbol> symbols = cf.get(1, TimeUnit.SECONDS);
+						if (symbols != null) {
+							for (Object item : symbols) {
+								contentProvider.add(item, itemsFilter);
+							}
 						}
 					} catch (ExecutionException e) {
 						LanguageServerPlugin.logError(e);
@@ -175,6 +176,14 @@ protected void fillContentProvider(AbstractContentProvider contentProvider, Item
 				});
 	}
 
+	/**
+	 * @return the given symbol, resolved by its language server if it has no
+	 *         range yet
+	 */
+	CompletableFuture<WorkspaceSymbol> resolve(WorkspaceSymbol symbol) {
+		return session.resolve(symbol);
+	}
+
 	@Override
 	public String getElementName(Object item) {
 		return ((WorkspaceSymbol) item).getName();
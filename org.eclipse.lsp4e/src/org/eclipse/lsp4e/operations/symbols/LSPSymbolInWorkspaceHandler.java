@@ -24,6 +24,7 @@
 import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.LanguageServers.LanguageServerProjectExecutor;
 import org.eclipse.lsp4e.internal.LSPDocumentAbstractHandler;
+import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.ServerCapabilities;
 import org.eclipse.lsp4j.WorkspaceSymbol;
 import org.eclipse.ui.IEditorPart;
@@ -67,12 +68,15 @@ public class LSPSymbolInWorkspaceHandler extends LSPDocumentAbstractHandler {
 			return null;
 		}
 		if(dialog.getFirstResult() instanceof WorkspaceSymbol wsSymbol) {
-			final var symbolInformation = wsSymbol.getLocation();
-			if (symbolInformation.isLeft()) {
-				LSPEclipseUtils.openInEditor(symbolInformation.getLeft());
-			} else if (symbolInformation.isRight()) {
-				LSPEclipseUtils.open(symbolInformation.getRight().getUri(), null);
-			}
+			// the range of the symbol may only be resolved now that it is opened
+			dialog.resolve(wsSymbol).thenAccept(resolved -> UI.getDisplay().asyncExec(() -> {
+				final var symbolInformation = resolved.getLocation();
+				if (symbolInformation.isLeft()) {
+					LSPEclipseUtils.openInEditor(symbolInformation.getLeft());
+				} else if (symbolInformation.isRight()) {
+					LSPEclipseUtils.open(symbolInformation.getRight().getUri(), null);
+				}
+			}));
 		}
 
 		return null;
@@ -12,11 +12,14 @@
 package org.eclipse.lsp4e.operations.symbols;
 
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.outline.SymbolsLabelProvider;
+import org.eclipse.lsp4e.ui.UI;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.WorkspaceSymbol;
@@ -29,10 +32,22 @@ public class WorkspaceSymbolQuickAccessElement extends QuickAccessElement {
 	private static final Random randomNumbers = new Random();
 
 	private final WorkspaceSymbol symbol;
+	private final Function<WorkspaceSymbol, CompletableFuture<WorkspaceSymbol>> resolver;
 	private final int idExtension;
 
 	public WorkspaceSymbolQuickAccessElement(WorkspaceSymbol symbol) {
+		this(symbol, CompletableFuture::completedFuture);
+	}
+
+	/**
+	 * @param resolver
+	 *            resolves the location range of the symbol when it is opened, if
+	 *            it only has a URI
+	 */
+	WorkspaceSymbolQuickAccessElement(WorkspaceSymbol symbol,
+			Function<WorkspaceSymbol, CompletableFuture<WorkspaceSymbol>> resolver) {
 		this.symbol = symbol;
+		this.resolver = resolver;
 
 		// this random number id extension is a workaround for
 		// https://bugs.eclipse.org/bugs/show_bug.cgi?id=550835
@@ -65,6 +80,15 @@ public String getId() {
 
 	@Override
 	public void execute() {
+		final CompletableFuture<WorkspaceSymbol> resolved = resolver.apply(symbol);
+		if (resolved.isDone()) {
+			open(resolved.getNow(symbol));
+		} else {
+			resolved.thenAccept(resolvedSymbol -> UI.getDisplay().asyncExec(() -> open(resolvedSymbol)));
+		}
+	}
+
+	private static void open(WorkspaceSymbol symbol) {
 		String locationUri = symbol.getLocation().map(Location::getUri, WorkspaceSymbolLocation::getUri);
 		@Nullable Range range = symbol.getLocation().map(Location::getRange, s -> null);
 		LSPEclipseUtils.open(locationUri, range);
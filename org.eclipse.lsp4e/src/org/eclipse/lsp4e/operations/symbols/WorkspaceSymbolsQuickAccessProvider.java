@@ -25,10 +25,7 @@
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
-import org.eclipse.lsp4j.SymbolInformation;
 import org.eclipse.lsp4j.WorkspaceSymbol;
-import org.eclipse.lsp4j.WorkspaceSymbolParams;
-import org.eclipse.lsp4j.jsonrpc.messages.Either;
 import org.eclipse.ui.quickaccess.IQuickAccessComputer;
 import org.eclipse.ui.quickaccess.IQuickAccessComputerExtension;
 import org.eclipse.ui.quickaccess.QuickAccessElement;
@@ -39,6 +36,8 @@ public class WorkspaceSymbolsQuickAccessProvider implements IQuickAccessComputer
 
 	private @Nullable List<LanguageServerWrapper> usedLanguageServerWrappers;
 
+	private final WorkspaceSymbolsSession session = new WorkspaceSymbolsSession();
+
 	@Override
 	public QuickAccessElement[] computeElements() {
 		return NO_QUICK_ACCESS_ELEMENTS;
@@ -46,6 +45,7 @@ public QuickAccessElement[] computeElements() {
 
 	@Override
 	public void resetState() {
+		session.clear();
 	}
 
 	@Override
@@ -62,17 +62,19 @@ public QuickAccessElement[] computeElements(String query, IProgressMonitor monit
 		if (usedLanguageServerWrappers.isEmpty()) {
 			return NO_QUICK_ACCESS_ELEMENTS;
 		}
-		final var params = new WorkspaceSymbolParams(query);
+		if (!session.canFilter(query) && !WorkspaceSymbolsSession.debounce(monitor)) {
+			return NO_QUICK_ACCESS_ELEMENTS;
+		}
 		final var res = Collections.synchronizedList(new ArrayList<QuickAccessElement>());
 
 		try {
 			CompletableFuture.allOf(usedLanguageServerWrappers.stream()
-					.map(w -> w.execute(ls -> ls.getWorkspaceService().symbol(params).thenAcceptAsync((@Nullable Either<List<? extends SymbolInformation>, List<@Nullable ? extends WorkspaceSymbol>> symbols) -> {
+					.map(w -> w.execute(ls -> session.symbols(w, ls, query)).thenAccept((@Nullable List<WorkspaceSymbol> symbols) -> {
 						if (symbols != null) {
-							res.addAll(LSPSymbolInWorkspaceDialog.eitherToWorkspaceSymbols(symbols).stream().map(WorkspaceSymbolQuickAccessElement::new)
+							res.addAll(symbols.stream().map(symbol -> new WorkspaceSymbolQuickAccessElement(symbol, session::resolve))
 									.toList());
 						}
-					}))).toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
+					})).toArray(CompletableFuture[]::new)).get(1, TimeUnit.SECONDS);
 		}
 		catch (ExecutionException | InterruptedException e) {
 			LanguageServerPlugin.logError(e);
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2024 Contributors to the Eclipse Foundation.
+ * This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License 2.0
+ * which is available at https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+package org.eclipse.lsp4e.operations.symbols;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4j.ServerCapabilities;
+import org.eclipse.lsp4j.WorkspaceSymbol;
+import org.eclipse.lsp4j.WorkspaceSymbolOptions;
+import org.eclipse.lsp4j.WorkspaceSymbolParams;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.services.LanguageServer;
+
+/**
+ * Workspace symbol queries typed by the user in one dialog or quick access
+ * session. The last result of each language server is kept, so that the
+ * symbols for a query extending the previous one are filtered on the client
+ * instead of being requested again. Symbols without a range are resolved when
+ * they are opened.
+ */
+final class WorkspaceSymbolsSession {
+
+	/** Delay before a query is sent, so that one request is sent while typing */
+	static final long DEBOUNCE_DELAY_MS = 150;
+
+	/**
+	 * Servers commonly cap the number of returned symbols, a result with at least
+	 * as many symbols may be incomplete and is not filtered for other queries
+	 */
+	private static final int MAX_FILTERED_RESULT_SIZE = 50;
+
+	private record Result(String lowerCaseQuery, List<WorkspaceSymbol> symbols) {
+	}
+
+	private final Map<LanguageServerWrapper, Result> results = new ConcurrentHashMap<>();
+	/** Servers queried so far, some of which may have no result yet, e.g. if their request failed */
+	private final Set<LanguageServerWrapper> queriedServers = ConcurrentHashMap.newKeySet();
+	/** Servers the symbols of the last results come from, to resolve them */
+	private final Map<WorkspaceSymbol, LanguageServerWrapper> origins = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the symbols of the given server matching the given query, filtered
+	 *         from the last result of the server if possible
+	 */
+	CompletableFuture<List<WorkspaceSymbol>> symbols(LanguageServerWrapper wrapper, LanguageServer languageServer,
+			String query) {
+		final String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+		queriedServers.add(wrapper);
+		final Result result = results.get(wrapper);
+		if (result != null && canFilter(result, lowerCaseQuery)) {
+			return CompletableFuture.completedFuture(result.symbols().stream() //
+					.filter(symbol -> matches(symbol.getName(), lowerCaseQuery)) //
+					.toList());
+		}
+		final var request = languageServer.getWorkspaceService().symbol(new WorkspaceSymbolParams(query));
+		final CompletableFuture<List<WorkspaceSymbol>> symbols = request.thenApply(either -> {
+			final List<WorkspaceSymbol> newSymbols = List.copyOf(LSPSymbolInWorkspaceDialog.eitherToWorkspaceSymbols(either));
+			final Result previous = results.put(wrapper, new Result(lowerCaseQuery, newSymbols));
+			if (previous != null) {
+				previous.symbols().forEach(origins::remove);
+			}
+			newSymbols.forEach(symbol -> origins.put(symbol, wrapper));
+			return newSymbols;
+		});
+		symbols.exceptionally(t -> {
+			if (t instanceof CancellationException) {
+				request.cancel(true);
+			}
+			return null;
+		});
+		return symbols;
+	}
+
+	/**
+	 * @return whether the symbols of all the servers queried so far can be
+	 *         filtered for the given query, without sending requests, which
+	 *         requires a result of each of them
+	 */
+	boolean canFilter(String query) {
+		final String lowerCaseQuery = query.toLowerCase(Locale.ROOT);
+		return !queriedServers.isEmpty() && queriedServers.stream().allMatch(wrapper -> {
+			final Result result = results.get(wrapper);
+			return result != null && canFilter(result, lowerCaseQuery);
+		});
+	}
+
+	private static boolean canFilter(Result result, String lowerCaseQuery) {
+		return !result.lowerCaseQuery().isEmpty() && lowerCaseQuery.startsWith(result.lowerCaseQuery())
+				&& result.symbols().size() < MAX_FILTERED_RESULT_SIZE;
+	}
+
+	/**
+	 * @return whether the characters of the given query appear in the given name
+	 *         in the same order, ignoring case
+	 */
+	static boolean matches(String name, String lowerCaseQuery) {
+		int matched = 0;
+		for (int i = 0; i < name.length() && matched < lowerCaseQuery.length(); i++) {
+			if (Character.toLowerCase(name.charAt(i)) == lowerCaseQuery.charAt(matched)) {
+				matched++;
+			}
+		}
+		return matched == lowerCaseQuery.length();
+	}
+
+	/**
+	 * Waits for the debounce delay, so that no request is sent for a query which
+	 * is replaced while typing.
+	 *
+	 * @return <code>false</code> if the given monitor was cancelled in the
+	 *         meantime
+	 */
+	static boolean debounce(IProgressMonitor monitor) {
+		try {
+			for (long waited = 0; waited < DEBOUNCE_DELAY_MS && !monitor.isCanceled(); waited += 25) {
+				Thread.sleep(25);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return !monitor.isCanceled();
+	}
+
+	/**
+	 * @return the given symbol with its location range resolved by its server if
+	 *         it only has a URI, or the given symbol
+	 */
+	CompletableFuture<WorkspaceSymbol> resolve(WorkspaceSymbol symbol) {
+		final LanguageServerWrapper wrapper = origins.get(symbol);
+		if (symbol.getLocation().isLeft() || wrapper == null || !hasResolveProvider(wrapper.getServerCapabilities())) {
+			return CompletableFuture.completedFuture(symbol);
+		}
+		return wrapper.execute(ls -> ls.getWorkspaceService().resolveWorkspaceSymbol(symbol))
+				.handle((resolved, error) -> resolved != null ? resolved : symbol);
+	}
+
+	private static boolean hasResolveProvider(@Nullable ServerCapabilities capabilities) {
+		final Either<Boolean, WorkspaceSymbolOptions> provider = capabilities == null ? null
+				: capabilities.getWorkspaceSymbolProvider();
+		return provider != null && provider.isRight() && Boolean.TRUE.equals(provider.getRight().getResolveProvider());
+	}
+
+	void clear() {
+		results.clear();
+		origins.clear();
+		queriedServers.clear();
+	}
+}
@@ -55,6 +55,7 @@
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
 import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4e.LanguageServers;
 import org.eclipse.lsp4e.internal.ArrayUtil;
 import org.eclipse.lsp4e.internal.CancellationUtil;
 import org.eclipse.lsp4e.outline.SymbolsModel.DocumentSymbolWithURI;
@@ -383,7 +384,10 @@ protected void refreshTreeContentFromLS() {
 		}
 
 		final var params = new DocumentSymbolParams(LSPEclipseUtils.toTextDocumentIdentifier(documentURI));
-		final var symbols = this.symbols = outlineViewerInput.wrapper.execute(ls -> ls.getTextDocumentService().documentSymbol(params));
+		final LanguageServerWrapper wrapper = outlineViewerInput.wrapper;
+		final var symbols = this.symbols = wrapper.execute(ls -> LanguageServers.forDocument(outlineViewerInput.document)
+				.cached(wrapper, "textDocument/documentSymbol", params, //$NON-NLS-1$
+						() -> ls.getTextDocumentService().documentSymbol(params)));
 		symbols.thenAcceptAsync(response -> {
 			symbolsModel.update(response);
 			lastError = null;
@@ -33,6 +33,8 @@
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.lsp4e.LSPEclipseUtils;
 import org.eclipse.lsp4e.LanguageServerPlugin;
+import org.eclipse.lsp4e.LanguageServerWrapper;
+import org.eclipse.lsp4j.Position;
 import org.eclipse.lsp4j.Range;
 import org.eclipse.lsp4j.TextEdit;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
@@ -56,12 +58,23 @@ public class LSPTextChange extends TextChange {
 	private @Nullable ITextFileBuffer fBuffer;
 	private String newText;
 	private @Nullable Range range;
+	private final @Nullable LanguageServerWrapper wrapper;
 
 	public LSPTextChange(String name, URI fileUri, TextEdit textEdit) {
+		this(name, fileUri, textEdit, null);
+	}
+
+	/**
+	 * @param wrapper
+	 *            the language server which sent the edit, whose position encoding
+	 *            is used to convert its range, <code>null</code> if unknown
+	 */
+	public LSPTextChange(String name, URI fileUri, TextEdit textEdit, @Nullable LanguageServerWrapper wrapper) {
 		super(name);
 		this.fileUri = fileUri;
 		this.newText = textEdit.getNewText();
 		this.range = textEdit.getRange();
+		this.wrapper = wrapper;
 	}
 
 	public LSPTextChange(String name, URI fileUri, String newText) {
@@ -69,6 +82,13 @@ public LSPTextChange(String name, URI fileUri, String newText) {
 		this.fileUri = fileUri;
 		this.newText = newText;
 		this.range = null;
+		this.wrapper = null;
+	}
+
+	private int toOffset(Position position, IDocument document) throws BadLocationException {
+		final var wrapper = this.wrapper;
+		return wrapper != null ? LSPEclipseUtils.toOffset(position, document, wrapper.getPositionEncoding())
+				: LSPEclipseUtils.toOffset(position, document);
 	}
 
 	@Override
@@ -113,8 +133,8 @@ protected IDocument acquireDocument(IProgressMonitor pm) throws CoreException {
 		final var range = this.range;
 		if (range != null && getEdit() == null) {
 			try {
-				offset = LSPEclipseUtils.toOffset(range.getStart(), document);
-				int length = LSPEclipseUtils.toOffset(range.getEnd(), document) - offset;
+				offset = toOffset(range.getStart(), document);
+				int length = toOffset(range.getEnd(), document) - offset;
 				this.setEdit(new ReplaceEdit(offset, length, newText));
 			} catch (BadLocationException e) {
 				// Should not happen
@@ -183,8 +203,8 @@ public RefactoringStatus isValid(IProgressMonitor pm) throws CoreException {
 			int length = document.getLength();
 			final var range = this.range;
 			if (range != null) {
-				offset = LSPEclipseUtils.toOffset(range.getStart(), document);
-				length = LSPEclipseUtils.toOffset(range.getEnd(), document) - offset;
+				offset = toOffset(range.getStart(), document);
+				length = toOffset(range.getEnd(), document) - offset;
 			}
 
 			final TextChange delegate;
@@ -11,10 +11,12 @@
  *******************************************************************************/
 package org.eclipse.lsp4e.ui;
 
+import static org.eclipse.lsp4e.internal.NullSafetyHelper.castNonNull;
 import static org.eclipse.lsp4e.internal.NullSafetyHelper.lateNonNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,11 +29,13 @@
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
+import org.eclipse.jface.viewers.ColumnViewerToolTipSupport;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerCell;
 import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.lsp4e.LanguageServerMetrics.MethodMetrics;
 import org.eclipse.lsp4e.LanguageServerWrapper;
 import org.eclipse.lsp4e.LanguageServiceAccessor;
 import org.eclipse.swt.SWT;
@@ -62,7 +66,26 @@ public class LanguageServersView extends ViewPart {
 	private static final String EMPTY = ""; //$NON-NLS-1$
 	private static final String NOT_AVAILABLE = "n/a"; //$NON-NLS-1$
 
+	/**
+	 * Renders the request metrics of a language server, with the statistics of
+	 * every LSP method as tooltip.
+	 */
+	private abstract static class MetricsLabelProvider extends ColumnLabelProvider {
+		@Override
+		public String getToolTipText(Object element) {
+			final var tooltip = new StringBuilder();
+			for (final MethodMetrics methodMetrics : ((LanguageServerWrapper) element).getMetrics().getMethodMetrics()) {
+				if (!tooltip.isEmpty()) {
+					tooltip.append('\n');
+				}
+				tooltip.append(methodMetrics);
+			}
+			return tooltip.toString();
+		}
+	}
+
 	private TableViewer viewer = lateNonNull();
+	private int firstMetricsColumn = Integer.MAX_VALUE;
 	private @Nullable Job viewerRefreshJob;
 	private final Map<LanguageServerWrapper, ToolBar> actionButtons = new HashMap<>();
 	private final List<ColumnLabelProvider> columnLabelProviders = new ArrayList<>();
@@ -240,10 +263,43 @@ public String getText(Object element) {
 			}
 		});
 
+		firstMetricsColumn = columnLabelProviders.size();
+
+		createColumn("Queued/Pending", 100, new MetricsLabelProvider() { //$NON-NLS-1$
+			@Override
+			public String getText(Object element) {
+				final var metrics = ((LanguageServerWrapper) element).getMetrics();
+				return metrics.getQueueDepth() + "/" + metrics.getPendingRequestCount(); //$NON-NLS-1$
+			}
+		});
+
+		createColumn("Requests", 70, new MetricsLabelProvider() { //$NON-NLS-1$
+			@Override
+			public String getText(Object element) {
+				long count = 0;
+				for (final MethodMetrics methodMetrics : ((LanguageServerWrapper) element).getMetrics().getMethodMetrics()) {
+					count += methodMetrics.getCount();
+				}
+				return Long.toString(count);
+			}
+		});
+
+		createColumn("Slowest Method (avg round-trip)", 250, new MetricsLabelProvider() { //$NON-NLS-1$
+			@Override
+			public String getText(Object element) {
+				final MethodMetrics slowest = ((LanguageServerWrapper) element).getMetrics().getMethodMetrics().stream()
+						.filter(methodMetrics -> methodMetrics.getCompletedCount() > 0)
+						.max(Comparator.comparingDouble(MethodMetrics::getAverageRoundTripMillis)).orElse(null);
+				return slowest == null ? NOT_AVAILABLE
+						: String.format("%s (%.1f ms)", slowest.getMethod(), slowest.getAverageRoundTripMillis()); //$NON-NLS-1$
+			}
+		});
+
 		table.setSortDirection(tableSortDirection == 1 ? SWT.DOWN : SWT.UP);
 		table.setSortColumn(table.getColumn(tableSortColumn));
 
 		viewer.setContentProvider(new ArrayContentProvider());
+		ColumnViewerToolTipSupport.enableFor(viewer);
 
 		initContextMenu();
 
@@ -341,6 +397,22 @@ protected IStatus run(IProgressMonitor monitor) {
 		viewerRefreshJob.schedule();
 	}
 
+	/**
+	 * Updates the metrics columns in place, as refreshing the viewer would
+	 * recreate the action buttons.
+	 */
+	private void updateMetrics() {
+		final Table table = viewer.getTable();
+		if (table.isDisposed()) {
+			return;
+		}
+		for (final TableItem item : table.getItems()) {
+			for (int column = firstMetricsColumn; column < columnLabelProviders.size(); column++) {
+				item.setText(column, castNonNull(columnLabelProviders.get(column).getText(item.getData())));
+			}
+		}
+	}
+
 	@Override
 	public void setFocus() {
 		viewer.getControl().setFocus();
@@ -349,7 +421,9 @@ public void setFocus() {
 	private void updateViewerInput() {
 		final var currentElements = (Object[]) viewer.getInput();
 		final var newElements = LanguageServiceAccessor.getStartedWrappers(capability -> true, true).toArray();
-		if (!Arrays.equals(currentElements, newElements)) {
+		if (Arrays.equals(currentElements, newElements)) {
+			UI.getDisplay().execute(this::updateMetrics);
+		} else {
 			UI.getDisplay().execute(() -> {
 				actionButtons.values().forEach(Widget::dispose);
 				actionButtons.clear();